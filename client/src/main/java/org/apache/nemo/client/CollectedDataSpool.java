@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.client;
+
+import com.google.protobuf.ByteString;
+import org.apache.nemo.common.coder.DecoderFactory;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Spools the chunks of collected data to a local file as they arrive from the driver,
+ * so that the client does not have to hold the whole result in memory.
+ * Each chunk is written as the ID of the task attempt which sent it, its length and its bytes,
+ * and is decoded lazily when the result is iterated.
+ * Only the chunks of the task attempts committed by the driver are read, since the chunks are sent while the tasks
+ * run and an attempt may fail or be a speculative clone of another one.
+ */
+final class CollectedDataSpool {
+  private final Path spoolDirectory;
+  private final Set<String> committedTaskIds = new HashSet<>();
+  private final Set<String> committedTasks = new HashSet<>();
+  private Path spoolFile;
+  private DataOutputStream spoolStream;
+
+  /**
+   * Constructor, which spools to the default temporary-file directory.
+   */
+  CollectedDataSpool() {
+    this(Paths.get(System.getProperty("java.io.tmpdir")));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param spoolDirectory the directory to create the spool files in.
+   */
+  CollectedDataSpool(final Path spoolDirectory) {
+    this.spoolDirectory = spoolDirectory;
+  }
+
+  /**
+   * Appends a chunk to the spool.
+   *
+   * @param taskId the task attempt which sent the chunk.
+   * @param chunk  the encoded elements.
+   */
+  synchronized void append(final String taskId, final ByteString chunk) {
+    try {
+      if (spoolStream == null) {
+        spoolFile = Files.createTempFile(spoolDirectory, "nemo-collected-", ".bin");
+        spoolStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spoolFile)));
+      }
+      spoolStream.writeUTF(taskId);
+      spoolStream.writeInt(chunk.size());
+      chunk.writeTo(spoolStream);
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Keeps the chunks of a completed task attempt.
+   * The chunks of the other attempts of the same task are dropped.
+   *
+   * @param taskId the completed task attempt.
+   */
+  synchronized void commit(final String taskId) {
+    final String task = RuntimeIdManager.getStageIdFromTaskId(taskId) + "-"
+      + RuntimeIdManager.getIndexFromTaskId(taskId);
+    if (committedTasks.add(task)) {
+      committedTaskIds.add(taskId);
+    }
+  }
+
+  /**
+   * Hands over the committed chunks spooled so far, and starts a new spool for the data collected afterwards.
+   *
+   * @param decoderFactory to decode the chunks with.
+   * @param <T>            the type of the data.
+   * @return an iterator that decodes the spooled data, deleting the spool file when exhausted.
+   */
+  synchronized <T> Iterator<T> drain(final DecoderFactory<T> decoderFactory) {
+    if (spoolStream == null) {
+      return Collections.emptyIterator();
+    }
+    try {
+      spoolStream.close();
+      if (committedTaskIds.isEmpty()) {
+        Files.deleteIfExists(spoolFile);
+        return Collections.emptyIterator();
+      }
+      return new SpoolIterator<>(spoolFile, new HashSet<>(committedTaskIds), decoderFactory);
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      spoolStream = null;
+      spoolFile = null;
+      committedTaskIds.clear();
+      committedTasks.clear();
+    }
+  }
+
+  /**
+   * Reads the spool file one chunk at a time, with a fresh decoder for each chunk.
+   *
+   * @param <T> the type of the data.
+   */
+  private static final class SpoolIterator<T> implements Iterator<T> {
+    private final Path file;
+    private final Set<String> committedTaskIds;
+    private final DataInputStream input;
+    private final DecoderFactory<T> decoderFactory;
+    private DecoderFactory.Decoder<T> decoder = null;
+    private boolean hasNext = false;
+    private boolean exhausted = false;
+    private T next;
+
+    /**
+     * Constructor.
+     *
+     * @param file             the spool file.
+     * @param committedTaskIds the task attempts whose chunks to read.
+     * @param decoderFactory   to decode the chunks with.
+     * @throws IOException if fail to open the spool file.
+     */
+    private SpoolIterator(final Path file,
+                          final Set<String> committedTaskIds,
+                          final DecoderFactory<T> decoderFactory) throws IOException {
+      this.file = file;
+      this.committedTaskIds = committedTaskIds;
+      this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+      this.decoderFactory = decoderFactory;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!hasNext && !exhausted) {
+        try {
+          if (decoder == null) {
+            final String taskId;
+            try {
+              taskId = input.readUTF();
+            } catch (final EOFException e) {
+              exhausted = true;
+              input.close();
+              Files.deleteIfExists(file);
+              break;
+            }
+            final int length = input.readInt();
+            if (!committedTaskIds.contains(taskId)) {
+              // The chunk of an attempt which failed or was superseded.
+              int skipped = 0;
+              while (skipped < length) {
+                final int n = input.skipBytes(length - skipped);
+                if (n <= 0) {
+                  throw new EOFException();
+                }
+                skipped += n;
+              }
+              continue;
+            }
+            final byte[] chunk = new byte[length];
+            input.readFully(chunk);
+            decoder = decoderFactory.create(new ByteArrayInputStream(chunk));
+          }
+        } catch (final IOException e) {
+          throw new RuntimeException(e);
+        }
+        try {
+          next = decoder.decode();
+          hasNext = true;
+        } catch (final IOException e) {
+          // IOException from decoder indicates EOF of the chunk.
+          decoder = null;
+        }
+      }
+      return hasNext;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      hasNext = false;
+      return next;
+    }
+  }
+}
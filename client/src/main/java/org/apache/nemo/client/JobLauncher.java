@@ -23,6 +23,7 @@ import com.google.protobuf.ByteString;
 import org.apache.nemo.common.exception.InvalidUserMainException;
 import org.apache.commons.lang3.SerializationUtils;
 import org.apache.nemo.common.Util;
+import org.apache.nemo.common.coder.DecoderFactory;
 import org.apache.nemo.common.ir.IRDAG;
 import org.apache.nemo.compiler.backend.nemo.NemoPlanRewriter;
 import org.apache.nemo.conf.JobConf;
@@ -32,6 +33,7 @@ import org.apache.nemo.runtime.common.message.MessageEnvironment;
 import org.apache.nemo.runtime.common.message.MessageParameters;
 import org.apache.nemo.runtime.common.plan.PlanRewriter;
 import org.apache.nemo.runtime.master.scheduler.Scheduler;
+import org.apache.nemo.runtime.master.scheduler.SchedulingPolicy;
 import org.apache.reef.client.DriverConfiguration;
 import org.apache.reef.client.DriverLauncher;
 import org.apache.reef.client.parameters.JobMessageHandler;
@@ -90,7 +92,8 @@ public final class JobLauncher {
   private static CountDownLatch driverReadyLatch;
   private static CountDownLatch jobDoneLatch;
   private static String serializedDAG;
-  private static final List<?> COLLECTED_DATA = new ArrayList<>();
+  private static final CollectedDataSpool COLLECTED_DATA = new CollectedDataSpool();
+  private static final List<?> SERIALIZED_COLLECTED_DATA = new ArrayList<>();
   private static final String[] EMPTY_USER_ARGS = new String[0];
 
   /**
@@ -138,8 +141,17 @@ public final class JobLauncher {
       })
       .registerHandler(ControlMessage.DriverToClientMessageType.DriverReady, event -> driverReadyLatch.countDown())
       .registerHandler(ControlMessage.DriverToClientMessageType.ExecutionDone, event -> jobDoneLatch.countDown())
-      .registerHandler(ControlMessage.DriverToClientMessageType.DataCollected, message -> COLLECTED_DATA.addAll(
-        SerializationUtils.deserialize(Base64.getDecoder().decode(message.getDataCollected().getData()))))
+      .registerHandler(ControlMessage.DriverToClientMessageType.DataCollected, message -> {
+        final ControlMessage.DataCollectMessage dataCollected = message.getDataCollected();
+        if (dataCollected.getTaskCompleted()) {
+          COLLECTED_DATA.commit(dataCollected.getTaskId());
+        } else if (dataCollected.hasData()) {
+          SERIALIZED_COLLECTED_DATA.addAll(
+            SerializationUtils.deserialize(Base64.getDecoder().decode(dataCollected.getData())));
+        } else {
+          COLLECTED_DATA.append(dataCollected.getTaskId(), dataCollected.getChunk());
+        }
+      })
       .registerHandler(ControlMessage.DriverToClientMessageType.LaunchOptimization, message ->
         ClientUtils.handleOptimizationType(message, driverRPCServer))
       .run();
@@ -355,9 +367,12 @@ public final class JobLauncher {
     throws ClassNotFoundException, InjectionException {
     final Injector injector = TANG.newInjector(jobConf);
     final String classImplName = injector.getNamedInstance(JobConf.SchedulerImplClassName.class);
+    final String policyImplName = injector.getNamedInstance(JobConf.SchedulingPolicyImplClassName.class);
     final JavaConfigurationBuilder jcb = Tang.Factory.getTang().newConfigurationBuilder();
     final Class schedulerImpl = ((Class<Scheduler>) Class.forName(classImplName));
     jcb.bindImplementation(Scheduler.class, schedulerImpl);
+    final Class policyImpl = ((Class<SchedulingPolicy>) Class.forName(policyImplName));
+    jcb.bindImplementation(SchedulingPolicy.class, policyImpl);
     jcb.bindImplementation(PlanRewriter.class, NemoPlanRewriter.class);
     return jcb.build();
   }
@@ -443,9 +458,24 @@ public final class JobLauncher {
     cl.registerShortNameOfClass(JobConf.PartitionTransportClientNumThreads.class);
     cl.registerShortNameOfClass(JobConf.MaxNumDownloadsForARuntimeEdge.class);
     cl.registerShortNameOfClass(JobConf.SchedulerImplClassName.class);
+    cl.registerShortNameOfClass(JobConf.SchedulingPolicyImplClassName.class);
+    cl.registerShortNameOfClass(JobConf.LocalityWaitMs.class);
+    cl.registerShortNameOfClass(JobConf.BroadcastChunkSizeKb.class);
+    cl.registerShortNameOfClass(JobConf.BroadcastChunkCacheMb.class);
     cl.registerShortNameOfClass(JobConf.ScheduleSerThread.class);
     cl.registerShortNameOfClass(JobConf.MaxOffheapRatio.class);
     cl.registerShortNameOfClass(JobConf.ChunkSizeKb.class);
+    cl.registerShortNameOfClass(JobConf.PipeBatchSizeKb.class);
+    cl.registerShortNameOfClass(JobConf.PipeBatchLingerMs.class);
+    cl.registerShortNameOfClass(JobConf.PipeCreditWindowKb.class);
+    cl.registerShortNameOfClass(JobConf.PipeElementQueueCapacity.class);
+    cl.registerShortNameOfClass(JobConf.SpillThresholdMb.class);
+    cl.registerShortNameOfClass(JobConf.ZstdCompressionLevel.class);
+    cl.registerShortNameOfClass(JobConf.NetworkBandwidthMbps.class);
+    cl.registerShortNameOfClass(JobConf.BlockMemoryRatio.class);
+    cl.registerShortNameOfClass(JobConf.FramedSerialization.class);
+    cl.registerShortNameOfClass(JobConf.PrefetchBudgetMb.class);
+    cl.registerShortNameOfClass(JobConf.PrefetchThreads.class);
     cl.processCommandLine(args);
     return confBuilder.build();
   }
@@ -516,13 +546,25 @@ public final class JobLauncher {
 
   /**
    * Get the collected data.
+   * The data is decoded incrementally while iterating, chunk by chunk.
+   *
+   * @param decoderFactory to decode the collected data with.
+   * @param <T>            the type of the data.
+   * @return an iterator over the collected data.
+   */
+  public static <T> Iterator<T> getCollectedData(final DecoderFactory<T> decoderFactory) {
+    return COLLECTED_DATA.drain(decoderFactory); // flush after fetching.
+  }
+
+  /**
+   * Get the data collected as serialized data of the transform contexts.
    *
    * @param <T> the type of the data.
    * @return the collected data.
    */
   public static <T> List<T> getCollectedData() {
-    final List<T> result = (List<T>) new ArrayList<>(COLLECTED_DATA);
-    COLLECTED_DATA.clear(); // flush after fetching.
+    final List<T> result = (List<T>) new ArrayList<>(SERIALIZED_COLLECTED_DATA);
+    SERIALIZED_COLLECTED_DATA.clear(); // flush after fetching.
     return result;
   }
 }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.client;
+
+import com.google.protobuf.ByteString;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.coder.IntDecoderFactory;
+import org.apache.nemo.common.coder.IntEncoderFactory;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test {@link CollectedDataSpool}.
+ */
+public final class CollectedDataSpoolTest {
+  private static final String STAGE_ID = "Stage0";
+
+  @Rule
+  public final TemporaryFolder spoolDirectory = new TemporaryFolder();
+
+  private CollectedDataSpool spool;
+
+  @Before
+  public void setUp() {
+    spool = new CollectedDataSpool(spoolDirectory.getRoot().toPath());
+  }
+
+  /**
+   * Only the chunks of the committed attempts are read, one attempt per task.
+   */
+  @Test
+  public void testCommittedAttemptsOnly() throws IOException {
+    final String failedAttempt = RuntimeIdManager.generateTaskId(STAGE_ID, 0, 0);
+    final String retriedAttempt = RuntimeIdManager.generateTaskId(STAGE_ID, 0, 1);
+    final String completedAttempt = RuntimeIdManager.generateTaskId(STAGE_ID, 1, 0);
+    final String speculativeClone = RuntimeIdManager.generateTaskId(STAGE_ID, 1, 1);
+
+    spool.append(failedAttempt, encode(1, 2));
+    spool.append(retriedAttempt, encode(3));
+    spool.append(completedAttempt, encode(4, 5));
+    spool.append(speculativeClone, encode(4));
+    spool.append(retriedAttempt, encode(6));
+    spool.append(speculativeClone, encode(5));
+
+    spool.commit(retriedAttempt);
+    spool.commit(completedAttempt);
+    // The clone completes later than the original attempt.
+    spool.commit(speculativeClone);
+
+    assertEquals(Arrays.asList(3, 4, 5, 6), drain());
+  }
+
+  /**
+   * The spool file is deleted once consumed, and the next drain starts over.
+   */
+  @Test
+  public void testSpoolFileDeleted() throws IOException {
+    final String taskId = RuntimeIdManager.generateTaskId(STAGE_ID, 0, 0);
+    spool.append(taskId, encode(1, 2, 3));
+    spool.commit(taskId);
+    assertEquals(1, listSpoolFiles().length);
+
+    assertEquals(Arrays.asList(1, 2, 3), drain());
+    assertEquals(0, listSpoolFiles().length);
+    assertFalse(spool.drain(IntDecoderFactory.of()).hasNext());
+  }
+
+  /**
+   * The spool file of uncommitted chunks is deleted without being read.
+   */
+  @Test
+  public void testNothingCommitted() throws IOException {
+    spool.append(RuntimeIdManager.generateTaskId(STAGE_ID, 0, 0), encode(1));
+    assertFalse(spool.drain(IntDecoderFactory.of()).hasNext());
+    assertEquals(0, listSpoolFiles().length);
+  }
+
+  private List<Integer> drain() {
+    final List<Integer> result = new ArrayList<>();
+    final Iterator<Integer> iterator = spool.drain(IntDecoderFactory.of());
+    iterator.forEachRemaining(result::add);
+    return result;
+  }
+
+  private File[] listSpoolFiles() {
+    return spoolDirectory.getRoot().listFiles();
+  }
+
+  private static ByteString encode(final Integer... elements) throws IOException {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    final EncoderFactory.Encoder<Integer> encoder = IntEncoderFactory.of().create(outputStream);
+    for (final Integer element : elements) {
+      encoder.encode(element);
+    }
+    return ByteString.copyFrom(outputStream.toByteArray());
+  }
+}
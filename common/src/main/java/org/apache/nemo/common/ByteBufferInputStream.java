@@ -56,6 +56,31 @@ public final class ByteBufferInputStream extends InputStream {
     return getBuffer().get() & BITMASK;
   }
 
+  /**
+   * Reads up to {@code len} bytes from the current {@code ByteBuffer} in bulk.
+   *
+   * @param b   the buffer into which the data is read.
+   * @param off the start offset in {@code b}.
+   * @param len the maximum number of bytes to read.
+   * @return the number of bytes read, or -1 if there is no more data.
+   * @throws IOException exception.
+   */
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    final ByteBuffer buffer;
+    try {
+      buffer = getBuffer();
+    } catch (final EOFException e) {
+      return -1;
+    }
+    final int readBytes = Math.min(len, buffer.remaining());
+    buffer.get(b, off, readBytes);
+    return readBytes;
+  }
+
   /**
    * Return next non-empty @code{ByteBuffer}.
    *
@@ -57,6 +57,15 @@ public interface EncoderFactory<T> extends Serializable {
      * @throws IOException if fail to encode
      */
     void encode(T element) throws IOException;
+
+    /**
+     * Flushes the encoded elements that the encoder may be buffering onto the output stream.
+     * Encoders that write through do not have to override this.
+     *
+     * @throws IOException if fail to flush
+     */
+    default void flush() throws IOException {
+    }
   }
 
   /**
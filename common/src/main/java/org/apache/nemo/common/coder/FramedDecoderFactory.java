@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.common.coder;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link DecoderFactory} which reads the frames written by {@link FramedEncoderFactory}.
+ * Unlike the other decoders, the end of the stream is found with {@link FramedDecoder#hasNext()}
+ * rather than by an exception from {@link Decoder#decode()}.
+ *
+ * @param <T> element type.
+ */
+public final class FramedDecoderFactory<T> implements DecoderFactory<T> {
+  private final DecoderFactory<T> elementDecoderFactory;
+
+  /**
+   * Private constructor.
+   *
+   * @param elementDecoderFactory the decoder factory of the elements.
+   */
+  private FramedDecoderFactory(final DecoderFactory<T> elementDecoderFactory) {
+    this.elementDecoderFactory = elementDecoderFactory;
+  }
+
+  /**
+   * Static initializer of the coder.
+   *
+   * @param elementDecoderFactory the decoder factory of the elements.
+   * @param <T>                   element type.
+   * @return the new FramedDecoderFactory.
+   */
+  public static <T> FramedDecoderFactory<T> of(final DecoderFactory<T> elementDecoderFactory) {
+    return new FramedDecoderFactory<>(elementDecoderFactory);
+  }
+
+  /**
+   * @return the decoder factory of the elements.
+   */
+  public DecoderFactory<T> getElementDecoderFactory() {
+    return elementDecoderFactory;
+  }
+
+  @Override
+  public FramedDecoder<T> create(final InputStream inputStream) throws IOException {
+    return new FramedDecoder<>(inputStream, elementDecoderFactory);
+  }
+
+  @Override
+  public String toString() {
+    return "FramedDecoderFactory{"
+      + "elementDecoderFactory=" + elementDecoderFactory
+      + '}';
+  }
+
+  /**
+   * FramedDecoder.
+   *
+   * @param <T> element type.
+   */
+  public static final class FramedDecoder<T> implements Decoder<T> {
+    private final transient DataInputStream inputStream;
+    private final Decoder<T> elementDecoder;
+    private int numRemainingInFrame;
+    private int numBytesOfFrame;
+    private boolean frameStarted;
+
+    /**
+     * Constructor.
+     *
+     * @param inputStream           the input stream to decode.
+     * @param elementDecoderFactory the decoder factory of the elements.
+     * @throws IOException if fail to create the decoder of the elements.
+     */
+    private FramedDecoder(final InputStream inputStream,
+                          final DecoderFactory<T> elementDecoderFactory) throws IOException {
+      this.inputStream = new DataInputStream(inputStream);
+      this.elementDecoder = elementDecoderFactory.create(inputStream);
+      this.numRemainingInFrame = 0;
+      this.numBytesOfFrame = 0;
+      this.frameStarted = false;
+    }
+
+    /**
+     * Reads the next frame header if the current frame is finished.
+     *
+     * @return whether there is an element left in the stream.
+     * @throws IOException if the stream ends in the middle of a header.
+     */
+    public boolean hasNext() throws IOException {
+      while (numRemainingInFrame == 0) {
+        final int firstByte = inputStream.read();
+        if (firstByte == -1) {
+          return false;
+        }
+        numRemainingInFrame = (firstByte << 24) | (inputStream.readUnsignedByte() << 16)
+          | (inputStream.readUnsignedByte() << 8) | inputStream.readUnsignedByte();
+        numBytesOfFrame = inputStream.readInt();
+        frameStarted = false;
+      }
+      return true;
+    }
+
+    @Override
+    public T decode() throws IOException {
+      if (!hasNext()) {
+        // Keeps the contract of the other decoders for the readers unaware of frames.
+        throw new EOFException();
+      }
+      final T element = elementDecoder.decode();
+      numRemainingInFrame--;
+      frameStarted = true;
+      return element;
+    }
+
+    /**
+     * @return the number of elements left in the current frame, which is 0 before {@link #hasNext()} is called.
+     */
+    public int getNumRemainingInFrame() {
+      return numRemainingInFrame;
+    }
+
+    /**
+     * @return the number of bytes of the current frame.
+     */
+    public int getNumBytesOfFrame() {
+      return numBytesOfFrame;
+    }
+
+    /**
+     * Skips the current frame without decoding it.
+     * It has to be called before any element of the frame is decoded.
+     *
+     * @throws IOException if the stream ends before the end of the frame.
+     */
+    public void skipFrame() throws IOException {
+      if (frameStarted) {
+        throw new IllegalStateException("The frame is partially decoded");
+      }
+      int numBytesToSkip = numBytesOfFrame;
+      while (numBytesToSkip > 0) {
+        final int skipped = inputStream.skipBytes(numBytesToSkip);
+        if (skipped > 0) {
+          numBytesToSkip -= skipped;
+        } else if (inputStream.read() != -1) {
+          numBytesToSkip--;
+        } else {
+          throw new EOFException();
+        }
+      }
+      numRemainingInFrame = 0;
+    }
+  }
+}
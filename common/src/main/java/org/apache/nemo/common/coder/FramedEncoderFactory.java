@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.common.coder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An {@link EncoderFactory} which writes the elements encoded by another encoder factory in frames.
+ * Each frame starts with a header of the number of elements and the number of bytes in the frame,
+ * both as big-endian integers, followed by the encoded elements.
+ * The frames let the readers of the stream know the element counts up front, pre-size their buffers,
+ * skip frames, and find the end of the stream without decoding past it. See {@link FramedDecoderFactory}.
+ *
+ * The elements are buffered until a frame is full or {@link Encoder#flush()} is called,
+ * which the writers have to call before closing the stream.
+ *
+ * @param <T> element type.
+ */
+public final class FramedEncoderFactory<T> implements EncoderFactory<T> {
+  /**
+   * The number of bytes of a frame header.
+   */
+  public static final int HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int MAX_FRAME_SIZE = 64 * 1024;
+
+  private final EncoderFactory<T> elementEncoderFactory;
+
+  /**
+   * Private constructor.
+   *
+   * @param elementEncoderFactory the encoder factory of the elements.
+   */
+  private FramedEncoderFactory(final EncoderFactory<T> elementEncoderFactory) {
+    this.elementEncoderFactory = elementEncoderFactory;
+  }
+
+  /**
+   * Static initializer of the coder.
+   *
+   * @param elementEncoderFactory the encoder factory of the elements.
+   * @param <T>                   element type.
+   * @return the new FramedEncoderFactory.
+   */
+  public static <T> FramedEncoderFactory<T> of(final EncoderFactory<T> elementEncoderFactory) {
+    return new FramedEncoderFactory<>(elementEncoderFactory);
+  }
+
+  /**
+   * @return the encoder factory of the elements.
+   */
+  public EncoderFactory<T> getElementEncoderFactory() {
+    return elementEncoderFactory;
+  }
+
+  /**
+   * Writes a frame header.
+   *
+   * @param outputStream the stream to write.
+   * @param numElements  the number of elements in the frame.
+   * @param numBytes     the number of bytes of the elements in the frame.
+   * @throws IOException if fail to write.
+   */
+  public static void writeHeader(final DataOutputStream outputStream,
+                                 final int numElements,
+                                 final int numBytes) throws IOException {
+    outputStream.writeInt(numElements);
+    outputStream.writeInt(numBytes);
+  }
+
+  @Override
+  public Encoder<T> create(final OutputStream outputStream) throws IOException {
+    return new FramedEncoder(outputStream);
+  }
+
+  @Override
+  public String toString() {
+    return "FramedEncoderFactory{"
+      + "elementEncoderFactory=" + elementEncoderFactory
+      + '}';
+  }
+
+  /**
+   * FramedEncoder.
+   */
+  private final class FramedEncoder implements Encoder<T> {
+    private final transient DataOutputStream outputStream;
+    private final transient ExposedByteArrayOutputStream frameStream;
+    private final Encoder<T> elementEncoder;
+    private int numElementsInFrame;
+
+    /**
+     * Constructor.
+     *
+     * @param outputStream the output stream to store the frames.
+     * @throws IOException if fail to create the encoder of the elements.
+     */
+    private FramedEncoder(final OutputStream outputStream) throws IOException {
+      this.outputStream = new DataOutputStream(outputStream);
+      this.frameStream = new ExposedByteArrayOutputStream();
+      this.elementEncoder = elementEncoderFactory.create(frameStream);
+      this.numElementsInFrame = 0;
+    }
+
+    @Override
+    public void encode(final T element) throws IOException {
+      elementEncoder.encode(element);
+      numElementsInFrame++;
+      if (frameStream.size() >= MAX_FRAME_SIZE) {
+        flush();
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      elementEncoder.flush();
+      if (numElementsInFrame > 0) {
+        writeHeader(outputStream, numElementsInFrame, frameStream.size());
+        outputStream.write(frameStream.getBuffer(), 0, frameStream.size());
+        frameStream.reset();
+        numElementsInFrame = 0;
+      }
+    }
+  }
+
+  /**
+   * A {@link ByteArrayOutputStream} whose buffer is written out without a copy.
+   */
+  private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+    private byte[] getBuffer() {
+      return buf;
+    }
+  }
+}
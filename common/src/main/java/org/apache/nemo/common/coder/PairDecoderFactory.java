@@ -61,6 +61,20 @@ public final class PairDecoderFactory<A extends Serializable, B extends Serializ
     return new PairDecoderFactory<>(leftDecoderFactory, rightDecoderFactory);
   }
 
+  /**
+   * @return the coder for left elements.
+   */
+  public DecoderFactory<A> getLeftDecoderFactory() {
+    return leftDecoderFactory;
+  }
+
+  /**
+   * @return the coder for right elements.
+   */
+  public DecoderFactory<B> getRightDecoderFactory() {
+    return rightDecoderFactory;
+  }
+
   @Override
   public Decoder<Pair<A, B>> create(final InputStream inputStream) throws IOException {
     return new PairDecoder<>(inputStream, leftDecoderFactory, rightDecoderFactory);
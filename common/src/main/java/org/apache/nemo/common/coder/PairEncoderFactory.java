@@ -61,6 +61,20 @@ public final class PairEncoderFactory<A extends Serializable, B extends Serializ
     return new PairEncoderFactory<>(leftEncoderFactory, rightEncoderFactory);
   }
 
+  /**
+   * @return the coder for left elements.
+   */
+  public EncoderFactory<A> getLeftEncoderFactory() {
+    return leftEncoderFactory;
+  }
+
+  /**
+   * @return the coder for right elements.
+   */
+  public EncoderFactory<B> getRightEncoderFactory() {
+    return rightEncoderFactory;
+  }
+
   @Override
   public Encoder<Pair<A, B>> create(final OutputStream outputStream) throws IOException {
     return new PairEncoder<>(outputStream, leftEncoderFactory, rightEncoderFactory);
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.common.ir;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+
+/**
+ * A reusable, array-backed batch of elements.
+ * It is passed through {@link OutputCollector#emitBatch(ElementBatch)} and
+ * {@link org.apache.nemo.common.ir.vertex.transform.Transform#onDataBatch(ElementBatch)},
+ * to process the elements in a loop instead of a chain of calls per element.
+ * A batch is only valid during the call it is passed to: the callee must neither keep nor modify it.
+ *
+ * @param <T> element type.
+ */
+@NotThreadSafe
+public final class ElementBatch<T> {
+  /**
+   * The default maximum number of elements in a batch.
+   */
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private final Object[] elements;
+  private int size = 0;
+
+  /**
+   * Creates a batch with the default capacity.
+   */
+  public ElementBatch() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a batch.
+   *
+   * @param capacity the maximum number of elements in the batch.
+   */
+  public ElementBatch(final int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Non-positive capacity: " + capacity);
+    }
+    this.elements = new Object[capacity];
+  }
+
+  /**
+   * Adds an element to the batch.
+   *
+   * @param element the element to add.
+   * @throws IllegalStateException if the batch is full.
+   */
+  public void add(final T element) {
+    if (size == elements.length) {
+      throw new IllegalStateException("The batch is full");
+    }
+    elements[size++] = element;
+  }
+
+  /**
+   * @param index the index of the element.
+   * @return the element.
+   */
+  public T get(final int index) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return (T) elements[index];
+  }
+
+  /**
+   * @return the number of elements in the batch.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return whether the batch has no element.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return whether the batch has no room for another element.
+   */
+  public boolean isFull() {
+    return size == elements.length;
+  }
+
+  /**
+   * Removes all elements, to reuse the batch.
+   */
+  public void clear() {
+    Arrays.fill(elements, 0, size, null);
+    size = 0;
+  }
+}
@@ -37,6 +37,19 @@ public interface OutputCollector<O> extends Serializable {
    */
   void emit(O output);
 
+  /**
+   * Single-destination emit of a batch of outputs.
+   * By default, this emits the outputs one by one.
+   * The batch is only valid during this call.
+   *
+   * @param outputs the batch of values.
+   */
+  default void emitBatch(final ElementBatch<O> outputs) {
+    for (int i = 0; i < outputs.size(); i++) {
+      emit(outputs.get(i));
+    }
+  }
+
   /**
    * Emit watermark to downstream vertices.
    *
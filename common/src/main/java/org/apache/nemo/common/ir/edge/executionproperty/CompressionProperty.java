@@ -49,6 +49,9 @@ public final class CompressionProperty extends EdgeExecutionProperty<Compression
   public enum Value {
     GZIP,
     LZ4,
-    NONE
+    ZSTD,
+    NONE,
+    // Selects NONE, LZ4 or ZSTD for each edge at runtime, by sampling the compression ratio and time of its data.
+    ADAPTIVE
   }
 }
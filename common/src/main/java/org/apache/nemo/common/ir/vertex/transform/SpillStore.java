@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.common.ir.vertex.transform;
+
+import java.util.Iterator;
+
+/**
+ * A store to which a {@link Transform} spills the elements that do not fit in its memory.
+ * Elements are written and read back in runs, each of which is a sequence of elements.
+ * All runs should be written before any of them is read.
+ *
+ * @param <T> the type of the elements.
+ */
+public interface SpillStore<T> extends AutoCloseable {
+  /**
+   * Writes a run of elements.
+   *
+   * @param elements the elements to write.
+   * @return the index of the written run.
+   */
+  int writeRun(Iterator<T> elements);
+
+  /**
+   * Reads a run of elements in the order they were written.
+   *
+   * @param runIndex the index of the run to read.
+   * @return the iterator of the elements in the run.
+   */
+  Iterator<T> readRun(int runIndex);
+
+  /**
+   * Deletes all the runs in this store.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.common.ir.vertex.transform;
+
+import org.apache.nemo.common.KeyExtractor;
+import org.apache.nemo.common.coder.DecoderFactory;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+
+/**
+ * Groups elements by their keys within a bounded amount of memory.
+ * <p>
+ * Once the estimated size of the buffered elements exceeds {@link Transform.Context#getSpillThresholdBytes()},
+ * the buffered elements are sorted by the hash codes of their keys and spilled to a {@link SpillStore} as a run.
+ * The heap size of the elements is estimated from the serialized size of sampled elements, which is scaled up
+ * as deserialized objects take more space than their encodings, plus the references that the map keeps per element
+ * and per group.
+ * When the groups are retrieved, the spilled runs and the buffered elements are merged by the hash codes,
+ * so that only the elements whose keys share a hash code are kept in memory at a time.
+ * Note that the elements of a single group are still collected in memory.
+ * <p>
+ * If a combiner is given, the elements with the same key are combined into a single element as they are added
+ * and merged, so that each group consists of a single element.
+ * <p>
+ * The spilled runs are deleted when the groups are retrieved, or when this map is closed.
+ *
+ * @param <T> the type of the elements.
+ */
+public final class SpillableGroupingMap<T> implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(SpillableGroupingMap.class.getName());
+  private static final int SIZE_SAMPLING_INTERVAL = 128;
+  private static final int HEAP_BYTES_PER_SERIALIZED_BYTE = 3;
+  // A reference in the list of the group.
+  private static final int HEAP_BYTES_PER_ELEMENT = 8;
+  // A hash map node, its slot in the table, and the list of the group with its array.
+  private static final int HEAP_BYTES_PER_GROUP = 80;
+
+  private final KeyExtractor keyExtractor;
+  @Nullable
+  private final BinaryOperator<T> combiner;
+  private final EncoderFactory<T> encoderFactory;
+  private final DecoderFactory<T> decoderFactory;
+  private final Transform.Context context;
+  private final long spillThresholdBytes;
+  private final Map<Object, List<T>> keyToElements;
+  private long numBufferedElements;
+  private long numSampledElements;
+  private long numSampledBytes;
+  private SpillStore<T> spillStore;
+  private final List<Integer> spilledRuns;
+
+  /**
+   * Constructor.
+   *
+   * @param keyExtractor   extracts the grouping key from an element.
+   * @param encoderFactory the encoder factory for the elements.
+   * @param decoderFactory the decoder factory for the elements.
+   * @param context        the context of the transform which groups the elements.
+   */
+  public SpillableGroupingMap(final KeyExtractor keyExtractor,
+                              final EncoderFactory<T> encoderFactory,
+                              final DecoderFactory<T> decoderFactory,
+                              final Transform.Context context) {
+    this(keyExtractor, null, encoderFactory, decoderFactory, context);
+  }
+
+  /**
+   * Constructor of a map which combines the elements with the same key.
+   *
+   * @param keyExtractor   extracts the grouping key from an element.
+   * @param combiner       combines two elements with the same key, or null not to combine.
+   * @param encoderFactory the encoder factory for the elements.
+   * @param decoderFactory the decoder factory for the elements.
+   * @param context        the context of the transform which groups the elements.
+   */
+  public SpillableGroupingMap(final KeyExtractor keyExtractor,
+                              @Nullable final BinaryOperator<T> combiner,
+                              final EncoderFactory<T> encoderFactory,
+                              final DecoderFactory<T> decoderFactory,
+                              final Transform.Context context) {
+    this.keyExtractor = keyExtractor;
+    this.combiner = combiner;
+    this.encoderFactory = encoderFactory;
+    this.decoderFactory = decoderFactory;
+    this.context = context;
+    this.spillThresholdBytes = context.getSpillThresholdBytes();
+    this.keyToElements = new HashMap<>();
+    this.numBufferedElements = 0;
+    this.numSampledElements = 0;
+    this.numSampledBytes = 0;
+    this.spillStore = null;
+    this.spilledRuns = new ArrayList<>();
+  }
+
+  /**
+   * Adds an element, and spills the buffered elements if they exceed the threshold.
+   *
+   * @param element the element to add.
+   */
+  public void add(final T element) {
+    if (!addToGroup(keyToElements, element)) {
+      return;
+    }
+    numBufferedElements++;
+    if (spillThresholdBytes > 0) {
+      if (numBufferedElements % SIZE_SAMPLING_INTERVAL == 1) {
+        sampleSize(element);
+      }
+      if (estimateHeapBytes() > spillThresholdBytes) {
+        spill();
+      }
+    }
+  }
+
+  /**
+   * @return whether no element has been added since the last retrieval of the groups.
+   */
+  public boolean isEmpty() {
+    return keyToElements.isEmpty() && spilledRuns.isEmpty();
+  }
+
+  /**
+   * Retrieves all the groups, and clears this map.
+   *
+   * @param consumer the consumer of each key and the elements of its group.
+   */
+  public void forEachGroup(final BiConsumer<Object, List<T>> consumer) {
+    try {
+      if (spilledRuns.isEmpty()) {
+        final Iterator<Map.Entry<Object, List<T>>> iterator = keyToElements.entrySet().iterator();
+        while (iterator.hasNext()) {
+          final Map.Entry<Object, List<T>> entry = iterator.next();
+          consumer.accept(entry.getKey(), entry.getValue());
+          iterator.remove();
+        }
+      } else {
+        mergeRuns(consumer);
+      }
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Discards the buffered elements, and deletes the spilled runs.
+   * This should be called even if the groups are not retrieved, e.g., when the transform fails.
+   */
+  @Override
+  public void close() {
+    keyToElements.clear();
+    numBufferedElements = 0;
+    spilledRuns.clear();
+    if (spillStore != null) {
+      try {
+        spillStore.close();
+      } finally {
+        spillStore = null;
+      }
+    }
+  }
+
+  /**
+   * Adds an element to its group, combining it with the existing element if a combiner is given.
+   *
+   * @param groups  the groups.
+   * @param element the element to add.
+   * @return whether the element is added as a new element of the group.
+   */
+  private boolean addToGroup(final Map<Object, List<T>> groups, final T element) {
+    final List<T> group = groups.computeIfAbsent(keyExtractor.extractKey(element), key -> new ArrayList<>());
+    if (combiner != null && !group.isEmpty()) {
+      group.set(0, combiner.apply(group.get(0), element));
+      return false;
+    }
+    group.add(element);
+    return true;
+  }
+
+  /**
+   * Estimates the size of the buffered elements with the serialized size of an element.
+   *
+   * @param element the element to sample.
+   */
+  private void sampleSize(final T element) {
+    final CountingOutputStream countingStream = new CountingOutputStream();
+    try {
+      encoderFactory.create(countingStream).encode(element);
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    }
+    numSampledElements++;
+    numSampledBytes += countingStream.count;
+  }
+
+  /**
+   * @return the estimated heap size of the buffered elements and the groups.
+   */
+  private long estimateHeapBytes() {
+    final double serializedBytesPerElement = (double) numSampledBytes / numSampledElements;
+    return (long) (serializedBytesPerElement * HEAP_BYTES_PER_SERIALIZED_BYTE * numBufferedElements)
+      + HEAP_BYTES_PER_ELEMENT * numBufferedElements
+      + HEAP_BYTES_PER_GROUP * (long) keyToElements.size();
+  }
+
+  /**
+   * Spills the buffered elements as a run sorted by the hash codes of their keys.
+   */
+  private void spill() {
+    if (spillStore == null) {
+      spillStore = context.createSpillStore(encoderFactory, decoderFactory);
+    }
+    final long numSpilledElements = numBufferedElements;
+    spilledRuns.add(spillStore.writeRun(sortedElements()));
+    keyToElements.clear();
+    numBufferedElements = 0;
+    LOG.info("Spilled {} elements as run {}", numSpilledElements, spilledRuns.size() - 1);
+  }
+
+  /**
+   * Drains the buffered elements sorted by the hash codes of their keys.
+   * The elements with the same key are kept adjacent.
+   *
+   * @return the iterator of the sorted elements.
+   */
+  private Iterator<T> sortedElements() {
+    final List<Map.Entry<Object, List<T>>> entries = new ArrayList<>(keyToElements.entrySet());
+    entries.sort(Comparator.comparingInt(entry -> Objects.hashCode(entry.getKey())));
+    return entries.stream().flatMap(entry -> entry.getValue().stream()).iterator();
+  }
+
+  /**
+   * Merges the spilled runs and the buffered elements, and emits the groups in the order of the hash codes.
+   *
+   * @param consumer the consumer of each key and the elements of its group.
+   */
+  private void mergeRuns(final BiConsumer<Object, List<T>> consumer) {
+    final PriorityQueue<RunIterator> heads =
+      new PriorityQueue<>(spilledRuns.size() + 1, Comparator.comparingInt(RunIterator::peekHash));
+    for (final int runIndex : spilledRuns) {
+      addIfNotEmpty(heads, new RunIterator(spillStore.readRun(runIndex)));
+    }
+    addIfNotEmpty(heads, new RunIterator(sortedElements()));
+    keyToElements.clear();
+
+    while (!heads.isEmpty()) {
+      // Collect all the elements whose keys have the smallest hash code among the runs.
+      final int hash = heads.peek().peekHash();
+      final Map<Object, List<T>> groups = new LinkedHashMap<>();
+      while (!heads.isEmpty() && heads.peek().peekHash() == hash) {
+        final RunIterator run = heads.poll();
+        while (run.hasNext() && run.peekHash() == hash) {
+          addToGroup(groups, run.next());
+        }
+        addIfNotEmpty(heads, run);
+      }
+      groups.forEach(consumer);
+    }
+  }
+
+  /**
+   * @param heads the heads of the runs to merge.
+   * @param run   the run to add.
+   */
+  private void addIfNotEmpty(final PriorityQueue<RunIterator> heads, final RunIterator run) {
+    if (run.hasNext()) {
+      heads.add(run);
+    }
+  }
+
+  /**
+   * An iterator of a sorted run which can peek the hash code of the key of its next element.
+   */
+  private final class RunIterator implements Iterator<T> {
+    private final Iterator<T> elements;
+    private T next;
+    private int nextHash;
+    private boolean hasNext;
+
+    /**
+     * @param elements the elements in the run.
+     */
+    RunIterator(final Iterator<T> elements) {
+      this.elements = elements;
+      advance();
+    }
+
+    private void advance() {
+      hasNext = elements.hasNext();
+      next = hasNext ? elements.next() : null;
+      nextHash = hasNext ? Objects.hashCode(keyExtractor.extractKey(next)) : 0;
+    }
+
+    /**
+     * @return the hash code of the key of the next element.
+     */
+    int peekHash() {
+      return nextHash;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return hasNext;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext) {
+        throw new NoSuchElementException();
+      }
+      final T element = next;
+      advance();
+      return element;
+    }
+  }
+
+  /**
+   * An output stream which only counts the written bytes.
+   */
+  private static final class CountingOutputStream extends OutputStream {
+    private long count = 0;
+
+    @Override
+    public void write(final int b) {
+      count++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+      count += len;
+    }
+  }
+}
@@ -18,6 +18,9 @@
  */
 package org.apache.nemo.common.ir.vertex.transform;
 
+import org.apache.nemo.common.coder.DecoderFactory;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.punctuation.Watermark;
 
@@ -48,6 +51,20 @@ public interface Transform<I, O> extends Serializable {
    */
   void onData(I element);
 
+  /**
+   * On a batch of data received.
+   * By default, this hands the elements to {@link #onData(Object)} one by one.
+   * Transforms which can process the batch in a tight loop may override this.
+   * The batch is only valid during this call.
+   *
+   * @param elements data received.
+   */
+  default void onDataBatch(final ElementBatch<I> elements) {
+    for (int i = 0; i < elements.size(); i++) {
+      onData(elements.get(i));
+    }
+  }
+
   /**
    * On watermark received.
    * This method should be called for the minimum watermark among input streams (input watermark).
@@ -85,5 +102,38 @@ public interface Transform<I, O> extends Serializable {
      * @return the serialized data.
      */
     Optional<String> getSerializedData();
+
+    /**
+     * Sends a chunk of collected data to the client, which concatenates the chunks of all tasks.
+     * The chunk must be decodable on its own, with the decoder of the edge to the collecting vertex.
+     *
+     * @param chunk the encoded elements.
+     */
+    void sendCollectedData(byte[] chunk);
+
+    /**
+     * @return the estimated size of the state in bytes that a transform may keep in memory
+     * before spilling it to a {@link SpillStore}, or 0 if spilling is disabled.
+     */
+    long getSpillThresholdBytes();
+
+    /**
+     * Creates a new {@link SpillStore}.
+     *
+     * @param encoderFactory the encoder factory for the spilled elements.
+     * @param decoderFactory the decoder factory for the spilled elements.
+     * @param <T>            the type of the spilled elements.
+     * @return the spill store.
+     */
+    <T> SpillStore<T> createSpillStore(EncoderFactory<T> encoderFactory, DecoderFactory<T> decoderFactory);
+
+    /**
+     * Adds a value to a metric of the task which executes the transform.
+     * The values added by the transforms of a task are summed up.
+     *
+     * @param metricField the metric field of the task.
+     * @param value       the value to add.
+     */
+    void addMetric(String metricField, long value);
   }
 }
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.common;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test {@link ByteBufferInputStream}.
+ */
+public final class ByteBufferInputStreamTest {
+
+  /**
+   * The bulk read spans the buffers, and returns -1 at the end of the data.
+   */
+  @Test
+  public void testBulkReadUntilEnd() throws IOException {
+    final ByteBufferInputStream inputStream = new ByteBufferInputStream(Arrays.asList(
+      ByteBuffer.wrap(new byte[]{1, 2}), ByteBuffer.allocate(0), ByteBuffer.wrap(new byte[]{3})));
+    final byte[] bytes = new byte[4];
+
+    assertEquals(2, inputStream.read(bytes, 0, 4));
+    assertEquals(1, inputStream.read(bytes, 2, 2));
+    assertArrayEquals(new byte[]{1, 2, 3, 0}, bytes);
+    assertEquals(-1, inputStream.read(bytes, 0, 4));
+    assertEquals(0, inputStream.read(bytes, 0, 0));
+  }
+}
@@ -23,6 +23,7 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 
 /**
  * Tests coder factories.
@@ -45,6 +46,55 @@ public class CoderFactoryTest {
     Assert.assertArrayEquals(elementToTest, decodedBytes);
   }
 
+  @Test
+  public void testFramedCoderFactories() throws Exception {
+    final FramedEncoderFactory<Integer> encoderFactory = FramedEncoderFactory.of(IntEncoderFactory.of());
+    final FramedDecoderFactory<Integer> decoderFactory = FramedDecoderFactory.of(IntDecoderFactory.of());
+    final int numElements = 100000;
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final EncoderFactory.Encoder<Integer> encoder = encoderFactory.create(out);
+    for (int i = 0; i < numElements; i++) {
+      encoder.encode(i);
+    }
+    encoder.flush();
+    final byte[] encoded = out.toByteArray();
+    // Several frames are written, each of which has a header.
+    Assert.assertTrue(encoded.length > numElements * Integer.BYTES + 2 * FramedEncoderFactory.HEADER_SIZE);
+
+    final FramedDecoderFactory.FramedDecoder<Integer> decoder =
+      decoderFactory.create(new ByteArrayInputStream(encoded));
+    int numDecoded = 0;
+    while (decoder.hasNext()) {
+      Assert.assertEquals(numDecoded, (int) decoder.decode());
+      numDecoded++;
+    }
+    Assert.assertEquals(numElements, numDecoded);
+
+    // The first frame is skipped without decoding it.
+    final FramedDecoderFactory.FramedDecoder<Integer> skippingDecoder =
+      decoderFactory.create(new ByteArrayInputStream(encoded));
+    Assert.assertTrue(skippingDecoder.hasNext());
+    final int numInFirstFrame = skippingDecoder.getNumRemainingInFrame();
+    Assert.assertEquals(numInFirstFrame * Integer.BYTES, skippingDecoder.getNumBytesOfFrame());
+    skippingDecoder.skipFrame();
+    Assert.assertEquals(numInFirstFrame, (int) skippingDecoder.decode());
+  }
+
+  @Test(expected = EOFException.class)
+  public void testFramedDecoderAtEndOfStream() throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final EncoderFactory.Encoder<Integer> encoder = FramedEncoderFactory.of(IntEncoderFactory.of()).create(out);
+    encoder.encode(1);
+    encoder.flush();
+
+    final DecoderFactory.Decoder<Integer> decoder =
+      FramedDecoderFactory.of(IntDecoderFactory.of()).create(new ByteArrayInputStream(out.toByteArray()));
+    Assert.assertEquals(1, (int) decoder.decode());
+    // The readers unaware of frames still see the end of the stream as an exception.
+    decoder.decode();
+  }
+
   /**
    * Encode and decode an element through the given factories and return the result elements.
    *
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.common.ir.vertex.transform;
+
+import org.apache.nemo.common.coder.DecoderFactory;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.coder.LongDecoderFactory;
+import org.apache.nemo.common.coder.LongEncoderFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Tests {@link SpillableGroupingMap}.
+ */
+public final class SpillableGroupingMapTest {
+  private static final long KEY_MULTIPLIER = 1000;
+  // 0L and (1L << 32 | 1L) have the same hash code.
+  private static final long[] KEYS = {0L, 1L << 32 | 1L, 1L, 2L, 3L};
+  private static final int NUM_ELEMENTS_PER_KEY = 100;
+
+  @Test
+  public void testWithoutSpill() {
+    final InMemorySpillContext context = new InMemorySpillContext(0);
+    testGrouping(context);
+    Assert.assertEquals(0, context.numRuns);
+  }
+
+  @Test
+  public void testWithSpill() {
+    // Spill about every 10 elements, as each element is encoded into 8 bytes, which is estimated as 32 bytes in heap,
+    // and each of the 5 groups as 80 bytes.
+    final InMemorySpillContext context = new InMemorySpillContext(720);
+    testGrouping(context);
+    Assert.assertTrue(context.numRuns > 1);
+    Assert.assertTrue(context.closed);
+  }
+
+  @Test
+  public void testCombiningWithSpill() {
+    // Spill about every 2 elements, as the elements with the same key are combined into a group of 112 bytes.
+    final InMemorySpillContext context = new InMemorySpillContext(224);
+    final SpillableGroupingMap<Long> map = new SpillableGroupingMap<>(
+      element -> (Long) element / KEY_MULTIPLIER, Math::max, LongEncoderFactory.of(), LongDecoderFactory.of(), context);
+    for (int i = 0; i < NUM_ELEMENTS_PER_KEY; i++) {
+      for (final long key : KEYS) {
+        map.add(key * KEY_MULTIPLIER + i);
+      }
+    }
+
+    final Map<Object, List<Long>> groups = new HashMap<>();
+    map.forEachGroup((key, elements) -> Assert.assertNull(groups.put(key, new ArrayList<>(elements))));
+    Assert.assertTrue(context.numRuns > 1);
+    Assert.assertEquals(KEYS.length, groups.size());
+    for (final long key : KEYS) {
+      Assert.assertEquals(Collections.singletonList(key * KEY_MULTIPLIER + NUM_ELEMENTS_PER_KEY - 1), groups.get(key));
+    }
+  }
+
+  @Test
+  public void testCloseWithoutRetrieval() {
+    final InMemorySpillContext context = new InMemorySpillContext(720);
+    final SpillableGroupingMap<Long> map = new SpillableGroupingMap<>(
+      element -> (Long) element / KEY_MULTIPLIER, LongEncoderFactory.of(), LongDecoderFactory.of(), context);
+    for (int i = 0; i < NUM_ELEMENTS_PER_KEY; i++) {
+      map.add((long) i);
+    }
+    Assert.assertTrue(context.numRuns > 0);
+
+    map.close();
+    Assert.assertTrue(context.closed);
+    Assert.assertTrue(map.isEmpty());
+  }
+
+  private void testGrouping(final InMemorySpillContext context) {
+    final SpillableGroupingMap<Long> map = new SpillableGroupingMap<>(
+      element -> (Long) element / KEY_MULTIPLIER, LongEncoderFactory.of(), LongDecoderFactory.of(), context);
+    for (int i = 0; i < NUM_ELEMENTS_PER_KEY; i++) {
+      for (final long key : KEYS) {
+        map.add(key * KEY_MULTIPLIER + i);
+      }
+    }
+
+    final Map<Object, List<Long>> groups = new HashMap<>();
+    map.forEachGroup((key, elements) -> Assert.assertNull(groups.put(key, new ArrayList<>(elements))));
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertEquals(KEYS.length, groups.size());
+    for (final long key : KEYS) {
+      final Set<Long> expected = new HashSet<>();
+      for (int i = 0; i < NUM_ELEMENTS_PER_KEY; i++) {
+        expected.add(key * KEY_MULTIPLIER + i);
+      }
+      Assert.assertEquals(NUM_ELEMENTS_PER_KEY, groups.get(key).size());
+      Assert.assertEquals(expected, new HashSet<>(groups.get(key)));
+    }
+  }
+
+  /**
+   * A context which keeps the spilled runs in memory.
+   */
+  private static final class InMemorySpillContext implements Transform.Context {
+    private final long spillThresholdBytes;
+    private int numRuns = 0;
+    private boolean closed = false;
+
+    InMemorySpillContext(final long spillThresholdBytes) {
+      this.spillThresholdBytes = spillThresholdBytes;
+    }
+
+    @Override
+    public Object getBroadcastVariable(final Serializable id) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setSerializedData(final String serializedData) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Optional<String> getSerializedData() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void sendCollectedData(final byte[] chunk) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getSpillThresholdBytes() {
+      return spillThresholdBytes;
+    }
+
+    @Override
+    public <T> SpillStore<T> createSpillStore(final EncoderFactory<T> encoderFactory,
+                                              final DecoderFactory<T> decoderFactory) {
+      return new SpillStore<T>() {
+        private final List<List<T>> runs = new ArrayList<>();
+
+        @Override
+        public int writeRun(final Iterator<T> elements) {
+          final List<T> run = new ArrayList<>();
+          elements.forEachRemaining(run::add);
+          runs.add(run);
+          numRuns++;
+          return runs.size() - 1;
+        }
+
+        @Override
+        public Iterator<T> readRun(final int runIndex) {
+          return runs.get(runIndex).iterator();
+        }
+
+        @Override
+        public void close() {
+          closed = true;
+        }
+      };
+    }
+
+    @Override
+    public void addMetric(final String metricField, final long value) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -49,4 +49,30 @@ public interface NemoPipelineOptions extends PipelineOptions {
    * @param time the maximum time to wait before finalising a bundle (in milliseconds).
    */
   void setMaxBundleTimeMills(Long time);
+
+  /**
+   * @return the maximum number of keys whose accumulators are kept in memory by a partial combine, or 0 for no limit.
+   */
+  @Description("The maximum number of keys whose accumulators are kept in memory by a partial combine (0: no limit).")
+  @Default.Long(100000)
+  Long getMaxPartialCombineKeys();
+
+  /**
+   * @param keys the maximum number of keys whose accumulators are kept in memory by a partial combine.
+   */
+  void setMaxPartialCombineKeys(Long keys);
+
+  /**
+   * @return the maximum estimated size of the accumulators kept in memory by a partial combine (in megabytes),
+   * or 0 for no limit.
+   */
+  @Description("The maximum estimated size of the accumulators kept in memory by a partial combine "
+    + "(in megabytes, 0: no limit).")
+  @Default.Long(64)
+  Long getMaxPartialCombineMb();
+
+  /**
+   * @param size the maximum estimated size of the accumulators kept in memory by a partial combine (in megabytes).
+   */
+  void setMaxPartialCombineMb(Long size);
 }
@@ -151,6 +151,20 @@ final class PipelineTranslationContext {
    * @param input the {@link PValue} {@code dst} consumes
    */
   void addEdgeTo(final IRVertex dst, final PValue input) {
+    addEdgeTo(dst, input, null);
+  }
+
+  /**
+   * Add IR edge to the builder.
+   *
+   * @param dst                  the destination IR vertex.
+   * @param input                the {@link PValue} {@code dst} consumes
+   * @param communicationPattern the communication pattern of the edge,
+   *                             or null to choose it by the source and the destination.
+   */
+  void addEdgeTo(final IRVertex dst,
+                 final PValue input,
+                 final CommunicationPatternProperty.Value communicationPattern) {
     if (input instanceof PCollection) {
       final Coder elementCoder = ((PCollection) input).getCoder();
       final Coder windowCoder = ((PCollection) input).getWindowingStrategy().getWindowFn().windowCoder();
@@ -159,8 +173,8 @@ final class PipelineTranslationContext {
         throw new IllegalStateException(String.format("Cannot find a vertex that emits pValue %s", input));
       }
 
-      final CommunicationPatternProperty.Value communicationPattern = getCommPattern(src, dst);
-      final IREdge edge = new IREdge(communicationPattern, src, dst);
+      final IREdge edge = new IREdge(
+        communicationPattern == null ? getCommPattern(src, dst) : communicationPattern, src, dst);
 
       if (pValueToTag.containsKey(input)) {
         edge.setProperty(AdditionalOutputTagProperty.of(pValueToTag.get(input).getId()));
@@ -32,13 +32,17 @@ import org.apache.beam.sdk.runners.TransformHierarchy;
 import org.apache.beam.sdk.transforms.*;
 import org.apache.beam.sdk.transforms.display.DisplayData;
 import org.apache.beam.sdk.transforms.display.HasDisplayData;
+import org.apache.beam.sdk.transforms.windowing.DefaultTrigger;
 import org.apache.beam.sdk.transforms.windowing.GlobalWindows;
 import org.apache.beam.sdk.transforms.windowing.Window;
 import org.apache.beam.sdk.transforms.windowing.WindowFn;
+import org.apache.beam.sdk.util.AppliedCombineFn;
+import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionView;
 import org.apache.beam.sdk.values.TupleTag;
 import org.apache.beam.sdk.values.TupleTagList;
+import org.apache.beam.sdk.values.WindowingStrategy;
 import org.apache.nemo.common.ir.edge.IREdge;
 import org.apache.nemo.common.ir.edge.executionproperty.CommunicationPatternProperty;
 import org.apache.nemo.common.ir.vertex.IRVertex;
@@ -350,26 +354,21 @@ final class PipelineTranslator {
 
     // Check if the partial combining optimization can be applied.
     // If not, simply use the default Combine implementation by entering into it.
-    if (!(isMainInputBounded(beamNode, ctx.getPipeline()) && isGlobalWindow(beamNode, ctx.getPipeline()))) {
-      // TODO #263: Partial Combining for Beam Streaming
-      return Pipeline.PipelineVisitor.CompositeBehavior.ENTER_TRANSFORM;
-    }
     final Combine.PerKey perKey = (Combine.PerKey) transform;
     if (!perKey.getSideInputs().isEmpty()) {
       // TODO #264: Partial Combining with Beam SideInputs
       return Pipeline.PipelineVisitor.CompositeBehavior.ENTER_TRANSFORM;
     }
+    final boolean isBatch =
+      isMainInputBounded(beamNode, ctx.getPipeline()) && isGlobalWindow(beamNode, ctx.getPipeline());
+    if (!isBatch && !canCombineWindowed(beamNode, ctx.getPipeline(), perKey.getFn())) {
+      return Pipeline.PipelineVisitor.CompositeBehavior.ENTER_TRANSFORM;
+    }
 
     // This Combine can be optimized as the following sequence of Nemo IRVertices.
     // Combine Input -> Combine(Partial Combine -> KV<InputT, AccumT> -> Final Combine) -> Combine Output
     final CombineFnBase.GlobalCombineFn combineFn = perKey.getFn();
 
-    // (Step 1) To Partial Combine
-    final IRVertex partialCombine = new OperatorVertex(new CombineFnPartialTransform<>(combineFn));
-    ctx.addVertex(partialCombine);
-    beamNode.getInputs().values().forEach(input -> ctx.addEdgeTo(partialCombine, input));
-
-    // (Step 2) To Final Combine
     final PCollection input = (PCollection) Iterables.getOnlyElement(
       TransformInputs.nonAdditionalInputs(beamNode.toAppliedPTransform(ctx.getPipeline())));
     final KvCoder inputCoder = (KvCoder) input.getCoder();
@@ -380,13 +379,44 @@ final class PipelineTranslator {
     } catch (CannotProvideCoderException e) {
       throw new RuntimeException(e);
     }
-    final IRVertex finalCombine = new OperatorVertex(new CombineFnFinalTransform<>(combineFn));
+    final KvCoder accumulatorKvCoder = KvCoder.of(inputCoder.getKeyCoder(), accumulatorCoder);
+
+    final IRVertex partialCombine;
+    final IRVertex finalCombine;
+    if (isBatch) {
+      partialCombine = new OperatorVertex(
+        new CombineFnPartialTransform<>(combineFn, accumulatorCoder, ctx.getPipelineOptions()));
+      finalCombine = new OperatorVertex(new CombineFnFinalTransform<>(combineFn));
+    } else {
+      // Accumulate per key and window, and emit the accumulators as the watermark passes the windows.
+      final TupleTag partialOutputTag = new TupleTag<>();
+      partialCombine = new OperatorVertex(new GroupByKeyAndWindowDoFnTransform(
+        Collections.singletonMap(partialOutputTag, accumulatorKvCoder),
+        partialOutputTag,
+        input.getWindowingStrategy(),
+        ctx.getPipelineOptions(),
+        SystemReduceFn.combining(inputCoder.getKeyCoder(), AppliedCombineFn.withAccumulatorCoder(
+          new PartialCombineFn<>((Combine.CombineFn) combineFn), accumulatorCoder)),
+        DisplayData.from(beamNode.getTransform())));
+      finalCombine = new OperatorVertex(new GroupByKeyAndWindowDoFnTransform(
+        getOutputCoders(beamNode.toAppliedPTransform(ctx.getPipeline())),
+        new TupleTag<>(),
+        input.getWindowingStrategy(),
+        ctx.getPipelineOptions(),
+        SystemReduceFn.combining(inputCoder.getKeyCoder(), AppliedCombineFn.withAccumulatorCoder(
+          new FinalCombineFn<>((Combine.CombineFn) combineFn), accumulatorCoder)),
+        DisplayData.from(beamNode.getTransform())));
+    }
+
+    // (Step 1) To Partial Combine
+    ctx.addVertex(partialCombine);
+    beamNode.getInputs().values().forEach(mainInput ->
+      ctx.addEdgeTo(partialCombine, mainInput, CommunicationPatternProperty.Value.ONE_TO_ONE));
+
+    // (Step 2) To Final Combine
     ctx.addVertex(finalCombine);
     final IREdge edge = new IREdge(CommunicationPatternProperty.Value.SHUFFLE, partialCombine, finalCombine);
-    ctx.addEdge(
-      edge,
-      KvCoder.of(inputCoder.getKeyCoder(), accumulatorCoder),
-      input.getWindowingStrategy().getWindowFn().windowCoder());
+    ctx.addEdge(edge, accumulatorKvCoder, input.getWindowingStrategy().getWindowFn().windowCoder());
 
     // (Step 3) To Combine Output
     beamNode.getOutputs().values().forEach(output -> ctx.registerMainOutputFrom(beamNode, finalCombine, output));
@@ -506,7 +536,7 @@ final class PipelineTranslator {
     final TupleTag mainOutputTag = new TupleTag<>();
 
     if (isGlobalWindow(beamNode, ctx.getPipeline())) {
-      return new GroupByKeyTransform();
+      return new GroupByKeyTransform((Coder<KV>) mainInput.getCoder());
     } else {
       return new GroupByKeyAndWindowDoFnTransform(
         getOutputCoders(pTransform),
@@ -531,6 +561,28 @@ final class PipelineTranslator {
     return mainInput.getWindowingStrategy().getWindowFn() instanceof GlobalWindows;
   }
 
+  /**
+   * Partial combining of windowed data is applied only when each window fires once on time, possibly followed by
+   * late panes that discard the fired elements, so that the final combine produces the same panes.
+   *
+   * @param beamNode  the beam node to be translated.
+   * @param pipeline  pipeline.
+   * @param combineFn the combine function.
+   * @return true if the main input can be partially combined per key and window.
+   */
+  private static boolean canCombineWindowed(final TransformHierarchy.Node beamNode,
+                                            final Pipeline pipeline,
+                                            final CombineFnBase.GlobalCombineFn<?, ?, ?> combineFn) {
+    final AppliedPTransform pTransform = beamNode.toAppliedPTransform(pipeline);
+    final PCollection<?> mainInput = (PCollection<?>)
+      Iterables.getOnlyElement(TransformInputs.nonAdditionalInputs(pTransform));
+    final WindowingStrategy<?, ?> windowingStrategy = mainInput.getWindowingStrategy();
+    return !(windowingStrategy.getWindowFn() instanceof GlobalWindows)
+      && windowingStrategy.getTrigger() instanceof DefaultTrigger
+      && windowingStrategy.getMode() == WindowingStrategy.AccumulationMode.DISCARDING_FIRED_PANES
+      && combineFn instanceof Combine.CombineFn;
+  }
+
   /**
    * @param beamNode the beam node to be translated.
    * @param pipeline pipeline.
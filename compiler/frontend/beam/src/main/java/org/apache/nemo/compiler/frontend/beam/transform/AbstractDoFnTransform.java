@@ -69,7 +69,7 @@ public abstract class AbstractDoFnTransform<InputT, InterT, OutputT> implements
   private transient PushbackSideInputDoFnRunner<InterT, OutputT> pushBackRunner;
 
   private transient DoFnInvoker<InterT, OutputT> doFnInvoker;
-  private transient DoFnRunners.OutputManager outputManager;
+  private transient DefaultOutputManager<OutputT> outputManager;
   private transient InMemorySideInputReader sideInputReader;
 
   // Variables for bundle.
@@ -205,6 +205,17 @@ public abstract class AbstractDoFnTransform<InputT, InterT, OutputT> implements
    * (same applies to the other bundle-related methods)
    */
   final void checkAndInvokeBundle() {
+    checkAndInvokeBundle(1);
+  }
+
+  /**
+   * Checks whether the bundle is finished or not, for a number of elements to process at once.
+   * Starts the bundle if it is done.
+   * The elements are all counted in the current bundle, which may thus exceed the maximum bundle size.
+   *
+   * @param numElements the number of elements to process.
+   */
+  final void checkAndInvokeBundle(final int numElements) {
     if (bundleFinished) {
       bundleFinished = false;
       if (pushBackRunner == null) {
@@ -215,7 +226,7 @@ public abstract class AbstractDoFnTransform<InputT, InterT, OutputT> implements
       prevBundleStartTime = System.currentTimeMillis();
       currBundleCount = 0;
     }
-    currBundleCount += 1;
+    currBundleCount += numElements;
   }
 
   /**
@@ -303,6 +314,20 @@ public abstract class AbstractDoFnTransform<InputT, InterT, OutputT> implements
       : SimplePushbackSideInputDoFnRunner.<InterT, OutputT>create(doFnRunner, sideInputs.values(), sideInputReader);
   }
 
+  /**
+   * Starts to emit the main outputs of the doFn as batches.
+   */
+  final void startOutputBatch() {
+    outputManager.startBatch();
+  }
+
+  /**
+   * Emits the remaining main outputs of the doFn, and stops to emit them as batches.
+   */
+  final void finishOutputBatch() {
+    outputManager.finishBatch();
+  }
+
   /**
    * Getter function for output collector.
    *
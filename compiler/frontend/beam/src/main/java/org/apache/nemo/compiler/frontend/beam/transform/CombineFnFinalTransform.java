@@ -35,8 +35,8 @@ import java.util.Map;
 
 /**
  * Accumulates all of the partially accumulated KVs(Key, Accum) into KVs(Key, Output).
- * (Currently supports batch-style global windows only)
- * TODO #263: Partial Combining for Beam Streaming
+ * (Used for batch-style global windows only.
+ * Windowed data is finally combined by {@link GroupByKeyAndWindowDoFnTransform} with {@link FinalCombineFn})
  * TODO #264: Partial Combining with Beam SideInputs
  *
  * @param <K> Key type.
@@ -20,22 +20,31 @@ package org.apache.nemo.compiler.frontend.beam.transform;
 
 import org.apache.beam.runners.core.GlobalCombineFnRunner;
 import org.apache.beam.runners.core.GlobalCombineFnRunners;
+import org.apache.beam.runners.core.construction.SerializablePipelineOptions;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.transforms.CombineFnBase;
+import org.apache.beam.sdk.util.CoderUtils;
 import org.apache.beam.sdk.util.WindowedValue;
 import org.apache.beam.sdk.values.KV;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.transform.NoWatermarkEmitTransform;
+import org.apache.nemo.compiler.frontend.beam.NemoPipelineOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Partially accumulates the given KVs(Key, Input) into KVs(Key, Accum).
- * (Currently supports batch-style global windows only)
- * TODO #263: Partial Combining for Beam Streaming
+ * The accumulators are kept in a table bounded by the number of keys and their estimated size.
+ * When the table exceeds either bound, the least recently updated accumulators are emitted early,
+ * so that the output streams into the shuffle while the task runs.
+ * (Used for batch-style global windows only.
+ * Windowed data is partially combined by {@link GroupByKeyAndWindowDoFnTransform} with {@link PartialCombineFn})
  * TODO #264: Partial Combining with Beam SideInputs
  *
  * @param <K> Key type.
@@ -45,25 +54,54 @@ import java.util.Map;
 public final class CombineFnPartialTransform<K, I, A>
   extends NoWatermarkEmitTransform<WindowedValue<KV<K, I>>, WindowedValue<KV<K, A>>> {
   private static final Logger LOG = LoggerFactory.getLogger(CombineFnPartialTransform.class.getName());
-  private final Map<K, A> keyToAcuumulator;
-  private OutputCollector<WindowedValue<KV<K, A>>> outputCollector;
+  private static final int SIZE_SAMPLING_INTERVAL = 128;
+
+  private final Coder<A> accumulatorCoder;
+  private final SerializablePipelineOptions serializedOptions;
 
   // null arguments when calling methods of this variable, since we don't support sideinputs yet.
   private final GlobalCombineFnRunner<I, A, ?> combineFnRunner;
 
+  private transient Context context;
+  private transient OutputCollector<WindowedValue<KV<K, A>>> outputCollector;
+  // In the access order, so that the least recently updated accumulator comes first.
+  private transient Map<K, A> keyToAccumulator;
+  private transient long maxKeys;
+  private transient long maxBytes;
+
+  // For estimating the size of the accumulators.
+  private transient long numInputs;
+  private transient long numSampledBytes;
+  private transient long numSamples;
+
+  // Metrics on whether the partial combining pays off.
+  private transient long numHits;
+  private transient long numMisses;
+  private transient long numEvictions;
+
   /**
    * Constructor.
    *
-   * @param combineFn combine function.
+   * @param combineFn        combine function.
+   * @param accumulatorCoder accumulator coder, for estimating the size of the accumulators.
+   * @param options          pipeline options.
    */
-  public CombineFnPartialTransform(final CombineFnBase.GlobalCombineFn<I, A, ?> combineFn) {
+  public CombineFnPartialTransform(final CombineFnBase.GlobalCombineFn<I, A, ?> combineFn,
+                                   final Coder<A> accumulatorCoder,
+                                   final PipelineOptions options) {
     this.combineFnRunner = GlobalCombineFnRunners.create(combineFn);
-    this.keyToAcuumulator = new HashMap<>();
+    this.accumulatorCoder = accumulatorCoder;
+    this.serializedOptions = new SerializablePipelineOptions(options);
   }
 
   @Override
-  public void prepare(final Context context, final OutputCollector<WindowedValue<KV<K, A>>> oc) {
+  public void prepare(final Context ctx, final OutputCollector<WindowedValue<KV<K, A>>> oc) {
+    this.context = ctx;
     this.outputCollector = oc;
+    this.keyToAccumulator = new LinkedHashMap<>(16, 0.75f, true);
+    final NemoPipelineOptions options = serializedOptions.get().as(NemoPipelineOptions.class);
+    this.maxKeys = options.getMaxPartialCombineKeys();
+    this.maxBytes = options.getMaxPartialCombineMb() * 1024L * 1024L;
   }
 
   @Override
@@ -71,30 +109,84 @@ public final class CombineFnPartialTransform<K, I, A>
     final K key = element.getValue().getKey();
     final I val = element.getValue().getValue();
 
-    // The initial accumulator
-    keyToAcuumulator.putIfAbsent(
-      key, combineFnRunner.createAccumulator(null, null, null));
-
-    // Get the accumulator
-    final A accumulatorForThisElement = keyToAcuumulator.get(key);
+    // Get the accumulator, or the initial accumulator if this key is not in the table
+    A accumulator = keyToAccumulator.get(key);
+    if (accumulator == null) {
+      numMisses++;
+      accumulator = combineFnRunner.createAccumulator(null, null, null);
+    } else {
+      numHits++;
+    }
 
     // Update the accumulator
-    keyToAcuumulator.putIfAbsent(
-      key,
-      combineFnRunner.addInput(accumulatorForThisElement, val, null, null, null));
+    accumulator = combineFnRunner.addInput(accumulator, val, null, null, null);
+    keyToAccumulator.put(key, accumulator);
+
+    if (maxBytes > 0 && numInputs++ % SIZE_SAMPLING_INTERVAL == 0) {
+      sampleSize(accumulator);
+    }
+    evictWhileExceeded();
+  }
+
+  /**
+   * Samples the encoded size of an accumulator.
+   *
+   * @param accumulator the accumulator to sample.
+   */
+  private void sampleSize(final A accumulator) {
+    try {
+      numSampledBytes += CoderUtils.encodeToByteArray(accumulatorCoder, accumulator).length;
+      numSamples++;
+    } catch (final CoderException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * @return whether the table exceeds the number of keys or the estimated size allowed.
+   */
+  private boolean isExceeded() {
+    final int numKeys = keyToAccumulator.size();
+    return (maxKeys > 0 && numKeys > maxKeys)
+      || (maxBytes > 0 && numSamples > 0 && numSampledBytes / numSamples * numKeys > maxBytes);
+  }
+
+  /**
+   * Emits the least recently updated accumulators until the table fits in its bounds.
+   */
+  private void evictWhileExceeded() {
+    final Iterator<Map.Entry<K, A>> iterator = keyToAccumulator.entrySet().iterator();
+    while (isExceeded() && iterator.hasNext()) {
+      emit(iterator.next());
+      iterator.remove();
+      numEvictions++;
+    }
+  }
+
+  /**
+   * Emits the compacted accumulator of a key.
+   *
+   * @param entry the key and its accumulator.
+   */
+  private void emit(final Map.Entry<K, A> entry) {
+    final A compactAccum = combineFnRunner.compact(entry.getValue(), null, null, null);
+    outputCollector.emit(WindowedValue.valueInGlobalWindow(KV.of(entry.getKey(), compactAccum)));
   }
 
   @Override
   public void close() {
-    final Iterator<Map.Entry<K, A>> iterator = keyToAcuumulator.entrySet().iterator();
+    final Iterator<Map.Entry<K, A>> iterator = keyToAccumulator.entrySet().iterator();
     while (iterator.hasNext()) {
-      final Map.Entry<K, A> entry = iterator.next();
-      final K key = entry.getKey();
-      final A accum = entry.getValue();
-      final A compactAccum = combineFnRunner.compact(accum, null, null, null);
-      outputCollector.emit(WindowedValue.valueInGlobalWindow(KV.of(key, compactAccum)));
+      emit(iterator.next());
       iterator.remove(); // for eager garbage collection
     }
+
+    context.addMetric("partialCombineHits", numHits);
+    context.addMetric("partialCombineMisses", numMisses);
+    context.addMetric("partialCombineEvictions", numEvictions);
+    final long numCombined = numHits + numMisses;
+    LOG.info("Partially combined {} inputs with {} hits ({}%) and {} evictions", numCombined, numHits,
+      numCombined == 0 ? 0 : numHits * 100 / numCombined, numEvictions);
   }
 
   @Override
@@ -21,16 +21,20 @@ package org.apache.nemo.compiler.frontend.beam.transform;
 import org.apache.beam.runners.core.DoFnRunners;
 import org.apache.beam.sdk.util.WindowedValue;
 import org.apache.beam.sdk.values.TupleTag;
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.ir.OutputCollector;
 
 /**
  * Default output emitter that uses outputCollector.
+ * Between {@link #startBatch()} and {@link #finishBatch()}, the main outputs are emitted as batches.
  *
  * @param <OutputT> output type
  */
 public final class DefaultOutputManager<OutputT> implements DoFnRunners.OutputManager {
   private final TupleTag<OutputT> mainOutputTag;
   private final OutputCollector<WindowedValue<OutputT>> outputCollector;
+  private final ElementBatch<WindowedValue<OutputT>> mainOutputBatch = new ElementBatch<>();
+  private boolean isBatching = false;
 
   /**
    * @param outputCollector output collector.
@@ -45,9 +49,38 @@ public final class DefaultOutputManager<OutputT> implements DoFnRunners.OutputMa
   @Override
   public <T> void output(final TupleTag<T> tag, final WindowedValue<T> output) {
     if (tag.equals(mainOutputTag)) {
-      outputCollector.emit((WindowedValue<OutputT>) output);
+      if (isBatching) {
+        mainOutputBatch.add((WindowedValue<OutputT>) output);
+        if (mainOutputBatch.isFull()) {
+          emitMainOutputBatch();
+        }
+      } else {
+        outputCollector.emit((WindowedValue<OutputT>) output);
+      }
     } else {
       outputCollector.emit(tag.getId(), output);
     }
   }
+
+  /**
+   * Starts to collect the main outputs into batches.
+   */
+  void startBatch() {
+    isBatching = true;
+  }
+
+  /**
+   * Emits the remaining main outputs, and stops to collect them into batches.
+   */
+  void finishBatch() {
+    emitMainOutputBatch();
+    isBatching = false;
+  }
+
+  private void emitMainOutputBatch() {
+    if (!mainOutputBatch.isEmpty()) {
+      outputCollector.emitBatch(mainOutputBatch);
+      mainOutputBatch.clear();
+    }
+  }
 }
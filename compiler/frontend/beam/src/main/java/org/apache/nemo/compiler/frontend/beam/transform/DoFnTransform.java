@@ -27,6 +27,7 @@ import org.apache.beam.sdk.util.WindowedValue;
 import org.apache.beam.sdk.values.PCollectionView;
 import org.apache.beam.sdk.values.TupleTag;
 import org.apache.beam.sdk.values.WindowingStrategy;
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.punctuation.Watermark;
 import org.slf4j.Logger;
@@ -84,6 +85,18 @@ public final class DoFnTransform<InputT, OutputT> extends AbstractDoFnTransform<
     checkAndFinishBundle();
   }
 
+  @Override
+  public void onDataBatch(final ElementBatch<WindowedValue<InputT>> elements) {
+    // The whole batch is processed in the same bundle, and the main outputs are emitted as batches.
+    checkAndInvokeBundle(elements.size());
+    startOutputBatch();
+    for (int i = 0; i < elements.size(); i++) {
+      getDoFnRunner().processElement(elements.get(i));
+    }
+    finishOutputBatch();
+    checkAndFinishBundle();
+  }
+
   @Override
   public void onWatermark(final Watermark watermark) {
     checkAndInvokeBundle();
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.compiler.frontend.beam.transform;
+
+import org.apache.beam.sdk.transforms.Combine;
+
+import java.util.Arrays;
+
+/**
+ * Wraps a {@link Combine.CombineFn} to merge the accumulators emitted by a {@link PartialCombineFn}
+ * into the outputs.
+ *
+ * @param <A> Accum type.
+ * @param <O> Output type.
+ */
+public final class FinalCombineFn<A, O> extends Combine.CombineFn<A, A, O> {
+  private final Combine.CombineFn<?, A, O> combineFn;
+
+  /**
+   * Constructor.
+   *
+   * @param combineFn combine function.
+   */
+  public FinalCombineFn(final Combine.CombineFn<?, A, O> combineFn) {
+    this.combineFn = combineFn;
+  }
+
+  @Override
+  public A createAccumulator() {
+    return combineFn.createAccumulator();
+  }
+
+  @Override
+  public A addInput(final A accumulator, final A input) {
+    return combineFn.mergeAccumulators(Arrays.asList(accumulator, input));
+  }
+
+  @Override
+  public A mergeAccumulators(final Iterable<A> accumulators) {
+    return combineFn.mergeAccumulators(accumulators);
+  }
+
+  @Override
+  public A compact(final A accumulator) {
+    return combineFn.compact(accumulator);
+  }
+
+  @Override
+  public O extractOutput(final A accumulator) {
+    return combineFn.extractOutput(accumulator);
+  }
+}
@@ -40,6 +40,7 @@ import java.util.*;
 
 /**
  * Groups elements according to key and window.
+ * With a combining {@link SystemReduceFn}, the elements of each key and window are combined instead.
  *
  * @param <K>      key type.
  * @param <InputT> input type.
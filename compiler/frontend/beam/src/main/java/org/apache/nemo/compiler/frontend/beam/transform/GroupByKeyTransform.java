@@ -18,56 +18,70 @@
  */
 package org.apache.nemo.compiler.frontend.beam.transform;
 
+import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.util.WindowedValue;
 import org.apache.beam.sdk.values.KV;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.transform.NoWatermarkEmitTransform;
+import org.apache.nemo.common.ir.vertex.transform.SpillableGroupingMap;
+import org.apache.nemo.compiler.frontend.beam.coder.BeamDecoderFactory;
+import org.apache.nemo.compiler.frontend.beam.coder.BeamEncoderFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Group Beam KVs.
+ * The KVs are spilled to the local disk if they do not fit in memory.
  *
  * @param <I> input type.
  */
 public final class GroupByKeyTransform<I> extends NoWatermarkEmitTransform<I, WindowedValue<KV<Object, List>>> {
   private static final Logger LOG = LoggerFactory.getLogger(GroupByKeyTransform.class.getName());
-  private final Map<Object, List> keyToValues;
+  private final Coder<KV> kvCoder;
+  private SpillableGroupingMap<KV> keyToKvs;
   private OutputCollector<WindowedValue<KV<Object, List>>> outputCollector;
 
   /**
    * GroupByKey constructor.
+   *
+   * @param kvCoder the coder of the input KVs.
    */
-  public GroupByKeyTransform() {
-    this.keyToValues = new HashMap<>();
+  public GroupByKeyTransform(final Coder<KV> kvCoder) {
+    this.kvCoder = kvCoder;
   }
 
   @Override
   public void prepare(final Context context, final OutputCollector<WindowedValue<KV<Object, List>>> oc) {
     this.outputCollector = oc;
+    this.keyToKvs = new SpillableGroupingMap<>(element -> ((KV) element).getKey(),
+      new BeamEncoderFactory<>(kvCoder), new BeamDecoderFactory<>(kvCoder), context);
   }
 
   @Override
   public void onData(final I element) {
     final WindowedValue<KV> windowedValue = (WindowedValue<KV>) element;
-    final KV kv = windowedValue.getValue();
-    keyToValues.putIfAbsent(kv.getKey(), new ArrayList());
-    keyToValues.get(kv.getKey()).add(kv.getValue());
+    keyToKvs.add(windowedValue.getValue());
   }
 
   @Override
   public void close() {
-    if (keyToValues.isEmpty()) {
-      LOG.warn("Beam GroupByKeyTransform received no data!");
-    } else {
-      final Iterator<Map.Entry<Object, List>> iterator = keyToValues.entrySet().iterator();
-      while (iterator.hasNext()) {
-        final Map.Entry<Object, List> entry = iterator.next();
-        outputCollector.emit(WindowedValue.valueInGlobalWindow(KV.of(entry.getKey(), entry.getValue())));
-        iterator.remove();
+    try {
+      if (keyToKvs.isEmpty()) {
+        LOG.warn("Beam GroupByKeyTransform received no data!");
+      } else {
+        keyToKvs.forEachGroup((key, kvs) -> {
+          final List values = new ArrayList(kvs.size());
+          for (final KV kv : kvs) {
+            values.add(kv.getValue());
+          }
+          outputCollector.emit(WindowedValue.valueInGlobalWindow(KV.of(key, values)));
+        });
       }
+    } finally {
+      keyToKvs.close();
     }
   }
 }
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.compiler.frontend.beam.transform;
+
+import org.apache.beam.sdk.transforms.Combine;
+
+/**
+ * Wraps a {@link Combine.CombineFn} to partially accumulate the inputs into accumulators.
+ * The accumulators are emitted as the output, to be merged by a {@link FinalCombineFn} after a shuffle.
+ *
+ * @param <I> Input type.
+ * @param <A> Accum type.
+ */
+public final class PartialCombineFn<I, A> extends Combine.CombineFn<I, A, A> {
+  private final Combine.CombineFn<I, A, ?> combineFn;
+
+  /**
+   * Constructor.
+   *
+   * @param combineFn combine function.
+   */
+  public PartialCombineFn(final Combine.CombineFn<I, A, ?> combineFn) {
+    this.combineFn = combineFn;
+  }
+
+  @Override
+  public A createAccumulator() {
+    return combineFn.createAccumulator();
+  }
+
+  @Override
+  public A addInput(final A accumulator, final I input) {
+    return combineFn.addInput(accumulator, input);
+  }
+
+  @Override
+  public A mergeAccumulators(final Iterable<A> accumulators) {
+    return combineFn.mergeAccumulators(accumulators);
+  }
+
+  @Override
+  public A compact(final A accumulator) {
+    return combineFn.compact(accumulator);
+  }
+
+  @Override
+  public A extractOutput(final A accumulator) {
+    return combineFn.compact(accumulator);
+  }
+}
@@ -78,5 +78,10 @@ public final class SparkEncoderFactory<T> implements EncoderFactory<T> {
     public void encode(final T2 element) {
       out.writeObject(element, ClassTag$.MODULE$.Any());
     }
+
+    @Override
+    public void flush() {
+      out.flush();
+    }
   }
 }
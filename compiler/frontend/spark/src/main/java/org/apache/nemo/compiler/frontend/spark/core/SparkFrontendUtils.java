@@ -53,6 +53,7 @@ import scala.reflect.ClassTag;
 import scala.reflect.ClassTag$;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
@@ -98,9 +99,30 @@ public final class SparkFrontendUtils {
                                     final Stack<LoopVertex> loopVertexStack,
                                     final IRVertex lastVertex,
                                     final Serializer serializer) {
+    final List<T> result = new ArrayList<>();
+    final Iterator<T> collected = collectIterator(dag, loopVertexStack, lastVertex, serializer);
+    collected.forEachRemaining(result::add);
+    return result;
+  }
+
+  /**
+   * Collect data by running the DAG, without loading all of the collected data into memory at once.
+   * The data is spooled at the client as it arrives, and decoded while iterating.
+   *
+   * @param dag             the DAG to execute.
+   * @param loopVertexStack loop vertex stack.
+   * @param lastVertex      last vertex added to the dag.
+   * @param serializer      serializer for the edges.
+   * @param <T>             type of the return data.
+   * @return an iterator over the data collected.
+   */
+  public static <T> Iterator<T> collectIterator(final DAG<IRVertex, IREdge> dag,
+                                                final Stack<LoopVertex> loopVertexStack,
+                                                final IRVertex lastVertex,
+                                                final Serializer serializer) {
     final DAGBuilder<IRVertex, IREdge> builder = new DAGBuilder<>(dag);
 
-    final IRVertex collectVertex = new OperatorVertex(new CollectTransform<>());
+    final IRVertex collectVertex = new OperatorVertex(new CollectTransform<>(new SparkEncoderFactory<T>(serializer)));
     builder.addVertex(collectVertex, loopVertexStack);
 
     final IREdge newEdge = new IREdge(getEdgeCommunicationPattern(lastVertex, collectVertex),
@@ -113,7 +135,7 @@ public final class SparkFrontendUtils {
     // launch DAG
     JobLauncher.launchDAG(new IRDAG(builder.build()), SparkBroadcastVariables.getAll(), "");
 
-    return JobLauncher.getCollectedData();
+    return JobLauncher.getCollectedData(new SparkDecoderFactory<T>(serializer));
   }
 
   /**
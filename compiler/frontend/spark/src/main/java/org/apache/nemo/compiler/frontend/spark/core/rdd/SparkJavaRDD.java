@@ -600,7 +600,7 @@ public final class SparkJavaRDD<T> extends org.apache.spark.api.java.JavaRDD<T>
 
   @Override
   public Iterator<T> toLocalIterator() {
-    throw new UnsupportedOperationException(NOT_YET_SUPPORTED);
+    return rdd.collectAsIterator();
   }
 
   @Override
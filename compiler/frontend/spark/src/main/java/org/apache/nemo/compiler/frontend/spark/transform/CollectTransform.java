@@ -18,29 +18,36 @@
  */
 package org.apache.nemo.compiler.frontend.spark.transform;
 
-import org.apache.commons.lang3.SerializationUtils;
+import org.apache.nemo.common.coder.EncoderFactory;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.transform.NoWatermarkEmitTransform;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Base64;
 
 /**
  * Collect transform.
  * This transform is used for spark batch job, so do not emit watermark.
+ * The elements are encoded and sent to the client in chunks as they arrive, instead of being kept until the end.
  *
  * @param <T> type of data to collect.
  */
 public final class CollectTransform<T> extends NoWatermarkEmitTransform<T, T> implements Serializable {
-  private final ArrayList<T> list;
+  private static final int CHUNK_SIZE_BYTES = 1024 * 1024;
+
+  private final EncoderFactory<T> encoderFactory;
+  private transient ByteArrayOutputStream chunkStream;
+  private transient EncoderFactory.Encoder<T> encoder;
   private Context ctxt;
 
   /**
    * Constructor.
+   *
+   * @param encoderFactory to encode the collected elements with.
    */
-  public CollectTransform() {
-    this.list = new ArrayList<>();
+  public CollectTransform(final EncoderFactory<T> encoderFactory) {
+    this.encoderFactory = encoderFactory;
   }
 
   @Override
@@ -50,11 +57,38 @@ public final class CollectTransform<T> extends NoWatermarkEmitTransform<T, T> im
 
   @Override
   public void onData(final T element) {
-    list.add(element);
+    try {
+      if (encoder == null) {
+        chunkStream = new ByteArrayOutputStream();
+        encoder = encoderFactory.create(chunkStream);
+      }
+      encoder.encode(element);
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    }
+    if (chunkStream.size() >= CHUNK_SIZE_BYTES) {
+      sendChunk();
+    }
   }
 
   @Override
   public void close() {
-    ctxt.setSerializedData(Base64.getEncoder().encodeToString(SerializationUtils.serialize(list)));
+    if (encoder != null) {
+      sendChunk();
+    }
+  }
+
+  /**
+   * Sends the elements encoded so far as a chunk that can be decoded on its own.
+   */
+  private void sendChunk() {
+    try {
+      encoder.flush();
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    }
+    ctxt.sendCollectedData(chunkStream.toByteArray());
+    chunkStream = null;
+    encoder = null;
   }
 }
@@ -18,11 +18,14 @@
  */
 package org.apache.nemo.compiler.frontend.spark.transform;
 
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.transform.Transform;
 import org.apache.nemo.common.punctuation.Watermark;
 import org.apache.spark.api.java.function.FlatMapFunction;
 
+import java.util.Iterator;
+
 /**
  * Flatmap Transform that flattens each output element after mapping each elements to an iterator.
  *
@@ -32,6 +35,7 @@ import org.apache.spark.api.java.function.FlatMapFunction;
 public final class FlatMapTransform<T, U> implements Transform<T, U> {
   private final FlatMapFunction<T, U> func;
   private OutputCollector<U> outputCollector;
+  private transient ElementBatch<U> outputBatch;
 
   /**
    * Constructor.
@@ -45,6 +49,7 @@ public final class FlatMapTransform<T, U> implements Transform<T, U> {
   @Override
   public void prepare(final Context context, final OutputCollector<U> oc) {
     this.outputCollector = oc;
+    this.outputBatch = new ElementBatch<>();
   }
 
   @Override
@@ -56,6 +61,34 @@ public final class FlatMapTransform<T, U> implements Transform<T, U> {
     }
   }
 
+  @Override
+  public void onDataBatch(final ElementBatch<T> elements) {
+    try {
+      for (int i = 0; i < elements.size(); i++) {
+        final Iterator<U> outputs = func.call(elements.get(i));
+        while (outputs.hasNext()) {
+          outputBatch.add(outputs.next());
+          if (outputBatch.isFull()) {
+            emitOutputBatch();
+          }
+        }
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    emitOutputBatch();
+  }
+
+  /**
+   * Emits the outputs in the output batch, and empties it.
+   */
+  private void emitOutputBatch() {
+    if (!outputBatch.isEmpty()) {
+      outputCollector.emitBatch(outputBatch);
+      outputBatch.clear();
+    }
+  }
+
   @Override
   public void onWatermark(final Watermark watermark) {
     outputCollector.emitWatermark(watermark);
@@ -20,50 +20,62 @@ package org.apache.nemo.compiler.frontend.spark.transform;
 
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.transform.NoWatermarkEmitTransform;
+import org.apache.nemo.common.ir.vertex.transform.SpillableGroupingMap;
 import org.apache.nemo.common.ir.vertex.transform.Transform;
+import org.apache.nemo.compiler.frontend.spark.coder.SparkDecoderFactory;
+import org.apache.nemo.compiler.frontend.spark.coder.SparkEncoderFactory;
+import org.apache.spark.serializer.Serializer;
 import scala.Tuple2;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Transform for group by key transformation.
+ * The elements are spilled to the local disk if they do not fit in memory.
  * TODO #431: Handle states in Transforms better
  *
  * @param <K> key type.
  * @param <V> value type.
  */
 public final class GroupByKeyTransform<K, V> extends NoWatermarkEmitTransform<Tuple2<K, V>, Tuple2<K, Iterable<V>>> {
-  private final Map<K, List<V>> keyToValues;
+  private final Serializer serializer;
+  private SpillableGroupingMap<Tuple2<K, V>> keyToElements;
   private OutputCollector<Tuple2<K, Iterable<V>>> outputCollector;
 
   /**
    * Constructor.
+   *
+   * @param serializer the Spark serializer of the context, to spill the elements with.
    */
-  public GroupByKeyTransform() {
-    this.keyToValues = new HashMap<>();
+  public GroupByKeyTransform(final Serializer serializer) {
+    this.serializer = serializer;
   }
 
   @Override
   public void prepare(final Transform.Context context, final OutputCollector<Tuple2<K, Iterable<V>>> oc) {
     this.outputCollector = oc;
+    this.keyToElements = new SpillableGroupingMap<>(element -> ((Tuple2) element)._1,
+      new SparkEncoderFactory<>(serializer), new SparkDecoderFactory<>(serializer), context);
   }
 
   @Override
   public void onData(final Tuple2<K, V> element) {
-    K key = element._1;
-    V value = element._2;
-
-    keyToValues.putIfAbsent(key, new ArrayList<>());
-    keyToValues.get(key).add(value);
+    keyToElements.add(element);
   }
 
   @Override
   public void close() {
-    keyToValues.entrySet().stream().map(entry -> new Tuple2<>(entry.getKey(), (Iterable<V>) entry.getValue()))
-      .forEach(outputCollector::emit);
-    keyToValues.clear();
+    try {
+      keyToElements.forEachGroup((key, elements) -> {
+        final List<V> values = new ArrayList<>(elements.size());
+        for (final Tuple2<K, V> element : elements) {
+          values.add(element._2);
+        }
+        outputCollector.emit(new Tuple2<>(elements.get(0)._1, values));
+      });
+    } finally {
+      keyToElements.close();
+    }
   }
 }
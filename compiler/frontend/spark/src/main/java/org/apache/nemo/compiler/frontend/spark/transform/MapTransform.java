@@ -18,6 +18,7 @@
  */
 package org.apache.nemo.compiler.frontend.spark.transform;
 
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.transform.Transform;
 import org.apache.nemo.common.punctuation.Watermark;
@@ -32,6 +33,7 @@ import org.apache.spark.api.java.function.Function;
 public final class MapTransform<I, O> implements Transform<I, O> {
   private final Function<I, O> func;
   private OutputCollector<O> outputCollector;
+  private transient ElementBatch<O> outputBatch;
 
   /**
    * Constructor.
@@ -45,6 +47,7 @@ public final class MapTransform<I, O> implements Transform<I, O> {
   @Override
   public void prepare(final Context context, final OutputCollector<O> oc) {
     this.outputCollector = oc;
+    this.outputBatch = new ElementBatch<>();
   }
 
   @Override
@@ -56,6 +59,31 @@ public final class MapTransform<I, O> implements Transform<I, O> {
     }
   }
 
+  @Override
+  public void onDataBatch(final ElementBatch<I> elements) {
+    try {
+      for (int i = 0; i < elements.size(); i++) {
+        outputBatch.add(func.call(elements.get(i)));
+        if (outputBatch.isFull()) {
+          emitOutputBatch();
+        }
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    emitOutputBatch();
+  }
+
+  /**
+   * Emits the outputs in the output batch, and empties it.
+   */
+  private void emitOutputBatch() {
+    if (!outputBatch.isEmpty()) {
+      outputCollector.emitBatch(outputBatch);
+      outputBatch.clear();
+    }
+  }
+
   @Override
   public void onWatermark(final Watermark watermark) {
     outputCollector.emitWatermark(watermark);
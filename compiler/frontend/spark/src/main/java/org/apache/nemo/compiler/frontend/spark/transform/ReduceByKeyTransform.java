@@ -20,18 +20,20 @@ package org.apache.nemo.compiler.frontend.spark.transform;
 
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.transform.NoWatermarkEmitTransform;
+import org.apache.nemo.common.ir.vertex.transform.SpillableGroupingMap;
+import org.apache.nemo.compiler.frontend.spark.coder.SparkDecoderFactory;
+import org.apache.nemo.compiler.frontend.spark.coder.SparkEncoderFactory;
 import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.serializer.Serializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.Tuple2;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 /**
  * Transform for reduce by key transformation.
+ * The values of each key are reduced as they arrive, so this transform is used both to partially reduce
+ * the values before a shuffle and to reduce the partial results after the shuffle.
+ * The reduced elements are spilled to the local disk if they do not fit in memory.
  *
  * @param <K> key type.
  * @param <V> value type.
@@ -40,44 +42,59 @@ public final class ReduceByKeyTransform<K, V> extends NoWatermarkEmitTransform<T
   private static final Logger LOG = LoggerFactory.getLogger(ReduceByKeyTransform.class.getName());
 
   // TODO #431: Handle states in Transforms better
-  private final Map<K, List<V>> keyToValues;
+  private SpillableGroupingMap<Tuple2<K, V>> keyToElements;
   private final Function2<V, V, V> func;
+  private final Serializer serializer;
   private OutputCollector<Tuple2<K, V>> outputCollector;
 
   /**
    * Constructor.
    *
-   * @param func reduce function.
+   * @param func       reduce function.
+   * @param serializer the Spark serializer of the context, to spill the elements with.
    */
-  public ReduceByKeyTransform(final Function2<V, V, V> func) {
+  public ReduceByKeyTransform(final Function2<V, V, V> func, final Serializer serializer) {
     this.func = func;
-    this.keyToValues = new HashMap<>();
+    this.serializer = serializer;
   }
 
   @Override
   public void prepare(final Context context, final OutputCollector<Tuple2<K, V>> oc) {
     this.outputCollector = oc;
+    this.keyToElements = new SpillableGroupingMap<>(element -> ((Tuple2) element)._1, this::reduce,
+      new SparkEncoderFactory<>(serializer), new SparkDecoderFactory<>(serializer), context);
   }
 
   @Override
   public void onData(final Tuple2<K, V> element) {
-    final K key = element._1;
-    final V value = element._2;
-
-    keyToValues.putIfAbsent(key, new ArrayList<>());
-    keyToValues.get(key).add(value);
+    keyToElements.add(element);
   }
 
   @Override
   public void close() {
-    if (keyToValues.isEmpty()) {
-      LOG.warn("Spark ReduceByKeyTransform received no data!");
-    } else {
-      keyToValues.entrySet().stream().map(entry -> {
-        final V value = ReduceTransform.reduceIterator(entry.getValue().iterator(), func);
-        return new Tuple2<>(entry.getKey(), value);
-      }).forEach(outputCollector::emit);
-      keyToValues.clear();
+    try {
+      if (keyToElements.isEmpty()) {
+        LOG.warn("Spark ReduceByKeyTransform received no data!");
+      } else {
+        keyToElements.forEachGroup((key, elements) -> outputCollector.emit(elements.get(0)));
+      }
+    } finally {
+      keyToElements.close();
+    }
+  }
+
+  /**
+   * Reduces two elements with the same key.
+   *
+   * @param left  the left element.
+   * @param right the right element.
+   * @return the reduced element.
+   */
+  private Tuple2<K, V> reduce(final Tuple2<K, V> left, final Tuple2<K, V> right) {
+    try {
+      return new Tuple2<>(left._1, func.call(left._2, right._2));
+    } catch (final Exception e) {
+      throw new RuntimeException(e);
     }
   }
 }
@@ -28,6 +28,7 @@ import java.util.Iterator;
 
 /**
  * Reduce Transform for Spark.
+ * The elements are reduced as they arrive, and the result is emitted when the transform is closed.
  *
  * @param <T> element type.
  */
@@ -60,16 +61,10 @@ public final class ReduceTransform<T> implements Transform<T, T> {
     }
 
     try {
-      if (result == null) {
-        result = element;
-      }
-
-      result = func.call(result, element);
+      result = result == null ? element : func.call(result, element);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
-
-    outputCollector.emit(result);
   }
 
   @Override
@@ -104,6 +99,9 @@ public final class ReduceTransform<T> implements Transform<T, T> {
 
   @Override
   public void close() {
-    // Nothing to do in a SparkTransform.
+    if (result != null) {
+      outputCollector.emit(result);
+      result = null;
+    }
   }
 }
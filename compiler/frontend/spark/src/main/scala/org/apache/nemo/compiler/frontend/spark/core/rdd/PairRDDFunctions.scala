@@ -69,11 +69,27 @@ final class PairRDDFunctions[K: ClassTag, V: ClassTag] protected[rdd] (
   protected[rdd] def reduceByKey(javaFunc: Function2[V, V, V]): RDD[(K, V)] = {
     val builder = new DAGBuilder[IRVertex, IREdge](self.dag)
 
-    val reduceByKeyVertex = new OperatorVertex(new ReduceByKeyTransform[K, V](javaFunc))
+    // Partially reduce the values in each partition before the shuffle.
+    val partialReduceByKeyVertex = new OperatorVertex(new ReduceByKeyTransform[K, V](javaFunc, self.serializer))
+    builder.addVertex(partialReduceByKeyVertex, loopVertexStack)
+    builder.connectVertices(newReduceByKeyEdge(
+      CommunicationPatternProperty.Value.ONE_TO_ONE, self.lastVertex, partialReduceByKeyVertex))
+
+    val reduceByKeyVertex = new OperatorVertex(new ReduceByKeyTransform[K, V](javaFunc, self.serializer))
     builder.addVertex(reduceByKeyVertex, loopVertexStack)
+    builder.connectVertices(newReduceByKeyEdge(
+      SparkFrontendUtils.getEdgeCommunicationPattern(partialReduceByKeyVertex, reduceByKeyVertex),
+      partialReduceByKeyVertex, reduceByKeyVertex))
+
+    new RDD[(K, V)](self._sc, builder.buildWithoutSourceSinkCheck, reduceByKeyVertex, Option.empty)
+  }
 
-    val newEdge = new IREdge(SparkFrontendUtils.getEdgeCommunicationPattern(self.lastVertex, reduceByKeyVertex),
-      self.lastVertex, reduceByKeyVertex)
+  /**
+   * Creates an edge of (key, value) pairs towards a reduce by key vertex.
+   */
+  private def newReduceByKeyEdge(communicationPattern: CommunicationPatternProperty.Value,
+                                 src: IRVertex, dst: IRVertex): IREdge = {
+    val newEdge = new IREdge(communicationPattern, src, dst)
     newEdge.setProperty(
       EncoderProperty.of(new SparkEncoderFactory[Tuple2[K, V]](self.serializer))
         .asInstanceOf[EdgeExecutionProperty[_ <: Serializable]])
@@ -85,9 +101,7 @@ final class PairRDDFunctions[K: ClassTag, V: ClassTag] protected[rdd] (
     newEdge.setProperty(KeyEncoderProperty.of(new SparkEncoderFactory[K](self.serializer)))
     newEdge.setProperty(KeyDecoderProperty.of(new SparkDecoderFactory[K](self.serializer)))
     newEdge.setProperty(KeyExtractorProperty.of(new SparkKeyExtractor))
-    builder.connectVertices(newEdge)
-
-    new RDD[(K, V)](self._sc, builder.buildWithoutSourceSinkCheck, reduceByKeyVertex, Option.empty)
+    newEdge
   }
 
   /////////////// UNSUPPORTED METHODS ///////////////
@@ -137,6 +137,14 @@ final class RDD[T: ClassTag] protected[rdd] (
   override def collect(): Array[T] =
     collectAsList().asScala.toArray
 
+  /**
+   * Return an iterator that contains all of the elements in this RDD.
+   * The elements are spooled at the driver and decoded while iterating,
+   * so that they do not have to fit in the driver's memory all at once.
+   */
+  override def toLocalIterator: Iterator[T] =
+    collectAsIterator().asScala
+
   /////////////// TRANSFORMATIONS ///////////////
 
   /**
@@ -189,6 +197,12 @@ final class RDD[T: ClassTag] protected[rdd] (
   protected[rdd] def collectAsList(): util.List[T] =
     SparkFrontendUtils.collect(dag, loopVertexStack, lastVertex, serializer)
 
+  /**
+   * Return an iterator that contains all of the elements in this RDD, decoding them lazily.
+   */
+  protected[rdd] def collectAsIterator(): util.Iterator[T] =
+    SparkFrontendUtils.collectIterator(dag, loopVertexStack, lastVertex, serializer)
+
   /**
    * Reduces the elements of this RDD using the specified commutative and
    * associative binary operator.
@@ -206,8 +220,9 @@ final class RDD[T: ClassTag] protected[rdd] (
     newEdge.setProperty(keyExtractorProperty)
 
     builder.connectVertices(newEdge)
-    ReduceTransform.reduceIterator(
-      SparkFrontendUtils.collect(dag, loopVertexStack, lastVertex, serializer).iterator(), javaFunc)
+    // Each partition is reduced in parallel, and the partial results are reduced at the driver.
+    ReduceTransform.reduceIterator(SparkFrontendUtils.collectIterator(
+      builder.buildWithoutSourceSinkCheck, loopVertexStack, reduceVertex, serializer), javaFunc)
   }
 
   /**
@@ -475,9 +490,6 @@ final class RDD[T: ClassTag] protected[rdd] (
   override def foreachPartition(f: (Iterator[T]) => Unit): Unit =
     throw new UnsupportedOperationException("Operation not yet implemented.")
 
-  override def toLocalIterator: Iterator[T] =
-    throw new UnsupportedOperationException("Operation not yet implemented.")
-
   override def collect[U](f: PartialFunction[T, U])(implicit evidence$29: ClassManifest[U]): RDD[U] =
     throw new UnsupportedOperationException("Operation not yet implemented.")
 
@@ -25,6 +25,7 @@ import org.apache.nemo.common.ir.edge.executionproperty.DecompressionProperty;
 
 /**
  * A pass for applying compression algorithm for data flowing between vertices.
+ * No default policy compresses with ZSTD or ADAPTIVE; a policy opts in by constructing this pass with either.
  */
 @Annotates(CompressionProperty.class)
 public final class CompressionPass extends AnnotatingPass {
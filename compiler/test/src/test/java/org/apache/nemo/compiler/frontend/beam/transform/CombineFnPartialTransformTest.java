@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.compiler.frontend.beam.transform;
+
+import org.apache.beam.sdk.coders.BigEndianLongCoder;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.Combine;
+import org.apache.beam.sdk.util.WindowedValue;
+import org.apache.beam.sdk.values.KV;
+import org.apache.nemo.common.ir.vertex.transform.Transform;
+import org.apache.nemo.compiler.frontend.beam.NemoPipelineOptions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests {@link CombineFnPartialTransform}.
+ */
+public final class CombineFnPartialTransformTest {
+  private Transform.Context context;
+  private TestOutputCollector<KV<String, Long>> outputCollector;
+
+  @Before
+  public void setUp() {
+    context = mock(Transform.Context.class);
+    outputCollector = new TestOutputCollector<>();
+  }
+
+  /**
+   * The least recently updated key is emitted early once the table exceeds the number of keys.
+   */
+  @Test
+  public void testEvictionByNumKeys() {
+    final CombineFnPartialTransform<String, Long, Long> transform = newTransform(2, 0);
+    transform.onData(WindowedValue.valueInGlobalWindow(KV.of("a", 1L)));
+    transform.onData(WindowedValue.valueInGlobalWindow(KV.of("b", 2L)));
+    transform.onData(WindowedValue.valueInGlobalWindow(KV.of("a", 3L)));
+    assertEquals(0, outputCollector.outputs.size());
+
+    // "b" is the least recently updated key.
+    transform.onData(WindowedValue.valueInGlobalWindow(KV.of("c", 4L)));
+    assertEquals(Arrays.asList(KV.of("b", 2L)), getOutputs());
+
+    transform.close();
+    assertEquals(Arrays.asList(KV.of("b", 2L), KV.of("a", 4L), KV.of("c", 4L)), getOutputs());
+    verify(context).addMetric("partialCombineHits", 1L);
+    verify(context).addMetric("partialCombineMisses", 3L);
+    verify(context).addMetric("partialCombineEvictions", 1L);
+  }
+
+  /**
+   * The least recently updated keys are emitted early once the estimated size of the table exceeds the bound.
+   */
+  @Test
+  public void testEvictionBySize() {
+    // Each accumulator is encoded into 8 bytes, so 1MB holds 131072 accumulators.
+    final int numKeysInMemory = 1024 * 1024 / Long.BYTES;
+    final int numKeys = numKeysInMemory + 1000;
+    final CombineFnPartialTransform<String, Long, Long> transform = newTransform(0, 1);
+    for (int i = 0; i < numKeys; i++) {
+      transform.onData(WindowedValue.valueInGlobalWindow(KV.of(String.valueOf(i), 1L)));
+    }
+    assertEquals(numKeys - numKeysInMemory, outputCollector.outputs.size());
+    assertEquals(KV.of("0", 1L), outputCollector.outputs.get(0).getValue());
+
+    transform.close();
+    assertEquals(numKeys, outputCollector.outputs.size());
+    verify(context).addMetric("partialCombineHits", 0L);
+    verify(context).addMetric("partialCombineMisses", (long) numKeys);
+    verify(context).addMetric("partialCombineEvictions", (long) (numKeys - numKeysInMemory));
+  }
+
+  private CombineFnPartialTransform<String, Long, Long> newTransform(final long maxKeys, final long maxMb) {
+    final NemoPipelineOptions options = PipelineOptionsFactory.as(NemoPipelineOptions.class);
+    options.setMaxPartialCombineKeys(maxKeys);
+    options.setMaxPartialCombineMb(maxMb);
+    final CombineFnPartialTransform<String, Long, Long> transform =
+      new CombineFnPartialTransform<>(new SumFn(), BigEndianLongCoder.of(), options);
+    transform.prepare(context, outputCollector);
+    return transform;
+  }
+
+  private List<KV<String, Long>> getOutputs() {
+    final List<KV<String, Long>> outputs = new ArrayList<>();
+    outputCollector.outputs.forEach(output -> outputs.add(output.getValue()));
+    return outputs;
+  }
+
+  /**
+   * Sums the values.
+   */
+  private static final class SumFn extends Combine.CombineFn<Long, Long, Long> {
+    @Override
+    public Long createAccumulator() {
+      return 0L;
+    }
+
+    @Override
+    public Long addInput(final Long accumulator, final Long input) {
+      return accumulator + input;
+    }
+
+    @Override
+    public Long mergeAccumulators(final Iterable<Long> accumulators) {
+      long sum = 0;
+      for (final Long accumulator : accumulators) {
+        sum += accumulator;
+      }
+      return sum;
+    }
+
+    @Override
+    public Long extractOutput(final Long accumulator) {
+      return accumulator;
+    }
+  }
+}
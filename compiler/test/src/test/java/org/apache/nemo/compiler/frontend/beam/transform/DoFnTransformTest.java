@@ -33,6 +33,7 @@ import org.apache.beam.sdk.util.WindowedValue;
 import org.apache.beam.sdk.values.PCollectionView;
 import org.apache.beam.sdk.values.TupleTag;
 import org.apache.beam.sdk.values.WindowingStrategy;
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.transform.Transform;
 import org.apache.nemo.common.punctuation.Watermark;
@@ -94,6 +95,45 @@ public final class DoFnTransformTest {
   }
 
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBatchOutput() {
+
+    final TupleTag<String> outputTag = new TupleTag<>("main-output");
+
+    final DoFnTransform<String, String> doFnTransform =
+      new DoFnTransform<>(
+        new IdentityDoFn<>(),
+        NULL_INPUT_CODER,
+        NULL_OUTPUT_CODERS,
+        outputTag,
+        Collections.emptyList(),
+        WindowingStrategy.globalDefault(),
+        PipelineOptionsFactory.as(NemoPipelineOptions.class),
+        DisplayData.none(),
+        DoFnSchemaInformation.create(),
+        Collections.emptyMap());
+
+    final Transform.Context context = mock(Transform.Context.class);
+    final OutputCollector<WindowedValue<String>> oc = new TestOutputCollector<>();
+    doFnTransform.prepare(context, oc);
+
+    final ElementBatch<WindowedValue<String>> batch = new ElementBatch<>(4);
+    batch.add(WindowedValue.valueInGlobalWindow("a"));
+    batch.add(WindowedValue.valueInGlobalWindow("b"));
+    batch.add(WindowedValue.valueInGlobalWindow("c"));
+    doFnTransform.onDataBatch(batch);
+    doFnTransform.onData(WindowedValue.valueInGlobalWindow("d"));
+
+    assertEquals(Arrays.asList(
+      WindowedValue.valueInGlobalWindow("a"),
+      WindowedValue.valueInGlobalWindow("b"),
+      WindowedValue.valueInGlobalWindow("c"),
+      WindowedValue.valueInGlobalWindow("d")), ((TestOutputCollector<String>) oc).outputs);
+
+    doFnTransform.close();
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   public void testCountBundle() {
@@ -18,11 +18,18 @@
  */
 package org.apache.nemo.compiler.frontend.beam.transform;
 
+import com.google.common.collect.Iterables;
 import org.apache.beam.runners.core.SystemReduceFn;
 import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderRegistry;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.coders.VarLongCoder;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.Combine;
+import org.apache.beam.sdk.transforms.Sum;
 import org.apache.beam.sdk.transforms.display.DisplayData;
 import org.apache.beam.sdk.transforms.windowing.*;
+import org.apache.beam.sdk.util.AppliedCombineFn;
 import org.apache.beam.sdk.util.WindowedValue;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.TupleTag;
@@ -41,6 +48,7 @@ import java.util.*;
 import static org.apache.beam.sdk.transforms.windowing.PaneInfo.Timing.*;
 import static org.apache.beam.sdk.values.WindowingStrategy.AccumulationMode.ACCUMULATING_FIRED_PANES;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
 
 public final class GroupByKeyAndWindowDoFnTransformTest {
@@ -245,6 +253,94 @@ public final class GroupByKeyAndWindowDoFnTransformTest {
     doFnTransform.close();
   }
 
+  /**
+   * Test partially combining elements per key and window on two transforms,
+   * and then finally combining the partial results on another transform.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void partialCombineTest() throws Exception {
+    final FixedWindows fixedWindows = FixedWindows.of(Duration.standardSeconds(1));
+    final Combine.CombineFn<Long, long[], Long> sumFn = Sum.ofLongs();
+    final Coder<long[]> accumulatorCoder =
+      sumFn.getAccumulatorCoder(CoderRegistry.createDefault(), VarLongCoder.of());
+
+    final List<GroupByKeyAndWindowDoFnTransform> partialTransforms = new ArrayList<>();
+    final List<TestOutputCollector<KV<String, long[]>>> partialOutputCollectors = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      final GroupByKeyAndWindowDoFnTransform partialTransform = new GroupByKeyAndWindowDoFnTransform(
+        NULL_OUTPUT_CODERS,
+        new TupleTag<>("partial-output"),
+        WindowingStrategy.of(fixedWindows),
+        PipelineOptionsFactory.as(NemoPipelineOptions.class),
+        SystemReduceFn.combining(StringUtf8Coder.of(),
+          AppliedCombineFn.withAccumulatorCoder(new PartialCombineFn<>(sumFn), accumulatorCoder)),
+        DisplayData.none());
+      final TestOutputCollector<KV<String, long[]>> partialOutputCollector = new TestOutputCollector();
+      partialTransform.prepare(mock(Transform.Context.class), partialOutputCollector);
+      partialTransforms.add(partialTransform);
+      partialOutputCollectors.add(partialOutputCollector);
+    }
+
+    final GroupByKeyAndWindowDoFnTransform finalTransform = new GroupByKeyAndWindowDoFnTransform(
+      NULL_OUTPUT_CODERS,
+      new TupleTag<>("main-output"),
+      WindowingStrategy.of(fixedWindows),
+      PipelineOptionsFactory.as(NemoPipelineOptions.class),
+      SystemReduceFn.combining(StringUtf8Coder.of(),
+        AppliedCombineFn.withAccumulatorCoder(new FinalCombineFn<>(sumFn), accumulatorCoder)),
+      DisplayData.none());
+    final TestOutputCollector<KV<String, Long>> oc = new TestOutputCollector();
+    finalTransform.prepare(mock(Transform.Context.class), oc);
+
+    final long[][] inputs = {
+      // partial transform index, timestamp, value
+      {0, 100, 1}, {0, 200, 2}, {1, 500, 10}, {0, 1100, 4}, {1, 1500, 20}};
+    for (final long[] input : inputs) {
+      final Instant timestamp = new Instant(input[1]);
+      final String key = input[2] == 2 || input[2] == 20 ? "b" : "a";
+      partialTransforms.get((int) input[0]).onData(WindowedValue.of(
+        KV.of(key, input[2]), timestamp, fixedWindows.assignWindow(timestamp), PaneInfo.NO_FIRING));
+    }
+
+    // The first window [0, 1000) is partially combined as the watermark passes it.
+    partialTransforms.forEach(partialTransform -> partialTransform.onWatermark(new Watermark(1000)));
+    assertEquals(3, partialOutputCollectors.stream().mapToInt(partialOc -> partialOc.outputs.size()).sum());
+    for (final TestOutputCollector<KV<String, long[]>> partialOutputCollector : partialOutputCollectors) {
+      partialOutputCollector.outputs.forEach(finalTransform::onData);
+      partialOutputCollector.outputs.clear();
+    }
+    finalTransform.onWatermark(new Watermark(1000));
+    assertEquals(getSums("a", 0, 11L, "b", 0, 2L), getSums(oc.outputs));
+    oc.outputs.clear();
+
+    // The second window [1000, 2000) is combined when the transforms are closed.
+    partialTransforms.forEach(GroupByKeyAndWindowDoFnTransform::close);
+    for (final TestOutputCollector<KV<String, long[]>> partialOutputCollector : partialOutputCollectors) {
+      partialOutputCollector.outputs.forEach(finalTransform::onData);
+    }
+    finalTransform.close();
+    assertEquals(getSums("a", 1000, 4L, "b", 1000, 20L), getSums(oc.outputs));
+  }
+
+  private Map<String, Long> getSums(final String key1, final long windowStart1, final long sum1,
+                                    final String key2, final long windowStart2, final long sum2) {
+    final Map<String, Long> sums = new HashMap<>();
+    sums.put(key1 + "@" + windowStart1, sum1);
+    sums.put(key2 + "@" + windowStart2, sum2);
+    return sums;
+  }
+
+  private Map<String, Long> getSums(final List<WindowedValue<KV<String, Long>>> outputs) {
+    final Map<String, Long> sums = new HashMap<>();
+    for (final WindowedValue<KV<String, Long>> output : outputs) {
+      final IntervalWindow window = (IntervalWindow) Iterables.getOnlyElement(output.getWindows());
+      final String keyAndWindow = output.getValue().getKey() + "@" + window.start().getMillis();
+      assertNull(sums.put(keyAndWindow, output.getValue().getValue()));
+    }
+    return sums;
+  }
+
   /**
    * Test complex triggers that emit early and late firing.
    */
@@ -38,6 +38,19 @@ public final class DataPlaneConf {
   private final int listenThreads;
   private final int workThreads;
   private final int chunkSizeKb;
+  private final int pipeBatchSizeKb;
+  private final int pipeBatchLingerMs;
+  private final int pipeCreditWindowKb;
+  private final int pipeElementQueueCapacity;
+  private final int spillThresholdMb;
+  private final int zstdCompressionLevel;
+  private final int networkBandwidthMbps;
+  private final double blockMemoryRatio;
+  private final boolean framedSerialization;
+  private final int prefetchBudgetMb;
+  private final int prefetchThreads;
+  private final int broadcastChunkSizeKb;
+  private final int broadcastChunkCacheMb;
 
   @Inject
   private DataPlaneConf(@Parameter(JobConf.IORequestHandleThreadsTotal.class) final int numIOThreads,
@@ -48,7 +61,20 @@ public final class DataPlaneConf {
                         @Parameter(JobConf.PartitionTransportServerBacklog.class) final int serverBackLog,
                         @Parameter(JobConf.PartitionTransportServerNumListeningThreads.class) final int listenThreads,
                         @Parameter(JobConf.PartitionTransportServerNumWorkingThreads.class) final int workThreads,
-                        @Parameter(JobConf.ChunkSizeKb.class) final int chunkSizeKb) {
+                        @Parameter(JobConf.ChunkSizeKb.class) final int chunkSizeKb,
+                        @Parameter(JobConf.PipeBatchSizeKb.class) final int pipeBatchSizeKb,
+                        @Parameter(JobConf.PipeBatchLingerMs.class) final int pipeBatchLingerMs,
+                        @Parameter(JobConf.PipeCreditWindowKb.class) final int pipeCreditWindowKb,
+                        @Parameter(JobConf.PipeElementQueueCapacity.class) final int pipeElementQueueCapacity,
+                        @Parameter(JobConf.SpillThresholdMb.class) final int spillThresholdMb,
+                        @Parameter(JobConf.ZstdCompressionLevel.class) final int zstdCompressionLevel,
+                        @Parameter(JobConf.NetworkBandwidthMbps.class) final int networkBandwidthMbps,
+                        @Parameter(JobConf.BlockMemoryRatio.class) final double blockMemoryRatio,
+                        @Parameter(JobConf.FramedSerialization.class) final boolean framedSerialization,
+                        @Parameter(JobConf.PrefetchBudgetMb.class) final int prefetchBudgetMb,
+                        @Parameter(JobConf.PrefetchThreads.class) final int prefetchThreads,
+                        @Parameter(JobConf.BroadcastChunkSizeKb.class) final int broadcastChunkSizeKb,
+                        @Parameter(JobConf.BroadcastChunkCacheMb.class) final int broadcastChunkCacheMb) {
     this.numIOThreads = numIOThreads;
     this.maxNumDownloads = maxNumDownloads;
     this.scheduleSerThread = scheduleSerThread;
@@ -58,6 +84,19 @@ public final class DataPlaneConf {
     this.listenThreads = listenThreads;
     this.workThreads = workThreads;
     this.chunkSizeKb = chunkSizeKb;
+    this.pipeBatchSizeKb = pipeBatchSizeKb;
+    this.pipeBatchLingerMs = pipeBatchLingerMs;
+    this.pipeCreditWindowKb = pipeCreditWindowKb;
+    this.pipeElementQueueCapacity = pipeElementQueueCapacity;
+    this.spillThresholdMb = spillThresholdMb;
+    this.zstdCompressionLevel = zstdCompressionLevel;
+    this.networkBandwidthMbps = networkBandwidthMbps;
+    this.blockMemoryRatio = blockMemoryRatio;
+    this.framedSerialization = framedSerialization;
+    this.prefetchBudgetMb = prefetchBudgetMb;
+    this.prefetchThreads = prefetchThreads;
+    this.broadcastChunkSizeKb = broadcastChunkSizeKb;
+    this.broadcastChunkCacheMb = broadcastChunkCacheMb;
   }
 
   public Configuration getDataPlaneConfiguration() {
@@ -71,6 +110,19 @@ public final class DataPlaneConf {
       .bindNamedParameter(JobConf.PartitionTransportServerNumListeningThreads.class, Integer.toString(listenThreads))
       .bindNamedParameter(JobConf.PartitionTransportServerNumWorkingThreads.class, Integer.toString(workThreads))
       .bindNamedParameter(JobConf.ChunkSizeKb.class, Integer.toString(chunkSizeKb))
+      .bindNamedParameter(JobConf.PipeBatchSizeKb.class, Integer.toString(pipeBatchSizeKb))
+      .bindNamedParameter(JobConf.PipeBatchLingerMs.class, Integer.toString(pipeBatchLingerMs))
+      .bindNamedParameter(JobConf.PipeCreditWindowKb.class, Integer.toString(pipeCreditWindowKb))
+      .bindNamedParameter(JobConf.PipeElementQueueCapacity.class, Integer.toString(pipeElementQueueCapacity))
+      .bindNamedParameter(JobConf.SpillThresholdMb.class, Integer.toString(spillThresholdMb))
+      .bindNamedParameter(JobConf.ZstdCompressionLevel.class, Integer.toString(zstdCompressionLevel))
+      .bindNamedParameter(JobConf.NetworkBandwidthMbps.class, Integer.toString(networkBandwidthMbps))
+      .bindNamedParameter(JobConf.BlockMemoryRatio.class, Double.toString(blockMemoryRatio))
+      .bindNamedParameter(JobConf.FramedSerialization.class, Boolean.toString(framedSerialization))
+      .bindNamedParameter(JobConf.PrefetchBudgetMb.class, Integer.toString(prefetchBudgetMb))
+      .bindNamedParameter(JobConf.PrefetchThreads.class, Integer.toString(prefetchThreads))
+      .bindNamedParameter(JobConf.BroadcastChunkSizeKb.class, Integer.toString(broadcastChunkSizeKb))
+      .bindNamedParameter(JobConf.BroadcastChunkCacheMb.class, Integer.toString(broadcastChunkCacheMb))
       .build();
   }
  }
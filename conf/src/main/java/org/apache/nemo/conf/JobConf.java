@@ -191,6 +191,39 @@ public final class JobConf extends ConfigurationModuleBuilder {
   public final class SchedulerImplClassName implements Name<String> {
   }
 
+  /**
+   * Scheduling policy impl.
+   */
+  @NamedParameter(doc = "Class name of the scheduling policy to use", short_name = "scheduling_policy_impl_class_name",
+    default_value = "org.apache.nemo.runtime.master.scheduler.MinOccupancyFirstSchedulingPolicy")
+  public final class SchedulingPolicyImplClassName implements Name<String> {
+  }
+
+  /**
+   * How long a task may wait for an executor that holds more of its input data, before running elsewhere.
+   */
+  @NamedParameter(doc = "The maximum time (in ms) to wait for an executor holding more input data of a task",
+    short_name = "locality_wait_ms", default_value = "3000")
+  public final class LocalityWaitMs implements Name<Integer> {
+  }
+
+  /**
+   * The size of the chunks that broadcast variables are split into, for executors to fetch them from each other.
+   */
+  @NamedParameter(doc = "The size (in KB) of the chunks of broadcast variables",
+    short_name = "broadcast_chunk_size_kb", default_value = "4096")
+  public final class BroadcastChunkSizeKb implements Name<Integer> {
+  }
+
+  /**
+   * The size of the broadcast chunks that an executor keeps to serve other executors,
+   * besides the broadcast variables assembled from them.
+   */
+  @NamedParameter(doc = "The maximum size (in MB) of the broadcast chunks an executor keeps for other executors",
+    short_name = "broadcast_chunk_cache_mb", default_value = "256")
+  public final class BroadcastChunkCacheMb implements Name<Integer> {
+  }
+
   //////////////////////////////// Runtime Executor Configurations
 
   /**
@@ -325,6 +358,97 @@ public final class JobConf extends ConfigurationModuleBuilder {
   public final class ChunkSizeKb implements Name<Integer> {
   }
 
+  /**
+   * The size of an element batch written to a pipe. 0 disables batching.
+   */
+  @NamedParameter(doc = "The size threshold (in KB) to flush a batch of elements written to a pipe (0 to disable)",
+    short_name = "pipe_batch_size_kb", default_value = "0")
+  public final class PipeBatchSizeKb implements Name<Integer> {
+  }
+
+  /**
+   * The maximum time a batch of elements written to a pipe may linger before being flushed.
+   */
+  @NamedParameter(doc = "The maximum time (in ms) a batch of elements written to a pipe may linger",
+    short_name = "pipe_batch_linger_ms", default_value = "10")
+  public final class PipeBatchLingerMs implements Name<Integer> {
+  }
+
+  /**
+   * The number of bytes a pipe may send ahead of its receiver's consumption. 0 disables flow control.
+   */
+  @NamedParameter(doc = "The credit window (in KB) of a pipe for credit-based flow control (0 to disable)",
+    short_name = "pipe_credit_window_kb", default_value = "4096")
+  public final class PipeCreditWindowKb implements Name<Integer> {
+  }
+
+  /**
+   * The number of elements read from the pipes that a task may hold before consuming them.
+   */
+  @NamedParameter(doc = "The capacity (in elements) of the queue between the pipes and the task reading them",
+    short_name = "pipe_element_queue_capacity", default_value = "10000")
+  public final class PipeElementQueueCapacity implements Name<Integer> {
+  }
+
+  /**
+   * The estimated size of the grouped data a transform may keep in memory before spilling it. 0 disables spilling.
+   */
+  @NamedParameter(doc = "The estimated size (in MB) of the grouped data a transform keeps in memory (0 to disable)",
+    short_name = "spill_threshold_mb", default_value = "0")
+  public final class SpillThresholdMb implements Name<Integer> {
+  }
+
+  /**
+   * The compression level of Zstandard, from 1 (fastest) to 22 (smallest).
+   */
+  @NamedParameter(doc = "The compression level of Zstandard (1 to 22)",
+    short_name = "zstd_compression_level", default_value = "3")
+  public final class ZstdCompressionLevel implements Name<Integer> {
+  }
+
+  /**
+   * The network bandwidth, against which the adaptive compression weighs the time to compress the data.
+   */
+  @NamedParameter(doc = "The network bandwidth (in Mbps) between executors, for the adaptive compression",
+    short_name = "network_bandwidth_mbps", default_value = "1000")
+  public final class NetworkBandwidthMbps implements Name<Integer> {
+  }
+
+  /**
+   * The ratio of the executor memory that the blocks in the memory stores may hold.
+   * Beyond it, the least recently used blocks are spilled to the local file store.
+   */
+  @NamedParameter(doc = "The ratio of the executor memory for the blocks in the memory stores",
+    short_name = "block_memory_ratio", default_value = "0.3")
+  public final class BlockMemoryRatio implements Name<Double> {
+  }
+
+  /**
+   * Whether to encode the data of the edges in frames which carry the number of elements and bytes.
+   * The readers then know where the data ends without decoding past it.
+   */
+  @NamedParameter(doc = "Whether to encode the data in length-prefixed frames",
+    short_name = "framed_serialization", default_value = "false")
+  public final class FramedSerialization implements Name<Boolean> {
+  }
+
+  /**
+   * The number of bytes (in MB) that a parent task data fetcher may decode ahead of the task.
+   * The budget is counted in serialized bytes, and 0 disables the prefetching.
+   */
+  @NamedParameter(doc = "The prefetch budget (in MB) per parent task data fetcher",
+    short_name = "prefetch_budget_mb", default_value = "32")
+  public final class PrefetchBudgetMb implements Name<Integer> {
+  }
+
+  /**
+   * The number of threads which decode the prefetched parent blocks in an executor.
+   */
+  @NamedParameter(doc = "The number of threads to decode the prefetched blocks",
+    short_name = "prefetch_threads", default_value = "4")
+  public final class PrefetchThreads implements Name<Integer> {
+  }
+
   //////////////////////////////// Intermediate Configurations
 
   /**
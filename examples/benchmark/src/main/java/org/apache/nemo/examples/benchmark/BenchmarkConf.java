@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.examples.benchmark;
+
+import org.apache.reef.tang.annotations.Name;
+import org.apache.reef.tang.annotations.NamedParameter;
+
+/**
+ * Benchmark configurations.
+ */
+public final class BenchmarkConf {
+
+  /**
+   * Private constructor.
+   */
+  private BenchmarkConf() {
+  }
+
+  /**
+   * Workloads to run.
+   */
+  @NamedParameter(doc = "Comma-separated names of the workloads to run", short_name = "workloads",
+    default_value = "WORD_COUNT,PER_KEY_MEDIAN,NETWORK_TRACE_ANALYSIS,ALTERNATING_LEAST_SQUARE")
+  public final class Workloads implements Name<String> {
+  }
+
+  /**
+   * Optimization policies to run each workload with.
+   */
+  @NamedParameter(doc = "Comma-separated class names of the optimization policies to run each workload with."
+    + " Names without a package are looked up in the built-in policy package",
+    short_name = "policies",
+    default_value = "DefaultPolicy,DataSkewPolicy,LargeShufflePolicy,SamplingLargeShuffleSkewPolicy,StreamingPolicy")
+  public final class Policies implements Name<String> {
+  }
+
+  /**
+   * Number of records to generate for each input.
+   */
+  @NamedParameter(doc = "Number of records to generate for each input", short_name = "num_records",
+    default_value = "100000")
+  public final class NumRecords implements Name<Integer> {
+  }
+
+  /**
+   * Number of distinct keys in the generated records.
+   */
+  @NamedParameter(doc = "Number of distinct keys in the generated records", short_name = "num_keys",
+    default_value = "1000")
+  public final class NumKeys implements Name<Integer> {
+  }
+
+  /**
+   * Zipf exponent of the key distribution.
+   */
+  @NamedParameter(doc = "Zipf exponent of the key distribution. 0 generates uniformly distributed keys",
+    short_name = "zipf_exponent", default_value = "1.0")
+  public final class ZipfExponent implements Name<Double> {
+  }
+
+  /**
+   * Seed of the data generators.
+   */
+  @NamedParameter(doc = "Seed of the data generators", short_name = "seed", default_value = "0")
+  public final class Seed implements Name<Long> {
+  }
+
+  /**
+   * Number of times to run each workload with each policy.
+   */
+  @NamedParameter(doc = "Number of times to run each workload with each policy", short_name = "repetitions",
+    default_value = "1")
+  public final class Repetitions implements Name<Integer> {
+  }
+
+  /**
+   * Directory to write the inputs, outputs, metrics and the report to.
+   */
+  @NamedParameter(doc = "Directory to write the inputs, outputs, metrics and the report to",
+    short_name = "benchmark_dir", default_value = "benchmark")
+  public final class BenchmarkDirectory implements Name<String> {
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.examples.benchmark;
+
+import org.apache.nemo.client.JobLauncher;
+import org.apache.nemo.common.test.ArgBuilder;
+import org.apache.nemo.compiler.optimizer.policy.Policy;
+import org.apache.nemo.compiler.optimizer.policy.StreamingPolicy;
+import org.apache.nemo.conf.JobConf;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.JavaConfigurationBuilder;
+import org.apache.reef.tang.Tang;
+import org.apache.reef.tang.formats.CommandLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the example applications on synthetic data with each optimization policy through {@link JobLauncher}
+ * on the local runtime, and reports the job and task metrics of every run side by side.
+ * The report is written to report.csv in the benchmark directory, and is summarized in the log.
+ * The executor resources of the runs are given with the same executor_json option as the one of JobLauncher.
+ */
+public final class BenchmarkRunner {
+  private static final Logger LOG = LoggerFactory.getLogger(BenchmarkRunner.class.getName());
+  private static final String POLICY_PACKAGE = Policy.class.getPackage().getName();
+  // Policies which transfer data through pipes, and thus need all tasks to be scheduled at once
+  private static final Map<String, String> POLICY_TO_SCHEDULER = Collections.singletonMap(
+    StreamingPolicy.class.getCanonicalName(), "org.apache.nemo.runtime.master.scheduler.StreamingScheduler");
+
+  /**
+   * Private constructor.
+   */
+  private BenchmarkRunner() {
+  }
+
+  /**
+   * Main function of the benchmark.
+   *
+   * @param args arguments.
+   * @throws Exception exception on the way.
+   */
+  public static void main(final String[] args) throws Exception {
+    final Injector injector = Tang.Factory.getTang().newInjector(getBenchmarkConf(args).build());
+    final List<Workload> workloads = split(injector.getNamedInstance(BenchmarkConf.Workloads.class)).stream()
+      .map(Workload::valueOf)
+      .collect(Collectors.toList());
+    final List<String> policies = split(injector.getNamedInstance(BenchmarkConf.Policies.class)).stream()
+      .map(BenchmarkRunner::resolvePolicy)
+      .collect(Collectors.toList());
+    final SyntheticDataGenerator generator = new SyntheticDataGenerator(
+      injector.getNamedInstance(BenchmarkConf.NumRecords.class),
+      injector.getNamedInstance(BenchmarkConf.NumKeys.class),
+      injector.getNamedInstance(BenchmarkConf.ZipfExponent.class),
+      injector.getNamedInstance(BenchmarkConf.Seed.class));
+    final int repetitions = injector.getNamedInstance(BenchmarkConf.Repetitions.class);
+    final File benchmarkDirectory = new File(injector.getNamedInstance(BenchmarkConf.BenchmarkDirectory.class))
+      .getAbsoluteFile();
+    final String executorJsonPath = injector.getNamedInstance(JobConf.ExecutorJSONPath.class);
+
+    LOG.info("Running {} with {} ({}), {} repetition(s)", workloads, policies, generator, repetitions);
+    final List<RunResult> results = new ArrayList<>();
+    for (final Workload workload : workloads) {
+      final File workloadDirectory = new File(benchmarkDirectory, workload.name());
+      final File inputDirectory = mkdirs(new File(workloadDirectory, "input"));
+      final String outputPath = new File(workloadDirectory, "output").getPath();
+      final String[] userArgs = workload.generateInputs(generator, inputDirectory, outputPath);
+
+      for (final String policy : policies) {
+        for (int repetition = 0; repetition < repetitions; repetition++) {
+          final String policyName = policy.substring(policy.lastIndexOf('.') + 1);
+          final String jobId = workload.name() + "_" + policyName + "_" + repetition;
+          final File runDirectory = mkdirs(new File(workloadDirectory, policyName + "_" + repetition));
+          final ArgBuilder builder = new ArgBuilder()
+            .addJobId(jobId)
+            .addUserMain(workload.getUserMainClass().getCanonicalName())
+            .addUserArgs(userArgs)
+            .addOptimizationPolicy(policy)
+            .addDAGDirectory(runDirectory.getPath());
+          if (POLICY_TO_SCHEDULER.containsKey(policy)) {
+            builder.addScheduler(POLICY_TO_SCHEDULER.get(policy));
+          }
+          if (!executorJsonPath.isEmpty()) {
+            builder.addResourceJson(new File(executorJsonPath).getAbsolutePath());
+          }
+
+          final RunResult result = run(workload, policyName, repetition, builder.build(), runDirectory, jobId);
+          LOG.info("Finished {}: {}", jobId, result.toCsvLine());
+          results.add(result);
+        }
+      }
+    }
+
+    final File report = new File(benchmarkDirectory, "report.csv");
+    writeReport(report, results);
+    LOG.info("Wrote the report of {} run(s) to {}\n{}", results.size(), report, summarize(results));
+  }
+
+  /**
+   * Runs a job and summarizes its metrics.
+   * A failed job is recorded as such, so that the runs of the other policies can still be compared.
+   */
+  private static RunResult run(final Workload workload,
+                               final String policyName,
+                               final int repetition,
+                               final String[] args,
+                               final File runDirectory,
+                               final String jobId) {
+    try {
+      JobLauncher.main(args);
+      final File[] metricFiles = runDirectory.listFiles((dir, name) ->
+        name.startsWith("Metric_" + jobId + "_") && name.endsWith(".json"));
+      if (metricFiles == null || metricFiles.length == 0) {
+        LOG.warn("No metric file of {} in {}", jobId, runDirectory);
+        return RunResult.failed(workload, policyName, repetition);
+      }
+      final File latestMetricFile = Collections.max(Arrays.asList(metricFiles), Comparator.comparing(File::getName));
+      return RunResult.fromMetricFile(workload, policyName, repetition, latestMetricFile);
+    } catch (final Exception e) {
+      LOG.error("Failed to run " + jobId, e);
+      return RunResult.failed(workload, policyName, repetition);
+    }
+  }
+
+  /**
+   * Writes every run as a line of a CSV file.
+   */
+  private static void writeReport(final File report, final List<RunResult> results) throws IOException {
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8))) {
+      writer.println(RunResult.CSV_HEADER);
+      results.forEach(result -> writer.println(result.toCsvLine()));
+    }
+  }
+
+  /**
+   * Ranks the policies of each workload by their median job duration.
+   *
+   * @param results the results of the runs.
+   * @return the summary.
+   */
+  private static String summarize(final List<RunResult> results) {
+    final StringBuilder summary = new StringBuilder();
+    final Map<Workload, Map<String, List<RunResult>>> resultsPerWorkload = results.stream()
+      .collect(Collectors.groupingBy(RunResult::getWorkload, LinkedHashMap::new,
+        Collectors.groupingBy(RunResult::getPolicy, LinkedHashMap::new, Collectors.toList())));
+    resultsPerWorkload.forEach((workload, resultsPerPolicy) -> {
+      summary.append(workload).append('\n');
+      resultsPerPolicy.entrySet().stream()
+        .sorted(Comparator.comparingLong(entry -> medianJobDurationMs(entry.getValue())))
+        .forEach(entry -> {
+          final List<RunResult> succeeded = entry.getValue().stream()
+            .filter(RunResult::isSucceeded)
+            .collect(Collectors.toList());
+          summary.append(String.format("  %-40s", entry.getKey()));
+          if (succeeded.isEmpty()) {
+            summary.append("failed\n");
+          } else {
+            summary.append(String.format("JCT %8d ms, task skew %6.2f, %d/%d succeeded%n",
+              medianJobDurationMs(entry.getValue()),
+              succeeded.stream().mapToDouble(RunResult::getTaskSkew).average().orElse(0),
+              succeeded.size(), entry.getValue().size()));
+          }
+        });
+    });
+    return summary.toString();
+  }
+
+  /**
+   * @param results the runs of a workload with a policy.
+   * @return the median job duration of the runs that succeeded, or {@link Long#MAX_VALUE} if none succeeded.
+   */
+  private static long medianJobDurationMs(final List<RunResult> results) {
+    final List<Long> durations = results.stream()
+      .filter(RunResult::isSucceeded)
+      .map(RunResult::getJobDurationMs)
+      .sorted()
+      .collect(Collectors.toList());
+    return durations.isEmpty() ? Long.MAX_VALUE : durations.get(durations.size() / 2);
+  }
+
+  /**
+   * @param policy a policy class name, with or without the package.
+   * @return the fully qualified class name of the policy.
+   */
+  private static String resolvePolicy(final String policy) {
+    return policy.contains(".") ? policy : POLICY_PACKAGE + "." + policy;
+  }
+
+  private static List<String> split(final String commaSeparated) {
+    return Arrays.stream(commaSeparated.split(","))
+      .map(String::trim)
+      .filter(s -> !s.isEmpty())
+      .collect(Collectors.toList());
+  }
+
+  private static File mkdirs(final File directory) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create " + directory);
+    }
+    return directory;
+  }
+
+  /**
+   * @param args arguments to be processed as command line.
+   * @return the configuration builder of the benchmark.
+   * @throws IOException exception while processing command line.
+   */
+  private static JavaConfigurationBuilder getBenchmarkConf(final String[] args) throws IOException {
+    final JavaConfigurationBuilder confBuilder = Tang.Factory.getTang().newConfigurationBuilder();
+    final CommandLine cl = new CommandLine(confBuilder);
+    cl.registerShortNameOfClass(BenchmarkConf.Workloads.class);
+    cl.registerShortNameOfClass(BenchmarkConf.Policies.class);
+    cl.registerShortNameOfClass(BenchmarkConf.NumRecords.class);
+    cl.registerShortNameOfClass(BenchmarkConf.NumKeys.class);
+    cl.registerShortNameOfClass(BenchmarkConf.ZipfExponent.class);
+    cl.registerShortNameOfClass(BenchmarkConf.Seed.class);
+    cl.registerShortNameOfClass(BenchmarkConf.Repetitions.class);
+    cl.registerShortNameOfClass(BenchmarkConf.BenchmarkDirectory.class);
+    cl.registerShortNameOfClass(JobConf.ExecutorJSONPath.class);
+    cl.processCommandLine(args);
+    return confBuilder;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.examples.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The job and task metrics of a benchmark run, summarized from the metric file the runtime master dumps.
+ */
+final class RunResult {
+  static final String CSV_HEADER = "workload,policy,repetition,succeeded,jobDurationMs,numTasks,"
+    + "totalTaskDurationMs,medianTaskDurationMs,maxTaskDurationMs,taskSkew,shuffleReadBytes,shuffleWriteBytes";
+
+  private final Workload workload;
+  private final String policy;
+  private final int repetition;
+  private final boolean succeeded;
+  private final long jobDurationMs;
+  private final List<Long> taskDurationsMs;
+  private final long shuffleReadBytes;
+  private final long shuffleWriteBytes;
+
+  /**
+   * Constructor.
+   */
+  private RunResult(final Workload workload,
+                    final String policy,
+                    final int repetition,
+                    final boolean succeeded,
+                    final long jobDurationMs,
+                    final List<Long> taskDurationsMs,
+                    final long shuffleReadBytes,
+                    final long shuffleWriteBytes) {
+    this.workload = workload;
+    this.policy = policy;
+    this.repetition = repetition;
+    this.succeeded = succeeded;
+    this.jobDurationMs = jobDurationMs;
+    this.taskDurationsMs = taskDurationsMs;
+    this.shuffleReadBytes = shuffleReadBytes;
+    this.shuffleWriteBytes = shuffleWriteBytes;
+    Collections.sort(this.taskDurationsMs);
+  }
+
+  /**
+   * @param workload   the workload.
+   * @param policy     the optimization policy.
+   * @param repetition the index of the run among the runs of the workload with the policy.
+   * @return the result of a run that did not complete.
+   */
+  static RunResult failed(final Workload workload, final String policy, final int repetition) {
+    return new RunResult(workload, policy, repetition, false, -1, new ArrayList<>(), -1, -1);
+  }
+
+  /**
+   * Summarizes the metrics of a run that completed.
+   * The durations of all plans of the job are summed, and unrecorded task metrics are skipped.
+   *
+   * @param workload   the workload.
+   * @param policy     the optimization policy.
+   * @param repetition the index of the run among the runs of the workload with the policy.
+   * @param metricFile the metric file dumped by the runtime master.
+   * @return the result of the run.
+   * @throws IOException if the metric file cannot be read.
+   */
+  static RunResult fromMetricFile(final Workload workload,
+                                  final String policy,
+                                  final int repetition,
+                                  final File metricFile) throws IOException {
+    final JsonNode metrics = new ObjectMapper().readTree(metricFile);
+
+    long jobDurationMs = 0;
+    for (final JsonNode jobMetric : metrics.path("JobMetric")) {
+      jobDurationMs += Math.max(0, jobMetric.path("data").path("jobDuration").asLong(0));
+    }
+
+    final List<Long> taskDurationsMs = new ArrayList<>();
+    long shuffleReadBytes = 0;
+    long shuffleWriteBytes = 0;
+    final Iterator<JsonNode> taskMetrics = metrics.path("TaskMetric").elements();
+    while (taskMetrics.hasNext()) {
+      final JsonNode taskMetric = taskMetrics.next().path("data");
+      final long taskDuration = taskMetric.path("taskDuration").asLong(-1);
+      if (taskDuration >= 0) {
+        taskDurationsMs.add(taskDuration);
+      }
+      shuffleReadBytes += Math.max(0, taskMetric.path("shuffleReadBytes").asLong(-1));
+      shuffleWriteBytes += Math.max(0, taskMetric.path("shuffleWriteBytes").asLong(-1));
+    }
+    return new RunResult(workload, policy, repetition, true, jobDurationMs, taskDurationsMs,
+      shuffleReadBytes, shuffleWriteBytes);
+  }
+
+  Workload getWorkload() {
+    return workload;
+  }
+
+  String getPolicy() {
+    return policy;
+  }
+
+  boolean isSucceeded() {
+    return succeeded;
+  }
+
+  long getJobDurationMs() {
+    return jobDurationMs;
+  }
+
+  /**
+   * @return the median task duration, or -1 if no task duration was recorded.
+   */
+  long getMedianTaskDurationMs() {
+    return taskDurationsMs.isEmpty() ? -1 : taskDurationsMs.get(taskDurationsMs.size() / 2);
+  }
+
+  /**
+   * @return the longest task duration, or -1 if no task duration was recorded.
+   */
+  long getMaxTaskDurationMs() {
+    return taskDurationsMs.isEmpty() ? -1 : taskDurationsMs.get(taskDurationsMs.size() - 1);
+  }
+
+  /**
+   * @return the ratio of the longest task duration to the median one, which grows with the data skew.
+   */
+  double getTaskSkew() {
+    final long median = getMedianTaskDurationMs();
+    return median > 0 ? (double) getMaxTaskDurationMs() / median : 0;
+  }
+
+  /**
+   * @return the run as a line of the CSV report.
+   */
+  String toCsvLine() {
+    return String.join(",", workload.name(), policy, String.valueOf(repetition), String.valueOf(succeeded),
+      String.valueOf(jobDurationMs), String.valueOf(taskDurationsMs.size()),
+      String.valueOf(taskDurationsMs.stream().mapToLong(Long::longValue).sum()),
+      String.valueOf(getMedianTaskDurationMs()), String.valueOf(getMaxTaskDurationMs()),
+      String.format("%.2f", getTaskSkew()), String.valueOf(shuffleReadBytes), String.valueOf(shuffleWriteBytes));
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.examples.benchmark;
+
+import org.apache.commons.math3.distribution.IntegerDistribution;
+import org.apache.commons.math3.distribution.UniformIntegerDistribution;
+import org.apache.commons.math3.distribution.ZipfDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Generates deterministic text inputs whose keys follow a Zipf distribution.
+ * The same size, key cardinality, exponent and seed always produce the same files.
+ */
+public final class SyntheticDataGenerator {
+  private final int numRecords;
+  private final int numKeys;
+  private final double zipfExponent;
+  private final long seed;
+
+  /**
+   * Constructor.
+   *
+   * @param numRecords   number of records to write to each file.
+   * @param numKeys      number of distinct keys.
+   * @param zipfExponent Zipf exponent of the key distribution, or 0 for uniformly distributed keys.
+   * @param seed         seed of the generator.
+   */
+  public SyntheticDataGenerator(final int numRecords,
+                                final int numKeys,
+                                final double zipfExponent,
+                                final long seed) {
+    if (numRecords <= 0 || numKeys <= 0 || zipfExponent < 0) {
+      throw new IllegalArgumentException("Invalid generator configuration: numRecords=" + numRecords
+        + ", numKeys=" + numKeys + ", zipfExponent=" + zipfExponent);
+    }
+    this.numRecords = numRecords;
+    this.numKeys = numKeys;
+    this.zipfExponent = zipfExponent;
+    this.seed = seed;
+  }
+
+  /**
+   * Writes a file of records, one per line.
+   * Key 0 is the most frequent key, key 1 the second most frequent one, and so on.
+   *
+   * @param filePath     path of the file to write.
+   * @param stream       index of the file among the inputs of a workload,
+   *                     which makes the inputs of a workload independent of each other.
+   * @param lineFunction generates a line from a record index and a key.
+   * @throws IOException if the file cannot be written.
+   */
+  public void write(final String filePath, final int stream, final LineFunction lineFunction) throws IOException {
+    final RandomGenerator random = new Well19937c(seed + stream);
+    final IntegerDistribution keyDistribution = zipfExponent > 0
+      ? new ZipfDistribution(random, numKeys, zipfExponent)
+      : new UniformIntegerDistribution(random, 1, numKeys);
+    try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath), StandardCharsets.UTF_8)) {
+      for (int i = 0; i < numRecords; i++) {
+        writer.write(lineFunction.apply(i, keyDistribution.sample() - 1, random));
+        writer.newLine();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "numRecords=" + numRecords + ", numKeys=" + numKeys + ", zipfExponent=" + zipfExponent + ", seed=" + seed;
+  }
+
+  /**
+   * Generates a line of a file.
+   */
+  @FunctionalInterface
+  public interface LineFunction {
+    /**
+     * @param index  index of the record.
+     * @param key    key of the record.
+     * @param random random generator for the other fields of the record.
+     * @return the line, without the line separator.
+     */
+    String apply(int index, int key, RandomGenerator random);
+  }
+}
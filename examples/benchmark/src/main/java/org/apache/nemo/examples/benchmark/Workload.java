@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.examples.benchmark;
+
+import org.apache.nemo.examples.beam.AlternatingLeastSquare;
+import org.apache.nemo.examples.beam.NetworkTraceAnalysis;
+import org.apache.nemo.examples.beam.PerKeyMedian;
+import org.apache.nemo.examples.beam.WordCount;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Example applications to benchmark, with the synthetic inputs they read.
+ */
+public enum Workload {
+  /**
+   * {@link WordCount}, which sums the counts per key with a combiner.
+   */
+  WORD_COUNT(WordCount.class) {
+    @Override
+    String[] generateInputs(final SyntheticDataGenerator generator, final File inputDirectory,
+                            final String outputPath) throws IOException {
+      final String inputPath = new File(inputDirectory, "input").getPath();
+      generator.write(inputPath, 0, (index, key, random) -> "doc" + key + " m " + (1 + random.nextInt(100)));
+      return new String[]{inputPath, outputPath};
+    }
+  },
+
+  /**
+   * {@link PerKeyMedian}, which groups all values of each key.
+   */
+  PER_KEY_MEDIAN(PerKeyMedian.class) {
+    @Override
+    String[] generateInputs(final SyntheticDataGenerator generator, final File inputDirectory,
+                            final String outputPath) throws IOException {
+      final String inputPath = new File(inputDirectory, "input").getPath();
+      generator.write(inputPath, 0, (index, key, random) -> "key" + key + " " + random.nextInt(1000));
+      return new String[]{inputPath, outputPath};
+    }
+  },
+
+  /**
+   * {@link NetworkTraceAnalysis}, which groups two traces by an intermediate host and joins them.
+   */
+  NETWORK_TRACE_ANALYSIS(NetworkTraceAnalysis.class) {
+    @Override
+    String[] generateInputs(final SyntheticDataGenerator generator, final File inputDirectory,
+                            final String outputPath) throws IOException {
+      final String input0Path = new File(inputDirectory, "input0").getPath();
+      final String input1Path = new File(inputDirectory, "input1").getPath();
+      // The intermediate host is the destination in the first trace and the source in the second one
+      generator.write(input0Path, 0, (index, key, random) ->
+        index + " 0.0 " + endpoint(random.nextInt(1 << 16)) + " -> " + host(key) + " Len=" + random.nextInt(1500));
+      generator.write(input1Path, 1, (index, key, random) ->
+        index + " 0.0 " + host(key) + " -> " + endpoint(random.nextInt(1 << 16)) + " Len=" + random.nextInt(1500));
+      return new String[]{input0Path, input1Path, outputPath};
+    }
+  },
+
+  /**
+   * {@link AlternatingLeastSquare}, which broadcasts the factor matrices in every iteration.
+   */
+  ALTERNATING_LEAST_SQUARE(AlternatingLeastSquare.class) {
+    @Override
+    String[] generateInputs(final SyntheticDataGenerator generator, final File inputDirectory,
+                            final String outputPath) throws IOException {
+      final String inputPath = new File(inputDirectory, "input").getPath();
+      // Users are skewed, and items are uniformly rated
+      generator.write(inputPath, 0, (index, key, random) ->
+        (key + 1) + " " + (1 + random.nextInt(ALS_NUM_ITEMS)) + " " + (1 + random.nextInt(5)));
+      return new String[]{inputPath, "10", "3", "0.05", outputPath};
+    }
+  };
+
+  private static final int ALS_NUM_ITEMS = 1000;
+
+  private final Class<?> userMainClass;
+
+  /**
+   * Constructor.
+   *
+   * @param userMainClass the class of the example application.
+   */
+  Workload(final Class<?> userMainClass) {
+    this.userMainClass = userMainClass;
+  }
+
+  /**
+   * @return the class of the example application.
+   */
+  Class<?> getUserMainClass() {
+    return userMainClass;
+  }
+
+  /**
+   * Writes the inputs of the application.
+   *
+   * @param generator      generator of the inputs.
+   * @param inputDirectory directory to write the inputs to.
+   * @param outputPath     path the application writes its output to.
+   * @return the arguments of the application.
+   * @throws IOException if the inputs cannot be written.
+   */
+  abstract String[] generateInputs(SyntheticDataGenerator generator, File inputDirectory, String outputPath)
+    throws IOException;
+
+  /**
+   * @param key a key.
+   * @return the address of the intermediate host of the key.
+   */
+  private static String host(final int key) {
+    return "10." + ((key >> 16) & 0xFF) + "." + ((key >> 8) & 0xFF) + "." + (key & 0xFF);
+  }
+
+  /**
+   * @param index an index.
+   * @return the address of the end host of the index.
+   */
+  private static String endpoint(final int index) {
+    return "192.168." + ((index >> 8) & 0xFF) + "." + (index & 0xFF);
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.nemo.common.HashRange;
+import org.apache.nemo.common.coder.IntDecoderFactory;
+import org.apache.nemo.common.coder.IntEncoderFactory;
+import org.apache.nemo.runtime.executor.data.MemoryPoolAssigner;
+import org.apache.nemo.runtime.executor.data.block.Block;
+import org.apache.nemo.runtime.executor.data.block.FileBlock;
+import org.apache.nemo.runtime.executor.data.block.SerializedMemoryBlock;
+import org.apache.nemo.runtime.executor.data.metadata.LocalFileMetadata;
+import org.apache.nemo.runtime.executor.data.partition.NonSerializedPartition;
+import org.apache.nemo.runtime.executor.data.streamchainer.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks writing and reading a {@link SerializedMemoryBlock} and a {@link FileBlock}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BlockBenchmark {
+  private static final int NUM_KEYS = 16;
+  private static final AtomicInteger BLOCK_INDEX = new AtomicInteger(0);
+
+  @Param({"SERIALIZED_MEMORY", "FILE"})
+  private String blockType;
+
+  @Param({"100000"})
+  private int numElements;
+
+  private Serializer<Integer, Integer> serializer;
+  private MemoryPoolAssigner memoryPoolAssigner;
+  private File fileDirectory;
+  private Block<Integer> blockToRead;
+
+  /**
+   * Creates the block type under test and a committed block to read from.
+   *
+   * @throws IOException if the temporary directory cannot be created.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    serializer = new Serializer<>(IntEncoderFactory.of(), IntDecoderFactory.of(),
+      Collections.emptyList(), Collections.emptyList());
+    memoryPoolAssigner = new MemoryPoolAssigner(1024, 0.5, 32);
+    fileDirectory = Files.createTempDirectory("nemo-block-benchmark").toFile();
+    blockToRead = newBlock();
+    writeAndCommit(blockToRead);
+  }
+
+  /**
+   * Releases the block read from and deletes the temporary directory.
+   *
+   * @throws IOException if the files cannot be deleted.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    release(blockToRead);
+    FileUtils.deleteDirectory(fileDirectory);
+  }
+
+  /**
+   * Writes elements to a new block and commits it, and releases the block.
+   *
+   * @throws IOException if the block cannot be released.
+   */
+  @Benchmark
+  public void write() throws IOException {
+    final Block<Integer> block = newBlock();
+    writeAndCommit(block);
+    release(block);
+  }
+
+  /**
+   * Reads every partition of the committed block.
+   *
+   * @param blackhole to consume the read elements.
+   * @throws IOException if the block cannot be read.
+   */
+  @Benchmark
+  public void read(final Blackhole blackhole) throws IOException {
+    for (final NonSerializedPartition<Integer> partition : blockToRead.readPartitions(HashRange.all())) {
+      for (final Object element : partition.getData()) {
+        blackhole.consume(element);
+      }
+    }
+  }
+
+  private Block<Integer> newBlock() {
+    final String blockId = "block-" + BLOCK_INDEX.getAndIncrement();
+    switch (blockType) {
+      case "SERIALIZED_MEMORY":
+        return new SerializedMemoryBlock<>(blockId, serializer, memoryPoolAssigner);
+      case "FILE":
+        return new FileBlock<>(blockId, serializer, new File(fileDirectory, blockId).getPath(),
+          new LocalFileMetadata<>(), memoryPoolAssigner);
+      default:
+        throw new IllegalArgumentException(blockType);
+    }
+  }
+
+  private void writeAndCommit(final Block<Integer> block) {
+    for (int i = 0; i < numElements; i++) {
+      block.write(i % NUM_KEYS, i);
+    }
+    block.commit();
+  }
+
+  private void release(final Block<Integer> block) throws IOException {
+    if (block instanceof SerializedMemoryBlock) {
+      ((SerializedMemoryBlock<Integer>) block).release();
+    } else {
+      ((FileBlock<Integer>) block).deleteFile();
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.benchmarks;
+
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.coders.VarLongCoder;
+import org.apache.beam.sdk.values.KV;
+import org.apache.nemo.common.Pair;
+import org.apache.nemo.common.coder.*;
+import org.apache.nemo.compiler.frontend.beam.coder.BeamDecoderFactory;
+import org.apache.nemo.compiler.frontend.beam.coder.BeamEncoderFactory;
+import org.apache.nemo.compiler.frontend.spark.coder.SparkDecoderFactory;
+import org.apache.nemo.compiler.frontend.spark.coder.SparkEncoderFactory;
+import org.apache.spark.SparkConf;
+import org.apache.spark.serializer.KryoSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import scala.Tuple2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding and decoding elements with the built-in, Beam and Spark coders.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CoderBenchmark {
+  private static final int NUM_KEYS = 1000;
+
+  @Param({"INT", "LONG", "PAIR", "BEAM", "SPARK"})
+  private String coder;
+
+  @Param({"10000"})
+  private int numElements;
+
+  private EncoderFactory encoderFactory;
+  private DecoderFactory decoderFactory;
+  private List<Object> elements;
+  private byte[] encodedElements;
+
+  /**
+   * Creates the coders under test, the elements to encode and their encoded bytes.
+   *
+   * @throws IOException if the elements cannot be encoded.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    elements = new ArrayList<>(numElements);
+    switch (coder) {
+      case "INT":
+        encoderFactory = IntEncoderFactory.of();
+        decoderFactory = IntDecoderFactory.of();
+        for (int i = 0; i < numElements; i++) {
+          elements.add(i);
+        }
+        break;
+      case "LONG":
+        encoderFactory = LongEncoderFactory.of();
+        decoderFactory = LongDecoderFactory.of();
+        for (int i = 0; i < numElements; i++) {
+          elements.add((long) i);
+        }
+        break;
+      case "PAIR":
+        encoderFactory = PairEncoderFactory.of(IntEncoderFactory.of(), LongEncoderFactory.of());
+        decoderFactory = PairDecoderFactory.of(IntDecoderFactory.of(), LongDecoderFactory.of());
+        for (int i = 0; i < numElements; i++) {
+          elements.add(Pair.of(i % NUM_KEYS, (long) i));
+        }
+        break;
+      case "BEAM":
+        final KvCoder<String, Long> kvCoder = KvCoder.of(StringUtf8Coder.of(), VarLongCoder.of());
+        encoderFactory = new BeamEncoderFactory<>(kvCoder);
+        decoderFactory = new BeamDecoderFactory<>(kvCoder);
+        for (int i = 0; i < numElements; i++) {
+          elements.add(KV.of("key-" + i % NUM_KEYS, (long) i));
+        }
+        break;
+      case "SPARK":
+        final KryoSerializer kryoSerializer = new KryoSerializer(new SparkConf());
+        encoderFactory = new SparkEncoderFactory<>(kryoSerializer);
+        decoderFactory = new SparkDecoderFactory<>(kryoSerializer);
+        for (int i = 0; i < numElements; i++) {
+          elements.add(new Tuple2<>("key-" + i % NUM_KEYS, (long) i));
+        }
+        break;
+      default:
+        throw new IllegalArgumentException(coder);
+    }
+    encodedElements = encode();
+  }
+
+  /**
+   * Encodes every element into a byte array.
+   *
+   * @return the encoded bytes.
+   * @throws IOException if an element cannot be encoded.
+   */
+  @Benchmark
+  public byte[] encode() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final EncoderFactory.Encoder encoder = encoderFactory.create(out);
+    for (final Object element : elements) {
+      encoder.encode(element);
+    }
+    out.close();
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes every element from the pre-encoded bytes.
+   *
+   * @param blackhole to consume the decoded elements.
+   * @throws IOException if an element cannot be decoded.
+   */
+  @Benchmark
+  public void decode(final Blackhole blackhole) throws IOException {
+    final DecoderFactory.Decoder decoder = decoderFactory.create(new ByteArrayInputStream(encodedElements));
+    for (int i = 0; i < numElements; i++) {
+      blackhole.consume(decoder.decode());
+    }
+  }
+}
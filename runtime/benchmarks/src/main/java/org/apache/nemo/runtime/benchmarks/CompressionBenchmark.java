@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.benchmarks;
+
+import org.apache.nemo.common.ir.edge.executionproperty.CompressionProperty;
+import org.apache.nemo.runtime.executor.data.streamchainer.CompressionStreamChainer;
+import org.apache.nemo.runtime.executor.data.streamchainer.DecompressionStreamChainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks compressing and decompressing a buffer with each {@link CompressionStreamChainer} variant.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CompressionBenchmark {
+  private static final int NUM_BYTES = 1024 * 1024;
+
+  @Param({"NONE", "LZ4", "ZSTD", "GZIP"})
+  private CompressionProperty.Value compression;
+
+  private CompressionStreamChainer compressionStreamChainer;
+  private DecompressionStreamChainer decompressionStreamChainer;
+  private byte[] data;
+  private byte[] compressedData;
+  private byte[] readBuffer;
+
+  /**
+   * Creates the stream chainers under test, the input bytes and their compressed form.
+   *
+   * @throws IOException if the input cannot be compressed.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    compressionStreamChainer = new CompressionStreamChainer(compression);
+    decompressionStreamChainer = new DecompressionStreamChainer(compression);
+    // Small integers in a little-endian layout, which compress moderately as shuffle data usually does
+    data = new byte[NUM_BYTES];
+    final Random random = new Random(0);
+    for (int i = 0; i < NUM_BYTES; i += Integer.BYTES) {
+      data[i] = (byte) random.nextInt(64);
+    }
+    compressedData = compress();
+    readBuffer = new byte[64 * 1024];
+  }
+
+  /**
+   * Compresses the input bytes.
+   *
+   * @return the compressed bytes.
+   * @throws IOException if the input cannot be compressed.
+   */
+  @Benchmark
+  public byte[] compress() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(NUM_BYTES);
+    try (OutputStream out = compressionStreamChainer.chainOutput(bytes)) {
+      out.write(data);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decompresses the pre-compressed bytes.
+   *
+   * @return the number of decompressed bytes.
+   * @throws IOException if the input cannot be decompressed.
+   */
+  @Benchmark
+  public long decompress() throws IOException {
+    long numBytesRead = 0;
+    try (InputStream in = decompressionStreamChainer.chainInput(new ByteArrayInputStream(compressedData))) {
+      int n;
+      while ((n = in.read(readBuffer)) != -1) {
+        numBytesRead += n;
+      }
+    }
+    return numBytesRead;
+  }
+}
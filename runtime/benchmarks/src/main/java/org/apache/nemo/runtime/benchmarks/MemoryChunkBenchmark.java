@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.benchmarks;
+
+import org.apache.nemo.runtime.executor.data.MemoryAllocationException;
+import org.apache.nemo.runtime.executor.data.MemoryChunk;
+import org.apache.nemo.runtime.executor.data.MemoryPoolAssigner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the random access methods of a {@link MemoryChunk}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MemoryChunkBenchmark {
+  private static final int CHUNK_SIZE_KB = 32;
+
+  private MemoryPoolAssigner memoryPoolAssigner;
+  private MemoryChunk chunk;
+  private byte[] bytes;
+  private int index;
+
+  /**
+   * Allocates the chunk under test.
+   *
+   * @throws MemoryAllocationException if the chunk cannot be allocated.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws MemoryAllocationException {
+    memoryPoolAssigner = new MemoryPoolAssigner(64, 0.5, CHUNK_SIZE_KB);
+    chunk = memoryPoolAssigner.allocateChunk();
+    bytes = new byte[1024];
+  }
+
+  /**
+   * Returns the chunk to the pool.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    memoryPoolAssigner.returnChunksToPool(Collections.singletonList(chunk));
+  }
+
+  /**
+   * @return the next 8-byte aligned index, wrapping around the chunk.
+   */
+  private int nextIndex() {
+    index = (index + Long.BYTES) % (CHUNK_SIZE_KB * 1024);
+    return index;
+  }
+
+  /**
+   * @return the int read back from the chunk.
+   */
+  @Benchmark
+  public int putAndGetInt() {
+    final int i = nextIndex();
+    chunk.putInt(i, i);
+    return chunk.getInt(i);
+  }
+
+  /**
+   * @return the long read back from the chunk.
+   */
+  @Benchmark
+  public long putAndGetLong() {
+    final int i = nextIndex();
+    chunk.putLong(i, i);
+    return chunk.getLong(i);
+  }
+
+  /**
+   * @return the bytes read back from the chunk.
+   */
+  @Benchmark
+  public byte[] putAndGetBytes() {
+    final int i = (nextIndex() / Long.BYTES % CHUNK_SIZE_KB) * bytes.length;
+    chunk.put(i, bytes);
+    chunk.get(i, bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.benchmarks;
+
+import org.apache.nemo.runtime.executor.data.MemoryAllocationException;
+import org.apache.nemo.runtime.executor.data.MemoryChunk;
+import org.apache.nemo.runtime.executor.data.MemoryPoolAssigner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link MemoryPoolAssigner#allocateChunk()} when many threads allocate and return chunks at once,
+ * as the tasks of an executor do while serializing their outputs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MemoryPoolBenchmark {
+  private MemoryPoolAssigner memoryPoolAssigner;
+
+  /**
+   * Creates the memory pool under test.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    memoryPoolAssigner = new MemoryPoolAssigner(1024, 0.5, 32);
+  }
+
+  /**
+   * @return the chunk allocated and returned by a single thread.
+   * @throws MemoryAllocationException if the pool cannot allocate a chunk.
+   */
+  @Benchmark
+  @Threads(1)
+  public MemoryChunk allocateAndReturnSingleThread() throws MemoryAllocationException {
+    return allocateAndReturn();
+  }
+
+  /**
+   * @return the chunk allocated and returned by one of eight contending threads.
+   * @throws MemoryAllocationException if the pool cannot allocate a chunk.
+   */
+  @Benchmark
+  @Threads(8)
+  public MemoryChunk allocateAndReturnEightThreads() throws MemoryAllocationException {
+    return allocateAndReturn();
+  }
+
+  private MemoryChunk allocateAndReturn() throws MemoryAllocationException {
+    final MemoryChunk chunk = memoryPoolAssigner.allocateChunk();
+    memoryPoolAssigner.returnChunksToPool(Collections.singletonList(chunk));
+    return chunk;
+  }
+}
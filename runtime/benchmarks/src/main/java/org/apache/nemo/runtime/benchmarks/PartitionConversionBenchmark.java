@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.benchmarks;
+
+import org.apache.nemo.common.coder.IntDecoderFactory;
+import org.apache.nemo.common.coder.IntEncoderFactory;
+import org.apache.nemo.runtime.executor.data.DataUtil;
+import org.apache.nemo.runtime.executor.data.MemoryAllocationException;
+import org.apache.nemo.runtime.executor.data.MemoryPoolAssigner;
+import org.apache.nemo.runtime.executor.data.partition.NonSerializedPartition;
+import org.apache.nemo.runtime.executor.data.partition.SerializedPartition;
+import org.apache.nemo.runtime.executor.data.streamchainer.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks the conversion of partitions between the serialized and the non-serialized forms,
+ * which {@link DataUtil} does whenever a block is written to or read from a serialized store.
+ * The deserialization goes through {@link DataUtil.InputStreamIterator}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PartitionConversionBenchmark {
+  @Param({"1000", "100000"})
+  private int numElements;
+
+  private Serializer<Integer, Integer> serializer;
+  private MemoryPoolAssigner memoryPoolAssigner;
+  private List<NonSerializedPartition<Integer>> nonSerializedPartitions;
+  private List<SerializedPartition<Integer>> serializedPartitions;
+
+  /**
+   * Creates the partitions to convert.
+   *
+   * @throws IOException if the partitions cannot be serialized.
+   * @throws MemoryAllocationException if the pool cannot allocate a chunk.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, MemoryAllocationException {
+    serializer = new Serializer<>(IntEncoderFactory.of(), IntDecoderFactory.of(),
+      Collections.emptyList(), Collections.emptyList());
+    memoryPoolAssigner = new MemoryPoolAssigner(1024, 0.5, 32);
+    final List<Integer> data = IntStream.range(0, numElements).boxed().collect(Collectors.toList());
+    nonSerializedPartitions = Collections.singletonList(new NonSerializedPartition<>(0, data, -1, -1));
+    serializedPartitions = new ArrayList<>();
+    DataUtil.convertToSerPartitions(serializer, nonSerializedPartitions, memoryPoolAssigner)
+      .forEach(serializedPartitions::add);
+  }
+
+  /**
+   * Returns the chunks of the serialized partitions to the pool.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    serializedPartitions.forEach(SerializedPartition::release);
+  }
+
+  /**
+   * Serializes the partitions into pooled memory chunks, and returns the chunks to the pool.
+   *
+   * @param blackhole to consume the partition lengths.
+   * @throws IOException if the partitions cannot be serialized.
+   * @throws MemoryAllocationException if the pool cannot allocate a chunk.
+   */
+  @Benchmark
+  public void convertToSerPartitions(final Blackhole blackhole) throws IOException, MemoryAllocationException {
+    for (final SerializedPartition<Integer> partition
+      : DataUtil.convertToSerPartitions(serializer, nonSerializedPartitions, memoryPoolAssigner)) {
+      blackhole.consume(partition.getLength());
+      partition.release();
+    }
+  }
+
+  /**
+   * Deserializes the serialized partitions.
+   *
+   * @param blackhole to consume the deserialized partitions.
+   * @throws IOException if the partitions cannot be deserialized.
+   */
+  @Benchmark
+  public void convertToNonSerPartitions(final Blackhole blackhole) throws IOException {
+    for (final NonSerializedPartition<Integer> partition
+      : DataUtil.convertToNonSerPartitions(serializer, serializedPartitions)) {
+      blackhole.consume(partition.getData());
+    }
+  }
+}
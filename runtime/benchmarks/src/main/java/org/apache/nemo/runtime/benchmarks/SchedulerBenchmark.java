@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.benchmarks;
+
+import org.apache.nemo.common.dag.DAG;
+import org.apache.nemo.common.dag.DAGBuilder;
+import org.apache.nemo.common.ir.Readable;
+import org.apache.nemo.common.ir.executionproperty.ExecutionPropertyMap;
+import org.apache.nemo.common.ir.executionproperty.VertexExecutionProperty;
+import org.apache.nemo.common.ir.vertex.IRVertex;
+import org.apache.nemo.common.ir.vertex.OperatorVertex;
+import org.apache.nemo.common.ir.vertex.executionproperty.ParallelismProperty;
+import org.apache.nemo.common.ir.vertex.executionproperty.ResourceLocalityProperty;
+import org.apache.nemo.common.ir.vertex.executionproperty.ResourcePriorityProperty;
+import org.apache.nemo.common.ir.vertex.executionproperty.ResourceSlotProperty;
+import org.apache.nemo.common.ir.vertex.executionproperty.ScheduleGroupProperty;
+import org.apache.nemo.common.test.EmptyComponents;
+import org.apache.nemo.conf.JobConf;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.apache.nemo.runtime.common.message.MessageEnvironment;
+import org.apache.nemo.runtime.common.message.local.LocalMessageDispatcher;
+import org.apache.nemo.runtime.common.message.local.LocalMessageEnvironment;
+import org.apache.nemo.runtime.common.metric.JobMetric;
+import org.apache.nemo.runtime.common.plan.*;
+import org.apache.nemo.runtime.master.metric.MetricStore;
+import org.apache.nemo.runtime.master.scheduler.SimulationScheduler;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.exceptions.InjectionException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks how fast the master dispatches tasks to executors, by simulating a plan of a single stage
+ * with the {@link SimulationScheduler}. The simulated tasks complete right away, so the scheduling dominates.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class SchedulerBenchmark {
+  private static final int EXECUTOR_CAPACITY = 4;
+
+  @Param({"1000", "10000"})
+  private int numTasks;
+
+  @Param({"100", "500"})
+  private int numExecutors;
+
+  private SimulationScheduler scheduler;
+  private PhysicalPlan physicalPlan;
+
+  /**
+   * Creates the simulation scheduler with the simulated executors.
+   *
+   * @throws InjectionException if the scheduler cannot be instantiated.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws InjectionException {
+    // Otherwise logging a line for each scheduled task dominates the measurement.
+    org.apache.log4j.Logger.getRootLogger().setLevel(org.apache.log4j.Level.WARN);
+    final Injector injector = LocalMessageEnvironment.forkInjector(LocalMessageDispatcher.getInjector(),
+      MessageEnvironment.MASTER_COMMUNICATION_ID);
+    injector.bindVolatileInstance(PlanRewriter.class, new PlanRewriter() {
+      @Override
+      public PhysicalPlan rewrite(final PhysicalPlan currentPhysicalPlan, final int messageId) {
+        return currentPhysicalPlan;
+      }
+
+      @Override
+      public void accumulate(final int messageId, final Object data) {
+      }
+    });
+    injector.bindVolatileParameter(JobConf.ExecutorJSONContents.class, String.format(
+      "[{\"type\":\"%s\",\"memory_mb\":512,\"capacity\":%d,\"num\":%d}]",
+      ResourcePriorityProperty.RESERVED, EXECUTOR_CAPACITY, numExecutors));
+    injector.bindVolatileParameter(JobConf.ScheduleSerThread.class, 8);
+    injector.bindVolatileParameter(JobConf.DAGDirectory.class, "");
+    scheduler = injector.getInstance(SimulationScheduler.class);
+  }
+
+  /**
+   * Creates a new plan to simulate, since the state of a plan cannot be reset.
+   */
+  @Setup(Level.Invocation)
+  public void setUpPlan() {
+    physicalPlan = newPhysicalPlan();
+    MetricStore.getStore().getOrCreateMetric(JobMetric.class, physicalPlan.getPlanId())
+      .setStageDAG(physicalPlan.getStageDAG());
+  }
+
+  /**
+   * Resets the scheduler and its simulated executors.
+   */
+  @TearDown(Level.Invocation)
+  public void tearDownPlan() {
+    scheduler.reset();
+  }
+
+  /**
+   * Terminates the scheduler.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    scheduler.terminate();
+  }
+
+  /**
+   * Schedules all the tasks of the plan, and waits until they complete.
+   */
+  @Benchmark
+  public void schedule() {
+    scheduler.schedulePlan(physicalPlan, 1);
+  }
+
+  private PhysicalPlan newPhysicalPlan() {
+    final IRVertex vertex = new OperatorVertex(new EmptyComponents.EmptyTransform<>("empty"));
+    final DAG<IRVertex, RuntimeEdge<IRVertex>> irDag =
+      new DAGBuilder<IRVertex, RuntimeEdge<IRVertex>>().addVertex(vertex).buildWithoutSourceSinkCheck();
+
+    final String stageId = RuntimeIdManager.generateStageId(0);
+    final ExecutionPropertyMap<VertexExecutionProperty> properties = new ExecutionPropertyMap<>(stageId);
+    properties.put(ParallelismProperty.of(numTasks));
+    properties.put(ScheduleGroupProperty.of(0));
+    properties.put(ResourcePriorityProperty.of(ResourcePriorityProperty.RESERVED));
+    properties.put(ResourceSlotProperty.of(true));
+    properties.put(ResourceLocalityProperty.of(true));
+
+    final List<Map<String, Readable>> vertexIdToReadables = new ArrayList<>(numTasks);
+    for (int i = 0; i < numTasks; i++) {
+      vertexIdToReadables.add(new HashMap<>());
+    }
+    final Stage stage = new Stage(stageId, IntStream.range(0, numTasks).boxed().collect(Collectors.toList()),
+      irDag, properties, vertexIdToReadables);
+    return new PhysicalPlan(RuntimeIdManager.generatePhysicalPlanId(),
+      new DAGBuilder<Stage, StageEdge>().addVertex(stage).build());
+  }
+}
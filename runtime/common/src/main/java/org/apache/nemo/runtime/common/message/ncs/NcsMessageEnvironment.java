@@ -215,14 +215,19 @@ public final class NcsMessageEnvironment implements MessageEnvironment {
       case RequestMetricFlush:
       case MetricFlushed:
       case PipeInit:
+      case BroadcastChunkHeld:
         return MessageType.Send;
       case RequestBlockLocation:
       case RequestBroadcastVariable:
       case RequestPipeLoc:
+      case RequestStageIRDAG:
+      case RequestBroadcastChunk:
         return MessageType.Request;
       case BlockLocationInfo:
       case InMasterBroadcastVariable:
       case PipeLocInfo:
+      case StageIRDAG:
+      case BroadcastChunkInfo:
         return MessageType.Reply;
       default:
         throw new IllegalArgumentException(controlMessage.toString());
@@ -237,6 +242,10 @@ public final class NcsMessageEnvironment implements MessageEnvironment {
         return controlMessage.getRequestbroadcastVariableMsg().getExecutorId();
       case RequestPipeLoc:
         return controlMessage.getRequestPipeLocMsg().getExecutorId();
+      case RequestStageIRDAG:
+        return controlMessage.getRequestStageIRDAGMsg().getExecutorId();
+      case RequestBroadcastChunk:
+        return controlMessage.getRequestBroadcastChunkMsg().getExecutorId();
       default:
         throw new IllegalArgumentException(controlMessage.toString());
     }
@@ -250,6 +259,10 @@ public final class NcsMessageEnvironment implements MessageEnvironment {
         return controlMessage.getBroadcastVariableMsg().getRequestId();
       case PipeLocInfo:
         return controlMessage.getPipeLocInfoMsg().getRequestId();
+      case StageIRDAG:
+        return controlMessage.getStageIRDAGMsg().getRequestId();
+      case BroadcastChunkInfo:
+        return controlMessage.getBroadcastChunkInfoMsg().getRequestId();
       default:
         throw new IllegalArgumentException(controlMessage.toString());
     }
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.common.metric;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Metric class for an executor, which is sampled periodically by the executor.
+ */
+public class ExecutorMetric implements Metric {
+  private String id;
+  private long gcTime = -1;
+  private long heapUsedBytes = -1;
+  private int numRunningTasks = -1;
+  private Map<Integer, Long> offheapUsedBytesPerChunkSize = new HashMap<>();
+  private Map<Integer, Long> offheapIdleBytesPerChunkSize = new HashMap<>();
+
+  private static final Logger LOG = LoggerFactory.getLogger(ExecutorMetric.class.getName());
+
+  public ExecutorMetric(final String id) {
+    this.id = id;
+  }
+
+  @Override
+  public final String getId() {
+    return id;
+  }
+
+  /**
+   * Method related to the accumulated garbage collection time of the executor, in milliseconds.
+   */
+  public final long getGcTime() {
+    return gcTime;
+  }
+
+  private void setGcTime(final long gcTime) {
+    this.gcTime = gcTime;
+  }
+
+  /**
+   * Method related to the heap memory used by the executor.
+   */
+  public final long getHeapUsedBytes() {
+    return heapUsedBytes;
+  }
+
+  private void setHeapUsedBytes(final long heapUsedBytes) {
+    this.heapUsedBytes = heapUsedBytes;
+  }
+
+  /**
+   * Method related to the number of tasks launched and not yet finished in the executor.
+   */
+  public final int getNumRunningTasks() {
+    return numRunningTasks;
+  }
+
+  private void setNumRunningTasks(final int numRunningTasks) {
+    this.numRunningTasks = numRunningTasks;
+  }
+
+  /**
+   * Method related to the off-heap memory of the chunks in use, keyed by the chunk size of each size class.
+   */
+  public final Map<Integer, Long> getOffheapUsedBytesPerChunkSize() {
+    return offheapUsedBytesPerChunkSize;
+  }
+
+  private void setOffheapUsedBytesPerChunkSize(final Map<Integer, Long> offheapUsedBytesPerChunkSize) {
+    this.offheapUsedBytesPerChunkSize = offheapUsedBytesPerChunkSize;
+  }
+
+  /**
+   * Method related to the off-heap memory of the chunks kept for reuse, keyed by the chunk size of each size class.
+   */
+  public final Map<Integer, Long> getOffheapIdleBytesPerChunkSize() {
+    return offheapIdleBytesPerChunkSize;
+  }
+
+  private void setOffheapIdleBytesPerChunkSize(final Map<Integer, Long> offheapIdleBytesPerChunkSize) {
+    this.offheapIdleBytesPerChunkSize = offheapIdleBytesPerChunkSize;
+  }
+
+  @Override
+  public final boolean processMetricMessage(final String metricField, final byte[] metricValue) {
+    LOG.debug("metric {} has just arrived!", metricField);
+    switch (metricField) {
+      case "gcTime":
+        setGcTime(SerializationUtils.deserialize(metricValue));
+        break;
+      case "heapUsedBytes":
+        setHeapUsedBytes(SerializationUtils.deserialize(metricValue));
+        break;
+      case "numRunningTasks":
+        setNumRunningTasks(SerializationUtils.deserialize(metricValue));
+        break;
+      case "offheapUsedBytesPerChunkSize":
+        setOffheapUsedBytesPerChunkSize(SerializationUtils.deserialize(metricValue));
+        break;
+      case "offheapIdleBytesPerChunkSize":
+        setOffheapIdleBytesPerChunkSize(SerializationUtils.deserialize(metricValue));
+        break;
+      default:
+        LOG.warn("metricField {} is not supported.", metricField);
+        return false;
+    }
+    return true;
+  }
+}
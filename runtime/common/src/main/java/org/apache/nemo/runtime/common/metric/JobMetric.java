@@ -32,8 +32,8 @@ import org.apache.nemo.runtime.common.plan.StageEdge;
 import org.apache.nemo.runtime.common.state.PlanState;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Metric class for Job (or {@link PhysicalPlan}).
@@ -66,7 +66,7 @@ public final class JobMetric implements StateMetric<PlanState.State> {
    */
   public JobMetric(final String id) {
     this.id = id;
-    this.stateTransitionEvents = new ArrayList<>();
+    this.stateTransitionEvents = new CopyOnWriteArrayList<>();
   }
 
   @JsonProperty("ir-dag")
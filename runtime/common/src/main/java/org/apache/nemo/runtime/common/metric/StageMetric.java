@@ -21,15 +21,15 @@ package org.apache.nemo.runtime.common.metric;
 import org.apache.nemo.runtime.common.plan.Stage;
 import org.apache.nemo.runtime.common.state.StageState;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Metric class for {@link Stage}.
  */
 public class StageMetric implements StateMetric<StageState.State> {
   private String id;
-  private List<StateTransitionEvent<StageState.State>> stateTransitionEvents = new ArrayList<>();
+  private List<StateTransitionEvent<StageState.State>> stateTransitionEvents = new CopyOnWriteArrayList<>();
 
   public StageMetric(final Stage stage) {
     this.id = stage.getId();
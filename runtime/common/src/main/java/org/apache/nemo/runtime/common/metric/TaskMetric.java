@@ -23,8 +23,8 @@ import org.apache.nemo.runtime.common.state.TaskState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Metric class for {@link org.apache.nemo.runtime.common.plan.Task}.
@@ -33,12 +33,13 @@ public class TaskMetric implements StateMetric<TaskState.State> {
   private String id;
   private String containerId = "";
   private int scheduleAttempt = -1;
-  private List<StateTransitionEvent<TaskState.State>> stateTransitionEvents = new ArrayList<>();
+  private List<StateTransitionEvent<TaskState.State>> stateTransitionEvents = new CopyOnWriteArrayList<>();
   private long taskDuration = -1;
   private long taskCPUTime = -1;
   private long schedulingOverhead = -1;
   private long serializedReadBytes = -1;
   private long encodedReadBytes = -1;
+  private long inputPipeMaxQueuedBytes = -1;
   private long taskOutputBytes = -1;
   private long taskSerializationTime = -1;
   private long taskDeserializationTime = -1;
@@ -49,6 +50,10 @@ public class TaskMetric implements StateMetric<TaskState.State> {
   private long shuffleReadTime = -1;
   private long shuffleWriteBytes = -1;
   private long shuffleWriteTime = -1;
+  private long outputBackpressureTime = -1;
+  private long partialCombineHits = -1;
+  private long partialCombineMisses = -1;
+  private long partialCombineEvictions = -1;
 
   private static final Logger LOG = LoggerFactory.getLogger(TaskMetric.class.getName());
 
@@ -151,6 +156,17 @@ public class TaskMetric implements StateMetric<TaskState.State> {
     this.encodedReadBytes = encodedReadBytes;
   }
 
+  /**
+   * Method related to the maximum bytes queued at once in the input pipes.
+   */
+  public final long getInputPipeMaxQueuedBytes() {
+    return inputPipeMaxQueuedBytes;
+  }
+
+  private void setInputPipeMaxQueuedBytes(final long inputPipeMaxQueuedBytes) {
+    this.inputPipeMaxQueuedBytes = inputPipeMaxQueuedBytes;
+  }
+
   /**
    * Method related to task output bytes.
    */
@@ -252,6 +268,44 @@ public class TaskMetric implements StateMetric<TaskState.State> {
     this.shuffleWriteTime = shuffleWriteTime;
   }
 
+  /**
+   * Method related to the time the task was blocked by the backpressure of its pipe receivers.
+   */
+  public final long getOutputBackpressureTime() {
+    return this.outputBackpressureTime;
+  }
+
+  private void setOutputBackpressureTime(final long outputBackpressureTime) {
+    this.outputBackpressureTime = outputBackpressureTime;
+  }
+
+  /**
+   * Method related to the partial combining before a shuffle.
+   */
+  public final long getPartialCombineHits() {
+    return this.partialCombineHits;
+  }
+
+  private void setPartialCombineHits(final long partialCombineHits) {
+    this.partialCombineHits = partialCombineHits;
+  }
+
+  public final long getPartialCombineMisses() {
+    return this.partialCombineMisses;
+  }
+
+  private void setPartialCombineMisses(final long partialCombineMisses) {
+    this.partialCombineMisses = partialCombineMisses;
+  }
+
+  public final long getPartialCombineEvictions() {
+    return this.partialCombineEvictions;
+  }
+
+  private void setPartialCombineEvictions(final long partialCombineEvictions) {
+    this.partialCombineEvictions = partialCombineEvictions;
+  }
+
   @Override
   public final String getId() {
     return id;
@@ -273,6 +327,9 @@ public class TaskMetric implements StateMetric<TaskState.State> {
       case "encodedReadBytes":
         setEncodedReadBytes(SerializationUtils.deserialize(metricValue));
         break;
+      case "inputPipeMaxQueuedBytes":
+        setInputPipeMaxQueuedBytes(SerializationUtils.deserialize(metricValue));
+        break;
       case "boundedSourceReadTime":
         setBoundedSourceReadTime(SerializationUtils.deserialize(metricValue));
         break;
@@ -317,6 +374,18 @@ public class TaskMetric implements StateMetric<TaskState.State> {
       case "shuffleWriteTime":
         setShuffleWriteTime(SerializationUtils.deserialize(metricValue));
         break;
+      case "outputBackpressureTime":
+        setOutputBackpressureTime(SerializationUtils.deserialize(metricValue));
+        break;
+      case "partialCombineHits":
+        setPartialCombineHits(SerializationUtils.deserialize(metricValue));
+        break;
+      case "partialCombineMisses":
+        setPartialCombineMisses(SerializationUtils.deserialize(metricValue));
+        break;
+      case "partialCombineEvictions":
+        setPartialCombineEvictions(SerializationUtils.deserialize(metricValue));
+        break;
       default:
         LOG.warn("metricField {} is not supported.", metricField);
         return false;
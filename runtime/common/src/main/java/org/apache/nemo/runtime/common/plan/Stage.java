@@ -33,6 +33,8 @@ import org.apache.nemo.common.ir.vertex.executionproperty.ParallelismProperty;
 import org.apache.nemo.common.ir.vertex.executionproperty.ScheduleGroupProperty;
 
 import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -44,6 +46,7 @@ public final class Stage extends Vertex {
   private final List<Integer> taskIndices;
   private final DAG<IRVertex, RuntimeEdge<IRVertex>> irDag;
   private final byte[] serializedIRDag;
+  private final String irDagDigest;
   private final List<Map<String, Readable>> vertexIdToReadables;
 
   private ExecutionPropertyMap<VertexExecutionProperty> executionProperties;
@@ -66,6 +69,7 @@ public final class Stage extends Vertex {
     this.taskIndices = taskIndices;
     this.irDag = irDag;
     this.serializedIRDag = SerializationUtils.serialize(irDag);
+    this.irDagDigest = digest(serializedIRDag);
     this.executionProperties = executionProperties;
     this.vertexIdToReadables = vertexIdToReadables;
   }
@@ -84,6 +88,30 @@ public final class Stage extends Vertex {
     return serializedIRDag;
   }
 
+  /**
+   * @return the digest of the serialized DAG of the task, which tells apart the DAGs of the stages
+   * that have the same ID, e.g., in the plans appended or re-optimized at runtime.
+   */
+  public String getIRDAGDigest() {
+    return irDagDigest;
+  }
+
+  /**
+   * @param bytes the bytes to digest.
+   * @return the hexadecimal SHA-256 digest of the bytes.
+   */
+  private static String digest(final byte[] bytes) {
+    try {
+      final StringBuilder sb = new StringBuilder();
+      for (final byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+        sb.append(String.format("%02x", b));
+      }
+      return sb.toString();
+    } catch (final NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   /**
    * @return task indices of this stage to execute.
    * For non-sampling vertices, returns [0, 1, 2, ..., parallelism-1].
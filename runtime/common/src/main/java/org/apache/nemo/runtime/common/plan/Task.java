@@ -30,6 +30,7 @@ import java.util.Optional;
 
 /**
  * A Task (attempt) is a self-contained executable that can be executed on a machine.
+ * The DAG of the task is not shipped with the task, but is fetched once per stage by the executor.
  */
 public final class Task implements Serializable {
   private final String planId;
@@ -37,7 +38,7 @@ public final class Task implements Serializable {
   private final List<StageEdge> taskIncomingEdges;
   private final List<StageEdge> taskOutgoingEdges;
   private final ExecutionPropertyMap<VertexExecutionProperty> executionProperties;
-  private final byte[] serializedIRDag;
+  private final String irDagDigest;
   private final Map<String, Readable> irVertexIdToReadable;
 
   /**
@@ -46,7 +47,7 @@ public final class Task implements Serializable {
    * @param planId               the id of the physical plan.
    * @param taskId               the ID of this task attempt.
    * @param executionProperties  {@link VertexExecutionProperty} map for the corresponding stage
-   * @param serializedIRDag      the serialized DAG of the task.
+   * @param irDagDigest          the digest of the serialized DAG of the task.
    * @param taskIncomingEdges    the incoming edges of the task.
    * @param taskOutgoingEdges    the outgoing edges of the task.
    * @param irVertexIdToReadable the map between IRVertex id to readable.
@@ -54,14 +55,14 @@ public final class Task implements Serializable {
   public Task(final String planId,
               final String taskId,
               final ExecutionPropertyMap<VertexExecutionProperty> executionProperties,
-              final byte[] serializedIRDag,
+              final String irDagDigest,
               final List<StageEdge> taskIncomingEdges,
               final List<StageEdge> taskOutgoingEdges,
               final Map<String, Readable> irVertexIdToReadable) {
     this.planId = planId;
     this.taskId = taskId;
     this.executionProperties = executionProperties;
-    this.serializedIRDag = serializedIRDag;
+    this.irDagDigest = irDagDigest;
     this.taskIncomingEdges = taskIncomingEdges;
     this.taskOutgoingEdges = taskOutgoingEdges;
     this.irVertexIdToReadable = irVertexIdToReadable;
@@ -75,10 +76,10 @@ public final class Task implements Serializable {
   }
 
   /**
-   * @return the serialized IR DAG of the task.
+   * @return the digest of the serialized DAG of the task, to identify the DAG fetched by the executor.
    */
-  public byte[] getSerializedIRDag() {
-    return serializedIRDag;
+  public String getIRDagDigest() {
+    return irDagDigest;
   }
 
   /**
@@ -192,11 +192,11 @@ public final class NemoDriver {
   private void startSchedulingUserDAG(final String dagString) {
     runnerThread.execute(() -> {
       userApplicationRunner.run(dagString);
+      // flush metrics before the client is notified, so that they are dumped before the driver shuts down.
+      runtimeMaster.flushMetrics();
       // send driver notification that user application is done.
       clientRPC.send(ControlMessage.DriverToClientMessage.newBuilder()
         .setType(ControlMessage.DriverToClientMessageType.ExecutionDone).build());
-      // flush metrics
-      runtimeMaster.flushMetrics();
     });
   }
 
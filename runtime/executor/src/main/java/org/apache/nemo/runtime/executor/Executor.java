@@ -25,6 +25,8 @@ import org.apache.nemo.common.coder.BytesDecoderFactory;
 import org.apache.nemo.common.coder.BytesEncoderFactory;
 import org.apache.nemo.common.coder.DecoderFactory;
 import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.coder.FramedDecoderFactory;
+import org.apache.nemo.common.coder.FramedEncoderFactory;
 import org.apache.nemo.common.dag.DAG;
 import org.apache.nemo.common.exception.IllegalMessageException;
 import org.apache.nemo.common.exception.UnknownFailureCauseException;
@@ -42,8 +44,13 @@ import org.apache.nemo.runtime.common.message.MessageListener;
 import org.apache.nemo.runtime.common.message.PersistentConnectionToMasterMap;
 import org.apache.nemo.runtime.common.plan.RuntimeEdge;
 import org.apache.nemo.runtime.common.plan.Task;
+import org.apache.nemo.runtime.executor.data.BlockPrefetcher;
 import org.apache.nemo.runtime.executor.data.BroadcastManagerWorker;
+import org.apache.nemo.runtime.executor.data.MemoryPoolAssigner;
+import org.apache.nemo.runtime.executor.data.PipeManagerWorker;
 import org.apache.nemo.runtime.executor.data.SerializerManager;
+import org.apache.nemo.runtime.executor.data.SpillStoreFactory;
+import org.apache.nemo.runtime.executor.data.partition.ColumnarFormat;
 import org.apache.nemo.runtime.executor.datatransfer.IntermediateDataIOFactory;
 import org.apache.nemo.runtime.executor.datatransfer.NemoEventDecoderFactory;
 import org.apache.nemo.runtime.executor.datatransfer.NemoEventEncoderFactory;
@@ -53,14 +60,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Executor.
  */
 public final class Executor {
   private static final Logger LOG = LoggerFactory.getLogger(Executor.class.getName());
+  private static final long EXECUTOR_METRIC_SAMPLING_PERIOD_MS = 1000;
+  private static final long STAGE_IR_DAG_REQUEST_TIMEOUT_MS = 60000;
 
   private final String executorId;
 
@@ -81,10 +95,35 @@ public final class Executor {
 
   private final BroadcastManagerWorker broadcastManagerWorker;
 
+  private final SpillStoreFactory spillStoreFactory;
+
   private final PersistentConnectionToMasterMap persistentConnectionToMasterMap;
 
   private final MetricMessageSender metricMessageSender;
 
+  private final MemoryPoolAssigner memoryPoolAssigner;
+
+  private final BlockPrefetcher blockPrefetcher;
+
+  private final PipeManagerWorker pipeManagerWorker;
+
+  /**
+   * Whether to encode the data of the edges in length-prefixed frames.
+   */
+  private final boolean framedSerialization;
+
+  /**
+   * Periodically samples the executor metrics, e.g., the GC time and the number of running tasks.
+   */
+  private final ScheduledExecutorService executorMetricSampler;
+
+  private final AtomicInteger numRunningTasks;
+
+  /**
+   * The IR DAGs of the stages whose tasks are launched in this executor.
+   */
+  private final StageIRDagCache stageIRDagCache;
+
   @Inject
   private Executor(@Parameter(JobConf.ExecutorId.class) final String executorId,
                    final PersistentConnectionToMasterMap persistentConnectionToMasterMap,
@@ -92,7 +131,12 @@ public final class Executor {
                    final SerializerManager serializerManager,
                    final IntermediateDataIOFactory intermediateDataIOFactory,
                    final BroadcastManagerWorker broadcastManagerWorker,
-                   final MetricManagerWorker metricMessageSender) {
+                   final SpillStoreFactory spillStoreFactory,
+                   final MetricManagerWorker metricMessageSender,
+                   final MemoryPoolAssigner memoryPoolAssigner,
+                   final BlockPrefetcher blockPrefetcher,
+                   final PipeManagerWorker pipeManagerWorker,
+                   @Parameter(JobConf.FramedSerialization.class) final boolean framedSerialization) {
     this.executorId = executorId;
     this.executorService = Executors.newCachedThreadPool(new BasicThreadFactory.Builder()
       .namingPattern("TaskExecutor thread-%d")
@@ -101,7 +145,22 @@ public final class Executor {
     this.serializerManager = serializerManager;
     this.intermediateDataIOFactory = intermediateDataIOFactory;
     this.broadcastManagerWorker = broadcastManagerWorker;
+    this.spillStoreFactory = spillStoreFactory;
     this.metricMessageSender = metricMessageSender;
+    this.memoryPoolAssigner = memoryPoolAssigner;
+    this.blockPrefetcher = blockPrefetcher;
+    this.pipeManagerWorker = pipeManagerWorker;
+    this.framedSerialization = framedSerialization;
+    // The serializers of a stage are registered when the first task of the stage fetches the DAG.
+    this.stageIRDagCache = new StageIRDagCache(executorId, persistentConnectionToMasterMap,
+      STAGE_IR_DAG_REQUEST_TIMEOUT_MS, this::registerSerializers);
+    this.numRunningTasks = new AtomicInteger(0);
+    this.executorMetricSampler = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+      .namingPattern("ExecutorMetric sampler-%d")
+      .daemon(true)
+      .build());
+    this.executorMetricSampler.scheduleAtFixedRate(this::sampleExecutorMetric, 0,
+      EXECUTOR_METRIC_SAMPLING_PERIOD_MS, TimeUnit.MILLISECONDS);
     messageEnvironment.setupListener(MessageEnvironment.EXECUTOR_MESSAGE_LISTENER_ID, new ExecutorMessageReceiver());
   }
 
@@ -112,7 +171,33 @@ public final class Executor {
   private synchronized void onTaskReceived(final Task task) {
     LOG.debug("Executor [{}] received Task [{}] to execute.",
       new Object[]{executorId, task.getTaskId()});
-    executorService.execute(() -> launchTask(task));
+    numRunningTasks.incrementAndGet();
+    executorService.execute(() -> {
+      try {
+        launchTask(task);
+      } finally {
+        numRunningTasks.decrementAndGet();
+      }
+    });
+  }
+
+  /**
+   * Sends the sampled executor metrics to the master.
+   */
+  private void sampleExecutorMetric() {
+    long gcTime = 0;
+    for (final GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      gcTime += Math.max(gcBean.getCollectionTime(), 0);
+    }
+    metricMessageSender.send("ExecutorMetric", executorId, "gcTime", SerializationUtils.serialize(gcTime));
+    metricMessageSender.send("ExecutorMetric", executorId, "heapUsedBytes",
+      SerializationUtils.serialize(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed()));
+    metricMessageSender.send("ExecutorMetric", executorId, "numRunningTasks",
+      SerializationUtils.serialize(numRunningTasks.get()));
+    metricMessageSender.send("ExecutorMetric", executorId, "offheapUsedBytesPerChunkSize",
+      SerializationUtils.serialize(memoryPoolAssigner.getUsedBytesPerChunkSize()));
+    metricMessageSender.send("ExecutorMetric", executorId, "offheapIdleBytesPerChunkSize",
+      SerializationUtils.serialize(memoryPoolAssigner.getIdleBytesPerChunkSize()));
   }
 
   /**
@@ -124,32 +209,14 @@ public final class Executor {
     LOG.info("Launch task: {}", task.getTaskId());
     try {
       final long deserializationStartTime = System.currentTimeMillis();
-      final DAG<IRVertex, RuntimeEdge<IRVertex>> irDag =
-        SerializationUtils.deserialize(task.getSerializedIRDag());
+      final DAG<IRVertex, RuntimeEdge<IRVertex>> irDag = stageIRDagCache.get(task);
       metricMessageSender.send("TaskMetric", task.getTaskId(), "taskDeserializationTime",
         SerializationUtils.serialize(System.currentTimeMillis() - deserializationStartTime));
       final TaskStateManager taskStateManager =
         new TaskStateManager(task, executorId, persistentConnectionToMasterMap, metricMessageSender);
 
-      task.getTaskIncomingEdges().forEach(e -> serializerManager.register(e.getId(),
-        getEncoderFactory(e.getPropertyValue(EncoderProperty.class).get()),
-        getDecoderFactory(e.getPropertyValue(DecoderProperty.class).get()),
-        e.getPropertyValue(CompressionProperty.class).orElse(null),
-        e.getPropertyValue(DecompressionProperty.class).orElse(null)));
-      task.getTaskOutgoingEdges().forEach(e -> serializerManager.register(e.getId(),
-        getEncoderFactory(e.getPropertyValue(EncoderProperty.class).get()),
-        getDecoderFactory(e.getPropertyValue(DecoderProperty.class).get()),
-        e.getPropertyValue(CompressionProperty.class).orElse(null),
-        e.getPropertyValue(DecompressionProperty.class).orElse(null)));
-      irDag.getVertices().forEach(v ->
-        irDag.getOutgoingEdgesOf(v).forEach(e -> serializerManager.register(e.getId(),
-          getEncoderFactory(e.getPropertyValue(EncoderProperty.class).get()),
-          getDecoderFactory(e.getPropertyValue(DecoderProperty.class).get()),
-          e.getPropertyValue(CompressionProperty.class).orElse(null),
-          e.getPropertyValue(DecompressionProperty.class).orElse(null))));
-
       new TaskExecutor(task, irDag, taskStateManager, intermediateDataIOFactory, broadcastManagerWorker,
-        metricMessageSender, persistentConnectionToMasterMap).execute();
+        spillStoreFactory, blockPrefetcher, metricMessageSender, persistentConnectionToMasterMap).execute();
     } catch (final Exception e) {
       persistentConnectionToMasterMap.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID).send(
         ControlMessage.Message.newBuilder()
@@ -166,7 +233,36 @@ public final class Executor {
   }
 
   /**
-   * This wraps the encoder with NemoEventEncoder.
+   * Registers the serializers of the edges of a stage, which are shared by all tasks of the stage.
+   *
+   * @param task  a task of the stage.
+   * @param irDag the IR DAG of the stage.
+   */
+  private void registerSerializers(final Task task, final DAG<IRVertex, RuntimeEdge<IRVertex>> irDag) {
+    task.getTaskIncomingEdges().forEach(this::registerSerializer);
+    task.getTaskOutgoingEdges().forEach(this::registerSerializer);
+    irDag.getVertices().forEach(v -> irDag.getOutgoingEdgesOf(v).forEach(this::registerSerializer));
+  }
+
+  /**
+   * Registers the serializer of an edge.
+   * The elements of the edge are stored in columns if its coders encode primitives.
+   *
+   * @param edge the edge.
+   */
+  private void registerSerializer(final RuntimeEdge<?> edge) {
+    final EncoderFactory encoderFactory = edge.getPropertyValue(EncoderProperty.class).get();
+    final DecoderFactory decoderFactory = edge.getPropertyValue(DecoderProperty.class).get();
+    serializerManager.register(edge.getId(),
+      getEncoderFactory(encoderFactory),
+      getDecoderFactory(decoderFactory),
+      edge.getPropertyValue(CompressionProperty.class).orElse(null),
+      edge.getPropertyValue(DecompressionProperty.class).orElse(null),
+      ColumnarFormat.of(encoderFactory, decoderFactory));
+  }
+
+  /**
+   * This wraps the encoder with NemoEventEncoder, and with FramedEncoderFactory if the frames are enabled.
    * If the encoder is BytesEncoderFactory, we do not wrap the encoder.
    * TODO #276: Add NoCoder property value in Encoder/DecoderProperty
    *
@@ -176,13 +272,15 @@ public final class Executor {
   private EncoderFactory getEncoderFactory(final EncoderFactory encoderFactory) {
     if (encoderFactory instanceof BytesEncoderFactory) {
       return encoderFactory;
+    } else if (framedSerialization) {
+      return FramedEncoderFactory.of(new NemoEventEncoderFactory(encoderFactory));
     } else {
       return new NemoEventEncoderFactory(encoderFactory);
     }
   }
 
   /**
-   * This wraps the encoder with NemoEventDecoder.
+   * This wraps the encoder with NemoEventDecoder, and with FramedDecoderFactory if the frames are enabled.
    * If the decoder is BytesDecoderFactory, we do not wrap the decoder.
    * TODO #276: Add NoCoder property value in Encoder/DecoderProperty
    *
@@ -192,12 +290,17 @@ public final class Executor {
   private DecoderFactory getDecoderFactory(final DecoderFactory decoderFactory) {
     if (decoderFactory instanceof BytesDecoderFactory) {
       return decoderFactory;
+    } else if (framedSerialization) {
+      return FramedDecoderFactory.of(new NemoEventDecoderFactory(decoderFactory));
     } else {
       return new NemoEventDecoderFactory(decoderFactory);
     }
   }
 
   public void terminate() {
+    executorMetricSampler.shutdownNow();
+    blockPrefetcher.shutdown();
+    pipeManagerWorker.terminate();
     try {
       metricMessageSender.close();
     } catch (final UnknownFailureCauseException e) {
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.nemo.common.dag.DAG;
+import org.apache.nemo.common.ir.vertex.IRVertex;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.apache.nemo.runtime.common.comm.ControlMessage;
+import org.apache.nemo.runtime.common.message.MessageEnvironment;
+import org.apache.nemo.runtime.common.message.PersistentConnectionToMasterMap;
+import org.apache.nemo.runtime.common.plan.RuntimeEdge;
+import org.apache.nemo.runtime.common.plan.Task;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * Caches the serialized IR DAGs of the stages whose tasks are launched in this executor.
+ * The DAG of a stage is fetched from the master for the first task of the stage, and is deserialized for each task,
+ * as the transforms in it keep per-task state.
+ * The DAGs are keyed by the stage ID and the digest of the DAG, since a stage ID is reused by the plans
+ * appended or re-optimized at runtime.
+ */
+@ThreadSafe
+final class StageIRDagCache {
+  private static final long MAX_NUM_STAGES = 100;
+  private static final long EXPIRE_AFTER_ACCESS_MINUTES = 10;
+
+  private final String executorId;
+  private final PersistentConnectionToMasterMap persistentConnectionToMasterMap;
+  private final long requestTimeoutMs;
+  private final BiConsumer<Task, DAG<IRVertex, RuntimeEdge<IRVertex>>> onFetched;
+  private final Cache<String, byte[]> serializedIRDags;
+
+  /**
+   * Constructor.
+   *
+   * @param executorId                      the ID of this executor.
+   * @param persistentConnectionToMasterMap to request the DAGs to the master.
+   * @param requestTimeoutMs                how long to wait for the master to answer a request.
+   * @param onFetched                       called with the first task of a stage and the DAG, when it is fetched.
+   */
+  StageIRDagCache(final String executorId,
+                  final PersistentConnectionToMasterMap persistentConnectionToMasterMap,
+                  final long requestTimeoutMs,
+                  final BiConsumer<Task, DAG<IRVertex, RuntimeEdge<IRVertex>>> onFetched) {
+    this.executorId = executorId;
+    this.persistentConnectionToMasterMap = persistentConnectionToMasterMap;
+    this.requestTimeoutMs = requestTimeoutMs;
+    this.onFetched = onFetched;
+    this.serializedIRDags = CacheBuilder.newBuilder()
+      .maximumSize(MAX_NUM_STAGES)
+      .expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES)
+      .build();
+  }
+
+  /**
+   * Gets the IR DAG of the stage of a task.
+   * The other tasks of the stage wait while the DAG is fetched.
+   *
+   * @param task the task.
+   * @return the IR DAG of the stage.
+   */
+  DAG<IRVertex, RuntimeEdge<IRVertex>> get(final Task task) {
+    final String stageKey = task.getStageId() + "-" + task.getIRDagDigest();
+    final byte[] serializedIRDag;
+    try {
+      serializedIRDag = serializedIRDags.get(stageKey, () -> {
+        final byte[] fetched = fetch(task);
+        onFetched.accept(task, SerializationUtils.deserialize(fetched));
+        return fetched;
+      });
+    } catch (final ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+    return SerializationUtils.deserialize(serializedIRDag);
+  }
+
+  /**
+   * Fetches the serialized IR DAG of the stage of a task from the master.
+   *
+   * @param task the task.
+   * @return the serialized IR DAG.
+   * @throws InterruptedException while waiting for the response.
+   * @throws ExecutionException   if the request fails.
+   * @throws TimeoutException     if the master does not answer in time.
+   */
+  private byte[] fetch(final Task task) throws InterruptedException, ExecutionException, TimeoutException {
+    final CompletableFuture<ControlMessage.Message> responseFromMasterFuture = persistentConnectionToMasterMap
+      .getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID).request(
+        ControlMessage.Message.newBuilder()
+          .setId(RuntimeIdManager.generateMessageId())
+          .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+          .setType(ControlMessage.MessageType.RequestStageIRDAG)
+          .setRequestStageIRDAGMsg(ControlMessage.RequestStageIRDAGMessage.newBuilder()
+            .setExecutorId(executorId)
+            .setStageId(task.getStageId())
+            .setIrDagDigest(task.getIRDagDigest())
+            .build())
+          .build());
+    final ControlMessage.StageIRDAGMessage response =
+      responseFromMasterFuture.get(requestTimeoutMs, TimeUnit.MILLISECONDS).getStageIRDAGMsg();
+    if (!response.hasSerializedIRDag()) {
+      throw new IllegalStateException("The master has no DAG of the stage of " + task.getTaskId());
+    }
+    return response.getSerializedIRDag().toByteArray();
+  }
+}
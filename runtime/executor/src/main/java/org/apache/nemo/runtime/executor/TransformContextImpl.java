@@ -18,10 +18,23 @@
  */
 package org.apache.nemo.runtime.executor;
 
+import com.google.protobuf.ByteString;
+import org.apache.nemo.common.coder.DecoderFactory;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.ir.vertex.transform.SpillStore;
 import org.apache.nemo.common.ir.vertex.transform.Transform;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.apache.nemo.runtime.common.comm.ControlMessage;
+import org.apache.nemo.runtime.common.message.MessageEnvironment;
+import org.apache.nemo.runtime.common.message.PersistentConnectionToMasterMap;
 import org.apache.nemo.runtime.executor.data.BroadcastManagerWorker;
+import org.apache.nemo.runtime.executor.data.SpillStoreFactory;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -29,15 +42,31 @@ import java.util.Optional;
  */
 public final class TransformContextImpl implements Transform.Context {
   private final BroadcastManagerWorker broadcastManagerWorker;
+  private final SpillStoreFactory spillStoreFactory;
+  private final PersistentConnectionToMasterMap persistentConnectionToMasterMap;
+  private final String taskId;
+  private final Map<String, Long> metrics;
+  private final List<SpillStore<?>> spillStores;
   private String data;
 
   /**
    * Constructor of Context Implementation.
    *
-   * @param broadcastManagerWorker for broadcast variables.
+   * @param broadcastManagerWorker          for broadcast variables.
+   * @param spillStoreFactory               for spilling the state of the transform.
+   * @param persistentConnectionToMasterMap for sending collected data.
+   * @param taskId                          the task attempt which collects data.
    */
-  public TransformContextImpl(final BroadcastManagerWorker broadcastManagerWorker) {
+  public TransformContextImpl(final BroadcastManagerWorker broadcastManagerWorker,
+                              final SpillStoreFactory spillStoreFactory,
+                              final PersistentConnectionToMasterMap persistentConnectionToMasterMap,
+                              final String taskId) {
     this.broadcastManagerWorker = broadcastManagerWorker;
+    this.spillStoreFactory = spillStoreFactory;
+    this.persistentConnectionToMasterMap = persistentConnectionToMasterMap;
+    this.taskId = taskId;
+    this.metrics = new HashMap<>();
+    this.spillStores = new ArrayList<>();
     this.data = null;
   }
 
@@ -55,4 +84,53 @@ public final class TransformContextImpl implements Transform.Context {
   public Optional<String> getSerializedData() {
     return Optional.ofNullable(this.data);
   }
+
+  @Override
+  public void sendCollectedData(final byte[] chunk) {
+    // The master relays the chunk to the client as it arrives, so the task does not hold on to the collected data.
+    // The client keeps the chunk only if this task attempt completes.
+    persistentConnectionToMasterMap.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID).send(
+      ControlMessage.Message.newBuilder()
+        .setId(RuntimeIdManager.generateMessageId())
+        .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+        .setType(ControlMessage.MessageType.ExecutorDataCollected)
+        .setDataCollected(ControlMessage.DataCollectMessage.newBuilder()
+          .setTaskId(taskId)
+          .setChunk(ByteString.copyFrom(chunk))
+          .build())
+        .build());
+  }
+
+  @Override
+  public long getSpillThresholdBytes() {
+    return spillStoreFactory.getSpillThresholdBytes();
+  }
+
+  @Override
+  public <T> SpillStore<T> createSpillStore(final EncoderFactory<T> encoderFactory,
+                                            final DecoderFactory<T> decoderFactory) {
+    final SpillStore<T> spillStore = spillStoreFactory.createSpillStore(encoderFactory, decoderFactory);
+    spillStores.add(spillStore);
+    return spillStore;
+  }
+
+  /**
+   * Deletes the spill stores created by the transform, in case the transform has not closed them, e.g., on a failure.
+   */
+  public void closeSpillStores() {
+    spillStores.forEach(SpillStore::close);
+    spillStores.clear();
+  }
+
+  @Override
+  public void addMetric(final String metricField, final long value) {
+    metrics.merge(metricField, value, Long::sum);
+  }
+
+  /**
+   * @return the metrics added by the transform.
+   */
+  public Map<String, Long> getMetrics() {
+    return metrics;
+  }
 }
@@ -19,10 +19,12 @@
 package org.apache.nemo.runtime.executor.bytetransfer;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.io.IOException;
 import java.io.InputStream;
@@ -38,6 +40,9 @@ import java.util.concurrent.CompletableFuture;
  * {@link #onContextClose()}, are not thread-safe, since they are called by a single Netty event loop.</p>
  * <p>Public methods are thread safe,
  * although the execution order may not be linearized if they were called from different threads.</p>
+ *
+ * <p>For pipe contexts, credits are granted back to the sender as the received bytes are consumed.
+ * See {@link ByteOutputContext} for details.</p>
  */
 public final class ByteInputContext extends ByteTransferContext {
 
@@ -47,6 +52,15 @@ public final class ByteInputContext extends ByteTransferContext {
   private final ClosableBlockingQueue<ByteBufInputStream> byteBufInputStreams = new ClosableBlockingQueue<>();
   private final AtomicReference<ByteBufInputStream> currentByteBufInputStream = new AtomicReference<>();
 
+  // Credit-based flow control
+  private final Channel channel;
+  private final long creditWindowBytes;
+  private final AtomicLong bytesToGrant = new AtomicLong(0);
+
+  // Queue depth
+  private final AtomicLong queuedBytes = new AtomicLong(0);
+  private final AtomicLong maxQueuedBytes = new AtomicLong(0);
+
   private final Iterator<InputStream> inputStreams = new Iterator<InputStream>() {
     @Override
     public boolean hasNext() {
@@ -83,6 +97,8 @@ public final class ByteInputContext extends ByteTransferContext {
                    final byte[] contextDescriptor,
                    final ContextManager contextManager) {
     super(remoteExecutorId, contextId, contextDescriptor, contextManager);
+    this.channel = contextManager.getChannel();
+    this.creditWindowBytes = contextId.isPipe() ? contextManager.getPipeCreditWindowBytes() : 0;
   }
 
   /**
@@ -104,6 +120,20 @@ public final class ByteInputContext extends ByteTransferContext {
     return completedFuture;
   }
 
+  /**
+   * @return the number of bytes received but not consumed yet.
+   */
+  public long getQueuedBytes() {
+    return queuedBytes.get();
+  }
+
+  /**
+   * @return the maximum number of bytes that have been received but not consumed at once.
+   */
+  public long getMaxQueuedBytes() {
+    return maxQueuedBytes.get();
+  }
+
   /**
    * Called when a punctuation for sub-stream incarnation is detected.
    */
@@ -125,6 +155,8 @@ public final class ByteInputContext extends ByteTransferContext {
       throw new RuntimeException("Cannot accept ByteBuf: No sub-stream is opened.");
     }
     if (byteBuf.readableBytes() > 0) {
+      final long queued = queuedBytes.addAndGet(byteBuf.readableBytes());
+      maxQueuedBytes.accumulateAndGet(queued, Math::max);
       currentByteBufInputStream.get().byteBufQueue.put(byteBuf);
     } else {
       // ignore empty data frames
@@ -132,6 +164,29 @@ public final class ByteInputContext extends ByteTransferContext {
     }
   }
 
+  /**
+   * Called when received bytes are consumed, to grant credits back to the sender.
+   * Credits are granted in batches of half the credit window, to avoid flooding the channel with credit frames.
+   * The sender can only run out of credits once the receiver has consumed at least that many bytes,
+   * so this never leaves the sender waiting for credits that the receiver holds back.
+   *
+   * @param numBytes the number of bytes consumed.
+   */
+  private void onBytesConsumed(final long numBytes) {
+    queuedBytes.addAndGet(-numBytes);
+    if (creditWindowBytes > 0) {
+      final long toGrant = bytesToGrant.addAndGet(numBytes);
+      if (toGrant >= creditWindowBytes / 2 && bytesToGrant.compareAndSet(toGrant, 0)) {
+        // a credit frame carries at most DataFrameEncoder#LENGTH_MAX bytes
+        for (long granted = 0; granted < toGrant; granted += DataFrameEncoder.LENGTH_MAX) {
+          channel.writeAndFlush(new ControlFrameEncoder.CreditFrame(getContextId(),
+              Math.min(toGrant - granted, DataFrameEncoder.LENGTH_MAX)))
+            .addListener(getChannelWriteListener());
+        }
+      }
+    }
+  }
+
   /**
    * Called when {@link #onByteBuf(ByteBuf)} event is no longer expected.
    */
@@ -159,10 +214,21 @@ public final class ByteInputContext extends ByteTransferContext {
   /**
    * An {@link InputStream} implementation that reads data from a composition of {@link ByteBuf}s.
    */
-  private static final class ByteBufInputStream extends InputStream {
+  private final class ByteBufInputStream extends InputStream {
 
     private final ClosableBlockingQueue<ByteBuf> byteBufQueue = new ClosableBlockingQueue<>();
 
+    /**
+     * Releases a fully consumed {@link ByteBuf}.
+     *
+     * @param byteBuf the {@link ByteBuf} to release.
+     */
+    private void release(final ByteBuf byteBuf) {
+      // the ByteBufs are slices of the received frames, so the reader index is the number of consumed bytes
+      onBytesConsumed(byteBuf.readerIndex());
+      byteBuf.release();
+    }
+
     @Override
     public int read() throws IOException {
       try {
@@ -175,7 +241,7 @@ public final class ByteInputContext extends ByteTransferContext {
         if (head.readableBytes() == 0) {
           // remove and release header if no longer required
           byteBufQueue.take();
-          head.release();
+          release(head);
         }
         return b;
       } catch (final InterruptedException e) {
@@ -207,7 +273,7 @@ public final class ByteInputContext extends ByteTransferContext {
           head.readBytes(bytes, baseOffset + readBytes, toRead);
           if (head.readableBytes() == 0) {
             byteBufQueue.take();
-            head.release();
+            release(head);
           }
           readBytes += toRead;
           capacity -= toRead;
@@ -243,8 +309,9 @@ public final class ByteInputContext extends ByteTransferContext {
             // discard the whole ByteBuf
             skippedBytes += head.readableBytes();
             toSkip -= head.readableBytes();
+            head.skipBytes(head.readableBytes());
             byteBufQueue.take();
-            head.release();
+            release(head);
           }
         }
         return skippedBytes;
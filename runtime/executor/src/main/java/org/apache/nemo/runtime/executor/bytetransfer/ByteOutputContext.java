@@ -46,6 +46,10 @@ import static io.netty.buffer.Unpooled.wrappedBuffer;
 /**
  * Container for multiple output streams. Represents a transfer context on sender-side.
  *
+ * <p>Pipe contexts are flow controlled with credits: a data frame is written only when the receiver has granted
+ * credits, which it does as it consumes the bytes it received. The writing thread blocks until then, so that
+ * a fast sender cannot exhaust the memory of a slow receiver.</p>
+ *
  * <p>Public methods are thread safe,
  * although the execution order may not be linearized if they were called from different threads.</p>
  */
@@ -56,6 +60,14 @@ public final class ByteOutputContext extends ByteTransferContext implements Auto
 
   private final AtomicReference<ByteOutputStream> currentByteOutputStream = new AtomicReference<>();
   private volatile boolean closed = false;
+  // The future of the last frame written to the channel, which completes after those of the earlier frames.
+  private volatile ChannelFuture lastWriteFuture = null;
+
+  // Credit-based flow control
+  private final boolean isFlowControlled;
+  private final Object creditLock = new Object();
+  private long credits; // guarded by creditLock
+  private long creditWaitTimeMs = 0; // guarded by creditLock
 
   /**
    * Creates a output context.
@@ -71,6 +83,8 @@ public final class ByteOutputContext extends ByteTransferContext implements Auto
                     final ContextManager contextManager) {
     super(remoteExecutorId, contextId, contextDescriptor, contextManager);
     this.channel = contextManager.getChannel();
+    this.credits = contextManager.getPipeCreditWindowBytes();
+    this.isFlowControlled = contextId.isPipe() && credits > 0;
   }
 
   /**
@@ -105,18 +119,101 @@ public final class ByteOutputContext extends ByteTransferContext implements Auto
     if (currentByteOutputStream.get() != null) {
       currentByteOutputStream.get().close();
     }
-    channel.writeAndFlush(DataFrameEncoder.DataFrame.newInstance(getContextId()))
+    lastWriteFuture = channel.writeAndFlush(DataFrameEncoder.DataFrame.newInstance(getContextId()))
       .addListener(getChannelWriteListener());
     deregister();
     closed = true;
   }
 
+  /**
+   * Runs a callback once the frames written to this context so far are sent, or failed to be sent.
+   * The data frames are sent asynchronously, so the buffers they wrap must stay valid until then.
+   *
+   * @param callback the callback to run
+   */
+  public void onWritesDone(final Runnable callback) {
+    final ChannelFuture future = lastWriteFuture;
+    if (future == null) {
+      callback.run();
+    } else {
+      future.addListener(f -> callback.run());
+    }
+  }
+
   @Override
   public void onChannelError(@Nullable final Throwable cause) {
     setChannelError(cause);
+    synchronized (creditLock) {
+      // wake up the writers waiting for credits
+      creditLock.notifyAll();
+    }
     channel.close();
   }
 
+  /**
+   * Called when the receiver grants credits to this context.
+   *
+   * @param grantedBytes the number of bytes granted
+   */
+  void onCredit(final long grantedBytes) {
+    synchronized (creditLock) {
+      credits += grantedBytes;
+      creditLock.notifyAll();
+    }
+  }
+
+  /**
+   * @return the total time in ms that writers have been blocked waiting for credits.
+   */
+  public long getCreditWaitTimeMs() {
+    synchronized (creditLock) {
+      return creditWaitTimeMs;
+    }
+  }
+
+  /**
+   * @return whether a data frame can be written without waiting for credits.
+   */
+  public boolean hasCredits() {
+    if (!isFlowControlled) {
+      return true;
+    }
+    synchronized (creditLock) {
+      return credits > 0;
+    }
+  }
+
+  /**
+   * Acquires credits to write a data frame, blocking until the receiver grants some if there is none left.
+   * A frame larger than the remaining credits is written as long as there are any credits,
+   * so the bytes in flight are bounded by the credit window plus the size of a frame.
+   *
+   * @param length the length of the frame body, in bytes
+   * @throws IOException when an exception has been set or interrupted while waiting
+   */
+  private void acquireCredits(final long length) throws IOException {
+    if (!isFlowControlled || length == 0) {
+      return;
+    }
+    synchronized (creditLock) {
+      if (credits <= 0) {
+        final long waitStartTime = System.currentTimeMillis();
+        try {
+          while (credits <= 0) {
+            ensureNoException();
+            creditLock.wait();
+          }
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        } finally {
+          creditWaitTimeMs += System.currentTimeMillis() - waitStartTime;
+        }
+      }
+      credits -= length;
+    }
+  }
+
   /**
    * @throws IOException when a channel exception has been set.
    */
@@ -141,6 +238,11 @@ public final class ByteOutputContext extends ByteTransferContext implements Auto
     private volatile boolean newSubStream = true;
     private volatile boolean closed = false;
 
+    // The pending batch of elements, which share a single encoder (see writeElementToBatch)
+    private ByteBuf batchBuf = null;
+    private OutputStream batchStream = null;
+    private EncoderFactory.Encoder batchEncoder = null;
+
     /**
      * Writes {@link SerializedPartition}.
      *
@@ -188,6 +290,18 @@ public final class ByteOutputContext extends ByteTransferContext implements Auto
       }
     }
 
+    /**
+     * Writes a data frame from a byte array.
+     *
+     * @param bytes the bytes to write
+     * @return {@code this}
+     * @throws IOException when an exception has been set or this stream was closed
+     */
+    public ByteOutputStream writeBytes(final byte[] bytes) throws IOException {
+      writeByteBuf(wrappedBuffer(bytes), Collections.emptyList());
+      return this;
+    }
+
     /**
      * Writes a data frame from {@link FileArea}.
      *
@@ -214,6 +328,7 @@ public final class ByteOutputContext extends ByteTransferContext implements Auto
       if (closed) {
         return;
       }
+      flushBatch();
       if (newSubStream) {
         // to emit a frame with new sub-stream flag
         writeDataFrame(null, 0, Collections.emptyList());
@@ -236,6 +351,7 @@ public final class ByteOutputContext extends ByteTransferContext implements Auto
           DataUtil.buildOutputStream(byteBufOutputStream, serializer.getEncodeStreamChainers());
         final EncoderFactory.Encoder encoder = serializer.getEncoderFactory().create(wrapped);
         encoder.encode(element);
+        encoder.flush();
         wrapped.close();
 
         writeByteBuf(byteBuf, Collections.emptyList());
@@ -244,6 +360,57 @@ public final class ByteOutputContext extends ByteTransferContext implements Auto
       }
     }
 
+    /**
+     * Encodes an element into the pending batch of this stream.
+     * Unlike {@link #writeElement(Object, Serializer)}, the element is not written to the channel right away:
+     * the stream chain and the encoder are built once, and all the batched elements are accumulated into a single
+     * pooled {@link ByteBuf} which is written as a data frame when this stream is closed.
+     * The same serializer should be used for every element of a stream.
+     *
+     * @param element    element
+     * @param serializer serializer
+     * @return the number of bytes in the pending batch.
+     * @throws IOException when an exception has been set or this stream was closed
+     */
+    public int writeElementToBatch(final Object element,
+                                   final Serializer serializer) throws IOException {
+      ensureNoException();
+      if (closed) {
+        throw new IOException("Stream already closed.");
+      }
+      if (batchEncoder == null) {
+        batchBuf = channel.alloc().ioBuffer();
+        batchStream = DataUtil.buildOutputStream(new ByteBufOutputStream(batchBuf),
+          serializer.getEncodeStreamChainers());
+        batchEncoder = serializer.getEncoderFactory().create(batchStream);
+      }
+      batchEncoder.encode(element);
+      return batchBuf.readableBytes();
+    }
+
+    /**
+     * Writes the pending batch of elements, if any, as a data frame.
+     * This finishes the encoding stream chain, and thus is only called upon closing this stream.
+     *
+     * @throws IOException when an exception has been set or this stream was closed
+     */
+    private void flushBatch() throws IOException {
+      if (batchEncoder == null) {
+        return;
+      }
+      final ByteBuf byteBuf = batchBuf;
+      batchEncoder.flush();
+      batchStream.close();
+      batchBuf = null;
+      batchStream = null;
+      batchEncoder = null;
+      if (byteBuf.readableBytes() > 0) {
+        writeByteBuf(byteBuf, Collections.emptyList());
+      } else {
+        byteBuf.release();
+      }
+    }
+
     /**
      * Writes a data frame.
      *
@@ -258,10 +425,12 @@ public final class ByteOutputContext extends ByteTransferContext implements Auto
       if (closed) {
         throw new IOException("Stream already closed.");
       }
+      acquireCredits(length);
       final ChannelFuture beforeAddingGivenListener = channel
         .writeAndFlush(DataFrameEncoder.DataFrame.newInstance(getContextId(), body, length, newSubStream))
         .addListener(getChannelWriteListener());
       listeners.forEach(beforeAddingGivenListener::addListener);
+      lastWriteFuture = beforeAddingGivenListener;
 
       newSubStream = false;
     }
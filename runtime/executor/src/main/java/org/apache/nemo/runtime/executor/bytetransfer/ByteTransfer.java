@@ -64,6 +64,18 @@ public final class ByteTransfer {
     return connectTo(executorId).thenApply(manager -> manager.newInputContext(executorId, contextDescriptor, isPipe));
   }
 
+  /**
+   * Initiate a transfer context to receive a chunk of a broadcast variable.
+   *
+   * @param executorId        the id of the remote executor
+   * @param contextDescriptor user-provided descriptor for the new context
+   * @return a {@link ByteInputContext} from which the received data can be read
+   */
+  public CompletableFuture<ByteInputContext> newBroadcastInputContext(final String executorId,
+                                                                      final byte[] contextDescriptor) {
+    return connectTo(executorId).thenApply(manager -> manager.newBroadcastInputContext(executorId, contextDescriptor));
+  }
+
   /**
    * Initiate a transfer context to send data.
    *
@@ -143,6 +143,7 @@ public abstract class ByteTransferContext {
     private final ByteTransferDataDirection dataDirection;
     private final int transferIndex;
     private final boolean isPipe;
+    private final boolean isBroadcast;
 
     /**
      * Create {@link ContextId}.
@@ -152,17 +153,20 @@ public abstract class ByteTransferContext {
      * @param dataDirection       the direction of the data flow
      * @param transferIndex       an index issued by the initiator
      * @param isPipe              is a pipe context
+     * @param isBroadcast         is a context for a chunk of a broadcast variable
      */
     ContextId(final String initiatorExecutorId,
               final String partnerExecutorId,
               final ByteTransferDataDirection dataDirection,
               final int transferIndex,
-              final boolean isPipe) {
+              final boolean isPipe,
+              final boolean isBroadcast) {
       this.initiatorExecutorId = initiatorExecutorId;
       this.partnerExecutorId = partnerExecutorId;
       this.dataDirection = dataDirection;
       this.transferIndex = transferIndex;
       this.isPipe = isPipe;
+      this.isBroadcast = isBroadcast;
     }
 
     public String getInitiatorExecutorId() {
@@ -177,6 +181,10 @@ public abstract class ByteTransferContext {
       return isPipe;
     }
 
+    public boolean isBroadcast() {
+      return isBroadcast;
+    }
+
     public ByteTransferDataDirection getDataDirection() {
       return dataDirection;
     }
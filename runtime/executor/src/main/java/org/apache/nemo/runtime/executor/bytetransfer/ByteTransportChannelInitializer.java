@@ -22,6 +22,7 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.socket.SocketChannel;
 import org.apache.nemo.conf.JobConf;
 import org.apache.nemo.runtime.executor.data.BlockManagerWorker;
+import org.apache.nemo.runtime.executor.data.BroadcastManagerWorker;
 import org.apache.nemo.runtime.executor.data.PipeManagerWorker;
 import org.apache.reef.tang.InjectionFuture;
 import org.apache.reef.tang.annotations.Parameter;
@@ -40,6 +41,8 @@ import javax.inject.Inject;
  *   => | FrameDecoder | =|
  *      +--------------+  |
  *                        += Data ==== (ContextManager) ==> Add data to an existing ByteInputContext
+ *                        |
+ *                        += Credit == (ContextManager) ==> Add credits to an existing ByteOutputContext
  * }
  * </pre>
  *
@@ -49,6 +52,9 @@ import javax.inject.Inject;
  *      +---------------------+
  *   <= | ControlFrameEncoder | <== A new ByteTransferContext
  *      +---------------------+
+ *      +---------------------+
+ *   <= | ControlFrameEncoder | <== CreditFrame ===== Consuming bytes from a pipe's ByteInputContext
+ *      +---------------------+
  *      +------------------+
  *   <= | DataFrameEncoder | <==== ByteBuf ==== Writing bytes to ByteOutputStream
  *      +------------------+
@@ -62,44 +68,54 @@ final class ByteTransportChannelInitializer extends ChannelInitializer<SocketCha
 
   private final InjectionFuture<PipeManagerWorker> pipeManagerWorker;
   private final InjectionFuture<BlockManagerWorker> blockManagerWorker;
+  private final InjectionFuture<BroadcastManagerWorker> broadcastManagerWorker;
   private final InjectionFuture<ByteTransfer> byteTransfer;
   private final InjectionFuture<ByteTransport> byteTransport;
   private final ControlFrameEncoder controlFrameEncoder;
   private final DataFrameEncoder dataFrameEncoder;
   private final String localExecutorId;
+  private final long pipeCreditWindowBytes;
 
   /**
    * Creates a netty channel initializer.
    *
    * @param pipeManagerWorker   provides handler for new contexts by remote executors
    * @param blockManagerWorker  provides handler for new contexts by remote executors
+   * @param broadcastManagerWorker provides handler for new contexts by remote executors
    * @param byteTransfer        provides channel caching
    * @param byteTransport       provides {@link io.netty.channel.group.ChannelGroup}
    * @param controlFrameEncoder encodes control frames
    * @param dataFrameEncoder    encodes data frames
    * @param localExecutorId     the id of this executor
+   * @param pipeCreditWindowKb  the credit window of pipes, in KB
    */
   @Inject
   private ByteTransportChannelInitializer(final InjectionFuture<PipeManagerWorker> pipeManagerWorker,
                                           final InjectionFuture<BlockManagerWorker> blockManagerWorker,
+                                          final InjectionFuture<BroadcastManagerWorker> broadcastManagerWorker,
                                           final InjectionFuture<ByteTransfer> byteTransfer,
                                           final InjectionFuture<ByteTransport> byteTransport,
                                           final ControlFrameEncoder controlFrameEncoder,
                                           final DataFrameEncoder dataFrameEncoder,
-                                          @Parameter(JobConf.ExecutorId.class) final String localExecutorId) {
+                                          @Parameter(JobConf.ExecutorId.class) final String localExecutorId,
+                                          @Parameter(JobConf.PipeCreditWindowKb.class)
+                                          final int pipeCreditWindowKb) {
     this.pipeManagerWorker = pipeManagerWorker;
     this.blockManagerWorker = blockManagerWorker;
+    this.broadcastManagerWorker = broadcastManagerWorker;
     this.byteTransfer = byteTransfer;
     this.byteTransport = byteTransport;
     this.controlFrameEncoder = controlFrameEncoder;
     this.dataFrameEncoder = dataFrameEncoder;
     this.localExecutorId = localExecutorId;
+    this.pipeCreditWindowBytes = pipeCreditWindowKb * 1024L;
   }
 
   @Override
   protected void initChannel(final SocketChannel ch) {
     final ContextManager contextManager = new ContextManager(pipeManagerWorker.get(), blockManagerWorker.get(),
-      byteTransfer.get(), byteTransport.get().getChannelGroup(), localExecutorId, ch);
+      broadcastManagerWorker.get(), byteTransfer.get(), byteTransport.get().getChannelGroup(), localExecutorId, ch,
+      pipeCreditWindowBytes);
     ch.pipeline()
       // inbound
       .addLast(new FrameDecoder(contextManager))
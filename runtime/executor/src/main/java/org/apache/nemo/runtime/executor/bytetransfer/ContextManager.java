@@ -26,6 +26,7 @@ import org.apache.nemo.runtime.common.comm.ControlMessage.ByteTransferContextSet
 import org.apache.nemo.runtime.common.comm.ControlMessage.ByteTransferDataDirection;
 import org.apache.nemo.runtime.executor.bytetransfer.ByteTransferContext.ContextId;
 import org.apache.nemo.runtime.executor.data.BlockManagerWorker;
+import org.apache.nemo.runtime.executor.data.BroadcastManagerWorker;
 import org.apache.nemo.runtime.executor.data.PipeManagerWorker;
 
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,10 +41,12 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
 
   private final PipeManagerWorker pipeManagerWorker;
   private final BlockManagerWorker blockManagerWorker;
+  private final BroadcastManagerWorker broadcastManagerWorker;
   private final ByteTransfer byteTransfer;
   private final ChannelGroup channelGroup;
   private final String localExecutorId;
   private final Channel channel;
+  private final long pipeCreditWindowBytes;
   private volatile String remoteExecutorId = null;
 
   private final ConcurrentMap<Integer, ByteInputContext> inputContextsInitiatedByLocal = new ConcurrentHashMap<>();
@@ -58,23 +61,29 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
    *
    * @param pipeManagerWorker  provides handler for new contexts by remote executors
    * @param blockManagerWorker provides handler for new contexts by remote executors
+   * @param broadcastManagerWorker provides handler for new contexts by remote executors
    * @param byteTransfer       provides channel caching
    * @param channelGroup       to cleanup this channel when closing {@link ByteTransport}
    * @param localExecutorId    local executor id
    * @param channel            the {@link Channel} to manage
+   * @param pipeCreditWindowBytes the credit window of pipe contexts in bytes, or 0 to disable flow control
    */
   ContextManager(final PipeManagerWorker pipeManagerWorker,
                  final BlockManagerWorker blockManagerWorker,
+                 final BroadcastManagerWorker broadcastManagerWorker,
                  final ByteTransfer byteTransfer,
                  final ChannelGroup channelGroup,
                  final String localExecutorId,
-                 final Channel channel) {
+                 final Channel channel,
+                 final long pipeCreditWindowBytes) {
     this.pipeManagerWorker = pipeManagerWorker;
     this.blockManagerWorker = blockManagerWorker;
+    this.broadcastManagerWorker = broadcastManagerWorker;
     this.byteTransfer = byteTransfer;
     this.channelGroup = channelGroup;
     this.localExecutorId = localExecutorId;
     this.channel = channel;
+    this.pipeCreditWindowBytes = pipeCreditWindowBytes;
   }
 
   /**
@@ -84,6 +93,13 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
     return channel;
   }
 
+  /**
+   * @return the credit window of pipe contexts in bytes, or 0 if pipes are not flow controlled.
+   */
+  long getPipeCreditWindowBytes() {
+    return pipeCreditWindowBytes;
+  }
+
   /**
    * Returns {@link ByteInputContext} to provide {@link io.netty.buffer.ByteBuf}s on.
    *
@@ -99,6 +115,26 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
     return contexts.get(transferIndex);
   }
 
+  /**
+   * Supplies credits granted by the receiver to a {@link ByteOutputContext}.
+   * Credits for contexts that are already closed are ignored.
+   *
+   * @param dataDirection the data direction
+   * @param transferIndex transfer index
+   * @param credits       the number of bytes granted
+   */
+  void onCredit(final ByteTransferDataDirection dataDirection,
+                final int transferIndex,
+                final long credits) {
+    final ConcurrentMap<Integer, ByteOutputContext> contexts =
+      dataDirection == ByteTransferDataDirection.INITIATOR_SENDS_DATA
+        ? outputContextsInitiatedByLocal : outputContextsInitiatedByRemote;
+    final ByteOutputContext context = contexts.get(transferIndex);
+    if (context != null) {
+      context.onCredit(credits);
+    }
+  }
+
   /**
    * Responds to new transfer contexts by a remote executor.
    *
@@ -114,8 +150,9 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
     final ByteTransferDataDirection dataDirection = message.getDataDirection();
     final int transferIndex = message.getTransferIndex();
     final boolean isPipe = message.getIsPipe();
+    final boolean isBroadcast = message.getIsBroadcast();
     final ContextId contextId =
-      new ContextId(remoteExecutorId, localExecutorId, dataDirection, transferIndex, isPipe);
+      new ContextId(remoteExecutorId, localExecutorId, dataDirection, transferIndex, isPipe, isBroadcast);
     final byte[] contextDescriptor = message.getContextDescriptor().toByteArray();
 
     if (dataDirection == ByteTransferDataDirection.INITIATOR_SENDS_DATA) {
@@ -128,6 +165,8 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
 
       if (isPipe) {
         pipeManagerWorker.onInputContext(context);
+      } else if (isBroadcast) {
+        broadcastManagerWorker.onInputContext(context);
       } else {
         blockManagerWorker.onInputContext(context);
       }
@@ -140,6 +179,8 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
       });
       if (isPipe) {
         pipeManagerWorker.onOutputContext(context);
+      } else if (isBroadcast) {
+        broadcastManagerWorker.onOutputContext(context);
       } else {
         blockManagerWorker.onOutputContext(context);
       }
@@ -171,6 +212,7 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
    * @param executorId           id of the remote executor
    * @param <T>                  {@link ByteInputContext} or {@link ByteOutputContext}
    * @param isPipe               is a pipe context
+   * @param isBroadcast          is a context for a chunk of a broadcast variable
    * @return generated context
    */
   <T extends ByteTransferContext> T newContext(final ConcurrentMap<Integer, T> contexts,
@@ -178,10 +220,12 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
                                                final ByteTransferDataDirection dataDirection,
                                                final Function<ContextId, T> contextGenerator,
                                                final String executorId,
-                                               final boolean isPipe) {
+                                               final boolean isPipe,
+                                               final boolean isBroadcast) {
     setRemoteExecutorId(executorId);
     final int transferIndex = transferIndexCounter.getAndIncrement();
-    final ContextId contextId = new ContextId(localExecutorId, executorId, dataDirection, transferIndex, isPipe);
+    final ContextId contextId =
+      new ContextId(localExecutorId, executorId, dataDirection, transferIndex, isPipe, isBroadcast);
     final T context = contexts.compute(transferIndex, (index, existingContext) -> {
       if (existingContext != null) {
         throw new RuntimeException(String.format("Duplicate ContextId: %s", contextId));
@@ -204,7 +248,21 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
     return newContext(inputContextsInitiatedByLocal, nextInputTransferIndex,
       ByteTransferDataDirection.INITIATOR_RECEIVES_DATA,
       contextId -> new ByteInputContext(executorId, contextId, contextDescriptor, this),
-      executorId, isPipe);
+      executorId, isPipe, false);
+  }
+
+  /**
+   * Create a new {@link ByteInputContext} to receive a chunk of a broadcast variable.
+   *
+   * @param executorId        target executor id
+   * @param contextDescriptor the context descriptor
+   * @return new {@link ByteInputContext}
+   */
+  ByteInputContext newBroadcastInputContext(final String executorId, final byte[] contextDescriptor) {
+    return newContext(inputContextsInitiatedByLocal, nextInputTransferIndex,
+      ByteTransferDataDirection.INITIATOR_RECEIVES_DATA,
+      contextId -> new ByteInputContext(executorId, contextId, contextDescriptor, this),
+      executorId, false, true);
   }
 
   /**
@@ -219,7 +277,7 @@ final class ContextManager extends SimpleChannelInboundHandler<ByteTransferConte
     return newContext(outputContextsInitiatedByLocal, nextOutputTransferIndex,
       ByteTransferDataDirection.INITIATOR_SENDS_DATA,
       contextId -> new ByteOutputContext(executorId, contextId, contextDescriptor, this),
-      executorId, isPipe);
+      executorId, isPipe, false);
   }
 
   /**
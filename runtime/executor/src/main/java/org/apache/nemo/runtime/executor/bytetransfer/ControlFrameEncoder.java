@@ -25,6 +25,7 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import org.apache.nemo.conf.JobConf;
+import org.apache.nemo.runtime.common.comm.ControlMessage;
 import org.apache.nemo.runtime.common.comm.ControlMessage.ByteTransferContextSetupMessage;
 import org.apache.reef.tang.annotations.Parameter;
 
@@ -33,14 +34,16 @@ import java.util.List;
 
 /**
  * Encodes a control frame into bytes.
+ * A control frame either sets up a new {@link ByteTransferContext}, or grants credits to a {@link ByteOutputContext}.
  *
  * @see FrameDecoder
  */
 @ChannelHandler.Sharable
-final class ControlFrameEncoder extends MessageToMessageEncoder<ByteTransferContext> {
+final class ControlFrameEncoder extends MessageToMessageEncoder<Object> {
 
   private static final int ZEROS_LENGTH = 5;
   private static final int BODY_LENGTH_LENGTH = Integer.BYTES;
+  private static final int CREDIT_FRAME_LENGTH = Byte.BYTES + Integer.BYTES + Integer.BYTES;
   private static final ByteBuf ZEROS = Unpooled.directBuffer(ZEROS_LENGTH, ZEROS_LENGTH).writeZero(ZEROS_LENGTH);
 
   private final String localExecutorId;
@@ -53,20 +56,75 @@ final class ControlFrameEncoder extends MessageToMessageEncoder<ByteTransferCont
     this.localExecutorId = localExecutorId;
   }
 
+  @Override
+  public boolean acceptOutboundMessage(final Object msg) {
+    return msg instanceof ByteTransferContext || msg instanceof CreditFrame;
+  }
+
   @Override
   protected void encode(final ChannelHandlerContext ctx,
-                        final ByteTransferContext in,
+                        final Object msg,
                         final List out) {
+    if (msg instanceof CreditFrame) {
+      encodeCreditFrame(ctx, (CreditFrame) msg, out);
+      return;
+    }
+    final ByteTransferContext in = (ByteTransferContext) msg;
     final ByteTransferContextSetupMessage message = ByteTransferContextSetupMessage.newBuilder()
       .setInitiatorExecutorId(localExecutorId)
       .setTransferIndex(in.getContextId().getTransferIndex())
       .setDataDirection(in.getContextId().getDataDirection())
       .setContextDescriptor(ByteString.copyFrom(in.getContextDescriptor()))
       .setIsPipe(in.getContextId().isPipe())
+      .setIsBroadcast(in.getContextId().isBroadcast())
       .build();
     final byte[] frameBody = message.toByteArray();
     out.add(ZEROS.retain());
     out.add(ctx.alloc().ioBuffer(BODY_LENGTH_LENGTH, BODY_LENGTH_LENGTH).writeInt(frameBody.length));
     out.add(Unpooled.wrappedBuffer(frameBody));
   }
+
+  /**
+   * Encodes a credit frame, which consists of a header only.
+   *
+   * @param ctx the channel handler context
+   * @param in  the credit frame
+   * @param out the list to which the encoded frame is added
+   */
+  private void encodeCreditFrame(final ChannelHandlerContext ctx,
+                                 final CreditFrame in,
+                                 final List out) {
+    byte flags = (byte) (1 << 4);
+    if (in.contextId.getDataDirection() == ControlMessage.ByteTransferDataDirection.INITIATOR_RECEIVES_DATA) {
+      flags |= (byte) (1 << 2);
+    }
+    out.add(ctx.alloc().ioBuffer(CREDIT_FRAME_LENGTH, CREDIT_FRAME_LENGTH)
+      .writeByte(flags)
+      .writeInt(in.contextId.getTransferIndex())
+      // the receiver reads the credits back as an unsigned int
+      .writeInt((int) in.credits));
+  }
+
+  /**
+   * Credits that a receiver grants to the sender of a pipe, in bytes.
+   */
+  static final class CreditFrame {
+    private final ByteTransferContext.ContextId contextId;
+    private final long credits;
+
+    /**
+     * Creates a {@link CreditFrame}.
+     *
+     * @param contextId the id of the context to which the credits are granted
+     * @param credits   the number of bytes granted, from 1 to {@link DataFrameEncoder#LENGTH_MAX}
+     */
+    CreditFrame(final ByteTransferContext.ContextId contextId,
+                final long credits) {
+      if (credits <= 0 || credits > DataFrameEncoder.LENGTH_MAX) {
+        throw new IllegalArgumentException(String.format("Invalid credits for %s: %d", contextId, credits));
+      }
+      this.contextId = contextId;
+      this.credits = credits;
+    }
+  }
 }
@@ -33,10 +33,12 @@ import java.util.List;
  * <p>
  * More specifically,
  * <ul>
- * <li>Recognizes the type of the frame, namely control or data.</li>
+ * <li>Recognizes the type of the frame, namely control, credit or data.</li>
  * <li>If the received bytes are a part of a control frame, waits until the full content of the frame becomes
  * available and decode the frame to emit a control frame object.</li>
  * <li>If the received bytes consists a data frame, supply the data to the corresponding {@link ByteInputContext}.
+ * <li>If the received bytes consists a credit frame, supply the credits to the corresponding
+ * {@link ByteOutputContext}.</li>
  * </ul>
  *
  * <h3>Control frame specification:</h3>
@@ -50,6 +52,17 @@ import java.util.List;
  * }
  * </pre>
  *
+ * <h3>Credit frame specification:</h3>
+ * <pre>
+ * {@literal
+ *   <------------------------------ HEADER ------------------------------>
+ *   +-------+-------+-------+-------------------+-------+-------------+---------+
+ *   | Zeros |   1   |   0   | DataDirectionFlag | Zeros | TransferIdx | Credits |
+ *   | 3 bit | 1 bit | 1 bit |       1 bit       | 2 bit |   4 bytes   | 4 bytes |
+ *   +-------+-------+-------+-------------------+-------+-------------+---------+
+ * }
+ * </pre>
+ *
  * <h3>Data frame specification:</h3>
  * <pre>
  * {@literal
@@ -134,7 +147,12 @@ final class FrameDecoder extends ByteToMessageDecoder {
     if (length < 0) {
       throw new IllegalStateException(String.format("Frame length is negative: %d", length));
     }
-    if ((flags & ((byte) (1 << 3))) == 0) {
+    if ((flags & ((byte) (1 << 4))) != 0) {
+      // a credit frame, which has no body
+      final ByteTransferDataDirection dataDirection = (flags & ((byte) (1 << 2))) == 0
+        ? ByteTransferDataDirection.INITIATOR_SENDS_DATA : ByteTransferDataDirection.INITIATOR_RECEIVES_DATA;
+      contextManager.onCredit(dataDirection, transferIndex, length);
+    } else if ((flags & ((byte) (1 << 3))) == 0) {
       // setup context for reading control frame body
       controlBodyBytesToRead = length;
     } else {
@@ -77,6 +77,7 @@ public final class BlockManagerWorker {
   private final SerializedMemoryStore serializedMemoryStore;
   private final LocalFileStore localFileStore;
   private final RemoteFileStore remoteFileStore;
+  private final BlockMemoryManager blockMemoryManager;
 
   // To-Master connections
   private final PersistentConnectionToMasterMap persistentConnectionToMasterMap;
@@ -97,6 +98,7 @@ public final class BlockManagerWorker {
    * @param serializedMemoryStore           the serialized memory store.
    * @param localFileStore                  the local file store.
    * @param remoteFileStore                 the remote file store.
+   * @param blockMemoryManager              the manager of the memory held by the blocks in memory stores.
    * @param persistentConnectionToMasterMap the connection map.
    * @param byteTransfer                    the byte transfer.
    * @param serializerManager               the serializer manager.
@@ -109,6 +111,7 @@ public final class BlockManagerWorker {
                              final SerializedMemoryStore serializedMemoryStore,
                              final LocalFileStore localFileStore,
                              final RemoteFileStore remoteFileStore,
+                             final BlockMemoryManager blockMemoryManager,
                              final PersistentConnectionToMasterMap persistentConnectionToMasterMap,
                              final ByteTransfer byteTransfer,
                              final SerializerManager serializerManager,
@@ -118,6 +121,7 @@ public final class BlockManagerWorker {
     this.serializedMemoryStore = serializedMemoryStore;
     this.localFileStore = localFileStore;
     this.remoteFileStore = remoteFileStore;
+    this.blockMemoryManager = blockMemoryManager;
     this.persistentConnectionToMasterMap = persistentConnectionToMasterMap;
     this.byteTransfer = byteTransfer;
     this.backgroundExecutorService = Executors.newFixedThreadPool(numThreads);
@@ -276,11 +280,13 @@ public final class BlockManagerWorker {
    * @param blockStore        the store to save the block.
    * @param expectedReadTotal the expected number of read for this block.
    * @param persistence       how to handle the used block.
+   * @param blockSize         the size of the block in bytes, or a negative value if unknown.
    */
   public void writeBlock(final Block block,
                          final DataStoreProperty.Value blockStore,
                          final int expectedReadTotal,
-                         final DataPersistenceProperty.Value persistence) {
+                         final DataPersistenceProperty.Value persistence,
+                         final long blockSize) {
     final String blockId = block.getId();
     LOG.info("CommitBlock: {}", blockId);
 
@@ -297,6 +303,9 @@ public final class BlockManagerWorker {
 
     final BlockStore store = getBlockStore(blockStore);
     store.writeBlock(block);
+    if (store == memoryStore || store == serializedMemoryStore) {
+      blockMemoryManager.onBlockWritten(block, (LocalBlockStore) store, blockSize);
+    }
     final ControlMessage.BlockStateChangedMsg.Builder blockStateChangedMsgBuilder =
       ControlMessage.BlockStateChangedMsg.newBuilder()
         .setExecutorId(executorId)
@@ -308,6 +317,9 @@ public final class BlockManagerWorker {
     } else {
       blockStateChangedMsgBuilder.setLocation(executorId);
     }
+    if (blockSize >= 0) {
+      blockStateChangedMsgBuilder.setSize(blockSize);
+    }
 
     persistentConnectionToMasterMap.getMessageSender(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID)
       .send(ControlMessage.Message.newBuilder()
@@ -327,8 +339,7 @@ public final class BlockManagerWorker {
   public void removeBlock(final String blockId,
                           final DataStoreProperty.Value blockStore) {
     LOG.info("RemoveBlock: {}", blockId);
-    final BlockStore store = getBlockStore(blockStore);
-    final boolean deleted = store.deleteBlock(blockId);
+    final boolean deleted = blockMemoryManager.deleteBlock(blockId, getBlockStore(blockStore));
 
     if (deleted) {
       final ControlMessage.BlockStateChangedMsg.Builder blockStateChangedMsgBuilder =
@@ -376,11 +387,12 @@ public final class BlockManagerWorker {
     backgroundExecutorService.submit(new Runnable() {
       @Override
       public void run() {
+        // The block may have been spilled from a memory store to the local file store.
+        final BlockStore store = blockMemoryManager.pin(blockId, getBlockStore(blockStore));
         try {
-          final Optional<Block> optionalBlock = getBlockStore(blockStore).readBlock(blockId);
+          final Optional<Block> optionalBlock = store.readBlock(blockId);
           if (optionalBlock.isPresent()) {
-            if (DataStoreProperty.Value.LOCAL_FILE_STORE.equals(blockStore)
-              || DataStoreProperty.Value.GLUSTER_FILE_STORE.equals(blockStore)) {
+            if (optionalBlock.get() instanceof FileBlock) {
               final List<FileArea> fileAreas = ((FileBlock) optionalBlock.get()).asFileAreas(keyRange);
               for (final FileArea fileArea : fileAreas) {
                 try (ByteOutputContext.ByteOutputStream os = outputContext.newOutputStream()) {
@@ -411,6 +423,9 @@ public final class BlockManagerWorker {
         } catch (final IOException | BlockFetchException e) {
           LOG.error("Closing a block request exceptionally", e);
           outputContext.onChannelError(e);
+        } finally {
+          // The buffers of the block are sent asynchronously, so the block is kept pinned until they are sent.
+          outputContext.onWritesDone(() -> blockMemoryManager.unpin(blockId));
         }
       }
     });
@@ -442,13 +457,19 @@ public final class BlockManagerWorker {
     final String blockId,
     final DataStoreProperty.Value blockStore,
     final KeyRange keyRange) {
-    final BlockStore store = getBlockStore(blockStore);
-
-    // First, try to fetch the block from local BlockStore.
-    final Optional<Block> optionalBlock = store.readBlock(blockId);
+    // The block may have been spilled from a memory store to the local file store.
+    final BlockStore store = blockMemoryManager.pin(blockId, getBlockStore(blockStore));
+    final Optional<Block> optionalBlock;
+    final Iterable<NonSerializedPartition> partitions;
+    try {
+      // First, try to fetch the block from local BlockStore.
+      optionalBlock = store.readBlock(blockId);
+      partitions = optionalBlock.isPresent() ? optionalBlock.get().readPartitions(keyRange) : null;
+    } finally {
+      blockMemoryManager.unpin(blockId);
+    }
 
     if (optionalBlock.isPresent()) {
-      final Iterable<NonSerializedPartition> partitions = optionalBlock.get().readPartitions(keyRange);
       handleDataPersistence(blockStore, blockId);
 
       // Block resides in this evaluator!
@@ -0,0 +1,359 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import org.apache.nemo.common.HashRange;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.exception.BlockFetchException;
+import org.apache.nemo.common.exception.BlockWriteException;
+import org.apache.nemo.conf.JobConf;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.apache.nemo.runtime.executor.data.block.Block;
+import org.apache.nemo.runtime.executor.data.block.FileBlock;
+import org.apache.nemo.runtime.executor.data.block.SerializedMemoryBlock;
+import org.apache.nemo.runtime.executor.data.partition.NonSerializedPartition;
+import org.apache.nemo.runtime.executor.data.partition.SerializedPartition;
+import org.apache.nemo.runtime.executor.data.stores.BlockStore;
+import org.apache.nemo.runtime.executor.data.stores.LocalBlockStore;
+import org.apache.nemo.runtime.executor.data.stores.LocalFileStore;
+import org.apache.reef.tang.annotations.Parameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tracks the bytes held by the committed blocks in the memory stores of the executor,
+ * and spills the least recently used ones to the {@link LocalFileStore} under memory pressure:
+ * when the tracked bytes exceed the ratio of the executor memory given by {@link JobConf.BlockMemoryRatio},
+ * or when the {@link MemoryPoolAssigner} runs out of off-heap memory.
+ * The size of a block in serialized memory is its serialized size,
+ * and that of a block in (non-serialized) memory is estimated from the serialized size of sampled elements.
+ * <p>
+ * A spilled block stays in this executor, so the master is not notified.
+ * Instead, {@link BlockManagerWorker} resolves the store which currently holds a block through this manager,
+ * and pins the block while reading it so that it is not spilled (and released) in the middle.
+ * The blocks are written to the disk outside of the monitor of this manager, so that pinning and tracking blocks
+ * are not blocked behind the disk I/O. A block read or deleted while it is written to the disk stays in memory.
+ */
+@ThreadSafe
+public final class BlockMemoryManager {
+  private static final Logger LOG = LoggerFactory.getLogger(BlockMemoryManager.class.getName());
+  private static final int NUM_SAMPLES_PER_PARTITION = 16;
+
+  private final long maxBytes;
+  private final LocalFileStore localFileStore;
+  private final SerializerManager serializerManager;
+  // The committed blocks in the memory stores, from the least recently used one.
+  private final LinkedHashMap<String, TrackedBlock> trackedBlocks = new LinkedHashMap<>(16, 0.75f, true);
+  private final Set<String> spilledBlockIds = new HashSet<>();
+  private long trackedBytes = 0;
+  // The bytes of the blocks being spilled, which are still tracked.
+  private long spillingBytes = 0;
+  // Spilling a block may allocate off-heap memory, which may ask the spilling thread for reclaiming memory again.
+  private final ThreadLocal<Boolean> isSpillingThread = ThreadLocal.withInitial(() -> false);
+
+  /**
+   * Constructor.
+   *
+   * @param executorMemoryMb   the size of the executor memory.
+   * @param blockMemoryRatio   the ratio of the executor memory that the blocks in memory may hold.
+   * @param localFileStore     the store to spill the blocks to.
+   * @param serializerManager  the serializer manager, to estimate the size of the blocks with.
+   * @param memoryPoolAssigner the memory pool assigner, to reclaim the off-heap memory of.
+   */
+  @Inject
+  private BlockMemoryManager(@Parameter(JobConf.ExecutorMemoryMb.class) final int executorMemoryMb,
+                             @Parameter(JobConf.BlockMemoryRatio.class) final double blockMemoryRatio,
+                             final LocalFileStore localFileStore,
+                             final SerializerManager serializerManager,
+                             final MemoryPoolAssigner memoryPoolAssigner) {
+    this.maxBytes = (long) (executorMemoryMb * blockMemoryRatio * 1024 * 1024);
+    this.localFileStore = localFileStore;
+    this.serializerManager = serializerManager;
+    memoryPoolAssigner.setMemoryReclaimer(this::reclaimOffheap);
+  }
+
+  /**
+   * Starts to track a committed block written to a memory store, and spills blocks if the memory is exceeded.
+   *
+   * @param block     the block.
+   * @param store     the memory store which holds the block.
+   * @param blockSize the serialized size of the block, or a negative value if unknown.
+   */
+  public void onBlockWritten(final Block block,
+                             final LocalBlockStore store,
+                             final long blockSize) {
+    final long numBytes = blockSize >= 0 ? blockSize : estimateSize(block);
+    synchronized (this) {
+      final TrackedBlock previous = trackedBlocks.put(block.getId(), new TrackedBlock(block, store, numBytes));
+      if (previous != null) {
+        trackedBytes -= previous.numBytes;
+      }
+      spilledBlockIds.remove(block.getId());
+      trackedBytes += numBytes;
+    }
+    spillWhile(() -> trackedBytes - spillingBytes > maxBytes, false);
+  }
+
+  /**
+   * Pins a block not to be spilled while reading it, and resolves the store which currently holds it.
+   * Each call must be followed by {@link #unpin(String)}.
+   *
+   * @param blockId        the ID of the block.
+   * @param annotatedStore the store that the block is annotated to be placed at.
+   * @return the store which holds the block.
+   */
+  public synchronized BlockStore pin(final String blockId, final BlockStore annotatedStore) {
+    if (spilledBlockIds.contains(blockId)) {
+      return localFileStore;
+    }
+    final TrackedBlock trackedBlock = trackedBlocks.get(blockId); // Marks the block as recently used.
+    if (trackedBlock == null) {
+      return annotatedStore;
+    }
+    trackedBlock.numPins++;
+    return trackedBlock.store;
+  }
+
+  /**
+   * Unpins a block.
+   *
+   * @param blockId the ID of the block.
+   */
+  public synchronized void unpin(final String blockId) {
+    final TrackedBlock trackedBlock = trackedBlocks.get(blockId);
+    if (trackedBlock != null && trackedBlock.numPins > 0) {
+      trackedBlock.numPins--;
+    }
+  }
+
+  /**
+   * Deletes a block from the store which currently holds it, and stops to track it.
+   *
+   * @param blockId        the ID of the block.
+   * @param annotatedStore the store that the block is annotated to be placed at.
+   * @return whether the block exists or not.
+   */
+  public synchronized boolean deleteBlock(final String blockId, final BlockStore annotatedStore) {
+    if (spilledBlockIds.remove(blockId)) {
+      return localFileStore.deleteBlock(blockId);
+    }
+    final TrackedBlock trackedBlock = trackedBlocks.remove(blockId);
+    if (trackedBlock == null) {
+      return annotatedStore.deleteBlock(blockId);
+    }
+    trackedBytes -= trackedBlock.numBytes;
+    if (trackedBlock.spilling) {
+      // The spilling thread deletes the block after writing it to the disk.
+      return true;
+    }
+    return trackedBlock.store.deleteBlock(blockId);
+  }
+
+  /**
+   * @return the number of bytes held by the tracked blocks.
+   */
+  synchronized long getTrackedBytes() {
+    return trackedBytes;
+  }
+
+  /**
+   * Spills blocks in serialized memory to free their off-heap memory,
+   * when the {@link MemoryPoolAssigner} runs out of it.
+   *
+   * @param numBytes the number of bytes to free.
+   * @return whether any memory is freed.
+   */
+  private boolean reclaimOffheap(final long numBytes) {
+    final long targetBytes;
+    synchronized (this) {
+      targetBytes = trackedBytes - spillingBytes - numBytes;
+    }
+    return spillWhile(() -> trackedBytes - spillingBytes > targetBytes, true) > 0;
+  }
+
+  /**
+   * Spills the least recently used blocks which are not pinned, while the condition holds.
+   *
+   * @param condition      the condition to spill the next block, which is checked under the monitor.
+   * @param serializedOnly whether to spill the blocks in serialized memory only.
+   * @return the number of spilled blocks.
+   */
+  private int spillWhile(final BooleanSupplier condition, final boolean serializedOnly) {
+    if (isSpillingThread.get()) {
+      return 0;
+    }
+    isSpillingThread.set(true);
+    try {
+      int numSpilledBlocks = 0;
+      final Set<TrackedBlock> triedBlocks = new HashSet<>();
+      while (true) {
+        final TrackedBlock victim;
+        synchronized (this) {
+          if (!condition.getAsBoolean()) {
+            break;
+          }
+          victim = trackedBlocks.values().stream()
+            .filter(trackedBlock -> trackedBlock.numPins == 0 && !trackedBlock.spilling)
+            .filter(trackedBlock -> !serializedOnly || trackedBlock.block instanceof SerializedMemoryBlock)
+            .filter(trackedBlock -> !triedBlocks.contains(trackedBlock))
+            .findFirst()
+            .orElse(null);
+          if (victim == null) {
+            break;
+          }
+          victim.spilling = true;
+          spillingBytes += victim.numBytes;
+        }
+        triedBlocks.add(victim);
+        if (spill(victim)) {
+          numSpilledBlocks++;
+        }
+      }
+      return numSpilledBlocks;
+    } finally {
+      isSpillingThread.remove();
+    }
+  }
+
+  /**
+   * Spills a block to the local file store, outside of the monitor.
+   * If the block cannot be spilled, or is pinned or deleted in the middle, it is kept in memory.
+   *
+   * @param trackedBlock the block to spill, which is marked as spilling.
+   * @return whether the block is spilled or not.
+   */
+  private boolean spill(final TrackedBlock trackedBlock) {
+    final String blockId = trackedBlock.block.getId();
+    final FileBlock fileBlock = (FileBlock) localFileStore.createBlock(blockId);
+    boolean written;
+    try {
+      final Iterable<SerializedPartition> partitions = trackedBlock.block.readSerializedPartitions(HashRange.all());
+      if (trackedBlock.block instanceof SerializedMemoryBlock) {
+        // The partitions may still be read from memory until the block is switched to the file.
+        fileBlock.copySerializedPartitions(partitions);
+      } else {
+        // The partitions are serialized for the spill only, and released after being written.
+        fileBlock.writeSerializedPartitions(partitions);
+      }
+      fileBlock.commit();
+      written = true;
+    } catch (final BlockFetchException | BlockWriteException e) {
+      LOG.warn("Failed to spill {}, keeping it in memory", blockId, e);
+      written = false;
+    }
+
+    final boolean spilled;
+    final boolean deleted;
+    synchronized (this) {
+      trackedBlock.spilling = false;
+      spillingBytes -= trackedBlock.numBytes;
+      deleted = trackedBlocks.get(blockId) != trackedBlock;
+      spilled = written && !deleted && trackedBlock.numPins == 0;
+      if (spilled) {
+        localFileStore.writeBlock(fileBlock);
+        trackedBlock.store.removeSpilledBlock(blockId);
+        trackedBlocks.remove(blockId);
+        spilledBlockIds.add(blockId);
+        trackedBytes -= trackedBlock.numBytes;
+      }
+    }
+
+    if (!spilled) {
+      localFileStore.deleteBlock(blockId);
+    }
+    if (deleted) {
+      // Deleted in the middle, unless it is written again with the same ID.
+      final Optional<Block> blockInStore = trackedBlock.store.readBlock(blockId);
+      if (blockInStore.isPresent() && blockInStore.get() == trackedBlock.block) {
+        trackedBlock.store.deleteBlock(blockId);
+      }
+    } else if (spilled && trackedBlock.block instanceof SerializedMemoryBlock) {
+      ((SerializedMemoryBlock) trackedBlock.block).release();
+    }
+    if (spilled) {
+      LOG.info("Spilled {} ({} bytes) to the local file store", blockId, trackedBlock.numBytes);
+    }
+    return spilled;
+  }
+
+  /**
+   * Estimates the size of a block from the serialized size of sampled elements of each partition.
+   *
+   * @param block the block.
+   * @return the estimated size in bytes.
+   */
+  private long estimateSize(final Block block) {
+    final EncoderFactory encoderFactory = serializerManager
+      .getSerializer(RuntimeIdManager.getRuntimeEdgeIdFromBlockId(block.getId())).getEncoderFactory();
+    long estimatedSize = 0;
+    try {
+      for (final Object partition : block.readPartitions(HashRange.all())) {
+        final CountingOutputStream countingStream = new CountingOutputStream(ByteStreams.nullOutputStream());
+        final EncoderFactory.Encoder encoder = encoderFactory.create(countingStream);
+        long numElements = 0;
+        for (final Object element : ((NonSerializedPartition) partition).getData()) {
+          if (numElements < NUM_SAMPLES_PER_PARTITION) {
+            encoder.encode(element);
+          }
+          numElements++;
+        }
+        // Buffering encoders, e.g., the framed ones, write the sampled elements only when flushed.
+        encoder.flush();
+        if (numElements > 0) {
+          estimatedSize += countingStream.getCount() * numElements / Math.min(numElements, NUM_SAMPLES_PER_PARTITION);
+        }
+      }
+    } catch (final IOException e) {
+      throw new BlockFetchException(e);
+    }
+    return estimatedSize;
+  }
+
+  /**
+   * A committed block in a memory store.
+   */
+  private static final class TrackedBlock {
+    private final Block block;
+    private final LocalBlockStore store;
+    private final long numBytes;
+    private int numPins = 0;
+    private boolean spilling = false;
+
+    /**
+     * Constructor.
+     *
+     * @param block    the block.
+     * @param store    the memory store which holds the block.
+     * @param numBytes the (estimated) size of the block.
+     */
+    private TrackedBlock(final Block block, final LocalBlockStore store, final long numBytes) {
+      this.block = block;
+      this.store = store;
+      this.numBytes = numBytes;
+    }
+  }
+}
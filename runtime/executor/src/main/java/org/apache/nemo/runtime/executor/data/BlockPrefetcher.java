@@ -0,0 +1,405 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.nemo.conf.JobConf;
+import org.apache.reef.tang.annotations.Parameter;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Decodes the blocks read from the parent tasks ahead of the tasks, on a small pool of I/O threads.
+ * Each reader of the blocks has a {@link Budget}, which bounds the bytes decoded but not yet consumed.
+ * The bytes are counted in serialized form, and are acquired before a batch is decoded:
+ * a fixed amount, capped by the budget, for the first batch of a block, and the size of the previous batch after.
+ * Only the blocks read from streams are decoded ahead, as the other blocks are already decoded in memory.
+ */
+@ThreadSafe
+public final class BlockPrefetcher {
+  private static final int BATCH_SIZE = 256;
+  // The bytes acquired for the first batch of a block, as its size is not known before it is decoded.
+  private static final long FIRST_BATCH_BYTES = 64 * 1024;
+  private static final Object END_OF_BLOCK = new Object();
+
+  private final long budgetBytes;
+  private final ExecutorService prefetchThreads;
+
+  /**
+   * Constructor.
+   *
+   * @param budgetMb   the prefetch budget (in MB) of each reader, or 0 to disable the prefetching.
+   * @param numThreads the number of threads to decode the blocks.
+   */
+  @Inject
+  public BlockPrefetcher(@Parameter(JobConf.PrefetchBudgetMb.class) final int budgetMb,
+                         @Parameter(JobConf.PrefetchThreads.class) final int numThreads) {
+    this((long) budgetMb * 1024 * 1024, numThreads);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param budgetBytes the prefetch budget (in bytes) of each reader, or 0 to disable the prefetching.
+   * @param numThreads  the number of threads to decode the blocks.
+   */
+  private BlockPrefetcher(final long budgetBytes, final int numThreads) {
+    this.budgetBytes = budgetBytes;
+    this.prefetchThreads = Executors.newFixedThreadPool(Math.max(1, numThreads), new BasicThreadFactory.Builder()
+      .namingPattern("BlockPrefetcher thread-%d")
+      .daemon(true)
+      .build());
+  }
+
+  /**
+   * @param budgetBytes the prefetch budget (in bytes) of each reader.
+   * @param numThreads  the number of threads to decode the blocks.
+   * @return a prefetcher with a budget finer than a megabyte.
+   */
+  @VisibleForTesting
+  public static BlockPrefetcher withBudgetBytes(final long budgetBytes, final int numThreads) {
+    return new BlockPrefetcher(budgetBytes, numThreads);
+  }
+
+  /**
+   * @return whether the prefetching is enabled.
+   */
+  public boolean isEnabled() {
+    return budgetBytes > 0;
+  }
+
+  /**
+   * @return a new budget for a reader of blocks.
+   */
+  public Budget newBudget() {
+    return new Budget(budgetBytes);
+  }
+
+  /**
+   * Starts to decode a block ahead of its consumer, if the block is read from streams.
+   *
+   * @param block   the iterator of the block.
+   * @param budget  the budget of the reader.
+   * @param onReady called whenever decoded elements of the block become available.
+   * @param <T>     the type of the elements.
+   * @return the iterator over the prefetched elements, or the block itself if it is already decoded.
+   */
+  public <T> DataUtil.IteratorWithNumBytes<T> prefetch(final DataUtil.IteratorWithNumBytes<T> block,
+                                                      final Budget budget,
+                                                      final Runnable onReady) {
+    if (!(block instanceof DataUtil.InputStreamIterator)) {
+      return block;
+    }
+    final PrefetchingIterator<T> iterator = new PrefetchingIterator<>(block, budget, onReady);
+    iterator.start();
+    return iterator;
+  }
+
+  /**
+   * Stops the threads decoding the blocks.
+   */
+  public void shutdown() {
+    prefetchThreads.shutdownNow();
+  }
+
+  /**
+   * The bytes that a reader of blocks may hold in decoded elements which are not consumed yet.
+   * A block out of the budget releases its thread before decoding its next batch,
+   * and is resumed when its reader consumes a batch.
+   */
+  @ThreadSafe
+  public static final class Budget {
+    private final long maxBytes;
+    private final List<PrefetchingIterator<?>> parkedIterators = new ArrayList<>();
+    private long usedBytes = 0;
+    private boolean closed = false;
+
+    /**
+     * @param maxBytes the maximum number of bytes.
+     */
+    private Budget(final long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Acquires the bytes of a batch to decode, or parks the iterator until some bytes are released.
+     * The bytes are always granted to the iterator whose consumer waits for it, to make progress.
+     *
+     * @param numBytes the number of bytes to acquire.
+     * @param iterator the iterator to park.
+     * @return whether the bytes are acquired.
+     */
+    private synchronized boolean acquireOrPark(final long numBytes, final PrefetchingIterator<?> iterator) {
+      if (closed) {
+        return false;
+      } else if (iterator.isStarving() || usedBytes + numBytes <= maxBytes) {
+        usedBytes += numBytes;
+        return true;
+      } else {
+        parkedIterators.add(iterator);
+        return false;
+      }
+    }
+
+    /**
+     * Releases the bytes of a consumed batch, and resumes the parked iterators.
+     *
+     * @param numBytes the number of bytes to release.
+     */
+    private void release(final long numBytes) {
+      final List<PrefetchingIterator<?>> toResume;
+      synchronized (this) {
+        usedBytes -= numBytes;
+        toResume = new ArrayList<>(parkedIterators);
+        parkedIterators.clear();
+      }
+      toResume.forEach(PrefetchingIterator::start);
+    }
+
+    /**
+     * Corrects the bytes acquired for a batch with the bytes of the decoded batch.
+     *
+     * @param acquiredBytes the number of bytes acquired for the batch.
+     * @param numBytes      the number of bytes of the batch.
+     */
+    private void adjust(final long acquiredBytes, final long numBytes) {
+      if (numBytes < acquiredBytes) {
+        release(acquiredBytes - numBytes);
+      } else {
+        synchronized (this) {
+          usedBytes += numBytes - acquiredBytes;
+        }
+      }
+    }
+
+    /**
+     * Resumes an iterator if it is parked.
+     *
+     * @param iterator the iterator to resume.
+     */
+    private void resume(final PrefetchingIterator<?> iterator) {
+      final boolean parked;
+      synchronized (this) {
+        parked = parkedIterators.remove(iterator);
+      }
+      if (parked) {
+        iterator.start();
+      }
+    }
+
+    /**
+     * @return whether the reader is closed.
+     */
+    private synchronized boolean isClosed() {
+      return closed;
+    }
+
+    /**
+     * Stops the prefetching of the blocks of the reader.
+     */
+    public synchronized void close() {
+      closed = true;
+      parkedIterators.clear();
+    }
+  }
+
+  /**
+   * A batch of decoded elements.
+   *
+   * @param <T> the type of the elements.
+   */
+  private static final class Batch<T> {
+    private final List<T> elements;
+    private final long numBytes;
+
+    private Batch(final List<T> elements, final long numBytes) {
+      this.elements = elements;
+      this.numBytes = numBytes;
+    }
+  }
+
+  /**
+   * An iterator over the elements of a block, which are decoded in batches by the prefetch threads.
+   *
+   * @param <T> the type of the elements.
+   */
+  private final class PrefetchingIterator<T> implements DataUtil.IteratorWithNumBytes<T> {
+    private final DataUtil.IteratorWithNumBytes<T> block;
+    private final Budget budget;
+    private final Runnable onReady;
+    // Batches, the end of the block, or a Throwable.
+    private final LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+
+    // Accessed by the prefetch threads, one at a time.
+    // The bytes of the next batch are estimated with the previous batch.
+    private long estimatedBatchBytes;
+    private long numBytesRead = 0;
+
+    // Accessed by the consumer.
+    private List<T> currentElements = null;
+    private int currentIndex = 0;
+    private boolean finished = false;
+    private volatile boolean consuming = false;
+    private volatile long numSerializedBytes = -1;
+    private volatile long numEncodedBytes = -1;
+
+    private PrefetchingIterator(final DataUtil.IteratorWithNumBytes<T> block,
+                                final Budget budget,
+                                final Runnable onReady) {
+      this.block = block;
+      this.budget = budget;
+      this.onReady = onReady;
+      this.estimatedBatchBytes = Math.min(FIRST_BATCH_BYTES, budget.maxBytes);
+    }
+
+    /**
+     * @return whether the consumer waits for this iterator.
+     */
+    private boolean isStarving() {
+      return consuming && queue.isEmpty();
+    }
+
+    private void start() {
+      try {
+        prefetchThreads.execute(this::prefetch);
+      } catch (final RejectedExecutionException e) {
+        queue.add(e);
+        onReady.run();
+      }
+    }
+
+    /**
+     * Decodes the block until it ends or the budget runs out.
+     */
+    private void prefetch() {
+      try {
+        while (!budget.isClosed()) {
+          if (!block.hasNext()) {
+            finishBlock();
+            return;
+          }
+          final long acquiredBytes = estimatedBatchBytes;
+          if (!budget.acquireOrPark(acquiredBytes, this)) {
+            // Resumed by the consumer.
+            return;
+          }
+          final Batch<T> batch = decodeBatch();
+          budget.adjust(acquiredBytes, batch.numBytes);
+          estimatedBatchBytes = batch.numBytes;
+          queue.add(batch);
+          onReady.run();
+        }
+      } catch (final Throwable e) {
+        queue.add(e);
+        onReady.run();
+      }
+    }
+
+    private Batch<T> decodeBatch() {
+      final List<T> elements = new ArrayList<>(BATCH_SIZE);
+      while (elements.size() < BATCH_SIZE && block.hasNext()) {
+        elements.add(block.next());
+      }
+      final long prevNumBytesRead = numBytesRead;
+      numBytesRead = ((DataUtil.InputStreamIterator<T>) block).getNumSerializedBytesRead();
+      return new Batch<>(elements, numBytesRead - prevNumBytesRead);
+    }
+
+    private void finishBlock() {
+      try {
+        numSerializedBytes = block.getNumSerializedBytes();
+        numEncodedBytes = block.getNumEncodedBytes();
+      } catch (final NumBytesNotSupportedException e) {
+        // Leave the numbers unknown.
+      }
+      queue.add(END_OF_BLOCK);
+      onReady.run();
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (currentElements == null || currentIndex >= currentElements.size()) {
+        if (finished) {
+          return false;
+        }
+        if (queue.isEmpty()) {
+          // This iterator may be parked before its consumer reaches it.
+          consuming = true;
+          budget.resume(this);
+        }
+        final Object next;
+        try {
+          next = queue.take();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException(e);
+        }
+        if (next == END_OF_BLOCK) {
+          finished = true;
+          currentElements = null;
+        } else if (next instanceof Throwable) {
+          throw new RuntimeException((Throwable) next);
+        } else {
+          final Batch<T> batch = (Batch<T>) next;
+          currentElements = batch.elements;
+          currentIndex = 0;
+          budget.release(batch.numBytes);
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public T next() {
+      if (hasNext()) {
+        return currentElements.get(currentIndex++);
+      } else {
+        throw new NoSuchElementException();
+      }
+    }
+
+    @Override
+    public long getNumSerializedBytes() throws NumBytesNotSupportedException {
+      return getNumBytes(numSerializedBytes);
+    }
+
+    @Override
+    public long getNumEncodedBytes() throws NumBytesNotSupportedException {
+      return getNumBytes(numEncodedBytes);
+    }
+
+    private long getNumBytes(final long numBytes) throws NumBytesNotSupportedException {
+      if (hasNext()) {
+        throw new IllegalStateException("Iteration not completed.");
+      } else if (numBytes < 0) {
+        throw new NumBytesNotSupportedException();
+      }
+      return numBytes;
+    }
+  }
+}
@@ -18,35 +18,62 @@
  */
 package org.apache.nemo.runtime.executor.data;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.io.ByteStreams;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
 import net.jcip.annotations.ThreadSafe;
 import org.apache.commons.lang.SerializationUtils;
+import org.apache.nemo.common.Pair;
 import org.apache.nemo.conf.JobConf;
 import org.apache.nemo.runtime.common.RuntimeIdManager;
 import org.apache.nemo.runtime.common.comm.ControlMessage;
 import org.apache.nemo.runtime.common.message.MessageEnvironment;
 import org.apache.nemo.runtime.common.message.PersistentConnectionToMasterMap;
+import org.apache.nemo.runtime.executor.bytetransfer.ByteInputContext;
+import org.apache.nemo.runtime.executor.bytetransfer.ByteOutputContext;
+import org.apache.nemo.runtime.executor.bytetransfer.ByteTransfer;
 import org.apache.reef.tang.annotations.Parameter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
-import java.util.concurrent.CompletableFuture;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Used by tasks to get/fetch (probably remote) broadcast variables.
+ * <p>
+ * A broadcast variable is split into chunks by the master. The chunks are fetched in a random order,
+ * each from another executor that holds it if there is one, or from the master otherwise.
+ * Each fetched chunk is reported to the master and then served to other executors, so the master serves
+ * roughly one copy of a variable no matter how many executors read it.
+ * The chunks are kept by the id and the version of the variable, up to broadcast_chunk_cache_mb.
  */
 @ThreadSafe
 public final class BroadcastManagerWorker {
   private static final Logger LOG = LoggerFactory.getLogger(BroadcastManagerWorker.class.getName());
   private static BroadcastManagerWorker staticReference;
 
+  private final String executorId;
+  private final PersistentConnectionToMasterMap toMaster;
+  private final ByteTransfer byteTransfer;
+  private final Cache<Pair<Serializable, Integer>, AtomicReferenceArray<byte[]>> idAndVersionToChunks;
   private final LoadingCache<Serializable, Object> idToVariableCache;
 
   /**
@@ -54,34 +81,41 @@ public final class BroadcastManagerWorker {
    * This cache handles concurrent cache operations by multiple threads, and is able to fetch data from
    * remote executors or the master.
    *
-   * @param executorId of the executor.
-   * @param toMaster   connection.
+   * @param executorId   of the executor.
+   * @param toMaster     connection.
+   * @param byteTransfer to fetch chunks from other executors.
+   * @param chunkSizeKb  the size of a chunk.
+   * @param chunkCacheMb the maximum size of the chunks kept to serve other executors.
    */
   @Inject
   private BroadcastManagerWorker(@Parameter(JobConf.ExecutorId.class) final String executorId,
-                                 final PersistentConnectionToMasterMap toMaster) {
+                                 final PersistentConnectionToMasterMap toMaster,
+                                 final ByteTransfer byteTransfer,
+                                 @Parameter(JobConf.BroadcastChunkSizeKb.class) final int chunkSizeKb,
+                                 @Parameter(JobConf.BroadcastChunkCacheMb.class) final int chunkCacheMb) {
     staticReference = this;
+    this.executorId = executorId;
+    this.toMaster = toMaster;
+    this.byteTransfer = byteTransfer;
+    // Weighed in KB by all the chunks of a variable, as the chunks are fetched after the variable is put.
+    // A single segment, for the maximum weight to bound the whole cache rather than each segment.
+    this.idAndVersionToChunks = CacheBuilder.newBuilder()
+      .concurrencyLevel(1)
+      .maximumWeight(chunkCacheMb * 1024L)
+      .weigher((final Pair<Serializable, Integer> idAndVersion, final AtomicReferenceArray<byte[]> chunks) ->
+        chunks.length() * chunkSizeKb)
+      .expireAfterWrite(10, TimeUnit.MINUTES)
+      .build();
     this.idToVariableCache = CacheBuilder.newBuilder()
       .maximumSize(100)
       .expireAfterWrite(10, TimeUnit.MINUTES)
+      .removalListener((RemovalNotification<Serializable, Object> notification) ->
+        idAndVersionToChunks.asMap().keySet().removeIf(idAndVersion ->
+          idAndVersion.left().equals(notification.getKey())))
       .build(
         new CacheLoader<Serializable, Object>() {
           public Object load(final Serializable id) throws Exception {
-            // Get from master
-            final CompletableFuture<ControlMessage.Message> responseFromMasterFuture = toMaster
-              .getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID).request(
-                ControlMessage.Message.newBuilder()
-                  .setId(RuntimeIdManager.generateMessageId())
-                  .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
-                  .setType(ControlMessage.MessageType.RequestBroadcastVariable)
-                  .setRequestbroadcastVariableMsg(
-                    ControlMessage.RequestBroadcastVariableMessage.newBuilder()
-                      .setExecutorId(executorId)
-                      .setBroadcastId(ByteString.copyFrom(SerializationUtils.serialize(id)))
-                      .build())
-                  .build());
-            return SerializationUtils.deserialize(
-              responseFromMasterFuture.get().getBroadcastVariableMsg().getVariable().toByteArray());
+            return fetchVariable(id);
           }
         });
   }
@@ -96,16 +130,211 @@ public final class BroadcastManagerWorker {
     LOG.info("get {}", id);
     try {
       return idToVariableCache.get(id);
-    } catch (ExecutionException e) {
+    } catch (ExecutionException | UncheckedExecutionException e) {
       // TODO #207: Handle broadcast variable fetch exceptions
       throw new IllegalStateException(e);
     }
   }
 
+  /**
+   * Respond to a chunk request by another executor.
+   * A chunk that this executor does not hold, or no longer keeps, is responded with no data.
+   * <p>
+   * This method is executed by {@link org.apache.nemo.runtime.executor.bytetransfer.ByteTransport} thread.
+   * Never execute a blocking call in this method!
+   *
+   * @param outputContext {@link ByteOutputContext}
+   * @throws InvalidProtocolBufferException from errors during parsing context descriptor
+   */
+  public void onOutputContext(final ByteOutputContext outputContext) throws InvalidProtocolBufferException {
+    final ControlMessage.BroadcastTransferContextDescriptor descriptor =
+      ControlMessage.BroadcastTransferContextDescriptor.PARSER.parseFrom(outputContext.getContextDescriptor());
+    final Serializable id = (Serializable) SerializationUtils.deserialize(descriptor.getBroadcastId().toByteArray());
+    final AtomicReferenceArray<byte[]> chunks = idAndVersionToChunks.getIfPresent(Pair.of(id, descriptor.getVersion()));
+    final int chunkIndex = descriptor.getChunkIndex();
+    final byte[] chunk = chunks == null || chunkIndex < 0 || chunkIndex >= chunks.length()
+      ? null : chunks.get(chunkIndex);
+    try {
+      if (chunk != null) {
+        try (ByteOutputContext.ByteOutputStream os = outputContext.newOutputStream()) {
+          os.writeBytes(chunk);
+        }
+      }
+      outputContext.close();
+    } catch (final IOException e) {
+      LOG.error("Closing a broadcast chunk request exceptionally", e);
+      outputContext.onChannelError(e);
+    }
+  }
+
+  /**
+   * Respond to a notification by another executor.
+   *
+   * @param inputContext {@link ByteInputContext}
+   */
+  public void onInputContext(final ByteInputContext inputContext) {
+    throw new IllegalStateException("No logic here");
+  }
+
   /**
    * @return the static reference for those that do not use TANG and cannot access the singleton object.
    */
   public static BroadcastManagerWorker getStaticReference() {
     return staticReference;
   }
+
+  /**
+   * Fetches all chunks of a broadcast variable, and assembles the variable.
+   *
+   * @param id of the variable.
+   * @return the variable.
+   * @throws InterruptedException while waiting for the master.
+   * @throws ExecutionException   if a request to the master fails.
+   */
+  private Object fetchVariable(final Serializable id) throws InterruptedException, ExecutionException {
+    final ByteString serializedId = ByteString.copyFrom(SerializationUtils.serialize(id));
+    final ControlMessage.InMasterBroadcastVariableMessage variableInfo =
+      toMaster.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+      .<ControlMessage.Message>request(ControlMessage.Message.newBuilder()
+        .setId(RuntimeIdManager.generateMessageId())
+        .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+        .setType(ControlMessage.MessageType.RequestBroadcastVariable)
+        .setRequestbroadcastVariableMsg(
+          ControlMessage.RequestBroadcastVariableMessage.newBuilder()
+            .setExecutorId(executorId)
+            .setBroadcastId(serializedId)
+            .build())
+        .build())
+      .get().getBroadcastVariableMsg();
+    if (!variableInfo.hasVersion()) {
+      throw new IllegalStateException("No broadcast variable " + id + " in the master");
+    }
+    final int version = variableInfo.getVersion();
+    final int numChunks = variableInfo.getNumChunks();
+
+    // Chunks are served to other executors as soon as they are fetched.
+    final Pair<Serializable, Integer> idAndVersion = Pair.of(id, version);
+    final AtomicReferenceArray<byte[]> chunks = new AtomicReferenceArray<>(numChunks);
+    idAndVersionToChunks.put(idAndVersion, chunks);
+
+    // Fetch the chunks in a random order, for executors reading the variable at the same time to hold
+    // different chunks and fetch the rest from each other.
+    final List<Integer> chunkIndices = new ArrayList<>(numChunks);
+    for (int i = 0; i < numChunks; i++) {
+      chunkIndices.add(i);
+    }
+    Collections.shuffle(chunkIndices);
+    for (final int chunkIndex : chunkIndices) {
+      chunks.set(chunkIndex, fetchChunk(id, serializedId, version, chunkIndex));
+      if (idAndVersionToChunks.getIfPresent(idAndVersion) != chunks) {
+        // Not kept to serve other executors
+        continue;
+      }
+      toMaster.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID).send(
+        ControlMessage.Message.newBuilder()
+          .setId(RuntimeIdManager.generateMessageId())
+          .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+          .setType(ControlMessage.MessageType.BroadcastChunkHeld)
+          .setBroadcastChunkHeldMsg(ControlMessage.BroadcastChunkHeldMessage.newBuilder()
+            .setExecutorId(executorId)
+            .setBroadcastId(serializedId)
+            .setChunkIndex(chunkIndex)
+            .setVersion(version)
+            .build())
+          .build());
+    }
+
+    final ByteArrayOutputStream serializedVariable = new ByteArrayOutputStream();
+    for (int i = 0; i < numChunks; i++) {
+      serializedVariable.write(chunks.get(i), 0, chunks.get(i).length);
+    }
+    LOG.info("Fetched broadcast variable {} ({} bytes in {} chunks)", id, serializedVariable.size(), numChunks);
+    return SerializationUtils.deserialize(serializedVariable.toByteArray());
+  }
+
+  /**
+   * Fetches a chunk of a broadcast variable from the executor chosen by the master, or from the master itself.
+   * If the chosen executor fails to serve the chunk, the master is asked again without the executor.
+   *
+   * @param id           of the variable.
+   * @param serializedId of the variable.
+   * @param version      of the variable.
+   * @param chunkIndex   of the chunk.
+   * @return the bytes of the chunk.
+   * @throws InterruptedException while waiting for the master.
+   * @throws ExecutionException   if a request to the master fails.
+   */
+  private byte[] fetchChunk(final Serializable id,
+                            final ByteString serializedId,
+                            final int version,
+                            final int chunkIndex) throws InterruptedException, ExecutionException {
+    @Nullable String unavailableHolderId = null;
+    while (true) {
+      final ControlMessage.RequestBroadcastChunkMessage.Builder request =
+        ControlMessage.RequestBroadcastChunkMessage.newBuilder()
+          .setExecutorId(executorId)
+          .setBroadcastId(serializedId)
+          .setChunkIndex(chunkIndex)
+          .setVersion(version);
+      if (unavailableHolderId != null) {
+        request.setUnavailableHolderId(unavailableHolderId);
+      }
+      final ControlMessage.BroadcastChunkInfoMessage chunkInfo =
+        toMaster.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+          .<ControlMessage.Message>request(ControlMessage.Message.newBuilder()
+            .setId(RuntimeIdManager.generateMessageId())
+            .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+            .setType(ControlMessage.MessageType.RequestBroadcastChunk)
+            .setRequestBroadcastChunkMsg(request.build())
+            .build())
+          .get().getBroadcastChunkInfoMsg();
+      if (chunkInfo.hasChunk()) {
+        return chunkInfo.getChunk().toByteArray();
+      } else if (!chunkInfo.hasHolderExecutorId()) {
+        throw new IllegalStateException(
+          String.format("Broadcast variable %s version %d is registered again while fetched", id, version));
+      }
+
+      final String holderExecutorId = chunkInfo.getHolderExecutorId();
+      try {
+        return fetchChunkFromExecutor(holderExecutorId, serializedId, version, chunkIndex);
+      } catch (final IOException | ExecutionException e) {
+        LOG.warn("Failed to fetch chunk {} of broadcast variable {} from {}", chunkIndex, id, holderExecutorId, e);
+        unavailableHolderId = holderExecutorId;
+      }
+    }
+  }
+
+  /**
+   * @param holderExecutorId the executor holding the chunk.
+   * @param serializedId     of the variable.
+   * @param version          of the variable.
+   * @param chunkIndex       of the chunk.
+   * @return the bytes of the chunk.
+   * @throws IOException          if the executor does not hold the chunk.
+   * @throws InterruptedException while waiting for the chunk.
+   * @throws ExecutionException   if the transfer fails.
+   */
+  private byte[] fetchChunkFromExecutor(final String holderExecutorId,
+                                        final ByteString serializedId,
+                                        final int version,
+                                        final int chunkIndex)
+    throws IOException, InterruptedException, ExecutionException {
+    final ControlMessage.BroadcastTransferContextDescriptor descriptor =
+      ControlMessage.BroadcastTransferContextDescriptor.newBuilder()
+        .setBroadcastId(serializedId)
+        .setChunkIndex(chunkIndex)
+        .setVersion(version)
+        .build();
+    final Iterator<InputStream> inputStreams = byteTransfer
+      .newBroadcastInputContext(holderExecutorId, descriptor.toByteArray())
+      .thenCompose(ByteInputContext::getCompletedFuture)
+      .get();
+    if (!inputStreams.hasNext()) {
+      throw new IOException(String.format("Chunk %d not held by %s", chunkIndex, holderExecutorId));
+    }
+    try (InputStream inputStream = inputStreams.next()) {
+      return ByteStreams.toByteArray(inputStream);
+    }
+  }
 }
@@ -22,7 +22,10 @@ import com.google.common.io.CountingInputStream;
 import org.apache.nemo.common.ByteBufferInputStream;
 import org.apache.nemo.common.coder.DecoderFactory;
 import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.coder.FramedDecoderFactory;
+import org.apache.nemo.common.coder.FramedEncoderFactory;
 import org.apache.nemo.runtime.executor.data.partition.NonSerializedPartition;
+import org.apache.nemo.runtime.executor.data.partition.PrimitiveColumns;
 import org.apache.nemo.runtime.executor.data.partition.SerializedPartition;
 import org.apache.nemo.runtime.executor.data.streamchainer.DecodeStreamChainer;
 import org.apache.nemo.runtime.executor.data.streamchainer.EncodeStreamChainer;
@@ -61,10 +64,16 @@ public final class DataUtil {
   private static void serializePartition(final EncoderFactory encoderFactory,
                                          final NonSerializedPartition nonSerializedPartition,
                                          final OutputStream bytesOutputStream) throws IOException {
+    final PrimitiveColumns columns = nonSerializedPartition.getColumns();
+    if (columns != null) {
+      columns.encode(bytesOutputStream, encoderFactory instanceof FramedEncoderFactory);
+      return;
+    }
     final EncoderFactory.Encoder encoder = encoderFactory.create(bytesOutputStream);
     for (final Object element : nonSerializedPartition.getData()) {
       encoder.encode(element);
     }
+    encoder.flush();
   }
 
   /**
@@ -83,6 +92,9 @@ public final class DataUtil {
                                                                                      final K key,
                                                                                      final InputStream inputStream)
     throws IOException {
+    if (serializer.getColumnarFormat() != null) {
+      return deserializeColumnarPartition(partitionSize, serializer, key, inputStream);
+    }
     final List deserializedData = new ArrayList();
     // We need to limit read bytes on this inputStream, which could be over-read by wrapped
     // compression stream. This depends on the nature of the compression algorithm used.
@@ -97,6 +109,49 @@ public final class DataUtil {
     }
   }
 
+  /**
+   * Reads the data of a partition from an input stream and decodes it into {@link PrimitiveColumns}.
+   * If an element does not fit the columns, e.g., a watermark, the rest is decoded as objects.
+   *
+   * @param partitionSize the size of the partition to deserialize.
+   * @param serializer    the serializer with a columnar format.
+   * @param key           the key value of the result partition.
+   * @param inputStream   the input stream which will return the data in the partition as bytes.
+   * @param <K>           the key type of the partitions.
+   * @return the deserialized partition.
+   * @throws IOException if fail to deserialize.
+   */
+  private static <K extends Serializable> NonSerializedPartition deserializeColumnarPartition(
+    final int partitionSize,
+    final Serializer serializer,
+    final K key,
+    final InputStream inputStream) throws IOException {
+    try (LimitedInputStream limitedInputStream = new LimitedInputStream(inputStream, partitionSize)) {
+      final CountingInputStream serializedCountingStream = new CountingInputStream(limitedInputStream);
+      final CountingInputStream encodedCountingStream = new CountingInputStream(
+        buildInputStream(serializedCountingStream, serializer.getDecodeStreamChainers()));
+      final DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(encodedCountingStream));
+      final PrimitiveColumns columns = new PrimitiveColumns(serializer.getColumnarFormat());
+      if (columns.decode(dataInputStream, serializer.isFramed())) {
+        return new NonSerializedPartition<>(key, columns,
+          serializedCountingStream.getCount(), encodedCountingStream.getCount());
+      }
+
+      final List deserializedData = columns.toList();
+      final DecoderFactory.Decoder decoder = serializer.getDecoderFactory().create(dataInputStream);
+      while (true) {
+        try {
+          deserializedData.add(decoder.decode());
+        } catch (final IOException e) {
+          // IOException from decoder indicates EOF event.
+          break;
+        }
+      }
+      return new NonSerializedPartition(key, deserializedData,
+        serializedCountingStream.getCount(), encodedCountingStream.getCount());
+    }
+  }
+
   /**
    * Converts the non-serialized {@link org.apache.nemo.runtime.executor.data.partition.Partition}s
    * in an iterable to serialized partitions.
@@ -231,8 +286,8 @@ public final class DataUtil {
      * @param inputStreams The streams to read data from.
      * @param serializer   The serializer.
      */
-    InputStreamIterator(final Iterator<InputStream> inputStreams,
-                        final Serializer<?, T> serializer) {
+    public InputStreamIterator(final Iterator<InputStream> inputStreams,
+                               final Serializer<?, T> serializer) {
       this.inputStreams = inputStreams;
       this.serializer = serializer;
     }
@@ -263,20 +318,30 @@ public final class DataUtil {
           throw new RuntimeException(e);
         }
         try {
+          if (decoder instanceof FramedDecoderFactory.FramedDecoder
+            && !((FramedDecoderFactory.FramedDecoder<T>) decoder).hasNext()) {
+            // The frames tell the end of the stream.
+            finishInputStream();
+            continue;
+          }
           next = decoder.decode();
           hasNext = true;
           return true;
         } catch (final IOException e) {
           // IOException from decoder indicates EOF event.
-          numSerializedBytes += serializedCountingStream.getCount();
-          numEncodedBytes += encodedCountingStream.getCount();
-          serializedCountingStream = null;
-          encodedCountingStream = null;
-          decoder = null;
+          finishInputStream();
         }
       }
     }
 
+    private void finishInputStream() {
+      numSerializedBytes += serializedCountingStream.getCount();
+      numEncodedBytes += encodedCountingStream.getCount();
+      serializedCountingStream = null;
+      encodedCountingStream = null;
+      decoder = null;
+    }
+
     @Override
     public T next() {
       if (hasNext()) {
@@ -304,6 +369,13 @@ public final class DataUtil {
       }
       return numEncodedBytes;
     }
+
+    /**
+     * @return the number of bytes in serialized form read so far, which is available during the iteration.
+     */
+    public long getNumSerializedBytesRead() {
+      return numSerializedBytes + (serializedCountingStream == null ? 0 : serializedCountingStream.getCount());
+    }
   }
 
   /**
@@ -23,6 +23,7 @@ import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -31,11 +32,16 @@ import java.util.List;
  * {@link ByteBuffer}, which utilizes off heap memory when writing the data via MemoryPoolAssigner.
  * Deletion of {@code dataList}, which is the memory this outputstream holds, occurs
  * when the corresponding block is deleted.
+ * The chunks start from the smallest size class of the pool and double in size up to the largest one,
+ * so that small outputs do not waste most of a large chunk.
  */
 public final class DirectByteBufferOutputStream extends OutputStream {
 
   private LinkedList<MemoryChunk> dataList = new LinkedList<>();
-  private final int chunkSize;
+  private final int maxChunkSize;
+  private int nextChunkSize;
+  // The size of the data in the chunks before the last one, which are all full.
+  private int sizeOfFullChunks = 0;
   private ByteBuffer currentBuf;
   private final MemoryPoolAssigner memoryPoolAssigner;
 
@@ -46,19 +52,55 @@ public final class DirectByteBufferOutputStream extends OutputStream {
    * @throws MemoryAllocationException  if fails to allocate new memory.
    */
   public DirectByteBufferOutputStream(final MemoryPoolAssigner memoryPoolAssigner) throws MemoryAllocationException {
-    this.chunkSize = memoryPoolAssigner.getChunkSize();
+    this.maxChunkSize = memoryPoolAssigner.getChunkSize();
+    this.nextChunkSize = memoryPoolAssigner.getMinChunkSize();
     this.memoryPoolAssigner = memoryPoolAssigner;
     newLastBuffer();
     currentBuf = dataList.getLast().getBuffer();
   }
 
   /**
-   * Allocates new {@link ByteBuffer} with the capacity equal to {@code pageSize}.
+   * Allocates new {@link ByteBuffer} twice as large as the last one, up to the chunk size of the pool.
    *
    * @throws MemoryAllocationException  if fail to allocate memory chunk.
    */
   private void newLastBuffer() throws MemoryAllocationException {
-    dataList.addLast(memoryPoolAssigner.allocateChunk());
+    if (!dataList.isEmpty()) {
+      sizeOfFullChunks += dataList.getLast().getBuffer().position();
+    }
+    dataList.addLast(memoryPoolAssigner.allocateChunk(nextChunkSize));
+    nextChunkSize = Math.min(nextChunkSize * 2, maxChunkSize);
+  }
+
+  /**
+   * Moves the data in the last chunk to a chunk of a smaller size class if it fits in one,
+   * and returns the larger chunk to the pool. No further write is expected after calling this method.
+   * The last chunk is kept as it is if the pool cannot spare a smaller chunk right away.
+   *
+   * @throws MemoryAllocationException  if fail to allocate memory chunk.
+   */
+  public void shrinkLastChunk() throws MemoryAllocationException {
+    final MemoryChunk lastChunk = dataList.getLast();
+    final ByteBuffer lastBuf = lastChunk.getBuffer();
+    final int lastSize = lastBuf.position();
+    if (lastBuf.capacity() <= memoryPoolAssigner.getMinChunkSize() || lastSize > lastBuf.capacity() / 2) {
+      return;
+    }
+    final MemoryChunk smallerChunk = memoryPoolAssigner.tryAllocateChunk(Math.max(lastSize, 1));
+    if (smallerChunk == null) {
+      return;
+    }
+    if (smallerChunk.getBuffer().capacity() >= lastBuf.capacity()) {
+      memoryPoolAssigner.returnChunksToPool(Collections.singletonList(smallerChunk));
+      return;
+    }
+    final ByteBuffer data = lastBuf.duplicate();
+    data.flip();
+    smallerChunk.getBuffer().put(data);
+    dataList.removeLast();
+    dataList.addLast(smallerChunk);
+    currentBuf = smallerChunk.getBuffer();
+    memoryPoolAssigner.returnChunksToPool(Collections.singletonList(lastChunk));
   }
 
   /**
@@ -137,11 +179,7 @@ public final class DirectByteBufferOutputStream extends OutputStream {
     if (dataList.isEmpty()) {
       return new byte[0];
     }
-    MemoryChunk lastBuf = dataList.getLast();
-    // pageSize equals the size of the data filled in the ByteBuffers
-    // except for the last ByteBuffer. The size of the data in the
-    // ByteBuffer can be obtained by calling MemoryChunk.position().
-    final int arraySize = chunkSize * (dataList.size() - 1) + lastBuf.getBuffer().position();
+    final int arraySize = size();
     final byte[] byteArray = new byte[arraySize];
     int start = 0;
 
@@ -184,7 +222,7 @@ public final class DirectByteBufferOutputStream extends OutputStream {
    * @return the size of the data
    */
   public int size() {
-    return chunkSize * (dataList.size() - 1) + dataList.getLast().getBuffer().position();
+    return sizeOfFullChunks + dataList.getLast().getBuffer().position();
   }
 
   /**
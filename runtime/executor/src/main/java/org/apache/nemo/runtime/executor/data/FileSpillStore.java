@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data;
+
+import org.apache.nemo.common.ByteBufferInputStream;
+import org.apache.nemo.common.HashRange;
+import org.apache.nemo.common.coder.DecoderFactory;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.exception.BlockFetchException;
+import org.apache.nemo.common.ir.vertex.transform.SpillStore;
+import org.apache.nemo.runtime.executor.data.block.FileBlock;
+import org.apache.nemo.runtime.executor.data.metadata.LocalFileMetadata;
+import org.apache.nemo.runtime.executor.data.partition.SerializedPartition;
+import org.apache.nemo.runtime.executor.data.streamchainer.Serializer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@link SpillStore} which stores the runs in a local {@link FileBlock}.
+ * Each run is stored as the partitions keyed by its index.
+ *
+ * @param <T> the type of the elements.
+ */
+@NotThreadSafe
+final class FileSpillStore<T> implements SpillStore<T> {
+  // The number of elements to serialize in memory before writing them to the file.
+  private static final int NUM_ELEMENTS_PER_PARTITION = 10000;
+
+  private final FileBlock<Integer> block;
+  private final Serializer<T, T> serializer;
+  private int numRuns;
+
+  /**
+   * Constructor.
+   *
+   * @param blockId            the ID of the block to store the runs.
+   * @param filePath           the path of the file to store the runs.
+   * @param encoderFactory     the encoder factory for the elements.
+   * @param decoderFactory     the decoder factory for the elements.
+   * @param memoryPoolAssigner the memory pool assigner for serializing the elements.
+   */
+  FileSpillStore(final String blockId,
+                 final String filePath,
+                 final EncoderFactory<T> encoderFactory,
+                 final DecoderFactory<T> decoderFactory,
+                 final MemoryPoolAssigner memoryPoolAssigner) {
+    this.serializer = new Serializer<>(encoderFactory, decoderFactory, new ArrayList<>(), new ArrayList<>());
+    this.block = new FileBlock<>(blockId, serializer, filePath, new LocalFileMetadata<>(), memoryPoolAssigner);
+    this.numRuns = 0;
+  }
+
+  @Override
+  public int writeRun(final Iterator<T> elements) {
+    final int runIndex = numRuns++;
+    int numWrittenElements = 0;
+    while (elements.hasNext()) {
+      block.write(runIndex, elements.next());
+      if (++numWrittenElements % NUM_ELEMENTS_PER_PARTITION == 0) {
+        block.commitPartitions();
+      }
+    }
+    block.commitPartitions();
+    return runIndex;
+  }
+
+  @Override
+  public Iterator<T> readRun(final int runIndex) {
+    if (!block.isCommitted()) {
+      block.commit();
+    }
+    final List<InputStream> inputStreams = new ArrayList<>();
+    try {
+      for (final SerializedPartition<Integer> partition
+        : block.readSerializedPartitions(HashRange.of(runIndex, runIndex + 1))) {
+        inputStreams.add(new ByteBufferInputStream(partition.getDirectBufferList()));
+      }
+    } catch (final IOException e) {
+      throw new BlockFetchException(e);
+    }
+    return new DataUtil.InputStreamIterator<>(inputStreams.iterator(), serializer);
+  }
+
+  @Override
+  public void close() {
+    try {
+      block.deleteFile();
+    } catch (final IOException e) {
+      throw new BlockFetchException(e);
+    }
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.nemo.runtime.executor.data;
 import net.jcip.annotations.NotThreadSafe;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -468,6 +469,54 @@ public class MemoryChunk {
     }
   }
 
+  /**
+   * Frees the memory of a direct or a memory-mapped buffer right away, instead of when the buffer is garbage collected.
+   * The buffer must be the one allocated or mapped, not a view of it, and neither it nor its views may be used after.
+   *
+   * @param buffer the buffer to free.
+   */
+  public static void freeDirectBuffer(final ByteBuffer buffer) {
+    if (!buffer.isDirect()) {
+      return;
+    }
+    try {
+      if (INVOKE_CLEANER != null) {
+        INVOKE_CLEANER.invoke(UNSAFE, buffer);
+      } else {
+        final Object cleaner = DIRECT_BUFFER_CLEANER.invoke(buffer);
+        if (cleaner != null) {
+          CLEANER_CLEAN.invoke(cleaner);
+        }
+      }
+    } catch (final Exception e) {
+      throw new RuntimeException("Could not free the direct buffer.", e);
+    }
+  }
+
+  // Unsafe.invokeCleaner() frees a buffer in Java 9 or later, and DirectBuffer.cleaner().clean() in Java 8.
+  private static final Method INVOKE_CLEANER;
+  private static final Method DIRECT_BUFFER_CLEANER;
+  private static final Method CLEANER_CLEAN;
+
+  static {
+    Method invokeCleaner = null;
+    Method directBufferCleaner = null;
+    Method cleanerClean = null;
+    try {
+      invokeCleaner = UNSAFE.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (final NoSuchMethodException e) {
+      try {
+        directBufferCleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+        cleanerClean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      } catch (final Exception e2) {
+        throw new RuntimeException("Cannot initialize MemoryChunk: direct buffers cannot be freed in this JVM.");
+      }
+    }
+    INVOKE_CLEANER = invokeCleaner;
+    DIRECT_BUFFER_CLEANER = directBufferCleaner;
+    CLEANER_CLEAN = cleanerClean;
+  }
+
   private static final Field ADDRESS_FIELD;
 
   static {
@@ -22,20 +22,29 @@ import net.jcip.annotations.ThreadSafe;
 import org.apache.reef.tang.annotations.Parameter;
 import org.apache.nemo.conf.JobConf;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
-import java.util.NoSuchElementException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * The MemoryPoolAssigner assigns the memory that Nemo uses for writing data blocks from the {@link MemoryPool}.
- * Memory is represented in chunks of equal size. Consumers of off-heap memory acquire the memory by requesting
- * a number of {@link MemoryChunk} they need.
+ * Memory is represented in chunks of a few size classes, from {@link #MIN_CHUNK_SIZE_KB} up to the configured
+ * chunk size, doubling at each class. Consumers of off-heap memory acquire the memory by requesting
+ * a number of {@link MemoryChunk} of the size they need.
  *
  * MemoryPoolAssigner currently supports allocation of off-heap memory only.
  *
  * MemoryChunks are allocated on-demand, but if the total allocated memory exceeds the maxOffheapMb,
- * MemoryAllocationException is thrown and the job fails.
+ * just enough idle chunks of the other size classes are dropped first, and then the {@link MemoryReclaimer} is asked
+ * to free the memory held by the blocks in memory. If it cannot, MemoryAllocationException is thrown
+ * and the job fails.
  * TODO #397: Separation of JVM heap region and off-heap memory region
  */
 @ThreadSafe
@@ -45,6 +54,7 @@ public class MemoryPoolAssigner {
   private static final int MIN_CHUNK_SIZE_KB = 4;
 
   private final MemoryPool memoryPool;
+  private volatile MemoryReclaimer memoryReclaimer = null;
 
   @Inject
   public MemoryPoolAssigner(@Parameter(JobConf.ExecutorMemoryMb.class) final int memory,
@@ -63,17 +73,62 @@ public class MemoryPoolAssigner {
       throw new IllegalArgumentException("The given amount of memory amounted to less than one chunk.");
     }
     this.chunkSize = chunkSizeKb * 1024;
-    this.memoryPool = new MemoryPool((int) maxNumChunks, this.chunkSize);
+    this.memoryPool = new MemoryPool(maxNumChunks * this.chunkSize, MIN_CHUNK_SIZE_KB * 1024, this.chunkSize);
   }
 
   /**
-   * Returns a single {@link MemoryChunk} from {@link MemoryPool}.
+   * Returns a single {@link MemoryChunk} of the largest size class from {@link MemoryPool}.
    *
    * @return a MemoryChunk
    * @throws MemoryAllocationException if fails to allocate MemoryChunk.
    */
   public MemoryChunk allocateChunk() throws MemoryAllocationException {
-    return memoryPool.requestChunkFromPool();
+    return allocateChunk(chunkSize);
+  }
+
+  /**
+   * Returns a single {@link MemoryChunk} of the smallest size class that can hold the given number of bytes,
+   * or of the largest size class if none can.
+   *
+   * @param sizeHint the number of bytes to be written to the chunk.
+   * @return a MemoryChunk
+   * @throws MemoryAllocationException if fails to allocate MemoryChunk.
+   */
+  public MemoryChunk allocateChunk(final int sizeHint) throws MemoryAllocationException {
+    final int sizeClass = memoryPool.sizeClassOf(sizeHint);
+    while (true) {
+      final MemoryChunk chunk = memoryPool.requestChunkFromPool(sizeClass);
+      if (chunk != null) {
+        return chunk;
+      }
+      final MemoryReclaimer reclaimer = memoryReclaimer;
+      if (reclaimer == null || !reclaimer.reclaim(memoryPool.chunkSizeOf(sizeClass))) {
+        throw new MemoryAllocationException("Exceeded maximum off-heap memory");
+      }
+      // Retry with the reclaimed memory.
+    }
+  }
+
+  /**
+   * Returns a single {@link MemoryChunk} like {@link #allocateChunk(int)}, but without asking the
+   * {@link MemoryReclaimer} for memory.
+   *
+   * @param sizeHint the number of bytes to be written to the chunk.
+   * @return a MemoryChunk, or {@code null} if the pool is exhausted.
+   * @throws MemoryAllocationException if the JVM fails to allocate the off-heap memory.
+   */
+  @Nullable
+  public MemoryChunk tryAllocateChunk(final int sizeHint) throws MemoryAllocationException {
+    return memoryPool.requestChunkFromPool(memoryPool.sizeClassOf(sizeHint));
+  }
+
+  /**
+   * Sets the reclaimer to ask for memory when the pool is exhausted.
+   *
+   * @param reclaimer the memory reclaimer.
+   */
+  public void setMemoryReclaimer(final MemoryReclaimer reclaimer) {
+    this.memoryReclaimer = reclaimer;
   }
 
   /**
@@ -88,7 +143,7 @@ public class MemoryPoolAssigner {
   }
 
   /**
-   * Returns the chunk size of the memory pool.
+   * Returns the chunk size of the largest size class of the memory pool.
    *
    * @return the chunk size in bytes.
    */
@@ -97,8 +152,31 @@ public class MemoryPoolAssigner {
   }
 
   /**
-   * Returns the number of chunks in the pool. This is unrecommended since it is very complex to
-   * check the size of {@link ConcurrentLinkedQueue}.
+   * Returns the chunk size of the smallest size class of the memory pool.
+   *
+   * @return the chunk size in bytes.
+   */
+  public int getMinChunkSize() {
+    return memoryPool.chunkSizeOf(0);
+  }
+
+  /**
+   * @return the number of bytes of the chunks handed out, keyed by the chunk size of each size class.
+   */
+  public HashMap<Integer, Long> getUsedBytesPerChunkSize() {
+    return memoryPool.getBytesPerChunkSize(true);
+  }
+
+  /**
+   * @return the number of bytes of the chunks kept for reuse, keyed by the chunk size of each size class.
+   */
+  public HashMap<Integer, Long> getIdleBytesPerChunkSize() {
+    return memoryPool.getBytesPerChunkSize(false);
+  }
+
+  /**
+   * Returns the number of idle chunks in the pool, including the ones cached by the threads.
+   * This is unrecommended since it is very complex to check the size of {@link ConcurrentLinkedQueue}.
    *
    * @return the pool size.
    */
@@ -106,47 +184,104 @@ public class MemoryPoolAssigner {
     return memoryPool.size();
   }
 
+  /**
+   * Frees the off-heap memory held by others, e.g., by spilling blocks to disk.
+   */
+  public interface MemoryReclaimer {
+    /**
+     * @param numBytes the number of bytes to free.
+     * @return whether any memory is freed.
+     */
+    boolean reclaim(long numBytes);
+  }
+
   /**
    * Memory pool that utilizes off-heap memory.
-   * Supports pre-allocation of memory according to user specification.
+   * Each size class keeps its idle chunks in a lock-free queue, in front of which each thread caches
+   * a few chunks per class. The memory limit is kept as an atomic budget of bytes,
+   * so that no allocation takes a lock.
+   * The caches of the threads that have terminated are moved back to the queues whenever a thread creates its cache
+   * or the caches of all threads are scanned, so that neither the caches nor their chunks pile up.
    */
   @ThreadSafe
-  private class MemoryPool {
+  private static final class MemoryPool {
+    private static final int THREAD_CACHE_SIZE = 4;
 
-    private final ConcurrentLinkedQueue<ByteBuffer> pool;
-    private final int chunkSize;
-    private long maxNumChunks;
-    private long numChunks;
+    private final long maxBytes;
+    private final AtomicLong allocatedBytes;
+    private final SizeClass[] sizeClasses;
+    private final ConcurrentLinkedQueue<ThreadCache> threadCaches;
+    private final ThreadLocal<AtomicReferenceArray<ByteBuffer>> threadCache;
 
-    MemoryPool(final long maxNumChunks, final int chunkSize) {
-      this.chunkSize = chunkSize;
-      this.pool = new ConcurrentLinkedQueue<>();
-      this.maxNumChunks = maxNumChunks;
+    MemoryPool(final long maxBytes, final int minChunkSize, final int maxChunkSize) {
+      this.maxBytes = maxBytes;
+      this.allocatedBytes = new AtomicLong(0);
+      final List<SizeClass> classes = new ArrayList<>();
+      for (int size = minChunkSize; size < maxChunkSize; size *= 2) {
+        classes.add(new SizeClass(size));
+      }
+      classes.add(new SizeClass(maxChunkSize));
+      this.sizeClasses = classes.toArray(new SizeClass[0]);
+      this.threadCaches = new ConcurrentLinkedQueue<>();
+      this.threadCache = ThreadLocal.withInitial(() -> {
+        // The slots of other threads are only ever emptied by getAndSet, so they can be stolen safely.
+        final AtomicReferenceArray<ByteBuffer> cache =
+          new AtomicReferenceArray<>(sizeClasses.length * THREAD_CACHE_SIZE);
+        reclaimDeadThreadCaches();
+        threadCaches.add(new ThreadCache(Thread.currentThread(), cache));
+        return cache;
+      });
     }
 
-    synchronized MemoryChunk allocateNewChunk() throws MemoryAllocationException {
-      if (maxNumChunks <= numChunks) {
-        throw new MemoryAllocationException("Exceeded maximum off-heap memory");
+    /**
+     * @param sizeHint the number of bytes to hold.
+     * @return the index of the smallest size class that can hold the bytes, or of the largest one.
+     */
+    int sizeClassOf(final int sizeHint) {
+      for (int i = 0; i < sizeClasses.length - 1; i++) {
+        if (sizeHint <= sizeClasses[i].chunkSize) {
+          return i;
+        }
       }
-      ByteBuffer memory = ByteBuffer.allocateDirect(chunkSize);
-      numChunks += 1;
-      return new MemoryChunk(memory);
+      return sizeClasses.length - 1;
     }
 
-    MemoryChunk requestChunkFromPool() throws MemoryAllocationException {
-      try {
-        // Try to reuse a byte buffer in the current pool
-        // Return the byte buffer if there's one that we can reuse
-        final ByteBuffer byteBufferThatWeCanReuse = pool.remove(); // this can throw NoSuchElementException
-        return new MemoryChunk(byteBufferThatWeCanReuse);
-      } catch (final NoSuchElementException e) {
-        // No more byte buffer to reuse in the current pool
-        // So we try to allocate a new chunk
-        // This method is synchronized :)
-        return allocateNewChunk();
-      } catch (final OutOfMemoryError e) {
-        throw new MemoryAllocationException("Memory allocation failed due to lack of memory");
+    int chunkSizeOf(final int sizeClass) {
+      return sizeClasses[sizeClass].chunkSize;
+    }
+
+    /**
+     * Takes an idle chunk of the size class, or allocates a new one within the memory limit.
+     *
+     * @param sizeClass the index of the size class.
+     * @return the MemoryChunk, or {@code null} if the memory limit is reached.
+     * @throws MemoryAllocationException if the JVM fails to allocate the off-heap memory.
+     */
+    @Nullable
+    MemoryChunk requestChunkFromPool(final int sizeClass) throws MemoryAllocationException {
+      final SizeClass target = sizeClasses[sizeClass];
+      ByteBuffer buffer = takeFromCache(threadCache.get(), sizeClass);
+      if (buffer == null) {
+        buffer = target.pool.poll();
+        if (buffer != null) {
+          target.numIdleChunks.decrementAndGet();
+        }
+      }
+      if (buffer == null && reserve(target.chunkSize)) {
+        buffer = allocateDirect(target.chunkSize);
+      }
+      if (buffer == null) {
+        // Out of budget: take an idle chunk of another thread, or hand back the idle memory needed, and try again.
+        buffer = freeIdleChunks(sizeClass);
+        if (buffer == null && reserve(target.chunkSize)) {
+          buffer = allocateDirect(target.chunkSize);
+        }
+      }
+      if (buffer == null) {
+        return null;
       }
+      target.numUsedChunks.incrementAndGet();
+      return new MemoryChunk(buffer);
     }
 
     /**
@@ -155,13 +290,219 @@ public class MemoryPoolAssigner {
      * @param chunk the target MemoryChunk to be returned to the pool.
      */
     void returnChunkToPool(final MemoryChunk chunk) {
-      ByteBuffer buf = chunk.getBuffer();
+      final ByteBuffer buf = chunk.getBuffer();
       chunk.release();
-      pool.add(buf);
+      final int sizeClass = sizeClassOf(buf.capacity());
+      final SizeClass target = sizeClasses[sizeClass];
+      target.numUsedChunks.decrementAndGet();
+      if (!putToCache(threadCache.get(), sizeClass, buf)) {
+        target.numIdleChunks.incrementAndGet();
+        target.pool.offer(buf);
+      }
     }
 
     int size() {
-      return pool.size();
+      reclaimDeadThreadCaches();
+      long size = 0;
+      for (final SizeClass sizeClass : sizeClasses) {
+        size += sizeClass.numIdleChunks.get();
+      }
+      for (final ThreadCache threadCacheOfThread : threadCaches) {
+        final AtomicReferenceArray<ByteBuffer> cache = threadCacheOfThread.slots;
+        for (int i = 0; i < cache.length(); i++) {
+          if (cache.get(i) != null) {
+            size++;
+          }
+        }
+      }
+      return (int) size;
+    }
+
+    HashMap<Integer, Long> getBytesPerChunkSize(final boolean used) {
+      final long[] idleChunks = new long[sizeClasses.length];
+      if (!used) {
+        reclaimDeadThreadCaches();
+        for (final ThreadCache threadCacheOfThread : threadCaches) {
+          final AtomicReferenceArray<ByteBuffer> cache = threadCacheOfThread.slots;
+          for (int i = 0; i < cache.length(); i++) {
+            if (cache.get(i) != null) {
+              idleChunks[i / THREAD_CACHE_SIZE]++;
+            }
+          }
+        }
+      }
+      final HashMap<Integer, Long> bytesPerChunkSize = new HashMap<>();
+      for (int i = 0; i < sizeClasses.length; i++) {
+        final SizeClass sizeClass = sizeClasses[i];
+        final long numChunks = used
+          ? sizeClass.numUsedChunks.get()
+          : sizeClass.numIdleChunks.get() + idleChunks[i];
+        bytesPerChunkSize.put(sizeClass.chunkSize, numChunks * sizeClass.chunkSize);
+      }
+      return bytesPerChunkSize;
+    }
+
+    private boolean reserve(final int numBytes) {
+      while (true) {
+        final long current = allocatedBytes.get();
+        if (current + numBytes > maxBytes) {
+          return false;
+        }
+        if (allocatedBytes.compareAndSet(current, current + numBytes)) {
+          return true;
+        }
+      }
+    }
+
+    private ByteBuffer allocateDirect(final int numBytes) throws MemoryAllocationException {
+      try {
+        return ByteBuffer.allocateDirect(numBytes);
+      } catch (final OutOfMemoryError e) {
+        allocatedBytes.addAndGet(-numBytes);
+        throw new MemoryAllocationException("Memory allocation failed due to lack of memory");
+      }
+    }
+
+    /**
+     * Steals an idle chunk of the wanted size class from the other threads if there is one, or otherwise drops
+     * just enough idle chunks of the other size classes for a chunk of the wanted size class to fit in the limit.
+     * The dropped chunks are left to the garbage collector rather than freed right away, as a chunk returned early
+     * may still be read, e.g., by an in-flight send, until nothing refers to it anymore.
+     *
+     * @param sizeClass the index of the wanted size class.
+     * @return an idle chunk of the wanted size class, or {@code null} if there is none.
+     */
+    @Nullable
+    private ByteBuffer freeIdleChunks(final int sizeClass) {
+      reclaimDeadThreadCaches();
+      final SizeClass target = sizeClasses[sizeClass];
+      final ByteBuffer idleChunk = target.pool.poll();
+      if (idleChunk != null) {
+        target.numIdleChunks.decrementAndGet();
+        return idleChunk;
+      }
+      for (final ThreadCache threadCacheOfThread : threadCaches) {
+        final ByteBuffer cachedChunk = takeFromCache(threadCacheOfThread.slots, sizeClass);
+        if (cachedChunk != null) {
+          return cachedChunk;
+        }
+      }
+
+      final long numBytesToFree = target.chunkSize;
+      long numBytesFreed = 0;
+      for (int i = 0; i < sizeClasses.length && numBytesFreed < numBytesToFree; i++) {
+        if (i == sizeClass) {
+          continue;
+        }
+        while (numBytesFreed < numBytesToFree) {
+          final ByteBuffer buffer = sizeClasses[i].pool.poll();
+          if (buffer == null) {
+            break;
+          }
+          sizeClasses[i].numIdleChunks.decrementAndGet();
+          numBytesFreed += dropIdleChunk(buffer);
+        }
+      }
+      for (final ThreadCache threadCacheOfThread : threadCaches) {
+        final AtomicReferenceArray<ByteBuffer> cache = threadCacheOfThread.slots;
+        for (int i = 0; i < cache.length() && numBytesFreed < numBytesToFree; i++) {
+          final ByteBuffer buffer = cache.getAndSet(i, null);
+          if (buffer != null) {
+            numBytesFreed += dropIdleChunk(buffer);
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * @param buffer the idle chunk to drop.
+     * @return the number of bytes that no more count against the limit.
+     */
+    private int dropIdleChunk(final ByteBuffer buffer) {
+      allocatedBytes.addAndGet(-buffer.capacity());
+      return buffer.capacity();
+    }
+
+    /**
+     * Moves the chunks cached by the terminated threads to the queues of their size classes,
+     * and forgets the caches.
+     */
+    private void reclaimDeadThreadCaches() {
+      for (final ThreadCache threadCacheOfThread : threadCaches) {
+        if (threadCacheOfThread.isOwnerAlive() || !threadCaches.remove(threadCacheOfThread)) {
+          continue;
+        }
+        final AtomicReferenceArray<ByteBuffer> cache = threadCacheOfThread.slots;
+        for (int i = 0; i < cache.length(); i++) {
+          // Other threads may have stolen the chunk in the meantime.
+          final ByteBuffer buffer = cache.getAndSet(i, null);
+          if (buffer != null) {
+            final SizeClass target = sizeClasses[i / THREAD_CACHE_SIZE];
+            target.numIdleChunks.incrementAndGet();
+            target.pool.offer(buffer);
+          }
+        }
+      }
+    }
+
+    @Nullable
+    private static ByteBuffer takeFromCache(final AtomicReferenceArray<ByteBuffer> cache, final int sizeClass) {
+      for (int i = sizeClass * THREAD_CACHE_SIZE; i < (sizeClass + 1) * THREAD_CACHE_SIZE; i++) {
+        if (cache.get(i) != null) {
+          final ByteBuffer buffer = cache.getAndSet(i, null);
+          if (buffer != null) {
+            return buffer;
+          }
+        }
+      }
+      return null;
+    }
+
+    private static boolean putToCache(final AtomicReferenceArray<ByteBuffer> cache,
+                                      final int sizeClass,
+                                      final ByteBuffer buffer) {
+      for (int i = sizeClass * THREAD_CACHE_SIZE; i < (sizeClass + 1) * THREAD_CACHE_SIZE; i++) {
+        if (cache.get(i) == null && cache.compareAndSet(i, null, buffer)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * The chunks cached by a thread, which does not keep the thread from being garbage-collected.
+   */
+  private static final class ThreadCache {
+    private final WeakReference<Thread> owner;
+    private final AtomicReferenceArray<ByteBuffer> slots;
+
+    ThreadCache(final Thread owner, final AtomicReferenceArray<ByteBuffer> slots) {
+      this.owner = new WeakReference<>(owner);
+      this.slots = slots;
+    }
+
+    boolean isOwnerAlive() {
+      final Thread thread = owner.get();
+      return thread != null && thread.isAlive();
+    }
+  }
+
+  /**
+   * Chunks of a single size, with their usage statistics.
+   */
+  private static final class SizeClass {
+    private final int chunkSize;
+    private final ConcurrentLinkedQueue<ByteBuffer> pool;
+    private final AtomicLong numUsedChunks;
+    private final AtomicLong numIdleChunks;
+
+    SizeClass(final int chunkSize) {
+      this.chunkSize = chunkSize;
+      this.pool = new ConcurrentLinkedQueue<>();
+      this.numUsedChunks = new AtomicLong(0);
+      this.numIdleChunks = new AtomicLong(0);
     }
   }
 }
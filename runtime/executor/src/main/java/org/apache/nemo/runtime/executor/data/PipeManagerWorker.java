@@ -19,6 +19,7 @@
 package org.apache.nemo.runtime.executor.data;
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.nemo.common.Pair;
 import org.apache.nemo.common.ir.edge.executionproperty.CommunicationPatternProperty;
 import org.apache.nemo.common.ir.vertex.executionproperty.ParallelismProperty;
@@ -39,8 +40,12 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Two threads use this class
@@ -63,8 +68,18 @@ public final class PipeManagerWorker {
 
   private final PersistentConnectionToMasterMap toMaster;
 
+  // Batching of pipe writes
+  private final int batchSizeBytes;
+  private final long batchLingerMs;
+  private final int elementQueueCapacity;
+  // Created on the first batch, guarded by this
+  private ScheduledThreadPoolExecutor batchFlusher = null;
+
   @Inject
   private PipeManagerWorker(@Parameter(JobConf.ExecutorId.class) final String executorId,
+                            @Parameter(JobConf.PipeBatchSizeKb.class) final int batchSizeKb,
+                            @Parameter(JobConf.PipeBatchLingerMs.class) final int batchLingerMs,
+                            @Parameter(JobConf.PipeElementQueueCapacity.class) final int elementQueueCapacity,
                             final ByteTransfer byteTransfer,
                             final SerializerManager serializerManager,
                             final PersistentConnectionToMasterMap toMaster) {
@@ -73,11 +88,24 @@ public final class PipeManagerWorker {
     this.serializerManager = serializerManager;
     this.pipeContainer = new PipeContainer();
     this.toMaster = toMaster;
+    this.batchSizeBytes = batchSizeKb * 1024;
+    this.batchLingerMs = batchLingerMs;
+    this.elementQueueCapacity = elementQueueCapacity;
   }
 
+  /**
+   * Reads the elements of a pipe.
+   *
+   * @param srcTaskIndex the index of the source task.
+   * @param runtimeEdge  the edge of the pipe.
+   * @param dstTaskIndex the index of the destination task.
+   * @param contexts     to add the context of the pipe to once connected, e.g., for its metrics.
+   * @return the iterator over the elements of the pipe.
+   */
   public CompletableFuture<DataUtil.IteratorWithNumBytes> read(final int srcTaskIndex,
                                                                final RuntimeEdge runtimeEdge,
-                                                               final int dstTaskIndex) {
+                                                               final int dstTaskIndex,
+                                                               final Collection<ByteInputContext> contexts) {
     final String runtimeEdgeId = runtimeEdge.getId();
     // Get the location of the src task (blocking call)
     final CompletableFuture<ControlMessage.Message> responseFromMasterFuture = toMaster
@@ -117,8 +145,11 @@ public final class PipeManagerWorker {
 
       // Connect to the executor
       return byteTransfer.newInputContext(targetExecutorId, descriptor.toByteArray(), true)
-        .thenApply(context -> new DataUtil.InputStreamIterator(context.getInputStreams(),
-          serializerManager.getSerializer(runtimeEdgeId)));
+        .thenApply(context -> {
+          contexts.add(context);
+          return new DataUtil.InputStreamIterator(context.getInputStreams(),
+            serializerManager.getSerializer(runtimeEdgeId));
+        });
     });
   }
 
@@ -160,6 +191,55 @@ public final class PipeManagerWorker {
     return serializerManager.getSerializer(runtimeEdgeId);
   }
 
+  /**
+   * @return the size threshold in bytes to flush a batch of elements written to a pipe,
+   * or 0 if pipe writes are not batched.
+   */
+  public int getBatchSizeBytes() {
+    return batchSizeBytes;
+  }
+
+  /**
+   * @return the number of elements read from the pipes that a task may hold before consuming them.
+   */
+  public int getElementQueueCapacity() {
+    return elementQueueCapacity;
+  }
+
+  /**
+   * Runs the given flush of a batch of pipe writes once the batch lingers for the configured time.
+   * An exception from the flush is logged, and does not affect the flushes of the other batches.
+   *
+   * @param flush the flush to run.
+   * @return the future to cancel the flush with, e.g., when the batch is flushed for its size.
+   */
+  public synchronized ScheduledFuture<?> scheduleBatchFlush(final Runnable flush) {
+    if (batchFlusher == null) {
+      batchFlusher = new ScheduledThreadPoolExecutor(1, new BasicThreadFactory.Builder()
+        .namingPattern("PipeBatchFlusher thread-%d")
+        .daemon(true)
+        .build());
+      // Most of the flushes are cancelled, as the batches fill up first.
+      batchFlusher.setRemoveOnCancelPolicy(true);
+    }
+    return batchFlusher.schedule(() -> {
+      try {
+        flush.run();
+      } catch (final RuntimeException e) {
+        LOG.error("Failed to flush a lingering batch of pipe writes", e);
+      }
+    }, batchLingerMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops the thread flushing the lingering batches, if any.
+   */
+  public synchronized void terminate() {
+    if (batchFlusher != null) {
+      batchFlusher.shutdownNow();
+    }
+  }
+
   /**
    * (SYNCHRONIZATION) Called by network threads.
    *
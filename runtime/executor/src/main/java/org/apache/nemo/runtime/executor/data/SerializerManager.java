@@ -21,7 +21,10 @@ package org.apache.nemo.runtime.executor.data;
 import org.apache.nemo.common.coder.DecoderFactory;
 import org.apache.nemo.common.coder.EncoderFactory;
 import org.apache.nemo.common.ir.edge.executionproperty.CompressionProperty;
+import org.apache.nemo.conf.JobConf;
+import org.apache.nemo.runtime.executor.data.partition.ColumnarFormat;
 import org.apache.nemo.runtime.executor.data.streamchainer.*;
+import org.apache.reef.tang.annotations.Parameter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,12 +41,20 @@ import java.util.concurrent.ConcurrentMap;
 public final class SerializerManager {
   private static final Logger LOG = LoggerFactory.getLogger(SerializerManager.class.getName());
   private final ConcurrentMap<String, Serializer> runtimeEdgeIdToSerializer = new ConcurrentHashMap<>();
+  private final int zstdCompressionLevel;
+  private final int networkBandwidthMbps;
 
   /**
    * Constructor.
+   *
+   * @param zstdCompressionLevel the compression level of ZSTD.
+   * @param networkBandwidthMbps the network bandwidth, to select the compression of adaptive edges with.
    */
   @Inject
-  private SerializerManager() {
+  private SerializerManager(@Parameter(JobConf.ZstdCompressionLevel.class) final int zstdCompressionLevel,
+                            @Parameter(JobConf.NetworkBandwidthMbps.class) final int networkBandwidthMbps) {
+    this.zstdCompressionLevel = zstdCompressionLevel;
+    this.networkBandwidthMbps = networkBandwidthMbps;
   }
 
   /**
@@ -74,6 +85,25 @@ public final class SerializerManager {
                        final DecoderFactory decoderFactory,
                        @Nullable final CompressionProperty.Value compressionProperty,
                        @Nullable final CompressionProperty.Value decompressionProperty) {
+    register(runtimeEdgeId, encoderFactory, decoderFactory, compressionProperty, decompressionProperty, null);
+  }
+
+  /**
+   * Register a encoderFactory for runtime edge.
+   *
+   * @param runtimeEdgeId         id of the runtime edge.
+   * @param encoderFactory        the corresponding encoder factory.
+   * @param decoderFactory        the corresponding decoder factory.
+   * @param compressionProperty   compression property, or null not to enable compression
+   * @param decompressionProperty decompression property, or null not to enable decompression
+   * @param columnarFormat        the columnar format of the elements, or null to store them as objects
+   */
+  public void register(final String runtimeEdgeId,
+                       final EncoderFactory encoderFactory,
+                       final DecoderFactory decoderFactory,
+                       @Nullable final CompressionProperty.Value compressionProperty,
+                       @Nullable final CompressionProperty.Value decompressionProperty,
+                       @Nullable final ColumnarFormat columnarFormat) {
     LOG.debug("{} edge id registering to SerializerManager", runtimeEdgeId);
 
     final List<EncodeStreamChainer> encodeStreamChainers = new ArrayList<>();
@@ -83,7 +113,13 @@ public final class SerializerManager {
     if (compressionProperty != null) {
       LOG.debug("Adding {} compression chain for {}",
         compressionProperty, runtimeEdgeId);
-      encodeStreamChainers.add(new CompressionStreamChainer(compressionProperty));
+      if (compressionProperty == CompressionProperty.Value.ADAPTIVE) {
+        encodeStreamChainers.add(new CompressionStreamChainer(
+          new AdaptiveCompressionSelector(runtimeEdgeId, zstdCompressionLevel, networkBandwidthMbps),
+          zstdCompressionLevel));
+      } else {
+        encodeStreamChainers.add(new CompressionStreamChainer(compressionProperty, zstdCompressionLevel));
+      }
     }
     if (decompressionProperty != null) {
       LOG.debug("Adding {} decompression chain for {}",
@@ -92,7 +128,7 @@ public final class SerializerManager {
     }
 
     final Serializer serializer =
-      new Serializer(encoderFactory, decoderFactory, encodeStreamChainers, decodeStreamChainers);
+      new Serializer(encoderFactory, decoderFactory, encodeStreamChainers, decodeStreamChainers, columnarFormat);
     runtimeEdgeIdToSerializer.putIfAbsent(runtimeEdgeId, serializer);
   }
 
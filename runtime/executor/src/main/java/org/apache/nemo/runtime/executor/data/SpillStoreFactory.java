@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data;
+
+import org.apache.nemo.common.coder.DecoderFactory;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.ir.vertex.transform.SpillStore;
+import org.apache.nemo.conf.JobConf;
+import org.apache.reef.tang.annotations.Parameter;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import java.io.File;
+import java.util.UUID;
+
+/**
+ * Creates the {@link SpillStore}s to which transforms spill their state, in the local file directory of the executor.
+ */
+@ThreadSafe
+public final class SpillStoreFactory {
+  private final String fileDirectory;
+  private final long spillThresholdBytes;
+  private final MemoryPoolAssigner memoryPoolAssigner;
+
+  /**
+   * Constructor.
+   *
+   * @param fileDirectory      the directory which will contain the spill files.
+   * @param spillThresholdMb   the size threshold of the state to spill.
+   * @param memoryPoolAssigner the memory pool assigner.
+   */
+  @Inject
+  private SpillStoreFactory(@Parameter(JobConf.FileDirectory.class) final String fileDirectory,
+                            @Parameter(JobConf.SpillThresholdMb.class) final int spillThresholdMb,
+                            final MemoryPoolAssigner memoryPoolAssigner) {
+    this.fileDirectory = fileDirectory;
+    this.spillThresholdBytes = spillThresholdMb * 1024L * 1024L;
+    this.memoryPoolAssigner = memoryPoolAssigner;
+  }
+
+  /**
+   * @return the size threshold of the state to spill in bytes, or 0 if spilling is disabled.
+   */
+  public long getSpillThresholdBytes() {
+    return spillThresholdBytes;
+  }
+
+  /**
+   * Creates a new {@link SpillStore} backed by a local file.
+   *
+   * @param encoderFactory the encoder factory for the spilled elements.
+   * @param decoderFactory the decoder factory for the spilled elements.
+   * @param <T>            the type of the spilled elements.
+   * @return the spill store.
+   */
+  public <T> SpillStore<T> createSpillStore(final EncoderFactory<T> encoderFactory,
+                                            final DecoderFactory<T> decoderFactory) {
+    new File(fileDirectory).mkdirs();
+    final String blockId = "spill-" + UUID.randomUUID();
+    return new FileSpillStore<>(blockId, DataUtil.blockIdToFilePath(blockId, fileDirectory),
+      encoderFactory, decoderFactory, memoryPoolAssigner);
+  }
+}
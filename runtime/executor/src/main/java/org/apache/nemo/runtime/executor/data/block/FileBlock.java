@@ -18,10 +18,11 @@
  */
 package org.apache.nemo.runtime.executor.data.block;
 
+import org.apache.nemo.common.ByteBufferInputStream;
 import org.apache.nemo.common.KeyRange;
 import org.apache.nemo.runtime.executor.data.MemoryAllocationException;
+import org.apache.nemo.runtime.executor.data.MemoryChunk;
 import org.apache.nemo.runtime.executor.data.MemoryPoolAssigner;
-import org.apache.nemo.common.Pair;
 import org.apache.nemo.common.exception.BlockFetchException;
 import org.apache.nemo.common.exception.BlockWriteException;
 import org.apache.nemo.runtime.executor.data.DataUtil;
@@ -34,18 +35,17 @@ import org.apache.nemo.runtime.executor.data.streamchainer.Serializer;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -96,9 +96,11 @@ public final class FileBlock<K extends Serializable> implements Block<K> {
    * Invariant: This method does not support concurrent write.
    *
    * @param serializedPartitions the iterable of the serialized partitions to write.
+   * @param releaseAfterWrite    whether to release the partitions after writing them.
    * @throws IOException if fail to write.
    */
-  private void writeToFile(final Iterable<SerializedPartition<K>> serializedPartitions)
+  private void writeToFile(final Iterable<SerializedPartition<K>> serializedPartitions,
+                           final boolean releaseAfterWrite)
     throws IOException {
     try (FileChannel fileOutputChannel = new FileOutputStream(filePath, true).getChannel()) {
       for (final SerializedPartition<K> serializedPartition : serializedPartitions) {
@@ -107,8 +109,10 @@ public final class FileBlock<K extends Serializable> implements Block<K> {
         for (final ByteBuffer buffer: serializedPartition.getDirectBufferList()) {
           fileOutputChannel.write(buffer);
         }
-        // after the writing to disk, data in memory is released.
-        serializedPartition.release();
+        if (releaseAfterWrite) {
+          // after the writing to disk, data in memory is released.
+          serializedPartition.release();
+        }
       }
     }
   }
@@ -176,7 +180,27 @@ public final class FileBlock<K extends Serializable> implements Block<K> {
       throw new BlockWriteException(new Throwable(ALREADY_COMMITED));
     } else {
       try {
-        writeToFile(partitions);
+        writeToFile(partitions, true);
+      } catch (final IOException e) {
+        throw new BlockWriteException(e);
+      }
+    }
+  }
+
+  /**
+   * Writes {@link SerializedPartition}s to this block, without releasing them.
+   * The partitions stay valid, e.g., for the readers of the block in memory which they belong to.
+   * Invariant: This method does not support concurrent write.
+   *
+   * @param partitions the {@link SerializedPartition}s to copy.
+   * @throws BlockWriteException for any error occurred while trying to write a block.
+   */
+  public void copySerializedPartitions(final Iterable<SerializedPartition<K>> partitions) {
+    if (metadata.isCommitted()) {
+      throw new BlockWriteException(new Throwable(ALREADY_COMMITED));
+    } else {
+      try {
+        writeToFile(partitions, false);
       } catch (final IOException e) {
         throw new BlockWriteException(e);
       }
@@ -185,6 +209,8 @@ public final class FileBlock<K extends Serializable> implements Block<K> {
 
   /**
    * Retrieves the partitions of this block from the file in a specific key range and deserializes it.
+   * The partitions are deserialized directly from the memory-mapped file regions,
+   * which are unmapped right after.
    *
    * @param keyRange the key range.
    * @return an iterable of {@link NonSerializedPartition}s.
@@ -197,31 +223,16 @@ public final class FileBlock<K extends Serializable> implements Block<K> {
     } else {
       // Deserialize the data
       final List<NonSerializedPartition<K>> deserializedPartitions = new ArrayList<>();
+      final List<ByteBuffer> buffersToUnmap = new ArrayList<>();
       try {
-        final List<Pair<K, byte[]>> partitionKeyBytesPairs = new ArrayList<>();
-        try (FileInputStream fileStream = new FileInputStream(filePath)) {
-          for (final PartitionMetadata<K> partitionMetadata : metadata.getPartitionMetadataList()) {
-            final K key = partitionMetadata.getKey();
-            if (keyRange.includes(key)) {
-              // The key value of this partition is in the range.
-              final byte[] partitionBytes = new byte[partitionMetadata.getPartitionSize()];
-              fileStream.read(partitionBytes, 0, partitionMetadata.getPartitionSize());
-              partitionKeyBytesPairs.add(Pair.of(key, partitionBytes));
-            } else {
-              // Have to skip this partition.
-              skipBytes(fileStream, partitionMetadata.getPartitionSize());
-            }
-          }
-        }
-        for (final Pair<K, byte[]> partitionKeyBytes : partitionKeyBytesPairs) {
-          final NonSerializedPartition<K> deserializePartition =
-            DataUtil.deserializePartition(
-              partitionKeyBytes.right().length, serializer, partitionKeyBytes.left(),
-              new ByteArrayInputStream(partitionKeyBytes.right()));
-          deserializedPartitions.add(deserializePartition);
+        for (final SerializedPartition<K> partition : mapPartitions(keyRange, buffersToUnmap)) {
+          deserializedPartitions.add(DataUtil.deserializePartition(partition.getLength(), serializer,
+            partition.getKey(), new ByteBufferInputStream(partition.getDirectBufferList())));
         }
       } catch (final IOException e) {
         throw new BlockFetchException(e);
+      } finally {
+        buffersToUnmap.forEach(MemoryChunk::freeDirectBuffer);
       }
 
       return deserializedPartitions;
@@ -230,6 +241,8 @@ public final class FileBlock<K extends Serializable> implements Block<K> {
 
   /**
    * Retrieves the {@link SerializedPartition}s in a specific key range.
+   * The partitions are read into their own arrays with positional reads, rather than mapped,
+   * as their consumers, e.g., the transfers to remote executors, may hold them for an unknown time.
    * Invariant: This should not be invoked before this block is committed.
    *
    * @param keyRange the key range to retrieve.
@@ -241,52 +254,58 @@ public final class FileBlock<K extends Serializable> implements Block<K> {
     if (!metadata.isCommitted()) {
       throw new BlockFetchException(new Throwable(CANNOT_RETRIEVE_BEFORE_COMMITED));
     } else {
-      // Deserialize the data
       final List<SerializedPartition<K>> partitionsInRange = new ArrayList<>();
-      try {
-        try (FileInputStream fileStream = new FileInputStream(filePath)) {
-          for (final PartitionMetadata<K> partitionmetadata : metadata.getPartitionMetadataList()) {
-            final K key = partitionmetadata.getKey();
-            if (keyRange.includes(key)) {
-              // The hash value of this partition is in the range.
-              final byte[] serializedData = new byte[partitionmetadata.getPartitionSize()];
-              final int readBytes = fileStream.read(serializedData);
-              if (readBytes != serializedData.length) {
+      try (FileChannel fileChannel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+        for (final PartitionMetadata<K> partitionMetadata : metadata.getPartitionMetadataList()) {
+          final K key = partitionMetadata.getKey();
+          if (keyRange.includes(key)) {
+            final byte[] serializedData = new byte[partitionMetadata.getPartitionSize()];
+            final ByteBuffer buffer = ByteBuffer.wrap(serializedData);
+            long position = partitionMetadata.getOffset();
+            while (buffer.hasRemaining()) {
+              final int readBytes = fileChannel.read(buffer, position);
+              if (readBytes < 0) {
                 throw new IOException("The read data size does not match with the partition size.");
               }
-              partitionsInRange.add(new SerializedPartition<>(
-                key, serializedData, serializedData.length, memoryPoolAssigner));
-            } else {
-              // Have to skip this partition.
-              skipBytes(fileStream, partitionmetadata.getPartitionSize());
+              position += readBytes;
             }
+            partitionsInRange.add(new SerializedPartition<>(
+              key, serializedData, serializedData.length, memoryPoolAssigner));
           }
         }
       } catch (final IOException e) {
         throw new BlockFetchException(e);
       }
-
       return partitionsInRange;
     }
   }
 
   /**
-   * Skips some bytes in a input stream.
+   * Memory-maps the partitions in a specific key range using the offsets in the metadata.
+   * Partitions out of the range are neither read nor skipped over.
+   * The mapped regions are owned by the caller, and must not be shared beyond its read.
    *
-   * @param inputStream the stream to skip.
-   * @param bytesToSkip the number of bytes to skip.
-   * @throws IOException if fail to skip.
+   * @param keyRange      the key range to map.
+   * @param mappedRegions to collect the mapped regions, which have to be unmapped by the caller.
+   * @return the mapped partitions.
+   * @throws IOException if fail to map the file.
    */
-  private void skipBytes(final InputStream inputStream,
-                         final long bytesToSkip) throws IOException {
-    long remainingBytesToSkip = bytesToSkip;
-    while (remainingBytesToSkip > 0) {
-      final long skippedBytes = inputStream.skip(bytesToSkip);
-      remainingBytesToSkip -= skippedBytes;
-      if (skippedBytes <= 0) {
-        throw new IOException("The file stream failed to skip to the next block.");
+  private List<SerializedPartition<K>> mapPartitions(final KeyRange keyRange,
+                                                     final Collection<ByteBuffer> mappedRegions) throws IOException {
+    final List<SerializedPartition<K>> partitionsInRange = new ArrayList<>();
+    try (FileChannel fileChannel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+      for (final PartitionMetadata<K> partitionMetadata : metadata.getPartitionMetadataList()) {
+        final K key = partitionMetadata.getKey();
+        if (keyRange.includes(key)) {
+          // The mapping stays valid after the channel is closed.
+          final ByteBuffer mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY,
+            partitionMetadata.getOffset(), partitionMetadata.getPartitionSize());
+          mappedRegions.add(mappedBuffer);
+          partitionsInRange.add(new SerializedPartition<>(key, mappedBuffer, memoryPoolAssigner));
+        }
       }
     }
+    return partitionsInRange;
   }
 
   /**
@@ -366,7 +385,7 @@ public final class FileBlock<K extends Serializable> implements Block<K> {
         partition.commit();
         partitions.add(partition);
       }
-      writeToFile(partitions);
+      writeToFile(partitions, true);
       nonCommittedPartitionsMap.clear();
     } catch (final IOException e) {
       throw new BlockWriteException(e);
@@ -84,7 +84,8 @@ public final class NonSerializedMemoryBlock<K extends Serializable> implements B
     } else {
       try {
         final NonSerializedPartition<K> partition =
-          nonCommittedPartitionsMap.computeIfAbsent(key, absentKey -> new NonSerializedPartition<>(key));
+          nonCommittedPartitionsMap.computeIfAbsent(key,
+            absentKey -> new NonSerializedPartition<>(key, serializer.getColumnarFormat()));
         partition.write(element);
       } catch (final IOException e) {
         throw new BlockWriteException(e);
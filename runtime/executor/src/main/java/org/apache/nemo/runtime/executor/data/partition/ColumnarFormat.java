@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data.partition;
+
+import org.apache.nemo.common.coder.DecoderFactory;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.coder.IntDecoderFactory;
+import org.apache.nemo.common.coder.IntEncoderFactory;
+import org.apache.nemo.common.coder.LongDecoderFactory;
+import org.apache.nemo.common.coder.LongEncoderFactory;
+import org.apache.nemo.common.coder.PairDecoderFactory;
+import org.apache.nemo.common.coder.PairEncoderFactory;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+
+/**
+ * The layout of the elements of an edge whose coders encode primitives, which can be stored in
+ * {@link PrimitiveColumns} instead of as objects.
+ * The elements are either integers or longs, or {@link org.apache.nemo.common.Pair}s of them.
+ */
+public final class ColumnarFormat implements Serializable {
+  /**
+   * The type of a column.
+   */
+  public enum ColumnType {
+    INT(Integer.BYTES),
+    LONG(Long.BYTES);
+
+    private final int numBytes;
+
+    ColumnType(final int numBytes) {
+      this.numBytes = numBytes;
+    }
+
+    /**
+     * @return the number of bytes of an encoded value.
+     */
+    public int getNumBytes() {
+      return numBytes;
+    }
+  }
+
+  private final ColumnType leftType;
+  @Nullable
+  private final ColumnType rightType;
+
+  /**
+   * Private constructor.
+   *
+   * @param leftType  the type of the elements, or of the left elements of the pairs.
+   * @param rightType the type of the right elements of the pairs, or null if the elements are not pairs.
+   */
+  private ColumnarFormat(final ColumnType leftType, @Nullable final ColumnType rightType) {
+    this.leftType = leftType;
+    this.rightType = rightType;
+  }
+
+  /**
+   * Finds the columnar format of the elements encoded and decoded by the given coders.
+   *
+   * @param encoderFactory the encoder factory of the edge.
+   * @param decoderFactory the decoder factory of the edge.
+   * @return the columnar format, or null if the elements cannot be stored in columns.
+   */
+  @Nullable
+  public static ColumnarFormat of(final EncoderFactory encoderFactory, final DecoderFactory decoderFactory) {
+    if (encoderFactory instanceof PairEncoderFactory && decoderFactory instanceof PairDecoderFactory) {
+      final PairEncoderFactory pairEncoderFactory = (PairEncoderFactory) encoderFactory;
+      final PairDecoderFactory pairDecoderFactory = (PairDecoderFactory) decoderFactory;
+      final ColumnType leftType = typeOf(pairEncoderFactory.getLeftEncoderFactory(),
+        pairDecoderFactory.getLeftDecoderFactory());
+      final ColumnType rightType = typeOf(pairEncoderFactory.getRightEncoderFactory(),
+        pairDecoderFactory.getRightDecoderFactory());
+      return leftType == null || rightType == null ? null : new ColumnarFormat(leftType, rightType);
+    }
+    final ColumnType type = typeOf(encoderFactory, decoderFactory);
+    return type == null ? null : new ColumnarFormat(type, null);
+  }
+
+  @Nullable
+  private static ColumnType typeOf(final EncoderFactory encoderFactory, final DecoderFactory decoderFactory) {
+    if (encoderFactory instanceof IntEncoderFactory && decoderFactory instanceof IntDecoderFactory) {
+      return ColumnType.INT;
+    } else if (encoderFactory instanceof LongEncoderFactory && decoderFactory instanceof LongDecoderFactory) {
+      return ColumnType.LONG;
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * @return the type of the elements, or of the left elements of the pairs.
+   */
+  public ColumnType getLeftType() {
+    return leftType;
+  }
+
+  /**
+   * @return the type of the right elements of the pairs, or null if the elements are not pairs.
+   */
+  @Nullable
+  public ColumnType getRightType() {
+    return rightType;
+  }
+
+  /**
+   * @return whether the elements are pairs.
+   */
+  public boolean isPair() {
+    return rightType != null;
+  }
+
+  @Override
+  public String toString() {
+    return isPair() ? "Pair(" + leftType + ", " + rightType + ")" : leftType.toString();
+  }
+}
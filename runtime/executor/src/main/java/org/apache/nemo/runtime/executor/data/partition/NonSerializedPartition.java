@@ -20,19 +20,25 @@ package org.apache.nemo.runtime.executor.data.partition;
 
 import org.apache.nemo.runtime.executor.data.DataUtil;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * A collection of data elements. The data is stored as an iterable of elements.
+ * The elements of a {@link ColumnarFormat} are stored in {@link PrimitiveColumns} as long as all of them fit it,
+ * and in a list of objects otherwise.
  * This is a unit of read / write towards {@link org.apache.nemo.runtime.executor.data.block.Block}s.
  *
  * @param <K> the key type of its partitions.
  */
 public final class NonSerializedPartition<K> implements Partition<Iterable, K> {
   private final K key;
-  private final List nonSerializedData;
+  // Exactly one of nonSerializedData and columns is non-null.
+  private List nonSerializedData;
+  @Nullable
+  private PrimitiveColumns columns;
   private final long numSerializedBytes;
   private final long numEncodedBytes;
   private volatile boolean committed;
@@ -44,8 +50,20 @@ public final class NonSerializedPartition<K> implements Partition<Iterable, K> {
    * @param key the key of this partition.
    */
   public NonSerializedPartition(final K key) {
+    this(key, (ColumnarFormat) null);
+  }
+
+  /**
+   * Creates a non-serialized {@link Partition} without actual data, which stores the elements in columns.
+   * Data can be written to this partition until it is committed.
+   *
+   * @param key            the key of this partition.
+   * @param columnarFormat the columnar format of the elements, or null to store them as objects.
+   */
+  public NonSerializedPartition(final K key, @Nullable final ColumnarFormat columnarFormat) {
     this.key = key;
-    this.nonSerializedData = new ArrayList();
+    this.columns = columnarFormat == null ? null : new PrimitiveColumns(columnarFormat);
+    this.nonSerializedData = columnarFormat == null ? new ArrayList() : null;
     this.numSerializedBytes = -1;
     this.numEncodedBytes = -1;
     this.committed = false;
@@ -66,6 +84,28 @@ public final class NonSerializedPartition<K> implements Partition<Iterable, K> {
                                 final long numEncodedBytes) {
     this.key = key;
     this.nonSerializedData = data;
+    this.columns = null;
+    this.numSerializedBytes = numSerializedBytes;
+    this.numEncodedBytes = numEncodedBytes;
+    this.committed = true;
+  }
+
+  /**
+   * Creates a non-serialized {@link Partition} with actual data stored in columns.
+   * Data cannot be written to this partition after the construction.
+   *
+   * @param key                the key.
+   * @param columns            the non-serialized data.
+   * @param numSerializedBytes the number of bytes in serialized form (which is, for example, encoded and compressed)
+   * @param numEncodedBytes    the number of bytes in encoded form (which is ready to be decoded)
+   */
+  public NonSerializedPartition(final K key,
+                                final PrimitiveColumns columns,
+                                final long numSerializedBytes,
+                                final long numEncodedBytes) {
+    this.key = key;
+    this.nonSerializedData = null;
+    this.columns = columns;
     this.numSerializedBytes = numSerializedBytes;
     this.numEncodedBytes = numEncodedBytes;
     this.committed = true;
@@ -81,8 +121,13 @@ public final class NonSerializedPartition<K> implements Partition<Iterable, K> {
   public void write(final Object element) throws IOException {
     if (committed) {
       throw new IOException("The partition is already committed!");
-    } else {
+    } else if (columns == null) {
       nonSerializedData.add(element);
+    } else if (!columns.add(element)) {
+      // Fall back to objects, e.g., for a watermark.
+      nonSerializedData = columns.toList();
+      nonSerializedData.add(element);
+      columns = null;
     }
   }
 
@@ -143,7 +188,15 @@ public final class NonSerializedPartition<K> implements Partition<Iterable, K> {
     if (!committed) {
       throw new IOException("The partition is not committed yet!");
     } else {
-      return nonSerializedData;
+      return columns == null ? nonSerializedData : columns;
     }
   }
+
+  /**
+   * @return the columns of the data, or null if the data is stored as objects.
+   */
+  @Nullable
+  public PrimitiveColumns getColumns() {
+    return columns;
+  }
 }
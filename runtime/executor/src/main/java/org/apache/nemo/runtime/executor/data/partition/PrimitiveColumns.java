@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data.partition;
+
+import org.apache.nemo.common.Pair;
+import org.apache.nemo.common.coder.FramedEncoderFactory;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Elements of a {@link ColumnarFormat} stored in primitive arrays, one per column, instead of as boxed objects.
+ * The elements are boxed only while being iterated.
+ * The encoded form is the same as the one of the NemoEventEncoder with the primitive coders,
+ * i.e., a data marker followed by the big-endian value(s) for each element, optionally in frames,
+ * so that it is readable by the decoders of the edge, and vice versa.
+ */
+@NotThreadSafe
+public final class PrimitiveColumns implements Iterable<Object> {
+  private static final byte DATA_MARKER = 0x00;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int ENCODE_BUFFER_SIZE = 8192;
+
+  private final ColumnarFormat format;
+  private final Column left;
+  private final Column right;
+  private int size;
+
+  /**
+   * Creates empty columns.
+   *
+   * @param format the format of the elements.
+   */
+  public PrimitiveColumns(final ColumnarFormat format) {
+    this.format = format;
+    this.left = newColumn(format.getLeftType());
+    this.right = format.isPair() ? newColumn(format.getRightType()) : null;
+    this.size = 0;
+  }
+
+  /**
+   * Appends an element if it fits the format.
+   *
+   * @param element the element to append.
+   * @return whether the element is appended.
+   */
+  public boolean add(final Object element) {
+    if (right == null) {
+      if (!left.accepts(element)) {
+        return false;
+      }
+      ensureCapacity(size + 1);
+      left.set(size, element);
+    } else {
+      if (!(element instanceof Pair)) {
+        return false;
+      }
+      final Pair pair = (Pair) element;
+      if (!left.accepts(pair.left()) || !right.accepts(pair.right())) {
+        return false;
+      }
+      ensureCapacity(size + 1);
+      left.set(size, pair.left());
+      right.set(size, pair.right());
+    }
+    size++;
+    return true;
+  }
+
+  /**
+   * @param index the index of the element.
+   * @return the boxed element.
+   */
+  public Object get(final int index) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+    return right == null ? left.get(index) : Pair.of(left.get(index), right.get(index));
+  }
+
+  /**
+   * @return the number of elements.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the format of the elements.
+   */
+  public ColumnarFormat getFormat() {
+    return format;
+  }
+
+  /**
+   * @return the boxed elements in a new list.
+   */
+  public List<Object> toList() {
+    final List<Object> list = new ArrayList<>(size);
+    forEach(list::add);
+    return list;
+  }
+
+  @Override
+  public Iterator<Object> iterator() {
+    return new Iterator<Object>() {
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public Object next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return get(index++);
+      }
+    };
+  }
+
+  /**
+   * Encodes all elements to the stream, in bulk through a staging buffer.
+   *
+   * @param outputStream the stream to write.
+   * @param framed       whether to write the elements in the frames of {@link FramedEncoderFactory},
+   *                     one per staging buffer.
+   * @throws IOException if fail to write.
+   */
+  public void encode(final OutputStream outputStream, final boolean framed) throws IOException {
+    final int recordSize = 1 + left.type.getNumBytes() + (right == null ? 0 : right.type.getNumBytes());
+    final int headerSize = framed ? FramedEncoderFactory.HEADER_SIZE : 0;
+    final ByteBuffer buffer = ByteBuffer.allocate(Math.max(ENCODE_BUFFER_SIZE, headerSize + recordSize));
+    buffer.position(headerSize);
+    int numElementsInBuffer = 0;
+    for (int i = 0; i < size; i++) {
+      if (buffer.remaining() < recordSize) {
+        writeBuffer(outputStream, buffer, headerSize, numElementsInBuffer);
+        numElementsInBuffer = 0;
+      }
+      buffer.put(DATA_MARKER);
+      left.put(buffer, i);
+      if (right != null) {
+        right.put(buffer, i);
+      }
+      numElementsInBuffer++;
+    }
+    if (numElementsInBuffer > 0) {
+      writeBuffer(outputStream, buffer, headerSize, numElementsInBuffer);
+    }
+  }
+
+  private static void writeBuffer(final OutputStream outputStream,
+                                  final ByteBuffer buffer,
+                                  final int headerSize,
+                                  final int numElements) throws IOException {
+    if (headerSize > 0) {
+      buffer.putInt(0, numElements);
+      buffer.putInt(Integer.BYTES, buffer.position() - headerSize);
+    }
+    outputStream.write(buffer.array(), 0, buffer.position());
+    buffer.clear();
+    buffer.position(headerSize);
+  }
+
+  /**
+   * Decodes and appends the data elements in the stream, until the end of the stream
+   * or an element which is not a data element, e.g., a watermark.
+   *
+   * @param inputStream the stream to read, which supports mark and reset.
+   * @param framed      whether the elements are in the frames of {@link FramedEncoderFactory}.
+   * @return true at the end of the stream, or false at an element which is not a data element,
+   *         in which case the element is left unread in the stream. If framed, the whole frame of the element
+   *         is left unread.
+   * @throws IOException if the stream ends in the middle of an element.
+   */
+  public boolean decode(final DataInputStream inputStream, final boolean framed) throws IOException {
+    return framed ? decodeFrames(inputStream) : decodeRecords(inputStream);
+  }
+
+  private boolean decodeRecords(final DataInputStream inputStream) throws IOException {
+    while (true) {
+      inputStream.mark(1);
+      final int marker = inputStream.read();
+      if (marker == -1) {
+        return true;
+      } else if (marker != DATA_MARKER) {
+        inputStream.reset();
+        return false;
+      }
+      ensureCapacity(size + 1);
+      readRecord(inputStream);
+    }
+  }
+
+  private boolean decodeFrames(final DataInputStream inputStream) throws IOException {
+    while (true) {
+      // Marked at every frame, so that no more than a frame is kept for the reset.
+      inputStream.mark(Integer.MAX_VALUE);
+      if (inputStream.read() == -1) {
+        return true;
+      }
+      inputStream.reset();
+      final int numElements = inputStream.readInt();
+      inputStream.readInt(); // The number of bytes, which the fixed-size records do not need.
+      final int sizeAtFrameStart = size;
+      ensureCapacity(size + numElements);
+      for (int i = 0; i < numElements; i++) {
+        if (inputStream.read() != DATA_MARKER) {
+          size = sizeAtFrameStart;
+          inputStream.reset();
+          return false;
+        }
+        readRecord(inputStream);
+      }
+    }
+  }
+
+  private void readRecord(final DataInputStream inputStream) throws IOException {
+    left.read(inputStream, size);
+    if (right != null) {
+      right.read(inputStream, size);
+    }
+    size++;
+  }
+
+  private void ensureCapacity(final int capacity) {
+    if (capacity > left.capacity()) {
+      final int newCapacity = Math.max(INITIAL_CAPACITY, Math.max(capacity, left.capacity() * 2));
+      left.grow(newCapacity);
+      if (right != null) {
+        right.grow(newCapacity);
+      }
+    }
+  }
+
+  private static Column newColumn(final ColumnarFormat.ColumnType type) {
+    switch (type) {
+      case INT:
+        return new IntColumn();
+      case LONG:
+        return new LongColumn();
+      default:
+        throw new UnsupportedOperationException(type.toString());
+    }
+  }
+
+  /**
+   * The values of a column.
+   */
+  private abstract static class Column {
+    private final ColumnarFormat.ColumnType type;
+
+    Column(final ColumnarFormat.ColumnType type) {
+      this.type = type;
+    }
+
+    abstract boolean accepts(Object value);
+
+    abstract void set(int index, Object value);
+
+    abstract Object get(int index);
+
+    abstract void put(ByteBuffer buffer, int index);
+
+    abstract void read(DataInputStream inputStream, int index) throws IOException;
+
+    abstract int capacity();
+
+    abstract void grow(int capacity);
+  }
+
+  /**
+   * A column of integers.
+   */
+  private static final class IntColumn extends Column {
+    private int[] values = new int[0];
+
+    IntColumn() {
+      super(ColumnarFormat.ColumnType.INT);
+    }
+
+    @Override
+    boolean accepts(final Object value) {
+      return value instanceof Integer;
+    }
+
+    @Override
+    void set(final int index, final Object value) {
+      values[index] = (Integer) value;
+    }
+
+    @Override
+    Object get(final int index) {
+      return values[index];
+    }
+
+    @Override
+    void put(final ByteBuffer buffer, final int index) {
+      buffer.putInt(values[index]);
+    }
+
+    @Override
+    void read(final DataInputStream inputStream, final int index) throws IOException {
+      values[index] = inputStream.readInt();
+    }
+
+    @Override
+    int capacity() {
+      return values.length;
+    }
+
+    @Override
+    void grow(final int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  /**
+   * A column of longs.
+   */
+  private static final class LongColumn extends Column {
+    private long[] values = new long[0];
+
+    LongColumn() {
+      super(ColumnarFormat.ColumnType.LONG);
+    }
+
+    @Override
+    boolean accepts(final Object value) {
+      return value instanceof Long;
+    }
+
+    @Override
+    void set(final int index, final Object value) {
+      values[index] = (Long) value;
+    }
+
+    @Override
+    Object get(final int index) {
+      return values[index];
+    }
+
+    @Override
+    void put(final ByteBuffer buffer, final int index) {
+      buffer.putLong(values[index]);
+    }
+
+    @Override
+    void read(final DataInputStream inputStream, final int index) throws IOException {
+      values[index] = inputStream.readLong();
+    }
+
+    @Override
+    int capacity() {
+      return values.length;
+    }
+
+    @Override
+    void grow(final int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+}
@@ -29,6 +29,7 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -56,6 +57,9 @@ public final class SerializedPartition<K> implements Partition<byte[], K> {
   private final EncoderFactory.Encoder encoder;
   private final MemoryPoolAssigner memoryPoolAssigner;
   private volatile List<MemoryChunk> dataList; // intentionally set to volatile to prevent null reference
+  // Will be non-null only when the partition is a view of a memory-mapped file region.
+  @Nullable
+  private final ByteBuffer mappedBuffer;
   private final boolean offheap;
 
   /**
@@ -80,6 +84,7 @@ public final class SerializedPartition<K> implements Partition<byte[], K> {
     this.wrappedStream = buildOutputStream(bytesOutputStream, serializer.getEncodeStreamChainers());
     this.encoder = serializer.getEncoderFactory().create(wrappedStream);
     this.memoryPoolAssigner = memoryPoolAssigner;
+    this.mappedBuffer = null;
     this.offheap = true;
   }
 
@@ -104,6 +109,7 @@ public final class SerializedPartition<K> implements Partition<byte[], K> {
     this.wrappedStream = null;
     this.encoder = null;
     this.memoryPoolAssigner = memoryPoolAssigner;
+    this.mappedBuffer = null;
     this.offheap = false;
   }
 
@@ -128,6 +134,29 @@ public final class SerializedPartition<K> implements Partition<byte[], K> {
     this.wrappedStream = null;
     this.encoder = null;
     this.memoryPoolAssigner = memoryPoolAssigner;
+    this.mappedBuffer = null;
+    this.offheap = true;
+  }
+
+  /**
+   * Creates a serialized {@link Partition} which is a read-only view of a memory-mapped file region.
+   * Data cannot be written to this partition after the construction, and no memory is returned to the pool on release.
+   *
+   * @param key                the key.
+   * @param mappedBuffer       the buffer mapping the serialized data of this partition.
+   * @param memoryPoolAssigner the memory pool assigner.
+   */
+  public SerializedPartition(final K key,
+                             final ByteBuffer mappedBuffer,
+                             final MemoryPoolAssigner memoryPoolAssigner) {
+    this.key = key;
+    this.length = mappedBuffer.remaining();
+    this.committed = true;
+    this.bytesOutputStream = null;
+    this.wrappedStream = null;
+    this.encoder = null;
+    this.memoryPoolAssigner = memoryPoolAssigner;
+    this.mappedBuffer = mappedBuffer;
     this.offheap = true;
   }
 
@@ -160,7 +189,14 @@ public final class SerializedPartition<K> implements Partition<byte[], K> {
     if (!committed) {
       // We need to close wrappedStream on here, because DirectByteArrayOutputStream:getBufDirectly() returns
       // inner buffer directly, which can be an unfinished(not flushed) buffer.
+      encoder.flush();
       wrappedStream.close();
+      try {
+        // The partition is no longer written, so its tail does not need the room of a large chunk.
+        bytesOutputStream.shrinkLastChunk();
+      } catch (final MemoryAllocationException e) {
+        throw new IOException(e);
+      }
       this.dataList = bytesOutputStream.getMemoryChunkList();
       this.length = bytesOutputStream.size();
       this.committed = true;
@@ -209,6 +245,8 @@ public final class SerializedPartition<K> implements Partition<byte[], K> {
   public List<ByteBuffer> getDirectBufferList() throws IOException {
     if (!committed) {
       throw new IOException("The partition is not committed yet!");
+    } else if (mappedBuffer != null) {
+      return Collections.singletonList(mappedBuffer.duplicate());
     } else {
       List<ByteBuffer> result = new LinkedList<>();
       for (final MemoryChunk chunk : dataList) {
@@ -246,6 +284,8 @@ public final class SerializedPartition<K> implements Partition<byte[], K> {
     if (!committed) {
       throw new IllegalStateException("The partition is not committed yet!");
     }
-    memoryPoolAssigner.returnChunksToPool(dataList);
+    if (mappedBuffer == null) {
+      memoryPoolAssigner.returnChunksToPool(dataList);
+    }
   }
 }
@@ -59,6 +59,17 @@ public abstract class LocalBlockStore extends AbstractBlockStore {
     return block == null ? Optional.empty() : Optional.of(block);
   }
 
+  /**
+   * Removes a block which is spilled to another store.
+   * The resources of the block are not released here, as they are released by spilling it.
+   *
+   * @param blockId of the block.
+   * @return whether the block exists or not.
+   */
+  public final boolean removeSpilledBlock(final String blockId) {
+    return blockMap.remove(blockId) != null;
+  }
+
   /**
    * @return the map between the IDs and {@link Block}.
    */
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data.streamchainer;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import org.apache.nemo.common.ir.edge.executionproperty.CompressionProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Selects the compression of an edge among NONE, LZ4 and ZSTD, to minimize the time to compress and transfer its data.
+ * The beginning of the first streams written through the edge is compressed with every candidate,
+ * to sample the compression ratio and time of its data.
+ * Once enough streams and bytes are sampled, the candidate with the least estimated time is used
+ * for the rest of the streams, so that a few tiny streams, e.g., of single elements, do not decide alone.
+ * The samples are compressed outside of the lock, so that the writers of the edge sample concurrently.
+ * E.g., highly compressible text is worth ZSTD even on a fast network, while already compressed data is not.
+ */
+@ThreadSafe
+public final class AdaptiveCompressionSelector {
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptiveCompressionSelector.class.getName());
+  private static final CompressionProperty.Value[] CANDIDATES = {
+    CompressionProperty.Value.NONE, CompressionProperty.Value.LZ4, CompressionProperty.Value.ZSTD};
+  private static final int NUM_SAMPLES = 4;
+  private static final long MIN_SAMPLED_BYTES = 256 * 1024;
+
+  /**
+   * The maximum number of bytes of a stream to sample.
+   */
+  static final int MAX_SAMPLE_BYTES = 1024 * 1024;
+
+  private final String runtimeEdgeId;
+  private final int zstdLevel;
+  private final double transferNanosPerByte;
+  private final long[] compressedBytes = new long[CANDIDATES.length];
+  private final long[] compressNanos = new long[CANDIDATES.length];
+  private int numSamples = 0;
+  private long sampledBytes = 0;
+  private volatile boolean warmedUp = false;
+  private volatile CompressionProperty.Value selectedCompression = null;
+
+  /**
+   * Constructor.
+   *
+   * @param runtimeEdgeId        the id of the edge.
+   * @param zstdLevel            the compression level of ZSTD.
+   * @param networkBandwidthMbps the bandwidth of the network to transfer the data through.
+   */
+  public AdaptiveCompressionSelector(final String runtimeEdgeId,
+                                     final int zstdLevel,
+                                     final int networkBandwidthMbps) {
+    CompressionStreamChainer.checkZstdLevel(zstdLevel);
+    this.runtimeEdgeId = runtimeEdgeId;
+    this.zstdLevel = zstdLevel;
+    this.transferNanosPerByte = 8.0 * 1000 / Math.max(networkBandwidthMbps, 1);
+  }
+
+  /**
+   * @return the selected compression, or null if the edge is still being sampled.
+   */
+  @Nullable
+  public CompressionProperty.Value getSelectedCompression() {
+    return selectedCompression;
+  }
+
+  /**
+   * Compresses a sample of a stream with every candidate, and updates the estimated time of them.
+   *
+   * @param sample the bytes to sample.
+   * @return the compression to write the stream with.
+   * @throws IOException if fail to compress the sample.
+   */
+  public CompressionProperty.Value sample(final byte[] sample) throws IOException {
+    final CompressionProperty.Value selected = selectedCompression;
+    if (selected != null) {
+      return selected;
+    }
+    final long[] sampleCompressedBytes = new long[CANDIDATES.length];
+    final long[] sampleCompressNanos = new long[CANDIDATES.length];
+    if (sample.length > 0) {
+      if (!warmedUp) {
+        // Load and warm up the codecs, not to count it in the time of the first samples.
+        for (final CompressionProperty.Value candidate : CANDIDATES) {
+          try (OutputStream compressingStream =
+                 CompressionStreamChainer.chain(candidate, zstdLevel, ByteStreams.nullOutputStream())) {
+            compressingStream.write(sample, 0, Math.min(sample.length, 1024));
+          }
+        }
+        warmedUp = true;
+      }
+      for (int i = 0; i < CANDIDATES.length; i++) {
+        final CountingOutputStream countingStream = new CountingOutputStream(ByteStreams.nullOutputStream());
+        final long startTime = System.nanoTime();
+        try (OutputStream compressingStream =
+               CompressionStreamChainer.chain(CANDIDATES[i], zstdLevel, countingStream)) {
+          compressingStream.write(sample);
+        }
+        sampleCompressNanos[i] = CANDIDATES[i] == CompressionProperty.Value.NONE ? 0 : System.nanoTime() - startTime;
+        sampleCompressedBytes[i] = countingStream.getCount();
+      }
+    }
+    return update(sample.length, sampleCompressedBytes, sampleCompressNanos);
+  }
+
+  /**
+   * Adds a sample to the estimated time of the candidates, and selects the compression once enough is sampled.
+   *
+   * @param numBytes              the number of bytes of the sample.
+   * @param sampleCompressedBytes the number of compressed bytes of the sample, per candidate.
+   * @param sampleCompressNanos   the time to compress the sample, per candidate.
+   * @return the compression to write the stream of the sample with.
+   */
+  private synchronized CompressionProperty.Value update(final long numBytes,
+                                                        final long[] sampleCompressedBytes,
+                                                        final long[] sampleCompressNanos) {
+    if (selectedCompression != null) {
+      return selectedCompression;
+    }
+    if (numBytes > 0) {
+      for (int i = 0; i < CANDIDATES.length; i++) {
+        compressedBytes[i] += sampleCompressedBytes[i];
+        compressNanos[i] += sampleCompressNanos[i];
+      }
+      numSamples++;
+      sampledBytes += numBytes;
+    }
+
+    int best = 0;
+    for (int i = 1; i < CANDIDATES.length; i++) {
+      if (getEstimatedNanos(i) < getEstimatedNanos(best)) {
+        best = i;
+      }
+    }
+    if (numSamples >= NUM_SAMPLES && sampledBytes >= MIN_SAMPLED_BYTES) {
+      selectedCompression = CANDIDATES[best];
+      LOG.info("Selected {} compression for {}: {} bytes compressed to {} bytes",
+        selectedCompression, runtimeEdgeId, compressedBytes[0], compressedBytes[best]);
+    }
+    return CANDIDATES[best];
+  }
+
+  /**
+   * @param candidateIndex the index of the candidate.
+   * @return the estimated time to compress and transfer the samples with the candidate.
+   */
+  private double getEstimatedNanos(final int candidateIndex) {
+    return compressNanos[candidateIndex] + compressedBytes[candidateIndex] * transferNanosPerByte;
+  }
+}
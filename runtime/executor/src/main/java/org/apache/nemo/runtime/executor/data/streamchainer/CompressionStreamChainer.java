@@ -18,40 +18,233 @@
  */
 package org.apache.nemo.runtime.executor.data.streamchainer;
 
+import com.github.luben.zstd.ZstdOutputStream;
 import net.jpountz.lz4.LZ4BlockOutputStream;
 import org.apache.nemo.common.exception.UnsupportedCompressionException;
 import org.apache.nemo.common.ir.edge.executionproperty.CompressionProperty;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.zip.GZIPOutputStream;
 
 /**
  * {@link EncodeStreamChainer} for applying compression.
+ * With {@link CompressionProperty.Value#ADAPTIVE}, each stream starts with a byte that tells the selected compression.
  */
 public class CompressionStreamChainer implements EncodeStreamChainer {
+  private static final int MIN_ZSTD_LEVEL = 1;
+  private static final int MAX_ZSTD_LEVEL = 22;
+  // The same as the default of JobConf.ZstdCompressionLevel.
+  private static final int DEFAULT_ZSTD_LEVEL = 3;
+
   private final CompressionProperty.Value compression;
+  private final int zstdLevel;
+  private final AdaptiveCompressionSelector adaptiveCompressionSelector;
 
   /**
    * Constructor.
    *
-   * @param compression compression method.
+   * @param compression compression method, which uses the default compression level for ZSTD.
    */
   public CompressionStreamChainer(final CompressionProperty.Value compression) {
+    this(compression, DEFAULT_ZSTD_LEVEL);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param compression compression method, other than {@link CompressionProperty.Value#ADAPTIVE}.
+   * @param zstdLevel   the compression level of ZSTD.
+   */
+  public CompressionStreamChainer(final CompressionProperty.Value compression, final int zstdLevel) {
+    if (compression == CompressionProperty.Value.ADAPTIVE) {
+      throw new UnsupportedCompressionException("Adaptive compression requires a selector");
+    }
+    checkZstdLevel(zstdLevel);
     this.compression = compression;
+    this.zstdLevel = zstdLevel;
+    this.adaptiveCompressionSelector = null;
+  }
+
+  /**
+   * Constructor for {@link CompressionProperty.Value#ADAPTIVE}.
+   *
+   * @param adaptiveCompressionSelector the selector of the compression of the edge.
+   * @param zstdLevel                   the compression level of ZSTD.
+   */
+  public CompressionStreamChainer(final AdaptiveCompressionSelector adaptiveCompressionSelector,
+                                  final int zstdLevel) {
+    checkZstdLevel(zstdLevel);
+    this.compression = CompressionProperty.Value.ADAPTIVE;
+    this.zstdLevel = zstdLevel;
+    this.adaptiveCompressionSelector = adaptiveCompressionSelector;
   }
 
   @Override
   public final OutputStream chainOutput(final OutputStream out) throws IOException {
+    if (compression != CompressionProperty.Value.ADAPTIVE) {
+      return chain(compression, zstdLevel, out);
+    }
+    final CompressionProperty.Value selectedCompression = adaptiveCompressionSelector.getSelectedCompression();
+    if (selectedCompression == null) {
+      return new SamplingOutputStream(out);
+    }
+    out.write(toHeader(selectedCompression));
+    return chain(selectedCompression, zstdLevel, out);
+  }
+
+  /**
+   * @param zstdLevel the compression level of ZSTD.
+   * @throws IllegalArgumentException if the level is out of the range of ZSTD.
+   */
+  static void checkZstdLevel(final int zstdLevel) {
+    if (zstdLevel < MIN_ZSTD_LEVEL || zstdLevel > MAX_ZSTD_LEVEL) {
+      throw new IllegalArgumentException("The compression level of ZSTD should be from " + MIN_ZSTD_LEVEL + " to "
+        + MAX_ZSTD_LEVEL + ", but is " + zstdLevel);
+    }
+  }
+
+  /**
+   * The header byte of an adaptively compressed stream, which does not change with the order of the compressions.
+   *
+   * @param compression compression method, other than {@link CompressionProperty.Value#ADAPTIVE}.
+   * @return the header byte.
+   */
+  static int toHeader(final CompressionProperty.Value compression) {
+    switch (compression) {
+      case NONE:
+        return 0;
+      case GZIP:
+        return 1;
+      case LZ4:
+        return 2;
+      case ZSTD:
+        return 3;
+      default:
+        throw new UnsupportedCompressionException("Not supported compression method");
+    }
+  }
+
+  /**
+   * @param header the header byte of an adaptively compressed stream.
+   * @return the compression method that the header tells.
+   */
+  static CompressionProperty.Value fromHeader(final int header) {
+    switch (header) {
+      case 0:
+        return CompressionProperty.Value.NONE;
+      case 1:
+        return CompressionProperty.Value.GZIP;
+      case 2:
+        return CompressionProperty.Value.LZ4;
+      case 3:
+        return CompressionProperty.Value.ZSTD;
+      default:
+        throw new UnsupportedCompressionException("Unknown compression header " + header);
+    }
+  }
+
+  /**
+   * @param compression compression method, other than {@link CompressionProperty.Value#ADAPTIVE}.
+   * @param zstdLevel   the compression level of ZSTD.
+   * @param out         the stream to chain.
+   * @return the chained stream.
+   * @throws IOException if fail to create the stream.
+   */
+  static OutputStream chain(final CompressionProperty.Value compression,
+                            final int zstdLevel,
+                            final OutputStream out) throws IOException {
     switch (compression) {
       case GZIP:
         return new GZIPOutputStream(out);
       case LZ4:
         return new LZ4BlockOutputStream(out);
+      case ZSTD:
+        return new ZstdOutputStream(out, zstdLevel);
       case NONE:
         return out;
       default:
         throw new UnsupportedCompressionException("Not supported compression method");
     }
   }
+
+  /**
+   * Buffers the beginning of a stream as a sample for the {@link AdaptiveCompressionSelector},
+   * and then writes the stream with the compression it returns.
+   */
+  private final class SamplingOutputStream extends OutputStream {
+    private final OutputStream out;
+    private ByteArrayOutputStream sample = new ByteArrayOutputStream();
+    private OutputStream chained = null;
+
+    /**
+     * Constructor.
+     *
+     * @param out the stream to chain.
+     */
+    private SamplingOutputStream(final OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      if (chained != null) {
+        chained.write(b);
+      } else {
+        sample.write(b);
+        chainIfSampled();
+      }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      if (chained != null) {
+        chained.write(b, off, len);
+      } else {
+        sample.write(b, off, len);
+        chainIfSampled();
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      // The sample is buffered until the compression is selected.
+      if (chained != null) {
+        chained.flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (chained == null) {
+        chain();
+      }
+      chained.close();
+    }
+
+    /**
+     * Selects the compression once enough bytes are sampled.
+     *
+     * @throws IOException if fail to write the sample.
+     */
+    private void chainIfSampled() throws IOException {
+      if (sample.size() >= AdaptiveCompressionSelector.MAX_SAMPLE_BYTES) {
+        chain();
+      }
+    }
+
+    /**
+     * Selects the compression with the sample, and writes the sample with it.
+     *
+     * @throws IOException if fail to write the sample.
+     */
+    private void chain() throws IOException {
+      final CompressionProperty.Value selectedCompression = adaptiveCompressionSelector.sample(sample.toByteArray());
+      out.write(toHeader(selectedCompression));
+      chained = CompressionStreamChainer.chain(selectedCompression, zstdLevel, out);
+      sample.writeTo(chained);
+      sample = null;
+    }
+  }
 }
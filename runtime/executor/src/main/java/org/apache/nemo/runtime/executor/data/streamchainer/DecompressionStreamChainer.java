@@ -18,16 +18,19 @@
  */
 package org.apache.nemo.runtime.executor.data.streamchainer;
 
+import com.github.luben.zstd.ZstdInputStream;
 import net.jpountz.lz4.LZ4BlockInputStream;
 import org.apache.nemo.common.exception.UnsupportedCompressionException;
 import org.apache.nemo.common.ir.edge.executionproperty.CompressionProperty;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.GZIPInputStream;
 
 /**
  * {@link DecodeStreamChainer} for applying compression.
+ * With {@link CompressionProperty.Value#ADAPTIVE}, the compression is read from the first byte of each stream.
  */
 public class DecompressionStreamChainer implements DecodeStreamChainer {
   private final CompressionProperty.Value compression;
@@ -43,11 +46,31 @@ public class DecompressionStreamChainer implements DecodeStreamChainer {
 
   @Override
   public final InputStream chainInput(final InputStream in) throws IOException {
+    if (compression != CompressionProperty.Value.ADAPTIVE) {
+      return chain(compression, in);
+    }
+    final int selectedCompression = in.read();
+    if (selectedCompression < 0) {
+      throw new EOFException();
+    }
+    return chain(CompressionStreamChainer.fromHeader(selectedCompression), in);
+  }
+
+  /**
+   * @param compression compression method, other than {@link CompressionProperty.Value#ADAPTIVE}.
+   * @param in          the stream to chain.
+   * @return the chained stream.
+   * @throws IOException if fail to create the stream.
+   */
+  private static InputStream chain(final CompressionProperty.Value compression,
+                                   final InputStream in) throws IOException {
     switch (compression) {
       case GZIP:
         return new GZIPInputStream(in);
       case LZ4:
         return new LZ4BlockInputStream(in);
+      case ZSTD:
+        return new ZstdInputStream(in);
       case NONE:
         return in;
       default:
@@ -20,7 +20,10 @@ package org.apache.nemo.runtime.executor.data.streamchainer;
 
 import org.apache.nemo.common.coder.DecoderFactory;
 import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.coder.FramedEncoderFactory;
+import org.apache.nemo.runtime.executor.data.partition.ColumnarFormat;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 /**
@@ -34,6 +37,8 @@ public final class Serializer<E, D> {
   private final DecoderFactory<D> decoderFactory;
   private final List<EncodeStreamChainer> encodeStreamChainers;
   private final List<DecodeStreamChainer> decodeStreamChainers;
+  @Nullable
+  private final ColumnarFormat columnarFormat;
 
   /**
    * Constructor.
@@ -47,10 +52,28 @@ public final class Serializer<E, D> {
                     final DecoderFactory<D> decoderFactory,
                     final List<EncodeStreamChainer> encodeStreamChainers,
                     final List<DecodeStreamChainer> decodeStreamChainers) {
+    this(encoderFactory, decoderFactory, encodeStreamChainers, decodeStreamChainers, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param encoderFactory       {@link EncoderFactory}.
+   * @param decoderFactory       {@link DecoderFactory}.
+   * @param encodeStreamChainers the list of {@link EncodeStreamChainer} to use for encoding.
+   * @param decodeStreamChainers the list of {@link DecodeStreamChainer} to use for decoding.
+   * @param columnarFormat       the columnar format of the elements, or null if they cannot be stored in columns.
+   */
+  public Serializer(final EncoderFactory<E> encoderFactory,
+                    final DecoderFactory<D> decoderFactory,
+                    final List<EncodeStreamChainer> encodeStreamChainers,
+                    final List<DecodeStreamChainer> decodeStreamChainers,
+                    @Nullable final ColumnarFormat columnarFormat) {
     this.encoderFactory = encoderFactory;
     this.decoderFactory = decoderFactory;
     this.encodeStreamChainers = encodeStreamChainers;
     this.decodeStreamChainers = decodeStreamChainers;
+    this.columnarFormat = columnarFormat;
   }
 
   /**
@@ -80,4 +103,19 @@ public final class Serializer<E, D> {
   public List<DecodeStreamChainer> getDecodeStreamChainers() {
     return decodeStreamChainers;
   }
+
+  /**
+   * @return the columnar format of the elements, or null if they are stored as objects.
+   */
+  @Nullable
+  public ColumnarFormat getColumnarFormat() {
+    return columnarFormat;
+  }
+
+  /**
+   * @return whether the elements are encoded in the frames of {@link FramedEncoderFactory}.
+   */
+  public boolean isFramed() {
+    return encoderFactory instanceof FramedEncoderFactory;
+  }
 }
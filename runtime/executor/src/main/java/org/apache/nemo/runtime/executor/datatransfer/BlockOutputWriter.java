@@ -18,6 +18,7 @@
  */
 package org.apache.nemo.runtime.executor.datatransfer;
 
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.ir.edge.executionproperty.*;
 import org.apache.nemo.common.ir.vertex.IRVertex;
 import org.apache.nemo.common.ir.vertex.executionproperty.ParallelismProperty;
@@ -94,6 +95,21 @@ public final class BlockOutputWriter implements OutputWriter {
     } // If else, does not need to write because the data is duplicated.
   }
 
+  @Override
+  public void writeBatch(final ElementBatch<?> elements) {
+    if (nonDummyBlock) {
+      final boolean isDedicatedKeyPerElement =
+        partitioner.getClass().getAnnotation(DedicatedKeyPerElement.class) != null;
+      for (int i = 0; i < elements.size(); i++) {
+        final Object element = elements.get(i);
+        blockToWrite.write(partitioner.partition(element), element);
+        if (isDedicatedKeyPerElement) {
+          blockToWrite.commitPartitions();
+        }
+      }
+    } // If else, does not need to write because the data is duplicated.
+  }
+
   @Override
   public void writeWatermark(final Watermark watermark) {
     // do nothing
@@ -120,7 +136,7 @@ public final class BlockOutputWriter implements OutputWriter {
     } else {
       writtenBytes = -1; // no written bytes info.
     }
-    blockManagerWorker.writeBlock(blockToWrite, blockStoreValue, getExpectedRead(), persistence);
+    blockManagerWorker.writeBlock(blockToWrite, blockStoreValue, getExpectedRead(), persistence, writtenBytes);
   }
 
   public Optional<Long> getWrittenBytes() {
@@ -131,6 +147,11 @@ public final class BlockOutputWriter implements OutputWriter {
     }
   }
 
+  @Override
+  public Optional<Long> getBackpressureTimeMs() {
+    return Optional.empty();
+  }
+
   /**
    * Get the expected number of data read according to the communication pattern of the edge and
    * the parallelism of destination vertex.
@@ -18,6 +18,7 @@
  */
 package org.apache.nemo.runtime.executor.datatransfer;
 
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.OperatorVertex;
 import org.apache.nemo.common.punctuation.Watermark;
@@ -55,6 +56,11 @@ public final class DataFetcherOutputCollector<O> implements OutputCollector<O> {
     nextOperatorVertex.getTransform().onData(output);
   }
 
+  @Override
+  public void emitBatch(final ElementBatch<O> outputs) {
+    nextOperatorVertex.getTransform().onDataBatch(outputs);
+  }
+
   @Override
   public void emitWatermark(final Watermark watermark) {
     watermarkManager.trackAndEmitWatermarks(edgeIndex, watermark);
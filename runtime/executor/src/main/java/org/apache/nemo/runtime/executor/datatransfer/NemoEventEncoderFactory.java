@@ -76,5 +76,10 @@ public final class NemoEventEncoderFactory implements EncoderFactory {
         valueEncoder.encode(element);
       }
     }
+
+    @Override
+    public void flush() throws IOException {
+      valueEncoder.flush();
+    }
   }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.nemo.runtime.executor.datatransfer;
 
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.IRVertex;
 import org.apache.nemo.common.ir.vertex.OperatorVertex;
@@ -88,6 +89,17 @@ public final class OperatorVertexOutputCollector<O> implements OutputCollector<O
     }
   }
 
+  @Override
+  public void emitBatch(final ElementBatch<O> outputs) {
+    for (final NextIntraTaskOperatorInfo internalVertex : internalMainOutputs) {
+      internalVertex.getNextOperator().getTransform().onDataBatch(outputs);
+    }
+
+    for (final OutputWriter externalWriter : externalMainOutputs) {
+      externalWriter.writeBatch(outputs);
+    }
+  }
+
   @Override
   public <T> void emit(final String dstVertexId, final T output) {
     if (internalAdditionalOutputs.containsKey(dstVertexId)) {
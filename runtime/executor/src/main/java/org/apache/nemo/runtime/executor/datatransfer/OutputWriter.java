@@ -18,6 +18,7 @@
  */
 package org.apache.nemo.runtime.executor.datatransfer;
 
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.punctuation.Watermark;
 
 import java.util.Optional;
@@ -33,6 +34,18 @@ public interface OutputWriter {
    */
   void write(Object element);
 
+  /**
+   * Writes a batch of output elements depending on the communication pattern of the edge.
+   * The batch is only valid during this call.
+   *
+   * @param elements the elements to write.
+   */
+  default void writeBatch(final ElementBatch<?> elements) {
+    for (int i = 0; i < elements.size(); i++) {
+      write(elements.get(i));
+    }
+  }
+
   /**
    * Writes watermarks to all edges.
    *
@@ -45,5 +58,10 @@ public interface OutputWriter {
    */
   Optional<Long> getWrittenBytes();
 
+  /**
+   * @return the total time in ms this writer has been blocked by the backpressure of its receivers.
+   */
+  Optional<Long> getBackpressureTimeMs();
+
   void close();
 }
@@ -26,14 +26,17 @@ import org.apache.nemo.common.ir.vertex.IRVertex;
 import org.apache.nemo.runtime.common.RuntimeIdManager;
 import org.apache.nemo.runtime.common.plan.RuntimeEdge;
 import org.apache.nemo.runtime.executor.MetricMessageSender;
+import org.apache.nemo.runtime.executor.bytetransfer.ByteInputContext;
 import org.apache.nemo.runtime.executor.data.DataUtil;
 import org.apache.nemo.runtime.executor.data.PipeManagerWorker;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Represents the input data transfer to a task.
@@ -49,6 +52,7 @@ public final class PipeInputReader implements InputReader {
    */
   private final IRVertex srcVertex;
   private final RuntimeEdge runtimeEdge;
+  private final Collection<ByteInputContext> contexts;
 
   PipeInputReader(final String dstTaskId,
                   final IRVertex srcIRVertex,
@@ -60,6 +64,7 @@ public final class PipeInputReader implements InputReader {
     this.runtimeEdge = runtimeEdge;
     this.pipeManagerWorker = pipeManagerWorker;
     this.metricMessageSender = metricMessageSender;
+    this.contexts = new ConcurrentLinkedQueue<>();
   }
 
   @Override
@@ -69,13 +74,13 @@ public final class PipeInputReader implements InputReader {
     final CommunicationPatternProperty.Value comValue = comValueOptional.orElseThrow(IllegalStateException::new);
 
     if (comValue.equals(CommunicationPatternProperty.Value.ONE_TO_ONE)) {
-      return Collections.singletonList(pipeManagerWorker.read(dstTaskIndex, runtimeEdge, dstTaskIndex));
+      return Collections.singletonList(pipeManagerWorker.read(dstTaskIndex, runtimeEdge, dstTaskIndex, contexts));
     } else if (comValue.equals(CommunicationPatternProperty.Value.BROADCAST)
       || comValue.equals(CommunicationPatternProperty.Value.SHUFFLE)) {
       final int numSrcTasks = InputReader.getSourceParallelism(this);
       final List<CompletableFuture<DataUtil.IteratorWithNumBytes>> futures = new ArrayList<>();
       for (int srcTaskIdx = 0; srcTaskIdx < numSrcTasks; srcTaskIdx++) {
-        futures.add(pipeManagerWorker.read(srcTaskIdx, runtimeEdge, dstTaskIndex));
+        futures.add(pipeManagerWorker.read(srcTaskIdx, runtimeEdge, dstTaskIndex, contexts));
       }
       return futures;
     } else {
@@ -83,6 +88,20 @@ public final class PipeInputReader implements InputReader {
     }
   }
 
+  /**
+   * @return the number of elements read from the pipes that the task may hold before consuming them.
+   */
+  public int getElementQueueCapacity() {
+    return pipeManagerWorker.getElementQueueCapacity();
+  }
+
+  /**
+   * @return the maximum number of bytes received but not consumed at once, in any of the pipes connected so far.
+   */
+  public long getMaxQueuedBytes() {
+    return contexts.stream().mapToLong(ByteInputContext::getMaxQueuedBytes).max().orElse(0);
+  }
+
   @Override
   public CompletableFuture<DataUtil.IteratorWithNumBytes> retry(final int index) {
     throw new UnsupportedOperationException(String.valueOf(index));
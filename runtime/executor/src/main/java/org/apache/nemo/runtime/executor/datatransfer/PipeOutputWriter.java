@@ -32,11 +32,22 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents the output data transfer from a task.
+ * <p>
+ * By default, each element is written to the destination pipes as a separate data frame.
+ * If batching is enabled in {@link PipeManagerWorker}, elements are encoded into a pending batch per destination pipe,
+ * which is flushed when it exceeds the size threshold, when it lingers for too long, or upon a watermark.
+ * The linger time of a batch counts from its first element.
+ * A lingering batch is flushed by a thread shared by the writers, which never waits for this writer or for credits:
+ * the flush is retried later if the task thread is writing, or if the pipe has no credits.
  */
 public final class PipeOutputWriter implements OutputWriter {
   private static final Logger LOG = LoggerFactory.getLogger(OutputWriter.class.getName());
@@ -52,6 +63,12 @@ public final class PipeOutputWriter implements OutputWriter {
   private Serializer serializer;
   private List<ByteOutputContext> pipes;
 
+  // Batching (accessed by the task thread and the linger flush thread, guarded by batchLock)
+  private final int batchSizeBytes;
+  private final ReentrantLock batchLock = new ReentrantLock();
+  private Map<ByteOutputContext, PendingBatch> batches;
+  private IOException lingerFlushFailure = null;
+
   /**
    * Constructor.
    *
@@ -71,9 +88,14 @@ public final class PipeOutputWriter implements OutputWriter {
       .getPartitioner(stageEdge.getExecutionProperties(), stageEdge.getDstIRVertex().getExecutionProperties());
     this.runtimeEdge = runtimeEdge;
     this.srcTaskIndex = RuntimeIdManager.getIndexFromTaskId(srcTaskId);
+    this.batchSizeBytes = pipeManagerWorker.getBatchSizeBytes();
   }
 
   private void writeData(final Object element, final List<ByteOutputContext> pipeList) {
+    if (batches != null) {
+      writeDataToBatches(element, pipeList);
+      return;
+    }
     pipeList.forEach(pipe -> {
       try (ByteOutputContext.ByteOutputStream pipeToWriteTo = pipe.newOutputStream()) {
         pipeToWriteTo.writeElement(element, serializer);
@@ -83,6 +105,81 @@ public final class PipeOutputWriter implements OutputWriter {
     });
   }
 
+  private void writeDataToBatches(final Object element, final List<ByteOutputContext> pipeList) {
+    batchLock.lock();
+    try {
+      ensureNoLingerFlushFailure();
+      for (final ByteOutputContext pipe : pipeList) {
+        PendingBatch batch = batches.get(pipe);
+        if (batch == null) {
+          batch = new PendingBatch(pipe, pipe.newOutputStream());
+          batches.put(pipe, batch);
+          final PendingBatch newBatch = batch;
+          batch.lingerFlush = pipeManagerWorker.scheduleBatchFlush(() -> flushLingeringBatch(newBatch));
+        }
+        if (batch.stream.writeElementToBatch(element, serializer) >= batchSizeBytes) {
+          batches.remove(pipe).flush();
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e); // For now we crash the executor on IOException
+    } finally {
+      batchLock.unlock();
+    }
+  }
+
+  private void flushAllBatches() {
+    batchLock.lock();
+    try {
+      ensureNoLingerFlushFailure();
+      for (final PendingBatch batch : batches.values()) {
+        batch.flush();
+      }
+      batches.clear();
+    } catch (IOException e) {
+      throw new RuntimeException(e); // For now we crash the executor on IOException
+    } finally {
+      batchLock.unlock();
+    }
+  }
+
+  /**
+   * Called by the linger flush thread.
+   * The flush is retried after another linger time if the task thread holds the batches,
+   * as it may be waiting for credits, or if the pipe has no credits to write the batch.
+   * The failure is thrown to the task thread at its next write.
+   *
+   * @param batch the batch to flush, unless it is flushed already.
+   */
+  private void flushLingeringBatch(final PendingBatch batch) {
+    if (!batchLock.tryLock()) {
+      batch.lingerFlush = pipeManagerWorker.scheduleBatchFlush(() -> flushLingeringBatch(batch));
+      return;
+    }
+    try {
+      if (batches.get(batch.pipe) != batch) {
+        return;
+      }
+      if (!batch.pipe.hasCredits()) {
+        batch.lingerFlush = pipeManagerWorker.scheduleBatchFlush(() -> flushLingeringBatch(batch));
+        return;
+      }
+      batches.remove(batch.pipe);
+      batch.stream.close();
+    } catch (final IOException e) {
+      LOG.error("Failed to flush a lingering batch of " + srcTaskId, e);
+      lingerFlushFailure = e;
+    } finally {
+      batchLock.unlock();
+    }
+  }
+
+  private void ensureNoLingerFlushFailure() throws IOException {
+    if (lingerFlushFailure != null) {
+      throw new IOException("A lingering batch of " + srcTaskId + " failed to be flushed", lingerFlushFailure);
+    }
+  }
+
   /**
    * Writes output element.
    *
@@ -105,6 +202,10 @@ public final class PipeOutputWriter implements OutputWriter {
 
     final WatermarkWithIndex watermarkWithIndex = new WatermarkWithIndex(watermark, srcTaskIndex);
     writeData(watermarkWithIndex, pipes);
+    if (batches != null) {
+      // Watermarks should not be delayed
+      flushAllBatches();
+    }
   }
 
   @Override
@@ -112,6 +213,14 @@ public final class PipeOutputWriter implements OutputWriter {
     return Optional.empty();
   }
 
+  @Override
+  public Optional<Long> getBackpressureTimeMs() {
+    if (!initialized) {
+      return Optional.empty();
+    }
+    return Optional.of(pipes.stream().mapToLong(ByteOutputContext::getCreditWaitTimeMs).sum());
+  }
+
   @Override
   public void close() {
     if (!initialized) {
@@ -119,6 +228,9 @@ public final class PipeOutputWriter implements OutputWriter {
       doInitialize();
     }
 
+    if (batches != null) {
+      flushAllBatches();
+    }
     pipes.forEach(pipe -> {
       try {
         pipe.close();
@@ -134,6 +246,33 @@ public final class PipeOutputWriter implements OutputWriter {
     // Blocking call
     this.pipes = pipeManagerWorker.getOutputContexts(runtimeEdge, RuntimeIdManager.getIndexFromTaskId(srcTaskId));
     this.serializer = pipeManagerWorker.getSerializer(runtimeEdge.getId());
+    if (batchSizeBytes > 0) {
+      this.batches = new HashMap<>();
+    }
+  }
+
+  /**
+   * A batch of elements pending for a pipe, with its linger flush.
+   */
+  private static final class PendingBatch {
+    private final ByteOutputContext pipe;
+    private final ByteOutputContext.ByteOutputStream stream;
+    private volatile ScheduledFuture<?> lingerFlush;
+
+    private PendingBatch(final ByteOutputContext pipe, final ByteOutputContext.ByteOutputStream stream) {
+      this.pipe = pipe;
+      this.stream = stream;
+    }
+
+    /**
+     * Writes the batch to the pipe before it lingers for too long.
+     *
+     * @throws IOException if fail to write the batch.
+     */
+    private void flush() throws IOException {
+      lingerFlush.cancel(false);
+      stream.close();
+    }
   }
 
   private List<ByteOutputContext> getPipeToWrite(final Object element) {
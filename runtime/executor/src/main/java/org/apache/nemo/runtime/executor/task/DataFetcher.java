@@ -29,6 +29,7 @@ import java.io.IOException;
 abstract class DataFetcher implements AutoCloseable {
   private final IRVertex dataSource;
   private final OutputCollector outputCollector;
+  private volatile DataFetcherSelector selector;
 
   /**
    * @param dataSource      to fetch from.
@@ -38,6 +39,7 @@ abstract class DataFetcher implements AutoCloseable {
               final OutputCollector outputCollector) {
     this.dataSource = dataSource;
     this.outputCollector = outputCollector;
+    this.selector = null;
   }
 
   /**
@@ -49,6 +51,34 @@ abstract class DataFetcher implements AutoCloseable {
    */
   abstract Object fetchDataElement() throws IOException;
 
+  /**
+   * Registers the selector to signal when this fetcher may have new events after
+   * {@link #fetchDataElement()} threw a {@link java.util.NoSuchElementException}.
+   *
+   * @param dataFetcherSelector to signal.
+   */
+  void registerSelector(final DataFetcherSelector dataFetcherSelector) {
+    this.selector = dataFetcherSelector;
+  }
+
+  /**
+   * @return true if this fetcher signals its selector whenever it becomes ready,
+   * false if the task thread has to poll it periodically.
+   */
+  boolean isReadinessSignaled() {
+    return true;
+  }
+
+  /**
+   * Signals the registered selector, if any, that this fetcher may have new events.
+   */
+  final void signalReady() {
+    final DataFetcherSelector dataFetcherSelector = selector;
+    if (dataFetcherSelector != null) {
+      dataFetcherSelector.signal();
+    }
+  }
+
   OutputCollector getOutputCollector() {
     return outputCollector;
   }
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.task;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A selector-like readiness signal shared by the data fetchers of a task.
+ * <p>
+ * Data fetchers call {@link #signal()} from their I/O threads whenever new events become available,
+ * and the task thread parks in {@link #await(long)} while none of its fetchers has anything to process.
+ * Only a single task thread may wait on a selector at a time.
+ */
+@ThreadSafe
+final class DataFetcherSelector {
+  private final AtomicBoolean signaled;
+  private volatile Thread waiter;
+
+  DataFetcherSelector() {
+    this.signaled = new AtomicBoolean(false);
+    this.waiter = null;
+  }
+
+  /**
+   * Notifies that some data fetcher may have become ready.
+   * This is cheap when the selector is already signaled, so it is safe to call for every element.
+   */
+  void signal() {
+    if (!signaled.get() && signaled.compareAndSet(false, true)) {
+      final Thread waitingThread = waiter;
+      if (waitingThread != null) {
+        LockSupport.unpark(waitingThread);
+      }
+    }
+  }
+
+  /**
+   * Consumes the pending signal, if any.
+   * The caller should check its pending fetchers after this returns true, as any event that arrives afterwards
+   * re-signals the selector.
+   *
+   * @return whether the selector was signaled.
+   */
+  boolean consumeSignal() {
+    return signaled.get() && signaled.getAndSet(false);
+  }
+
+  /**
+   * Parks the calling thread until the selector is signaled or the timeout elapses.
+   * The signal is not consumed.
+   *
+   * @param timeoutMs the maximum time to wait in milliseconds, or {@link Long#MAX_VALUE} to wait indefinitely.
+   */
+  void await(final long timeoutMs) {
+    final long deadline = timeoutMs == Long.MAX_VALUE
+      ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    waiter = Thread.currentThread();
+    try {
+      while (!signaled.get()) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new RuntimeException(new InterruptedException());
+        }
+        if (deadline == Long.MAX_VALUE) {
+          LockSupport.park(this);
+        } else {
+          final long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            return;
+          }
+          LockSupport.parkNanos(this, remaining);
+        }
+      }
+    } finally {
+      waiter = null;
+    }
+  }
+}
@@ -32,9 +32,9 @@ import java.io.IOException;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Task thread -> fetchDataElement() -> (((QUEUE))) <- List of iterators <- queueInsertionThreads
@@ -44,6 +44,9 @@ import java.util.concurrent.Executors;
  * <p>
  * This class should be used when dealing with unbounded data streams, as we do not want to be blocked on a
  * single unbounded iterator forever.
+ * <p>
+ * The queue is bounded, so that the queueInsertionThreads stop consuming the iterators when the task thread
+ * falls behind. This in turn stops granting credits to the pipes, and thus backpressures the senders.
  */
 @NotThreadSafe
 class MultiThreadParentTaskDataFetcher extends DataFetcher {
@@ -55,7 +58,7 @@ class MultiThreadParentTaskDataFetcher extends DataFetcher {
   // Non-finals (lazy fetching)
   private boolean firstFetch = true;
 
-  private final ConcurrentLinkedQueue elementQueue;
+  private final LinkedBlockingQueue elementQueue;
 
   private long serBytes = 0;
   private long encodedBytes = 0;
@@ -69,11 +72,12 @@ class MultiThreadParentTaskDataFetcher extends DataFetcher {
 
   MultiThreadParentTaskDataFetcher(final IRVertex dataSource,
                                    final InputReader readerForParentTask,
-                                   final OutputCollector outputCollector) {
+                                   final OutputCollector outputCollector,
+                                   final int elementQueueCapacity) {
     super(dataSource, outputCollector);
     this.readersForParentTask = readerForParentTask;
     this.firstFetch = true;
-    this.elementQueue = new ConcurrentLinkedQueue();
+    this.elementQueue = new LinkedBlockingQueue(elementQueueCapacity);
     this.queueInsertionThreads = Executors.newCachedThreadPool();
   }
 
@@ -128,13 +132,13 @@ class MultiThreadParentTaskDataFetcher extends DataFetcher {
               }
             } else {
               // data element
-              elementQueue.offer(element);
+              putToElementQueue(element);
             }
           }
 
           // This iterator is finished.
           countBytesSynchronized(iterator);
-          elementQueue.offer(Finishmark.getInstance());
+          putToElementQueue(Finishmark.getInstance());
         } else {
           LOG.error(exception.getMessage());
           throw new RuntimeException(exception);
@@ -142,6 +146,16 @@ class MultiThreadParentTaskDataFetcher extends DataFetcher {
       })));
   }
 
+  private void putToElementQueue(final Object element) {
+    try {
+      elementQueue.put(element); // can block here
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    signalReady();
+  }
+
   final long getSerializedBytes() {
     return serBytes;
   }
@@ -150,6 +164,14 @@ class MultiThreadParentTaskDataFetcher extends DataFetcher {
     return encodedBytes;
   }
 
+  /**
+   * @return the maximum number of bytes queued at once in a pipe read, or 0 if not reading pipes.
+   */
+  final long getMaxQueuedPipeBytes() {
+    return readersForParentTask instanceof PipeInputReader
+      ? ((PipeInputReader) readersForParentTask).getMaxQueuedBytes() : 0;
+  }
+
   private synchronized void countBytesSynchronized(final DataUtil.IteratorWithNumBytes iterator) {
     try {
       serBytes += iterator.getNumSerializedBytes();
@@ -184,7 +206,7 @@ class MultiThreadParentTaskDataFetcher extends DataFetcher {
 
     @Override
     public void emitWatermark(final Watermark watermark) {
-      elementQueue.offer(watermark);
+      putToElementQueue(watermark);
     }
 
     @Override
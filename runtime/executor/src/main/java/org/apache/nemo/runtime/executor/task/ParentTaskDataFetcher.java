@@ -22,11 +22,13 @@ import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.edge.executionproperty.BlockFetchFailureProperty;
 import org.apache.nemo.common.ir.vertex.IRVertex;
 import org.apache.nemo.common.punctuation.Finishmark;
+import org.apache.nemo.runtime.executor.data.BlockPrefetcher;
 import org.apache.nemo.runtime.executor.data.DataUtil;
 import org.apache.nemo.runtime.executor.datatransfer.InputReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.IOException;
 import java.util.List;
@@ -42,6 +44,8 @@ class ParentTaskDataFetcher extends DataFetcher {
 
   private final InputReader inputReader;
   private final LinkedBlockingQueue iteratorQueue;
+  @Nullable private final BlockPrefetcher blockPrefetcher;
+  @Nullable private final BlockPrefetcher.Budget prefetchBudget;
 
   // Non-finals (lazy fetching)
   private boolean firstFetch;
@@ -54,11 +58,31 @@ class ParentTaskDataFetcher extends DataFetcher {
   ParentTaskDataFetcher(final IRVertex dataSource,
                         final InputReader inputReader,
                         final OutputCollector outputCollector) {
+    this(dataSource, inputReader, outputCollector, null);
+  }
+
+  /**
+   * @param dataSource      to fetch from.
+   * @param inputReader     to read the blocks with.
+   * @param outputCollector for the data fetched.
+   * @param blockPrefetcher to decode the blocks ahead of the task, or null to decode them in the task thread.
+   */
+  ParentTaskDataFetcher(final IRVertex dataSource,
+                        final InputReader inputReader,
+                        final OutputCollector outputCollector,
+                        @Nullable final BlockPrefetcher blockPrefetcher) {
     super(dataSource, outputCollector);
     this.inputReader = inputReader;
     this.firstFetch = true;
     this.currentIteratorIndex = 0;
     this.iteratorQueue = new LinkedBlockingQueue<>();
+    if (blockPrefetcher != null && blockPrefetcher.isEnabled()) {
+      this.blockPrefetcher = blockPrefetcher;
+      this.prefetchBudget = blockPrefetcher.newBudget();
+    } else {
+      this.blockPrefetcher = null;
+      this.prefetchBudget = null;
+    }
   }
 
   @Override
@@ -140,12 +164,16 @@ class ParentTaskDataFetcher extends DataFetcher {
           } else if (fetchFailure.equals(BlockFetchFailureProperty.Value.CANCEL_TASK)) {
             // Retry the entire task
             iteratorQueue.put(exception);
+            signalReady();
           } else {
             throw new UnsupportedOperationException(fetchFailure.toString());
           }
         } else {
           // Process the iterator
-          iteratorQueue.put(iterator); // can block here
+          iteratorQueue.put(blockPrefetcher == null
+            ? iterator
+            : blockPrefetcher.prefetch(iterator, prefetchBudget, this::signalReady)); // can block here
+          signalReady();
         }
       } catch (final InterruptedException e) {
         Thread.currentThread().interrupt();
@@ -193,6 +221,8 @@ class ParentTaskDataFetcher extends DataFetcher {
 
   @Override
   public void close() throws Exception {
-
+    if (prefetchBudget != null) {
+      prefetchBudget.close();
+    }
   }
 }
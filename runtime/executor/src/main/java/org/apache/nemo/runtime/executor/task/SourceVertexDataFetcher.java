@@ -36,7 +36,7 @@ class SourceVertexDataFetcher extends DataFetcher {
   private long boundedSourceReadTime = 0;
   private static final long WATERMARK_PERIOD = 1000; // ms
   private final ScheduledExecutorService watermarkTriggerService;
-  private boolean watermarkTriggered = false;
+  private volatile boolean watermarkTriggered = false;
   private final boolean bounded;
 
   SourceVertexDataFetcher(final SourceVertex dataSource,
@@ -49,9 +49,10 @@ class SourceVertexDataFetcher extends DataFetcher {
 
     if (!bounded) {
       this.watermarkTriggerService = Executors.newScheduledThreadPool(1);
-      this.watermarkTriggerService.scheduleAtFixedRate(() ->
-        watermarkTriggered = true,
-        WATERMARK_PERIOD, WATERMARK_PERIOD, TimeUnit.MILLISECONDS);
+      this.watermarkTriggerService.scheduleAtFixedRate(() -> {
+        watermarkTriggered = true;
+        signalReady();
+      }, WATERMARK_PERIOD, WATERMARK_PERIOD, TimeUnit.MILLISECONDS);
     } else {
       this.watermarkTriggerService = null;
     }
@@ -74,6 +75,17 @@ class SourceVertexDataFetcher extends DataFetcher {
     }
   }
 
+  /**
+   * {@link Readable} offers no way to be notified of new data, so pending unbounded sources are polled.
+   * Watermarks are still signaled as they are triggered.
+   *
+   * @return false.
+   */
+  @Override
+  boolean isReadinessSignaled() {
+    return false;
+  }
+
   final long getBoundedSourceReadTime() {
     return boundedSourceReadTime;
   }
@@ -24,6 +24,7 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.nemo.common.Pair;
 import org.apache.nemo.common.dag.DAG;
 import org.apache.nemo.common.dag.Edge;
+import org.apache.nemo.common.ir.ElementBatch;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.Readable;
 import org.apache.nemo.common.ir.edge.executionproperty.AdditionalOutputTagProperty;
@@ -45,7 +46,9 @@ import org.apache.nemo.runtime.common.state.TaskState;
 import org.apache.nemo.runtime.executor.MetricMessageSender;
 import org.apache.nemo.runtime.executor.TaskStateManager;
 import org.apache.nemo.runtime.executor.TransformContextImpl;
+import org.apache.nemo.runtime.executor.data.BlockPrefetcher;
 import org.apache.nemo.runtime.executor.data.BroadcastManagerWorker;
+import org.apache.nemo.runtime.executor.data.SpillStoreFactory;
 import org.apache.nemo.runtime.executor.datatransfer.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,12 +73,18 @@ public final class TaskExecutor {
   private final TaskStateManager taskStateManager;
   private final List<DataFetcher> dataFetchers;
   private final BroadcastManagerWorker broadcastManagerWorker;
+  private final SpillStoreFactory spillStoreFactory;
+  private final BlockPrefetcher blockPrefetcher;
   private final List<VertexHarness> sortedHarnesses;
 
   // Metrics information
   private long boundedSourceReadTime = 0;
   private long serializedReadBytes = 0;
   private long encodedReadBytes = 0;
+  private long inputPipeMaxQueuedBytes = 0;
+  private long outputBackpressureTime = 0;
+  // Consecutive data elements of a data fetcher, which are processed at once.
+  private final ElementBatch<Object> fetchedElements = new ElementBatch<>();
   private long timeSinceLastExecution;
   private final MetricMessageSender metricMessageSender;
 
@@ -92,6 +101,8 @@ public final class TaskExecutor {
    * @param taskStateManager                State manager for this Task.
    * @param intermediateDataIOFactory       For reading from/writing to data to other tasks.
    * @param broadcastManagerWorker          For broadcasts.
+   * @param spillStoreFactory               For spilling the states of the transforms.
+   * @param blockPrefetcher                 For decoding the blocks of the parent tasks ahead.
    * @param metricMessageSender             For sending metric with execution stats to the master.
    * @param persistentConnectionToMasterMap For sending messages to the master.
    */
@@ -100,6 +111,8 @@ public final class TaskExecutor {
                       final TaskStateManager taskStateManager,
                       final IntermediateDataIOFactory intermediateDataIOFactory,
                       final BroadcastManagerWorker broadcastManagerWorker,
+                      final SpillStoreFactory spillStoreFactory,
+                      final BlockPrefetcher blockPrefetcher,
                       final MetricMessageSender metricMessageSender,
                       final PersistentConnectionToMasterMap persistentConnectionToMasterMap) {
     // Essential information
@@ -107,6 +120,8 @@ public final class TaskExecutor {
     this.taskId = task.getTaskId();
     this.taskStateManager = taskStateManager;
     this.broadcastManagerWorker = broadcastManagerWorker;
+    this.spillStoreFactory = spillStoreFactory;
+    this.blockPrefetcher = blockPrefetcher;
 
     // Metric sender
     this.metricMessageSender = metricMessageSender;
@@ -241,8 +256,8 @@ public final class TaskExecutor {
       }
 
       // Create VERTEX HARNESS
-      final VertexHarness vertexHarness = new VertexHarness(
-        irVertex, outputCollector, new TransformContextImpl(broadcastManagerWorker),
+      final VertexHarness vertexHarness = new VertexHarness(irVertex, outputCollector,
+        new TransformContextImpl(broadcastManagerWorker, spillStoreFactory, persistentConnectionToMasterMap, taskId),
         externalMainOutputs, externalAdditionalOutputMap);
 
       prepareTransform(vertexHarness);
@@ -280,13 +295,15 @@ public final class TaskExecutor {
                 new MultiThreadParentTaskDataFetcher(
                   parentTaskReader.getSrcIrVertex(),
                   parentTaskReader,
-                  dataFetcherOutputCollector));
+                  dataFetcherOutputCollector,
+                  ((PipeInputReader) parentTaskReader).getElementQueueCapacity()));
             } else {
               dataFetcherList.add(
                 new ParentTaskDataFetcher(
                   parentTaskReader.getSrcIrVertex(),
                   parentTaskReader,
-                  dataFetcherOutputCollector));
+                  dataFetcherOutputCollector,
+                  blockPrefetcher));
             }
           }
         });
@@ -322,6 +339,9 @@ public final class TaskExecutor {
       // ANY uncaught throwable is reported to the master
       taskStateManager.onTaskStateChanged(TaskState.State.FAILED, Optional.empty(), Optional.empty());
       LOG.error(ExceptionUtils.getStackTrace(throwable));
+    } finally {
+      // The transforms may not have deleted their spilled state, if the task failed
+      sortedHarnesses.forEach(vertexHarness -> vertexHarness.getContext().closeSpillStores());
     }
   }
 
@@ -352,11 +372,22 @@ public final class TaskExecutor {
       SerializationUtils.serialize(serializedReadBytes));
     metricMessageSender.send(TASK_METRIC_ID, taskId, "encodedReadBytes",
       SerializationUtils.serialize(encodedReadBytes));
+    metricMessageSender.send(TASK_METRIC_ID, taskId, "inputPipeMaxQueuedBytes",
+      SerializationUtils.serialize(inputPipeMaxQueuedBytes));
 
     // Phase 2: Finalize task-internal states and elements
     for (final VertexHarness vertexHarness : sortedHarnesses) {
       finalizeVertex(vertexHarness);
     }
+    final Map<String, Long> transformMetrics = new HashMap<>();
+    for (final VertexHarness vertexHarness : sortedHarnesses) {
+      vertexHarness.getContext().getMetrics().forEach((field, value) ->
+        transformMetrics.merge(field, value, Long::sum));
+    }
+    transformMetrics.forEach((field, value) ->
+      metricMessageSender.send(TASK_METRIC_ID, taskId, field, SerializationUtils.serialize(value)));
+    metricMessageSender.send(TASK_METRIC_ID, taskId, "outputBackpressureTime",
+      SerializationUtils.serialize(outputBackpressureTime));
 
     metricMessageSender.send(TASK_METRIC_ID, taskId, "taskDuration",
       SerializationUtils.serialize(System.currentTimeMillis() - executionStartTime));
@@ -396,6 +427,8 @@ public final class TaskExecutor {
       } else if (dataFetcher instanceof MultiThreadParentTaskDataFetcher) {
         serializedReadBytes += ((MultiThreadParentTaskDataFetcher) dataFetcher).getSerializedBytes();
         encodedReadBytes += ((MultiThreadParentTaskDataFetcher) dataFetcher).getEncodedBytes();
+        inputPipeMaxQueuedBytes = Math.max(inputPipeMaxQueuedBytes,
+          ((MultiThreadParentTaskDataFetcher) dataFetcher).getMaxQueuedPipeBytes());
       }
     } else if (event instanceof Watermark) {
       // Watermark
@@ -406,6 +439,56 @@ public final class TaskExecutor {
     }
   }
 
+  /**
+   * Fetches events from the dataFetcher and processes them.
+   * Consecutive data elements are processed as a batch, which ends when it is full,
+   * when the dataFetcher has no available element, or right before a watermark or a Finishmark.
+   *
+   * @param dataFetcher current data fetcher
+   * @return the last event processed.
+   * @throws NoSuchElementException if the dataFetcher has no available element at first.
+   * @throws IOException            if fail to fetch the events.
+   */
+  private Object fetchAndProcessEvents(final DataFetcher dataFetcher) throws IOException {
+    try {
+      while (true) {
+        final Object event = dataFetcher.fetchDataElement();
+        if (event instanceof Finishmark || event instanceof Watermark) {
+          processFetchedElements(dataFetcher);
+          onEventFromDataFetcher(event, dataFetcher);
+          return event;
+        }
+        fetchedElements.add(event);
+        if (fetchedElements.isFull()) {
+          processFetchedElements(dataFetcher);
+          return event;
+        }
+      }
+    } catch (final NoSuchElementException e) {
+      if (fetchedElements.isEmpty()) {
+        throw e;
+      }
+      // The dataFetcher is moved to the pending ones on the next fetch.
+      final Object lastElement = fetchedElements.get(fetchedElements.size() - 1);
+      processFetchedElements(dataFetcher);
+      return lastElement;
+    } finally {
+      fetchedElements.clear();
+    }
+  }
+
+  /**
+   * Process the batch of data elements fetched from the dataFetcher down the DAG dependency.
+   *
+   * @param dataFetcher current data fetcher
+   */
+  private void processFetchedElements(final DataFetcher dataFetcher) {
+    if (!fetchedElements.isEmpty()) {
+      dataFetcher.getOutputCollector().emitBatch(fetchedElements);
+      fetchedElements.clear();
+    }
+  }
+
   /**
    * Check if it is time to poll pending fetchers' data.
    *
@@ -424,13 +507,15 @@ public final class TaskExecutor {
    * It maintains two lists:
    * -- availableFetchers: maintain data fetchers that currently have data elements to retreive
    * -- pendingFetchers: maintain data fetchers that currently do not have available elements.
-   * This can become available in the future, and therefore we check the pending fetchers every pollingInterval.
    * <p>
    * If a data fetcher finishes, we remove it from the two lists.
    * If a data fetcher has no available element, we move the data fetcher to pendingFetchers
    * If a pending data fetcher has element, we move it to availableFetchers
-   * If there are no available fetchers but pending fetchers, sleep for pollingPeriod
-   * and retry fetching data from the pendingFetchers.
+   * <p>
+   * Pending fetchers signal the {@link DataFetcherSelector} when they may have become available,
+   * upon which we retry fetching data from them.
+   * If there are no available fetchers but pending fetchers, the task thread parks on the selector.
+   * Fetchers that cannot signal their readiness (e.g., unbounded sources) are polled every pollingInterval.
    *
    * @param fetchers to handle.
    * @return false if IOException.
@@ -438,8 +523,10 @@ public final class TaskExecutor {
   private boolean handleDataFetchers(final List<DataFetcher> fetchers) {
     final List<DataFetcher> availableFetchers = new LinkedList<>(fetchers);
     final List<DataFetcher> pendingFetchers = new LinkedList<>();
+    final DataFetcherSelector selector = new DataFetcherSelector();
+    fetchers.forEach(fetcher -> fetcher.registerSelector(selector));
 
-    // Polling interval.
+    // Polling interval for the fetchers that cannot signal their readiness.
     final long pollingInterval = 100; // ms
 
     // Previous polling time
@@ -453,8 +540,7 @@ public final class TaskExecutor {
       while (availableIterator.hasNext()) {
         final DataFetcher dataFetcher = availableIterator.next();
         try {
-          final Object element = dataFetcher.fetchDataElement();
-          onEventFromDataFetcher(element, dataFetcher);
+          final Object element = fetchAndProcessEvents(dataFetcher);
           if (element instanceof Finishmark) {
             availableIterator.remove();
           }
@@ -472,19 +558,23 @@ public final class TaskExecutor {
         }
       }
 
-      final Iterator<DataFetcher> pendingIterator = pendingFetchers.iterator();
-      final long currentTime = System.currentTimeMillis();
-
+      if (pendingFetchers.isEmpty()) {
+        continue;
+      }
 
-      if (isPollingTime(pollingInterval, currentTime, prevPollingTime)) {
-        // We check pending data every polling interval
+      final long currentTime = System.currentTimeMillis();
+      final boolean isPollingTime = isPollingTime(pollingInterval, currentTime, prevPollingTime);
+      if (isPollingTime) {
         prevPollingTime = currentTime;
+      }
 
+      // The signal must be consumed before checking the pending fetchers, so that no notification is lost.
+      if (selector.consumeSignal() || isPollingTime) {
+        final Iterator<DataFetcher> pendingIterator = pendingFetchers.iterator();
         while (pendingIterator.hasNext()) {
           final DataFetcher dataFetcher = pendingIterator.next();
           try {
-            final Object element = dataFetcher.fetchDataElement();
-            onEventFromDataFetcher(element, dataFetcher);
+            final Object element = fetchAndProcessEvents(dataFetcher);
 
             // We processed data. This means the data fetcher is now available.
             // Add current data fetcher to available
@@ -505,16 +595,14 @@ public final class TaskExecutor {
         }
       }
 
-      // If there are no available fetchers,
-      // Sleep and retry fetching element from pending fetchers every polling interval
+      // If there are no available fetchers, wait until a pending fetcher signals its readiness,
+      // or until the next polling time if some pending fetchers can only be polled.
       if (availableFetchers.isEmpty() && !pendingFetchers.isEmpty()) {
-        try {
-          Thread.sleep(pollingInterval);
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          e.printStackTrace();
-          throw new RuntimeException(e);
-        }
+        final boolean hasPolledFetcher = pendingFetchers.stream().anyMatch(fetcher -> !fetcher.isReadinessSignaled());
+        final long waitTime = hasPolledFetcher
+          ? Math.max(0, pollingInterval - (System.currentTimeMillis() - prevPollingTime))
+          : Long.MAX_VALUE;
+        selector.await(waitTime);
       }
     }
 
@@ -664,7 +752,7 @@ public final class TaskExecutor {
           .setId(RuntimeIdManager.generateMessageId())
           .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
           .setType(ControlMessage.MessageType.ExecutorDataCollected)
-          .setDataCollected(ControlMessage.DataCollectMessage.newBuilder().setData(data).build())
+          .setDataCollected(ControlMessage.DataCollectMessage.newBuilder().setTaskId(taskId).setData(data).build())
           .build()));
   }
 
@@ -689,6 +777,7 @@ public final class TaskExecutor {
       outputWriter.close();
       final Optional<Long> writtenBytes = outputWriter.getWrittenBytes();
       writtenBytes.ifPresent(writtenBytesList::add);
+      outputWriter.getBackpressureTimeMs().ifPresent(time -> outputBackpressureTime += time);
     });
 
     // finalize OutputWriters for additional tagged children
@@ -697,6 +786,7 @@ public final class TaskExecutor {
         outputWriter.close();
         final Optional<Long> writtenBytes = outputWriter.getWrittenBytes();
         writtenBytes.ifPresent(writtenBytesList::add);
+        outputWriter.getBackpressureTimeMs().ifPresent(time -> outputBackpressureTime += time);
       })
     );
 
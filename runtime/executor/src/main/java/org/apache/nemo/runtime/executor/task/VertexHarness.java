@@ -20,7 +20,7 @@ package org.apache.nemo.runtime.executor.task;
 
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.vertex.IRVertex;
-import org.apache.nemo.common.ir.vertex.transform.Transform;
+import org.apache.nemo.runtime.executor.TransformContextImpl;
 import org.apache.nemo.runtime.executor.datatransfer.OutputWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,13 +37,13 @@ final class VertexHarness {
   // IRVertex and transform-specific information
   private final IRVertex irVertex;
   private final OutputCollector outputCollector;
-  private final Transform.Context context;
+  private final TransformContextImpl context;
   private final List<OutputWriter> externalOutputWriter;
   private final Map<String, List<OutputWriter>> externalAdditionalOutputWriter;
 
   VertexHarness(final IRVertex irVertex,
                 final OutputCollector outputCollector,
-                final Transform.Context context,
+                final TransformContextImpl context,
                 final List<OutputWriter> externalOutputWriter,
                 final Map<String, List<OutputWriter>> externalAdditionalOutputWriter) {
     this.irVertex = irVertex;
@@ -91,7 +91,7 @@ final class VertexHarness {
   /**
    * @return context.
    */
-  Transform.Context getContext() {
+  TransformContextImpl getContext() {
     return context;
   }
 }
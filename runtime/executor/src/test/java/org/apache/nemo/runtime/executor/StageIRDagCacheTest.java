@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor;
+
+import com.google.protobuf.ByteString;
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.nemo.common.dag.DAG;
+import org.apache.nemo.common.dag.DAGBuilder;
+import org.apache.nemo.common.ir.executionproperty.ExecutionPropertyMap;
+import org.apache.nemo.common.ir.vertex.IRVertex;
+import org.apache.nemo.common.ir.vertex.OperatorVertex;
+import org.apache.nemo.common.test.EmptyComponents;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.apache.nemo.runtime.common.comm.ControlMessage;
+import org.apache.nemo.runtime.common.message.MessageEnvironment;
+import org.apache.nemo.runtime.common.message.MessageSender;
+import org.apache.nemo.runtime.common.message.PersistentConnectionToMasterMap;
+import org.apache.nemo.runtime.common.plan.RuntimeEdge;
+import org.apache.nemo.runtime.common.plan.Task;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link StageIRDagCache}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(PersistentConnectionToMasterMap.class)
+public final class StageIRDagCacheTest {
+  private static final String STAGE_ID = "Stage0";
+  private static final long REQUEST_TIMEOUT_MS = 100;
+
+  private final DAG<IRVertex, RuntimeEdge<IRVertex>> irDag = new DAGBuilder<IRVertex, RuntimeEdge<IRVertex>>()
+    .addVertex(new OperatorVertex(new EmptyComponents.EmptyTransform<>("transform")))
+    .buildWithoutSourceSinkCheck();
+  private MessageSender<ControlMessage.Message> messageSender;
+  private List<String> fetchedTaskIds;
+  private StageIRDagCache stageIRDagCache;
+
+  @Before
+  public void setUp() {
+    final PersistentConnectionToMasterMap persistentConnectionToMasterMap = mock(PersistentConnectionToMasterMap.class);
+    messageSender = mock(MessageSender.class);
+    when(persistentConnectionToMasterMap.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID))
+      .thenReturn(messageSender);
+    fetchedTaskIds = new ArrayList<>();
+    stageIRDagCache = new StageIRDagCache("executor", persistentConnectionToMasterMap, REQUEST_TIMEOUT_MS,
+      (task, dag) -> fetchedTaskIds.add(task.getTaskId()));
+  }
+
+  /**
+   * The DAG of a stage is fetched once, and each task gets its own copy of the DAG.
+   */
+  @Test
+  public void testFetchOncePerStage() {
+    replyWithDag();
+    final Task firstTask = newTask(0, "digest");
+    final DAG<IRVertex, RuntimeEdge<IRVertex>> firstDag = stageIRDagCache.get(firstTask);
+    final DAG<IRVertex, RuntimeEdge<IRVertex>> secondDag = stageIRDagCache.get(newTask(1, "digest"));
+
+    assertEquals(irDag.getVertices().size(), firstDag.getVertices().size());
+    assertTrue(firstDag != secondDag);
+    assertEquals(Collections.singletonList(firstTask.getTaskId()), fetchedTaskIds);
+
+    final ArgumentCaptor<ControlMessage.Message> captor = ArgumentCaptor.forClass(ControlMessage.Message.class);
+    verify(messageSender, times(1)).request(captor.capture());
+    assertEquals(STAGE_ID, captor.getValue().getRequestStageIRDAGMsg().getStageId());
+    assertEquals("digest", captor.getValue().getRequestStageIRDAGMsg().getIrDagDigest());
+  }
+
+  /**
+   * A stage of the same ID but of another DAG, e.g., in an appended plan, is fetched again.
+   */
+  @Test
+  public void testSameStageIdOfAnotherDag() {
+    replyWithDag();
+    stageIRDagCache.get(newTask(0, "digest"));
+    stageIRDagCache.get(newTask(0, "anotherDigest"));
+
+    verify(messageSender, times(2)).request(any());
+    assertEquals(2, fetchedTaskIds.size());
+  }
+
+  /**
+   * The task fails if the master does not have the stage, and the next task asks again.
+   */
+  @Test
+  public void testNoStageInMaster() {
+    when(messageSender.request(any())).thenReturn(CompletableFuture.completedFuture(
+      newReply(ControlMessage.StageIRDAGMessage.newBuilder().setRequestId(0).build())));
+    try {
+      stageIRDagCache.get(newTask(0, "digest"));
+      fail("The DAG of a missing stage should not be returned");
+    } catch (final RuntimeException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    replyWithDag();
+    stageIRDagCache.get(newTask(1, "digest"));
+    verify(messageSender, times(2)).request(any());
+  }
+
+  /**
+   * The task fails, rather than hangs, if the master does not answer.
+   */
+  @Test(timeout = 10000)
+  public void testRequestTimeout() {
+    when(messageSender.request(any())).thenReturn(new CompletableFuture<>());
+    try {
+      stageIRDagCache.get(newTask(0, "digest"));
+      fail("The request should time out");
+    } catch (final RuntimeException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    assertTrue(fetchedTaskIds.isEmpty());
+  }
+
+  private void replyWithDag() {
+    when(messageSender.request(any())).thenAnswer(invocation -> CompletableFuture.completedFuture(
+      newReply(ControlMessage.StageIRDAGMessage.newBuilder()
+        .setRequestId(0)
+        .setSerializedIRDag(ByteString.copyFrom(SerializationUtils.serialize(irDag)))
+        .build())));
+  }
+
+  private static ControlMessage.Message newReply(final ControlMessage.StageIRDAGMessage stageIRDAGMessage) {
+    return ControlMessage.Message.newBuilder()
+      .setId(RuntimeIdManager.generateMessageId())
+      .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+      .setType(ControlMessage.MessageType.StageIRDAG)
+      .setStageIRDAGMsg(stageIRDAGMessage)
+      .build();
+  }
+
+  private static Task newTask(final int index, final String irDagDigest) {
+    return new Task("plan", RuntimeIdManager.generateTaskId(STAGE_ID, index, 0),
+      new ExecutionPropertyMap<>(STAGE_ID), irDagDigest,
+      Collections.emptyList(), Collections.emptyList(), Collections.emptyMap());
+  }
+}
@@ -18,31 +18,44 @@
  */
 package org.apache.nemo.runtime.executor;
 
-import org.apache.nemo.common.ir.vertex.transform.Transform;
+import org.apache.nemo.runtime.common.comm.ControlMessage;
+import org.apache.nemo.runtime.common.message.MessageEnvironment;
+import org.apache.nemo.runtime.common.message.MessageSender;
+import org.apache.nemo.runtime.common.message.PersistentConnectionToMasterMap;
 import org.apache.nemo.runtime.executor.data.BroadcastManagerWorker;
+import org.apache.nemo.runtime.executor.data.SpillStoreFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
  * Tests {@link TransformContextImpl}.
  */
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({BroadcastManagerWorker.class})
+@PrepareForTest({BroadcastManagerWorker.class, SpillStoreFactory.class, PersistentConnectionToMasterMap.class})
 public class TransformContextImplTest {
-  private Transform.Context context;
+  private static final String TASK_ID = "Stage0-0-0";
+  private TransformContextImpl context;
+  private MessageSender<ControlMessage.Message> messageSender;
 
   @Before
   public void setUp() {
     final BroadcastManagerWorker broadcastManagerWorker = mock(BroadcastManagerWorker.class);
     when(broadcastManagerWorker.get("a")).thenReturn("b");
-    this.context = new TransformContextImpl(broadcastManagerWorker);
+    final PersistentConnectionToMasterMap persistentConnectionToMasterMap = mock(PersistentConnectionToMasterMap.class);
+    this.messageSender = mock(MessageSender.class);
+    when(persistentConnectionToMasterMap.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID))
+      .thenReturn(messageSender);
+    this.context = new TransformContextImpl(broadcastManagerWorker, mock(SpillStoreFactory.class),
+      persistentConnectionToMasterMap, TASK_ID);
   }
 
   @Test
@@ -56,5 +69,17 @@ public class TransformContextImplTest {
     this.context.setSerializedData(sampleText);
     assertTrue(this.context.getSerializedData().isPresent());
     assertEquals(sampleText, this.context.getSerializedData().get());
+
+    final byte[] sampleChunk = "test_text".getBytes();
+    this.context.sendCollectedData(sampleChunk);
+    final ArgumentCaptor<ControlMessage.Message> captor = ArgumentCaptor.forClass(ControlMessage.Message.class);
+    verify(messageSender).send(captor.capture());
+    assertEquals(ControlMessage.MessageType.ExecutorDataCollected, captor.getValue().getType());
+    assertArrayEquals(sampleChunk, captor.getValue().getDataCollected().getChunk().toByteArray());
+    assertEquals(TASK_ID, captor.getValue().getDataCollected().getTaskId());
+
+    this.context.addMetric("partialCombineHits", 3);
+    this.context.addMetric("partialCombineHits", 4);
+    assertEquals(Long.valueOf(7), this.context.getMetrics().get("partialCombineHits"));
   }
 }
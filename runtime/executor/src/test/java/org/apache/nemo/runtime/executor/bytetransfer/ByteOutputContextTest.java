@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.bytetransfer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.nemo.conf.JobConf;
+import org.apache.nemo.runtime.common.comm.ControlMessage.ByteTransferDataDirection;
+import org.apache.reef.tang.Tang;
+import org.apache.reef.tang.exceptions.InjectionException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the credit-based flow control of {@link ByteOutputContext}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(ContextManager.class)
+public final class ByteOutputContextTest {
+  private static final int CREDIT_WINDOW_BYTES = 8;
+  private static final long WAIT_MS = 200;
+
+  private EmbeddedChannel channel;
+  private ContextManager contextManager;
+
+  @Before
+  public void setUp() {
+    channel = new EmbeddedChannel();
+    contextManager = mock(ContextManager.class);
+    when(contextManager.getChannel()).thenReturn(channel);
+    when(contextManager.getPipeCreditWindowBytes()).thenReturn((long) CREDIT_WINDOW_BYTES);
+  }
+
+  @After
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+  }
+
+  /**
+   * A pipe writer blocks once the credit window is used up, and resumes when the receiver grants credits.
+   */
+  @Test(timeout = 10000)
+  public void testWriterWaitsForCredits() throws Exception {
+    final ByteOutputContext context = newContext(true);
+    final ByteOutputContext.ByteOutputStream stream = context.newOutputStream();
+    stream.writeBytes(new byte[CREDIT_WINDOW_BYTES]);
+    assertFalse(context.hasCredits());
+    assertEquals(1, channel.outboundMessages().size());
+
+    final CompletableFuture<Void> blockedWrite = CompletableFuture.runAsync(() -> {
+      try {
+        stream.writeBytes(new byte[CREDIT_WINDOW_BYTES]);
+      } catch (final IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    try {
+      blockedWrite.get(WAIT_MS, TimeUnit.MILLISECONDS);
+      fail("The write should wait for credits");
+    } catch (final TimeoutException e) {
+      assertEquals(1, channel.outboundMessages().size());
+    }
+
+    context.onCredit(CREDIT_WINDOW_BYTES);
+    blockedWrite.get();
+    assertEquals(2, channel.outboundMessages().size());
+    assertTrue(context.getCreditWaitTimeMs() >= WAIT_MS);
+  }
+
+  /**
+   * The contexts other than pipes are not flow controlled.
+   */
+  @Test(timeout = 10000)
+  public void testBlockTransferNotFlowControlled() throws IOException {
+    final ByteOutputContext context = newContext(false);
+    final ByteOutputContext.ByteOutputStream stream = context.newOutputStream();
+    stream.writeBytes(new byte[CREDIT_WINDOW_BYTES]);
+    stream.writeBytes(new byte[CREDIT_WINDOW_BYTES]);
+    assertTrue(context.hasCredits());
+    assertEquals(2, channel.outboundMessages().size());
+  }
+
+  /**
+   * Credits up to the maximum frame length are encoded without loss, and larger credits are rejected.
+   */
+  @Test
+  public void testCreditFrameRange() throws InjectionException {
+    final ControlFrameEncoder encoder = Tang.Factory.getTang().newInjector(Tang.Factory.getTang()
+      .newConfigurationBuilder()
+      .bindNamedParameter(JobConf.ExecutorId.class, "executor")
+      .build())
+      .getInstance(ControlFrameEncoder.class);
+    final EmbeddedChannel encoderChannel = new EmbeddedChannel(encoder);
+    final ByteTransferContext.ContextId contextId = newContextId(true);
+    encoderChannel.writeOutbound(new ControlFrameEncoder.CreditFrame(contextId, DataFrameEncoder.LENGTH_MAX));
+    final ByteBuf frame = encoderChannel.readOutbound();
+    frame.skipBytes(Byte.BYTES + Integer.BYTES);
+    assertEquals(DataFrameEncoder.LENGTH_MAX, frame.readUnsignedInt());
+    frame.release();
+    encoderChannel.finishAndReleaseAll();
+
+    try {
+      new ControlFrameEncoder.CreditFrame(contextId, DataFrameEncoder.LENGTH_MAX + 1);
+      fail("Credits larger than a frame length should be rejected");
+    } catch (final IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  private ByteOutputContext newContext(final boolean isPipe) {
+    return new ByteOutputContext("remote", newContextId(isPipe), new byte[0], contextManager);
+  }
+
+  private static ByteTransferContext.ContextId newContextId(final boolean isPipe) {
+    return new ByteTransferContext.ContextId("local", "remote",
+      ByteTransferDataDirection.INITIATOR_SENDS_DATA, 0, isPipe, false);
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.nemo.common.HashRange;
+import org.apache.nemo.common.coder.FramedDecoderFactory;
+import org.apache.nemo.common.coder.FramedEncoderFactory;
+import org.apache.nemo.common.coder.IntDecoderFactory;
+import org.apache.nemo.common.coder.IntEncoderFactory;
+import org.apache.nemo.common.ir.IdManager;
+import org.apache.nemo.conf.JobConf;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.apache.nemo.runtime.executor.data.block.Block;
+import org.apache.nemo.runtime.executor.data.partition.NonSerializedPartition;
+import org.apache.nemo.runtime.executor.data.stores.BlockStore;
+import org.apache.nemo.runtime.executor.data.stores.LocalFileStore;
+import org.apache.nemo.runtime.executor.data.stores.MemoryStore;
+import org.apache.nemo.runtime.executor.data.stores.SerializedMemoryStore;
+import org.apache.nemo.runtime.executor.data.streamchainer.Serializer;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link BlockMemoryManager}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(SerializerManager.class)
+public final class BlockMemoryManagerTest {
+  private static final String TMP_FILE_DIRECTORY = "./tmpFiles";
+  private static final Serializer SERIALIZER = new Serializer(
+    IntEncoderFactory.of(), IntDecoderFactory.of(), Collections.emptyList(), Collections.emptyList());
+  private static final int NUM_ELEMENTS = 1000;
+
+  private final String edgeId = IdManager.newEdgeId();
+  private SerializedMemoryStore serializedMemoryStore;
+  private MemoryStore memoryStore;
+  private LocalFileStore localFileStore;
+  private BlockMemoryManager blockMemoryManager;
+
+  private void setUp(final int executorMemoryMb,
+                     final double maxOffheapRatio,
+                     final double blockMemoryRatio) throws Exception {
+    setUp(executorMemoryMb, maxOffheapRatio, blockMemoryRatio, SERIALIZER);
+  }
+
+  private void setUp(final int executorMemoryMb,
+                     final double maxOffheapRatio,
+                     final double blockMemoryRatio,
+                     final Serializer serializer) throws Exception {
+    FileUtils.deleteDirectory(new File(TMP_FILE_DIRECTORY));
+    final SerializerManager serializerManager = mock(SerializerManager.class);
+    when(serializerManager.getSerializer(any())).thenReturn(serializer);
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileInstance(SerializerManager.class, serializerManager);
+    injector.bindVolatileParameter(JobConf.FileDirectory.class, TMP_FILE_DIRECTORY);
+    injector.bindVolatileParameter(JobConf.ExecutorMemoryMb.class, executorMemoryMb);
+    injector.bindVolatileParameter(JobConf.MaxOffheapRatio.class, maxOffheapRatio);
+    injector.bindVolatileParameter(JobConf.BlockMemoryRatio.class, blockMemoryRatio);
+    serializedMemoryStore = injector.getInstance(SerializedMemoryStore.class);
+    memoryStore = injector.getInstance(MemoryStore.class);
+    localFileStore = injector.getInstance(LocalFileStore.class);
+    blockMemoryManager = injector.getInstance(BlockMemoryManager.class);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(new File(TMP_FILE_DIRECTORY));
+  }
+
+  @Test(timeout = 30000)
+  public void testSpillOverMemoryLimit() throws Exception {
+    // About 6.7KB for the blocks in memory, which is less than two blocks of 4KB.
+    setUp(640, 0.2, 0.00001);
+    final String firstBlockId = writeBlock(0, NUM_ELEMENTS);
+    assertSame(serializedMemoryStore, blockMemoryManager.pin(firstBlockId, serializedMemoryStore));
+    blockMemoryManager.unpin(firstBlockId);
+    final String secondBlockId = writeBlock(1, NUM_ELEMENTS);
+
+    // The least recently used block is spilled.
+    assertSame(localFileStore, blockMemoryManager.pin(firstBlockId, serializedMemoryStore));
+    blockMemoryManager.unpin(firstBlockId);
+    assertFalse(serializedMemoryStore.readBlock(firstBlockId).isPresent());
+    assertEquals(getRangedList(0, NUM_ELEMENTS), readBlock(localFileStore, firstBlockId));
+    assertSame(serializedMemoryStore, blockMemoryManager.pin(secondBlockId, serializedMemoryStore));
+    blockMemoryManager.unpin(secondBlockId);
+    assertEquals(NUM_ELEMENTS * Integer.BYTES, blockMemoryManager.getTrackedBytes());
+
+    assertTrue(blockMemoryManager.deleteBlock(firstBlockId, serializedMemoryStore));
+    assertFalse(localFileStore.readBlock(firstBlockId).isPresent());
+    assertTrue(blockMemoryManager.deleteBlock(secondBlockId, serializedMemoryStore));
+    assertEquals(0, blockMemoryManager.getTrackedBytes());
+  }
+
+  @Test(timeout = 30000)
+  public void testPinnedBlockIsNotSpilled() throws Exception {
+    setUp(640, 0.2, 0.00001);
+    final String firstBlockId = writeBlock(0, NUM_ELEMENTS);
+    blockMemoryManager.pin(firstBlockId, serializedMemoryStore);
+    writeBlock(1, NUM_ELEMENTS);
+
+    assertTrue(serializedMemoryStore.readBlock(firstBlockId).isPresent());
+    blockMemoryManager.unpin(firstBlockId);
+  }
+
+  @Test(timeout = 30000)
+  public void testReclaimOffheapMemory() throws Exception {
+    // 1MB of off-heap memory, which cannot hold two blocks of 640KB at once.
+    setUp(1, 1.0, 1.0);
+    final int numElements = 160 * 1024;
+    final String firstBlockId = writeBlock(0, numElements);
+    final String secondBlockId = writeBlock(1, numElements);
+
+    assertSame(localFileStore, blockMemoryManager.pin(firstBlockId, serializedMemoryStore));
+    blockMemoryManager.unpin(firstBlockId);
+    assertEquals(getRangedList(0, numElements), readBlock(localFileStore, firstBlockId));
+    assertEquals(getRangedList(0, numElements), readBlock(serializedMemoryStore, secondBlockId));
+  }
+
+  @Test(timeout = 30000)
+  public void testConcurrentSpillAndRead() throws Exception {
+    // About 6.7KB for the blocks in memory, so that the blocks are spilled while the others are read.
+    setUp(640, 0.2, 0.00001);
+    final int numThreads = 4;
+    final int numBlocksPerThread = 10;
+    final ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < numThreads; i++) {
+      final int threadIndex = i;
+      futures.add(executorService.submit(() -> {
+        for (int j = 0; j < numBlocksPerThread; j++) {
+          final int taskIndex = threadIndex * numBlocksPerThread + j;
+          final String blockId = writeBlock(taskIndex, NUM_ELEMENTS);
+          final BlockStore store = blockMemoryManager.pin(blockId, serializedMemoryStore);
+          try {
+            assertEquals(getRangedList(0, NUM_ELEMENTS), readBlock(store, blockId));
+          } finally {
+            blockMemoryManager.unpin(blockId);
+          }
+        }
+        return null;
+      }));
+    }
+    for (final Future<?> future : futures) {
+      future.get();
+    }
+    executorService.shutdown();
+
+    // Every block is readable from the store which holds it.
+    for (int taskIndex = 0; taskIndex < numThreads * numBlocksPerThread; taskIndex++) {
+      final String blockId = RuntimeIdManager.generateBlockId(edgeId,
+        RuntimeIdManager.generateTaskId("STAGE", taskIndex, 0));
+      final BlockStore store = blockMemoryManager.pin(blockId, serializedMemoryStore);
+      assertEquals(getRangedList(0, NUM_ELEMENTS), readBlock(store, blockId));
+      blockMemoryManager.unpin(blockId);
+      assertTrue(blockMemoryManager.deleteBlock(blockId, serializedMemoryStore));
+    }
+    assertEquals(0, blockMemoryManager.getTrackedBytes());
+  }
+
+  @Test(timeout = 30000)
+  public void testEstimateSizeWithFramedEncoder() throws Exception {
+    setUp(640, 0.2, 0.2, new Serializer(FramedEncoderFactory.of(IntEncoderFactory.of()),
+      FramedDecoderFactory.of(IntDecoderFactory.of()), Collections.emptyList(), Collections.emptyList()));
+    final String blockId = RuntimeIdManager.generateBlockId(edgeId, RuntimeIdManager.generateTaskId("STAGE", 0, 0));
+    final Block block = memoryStore.createBlock(blockId);
+    for (int i = 0; i < NUM_ELEMENTS; i++) {
+      block.write(0, i);
+    }
+    block.commit();
+    memoryStore.writeBlock(block);
+    // The size of the block is unknown, and is estimated by encoding samples of the elements.
+    blockMemoryManager.onBlockWritten(block, memoryStore, -1);
+
+    // The frame buffered by the encoder is counted, in addition to the frame headers.
+    final long trackedBytes = blockMemoryManager.getTrackedBytes();
+    assertTrue(trackedBytes >= NUM_ELEMENTS * Integer.BYTES);
+    assertTrue(trackedBytes < 2 * NUM_ELEMENTS * Integer.BYTES);
+    assertTrue(blockMemoryManager.deleteBlock(blockId, memoryStore));
+    assertEquals(0, blockMemoryManager.getTrackedBytes());
+  }
+
+  private String writeBlock(final int taskIndex, final int numElements) {
+    final String blockId = RuntimeIdManager.generateBlockId(edgeId,
+      RuntimeIdManager.generateTaskId("STAGE", taskIndex, 0));
+    final Block block = serializedMemoryStore.createBlock(blockId);
+    for (int i = 0; i < numElements; i++) {
+      block.write(0, i);
+    }
+    block.commit();
+    serializedMemoryStore.writeBlock(block);
+    blockMemoryManager.onBlockWritten(block, serializedMemoryStore, (long) numElements * Integer.BYTES);
+    return blockId;
+  }
+
+  private List<Integer> readBlock(final BlockStore store, final String blockId) throws IOException {
+    final List<Integer> elements = new ArrayList<>();
+    final Iterable<NonSerializedPartition> partitions = store.readBlock(blockId).get().readPartitions(HashRange.all());
+    for (final NonSerializedPartition partition : partitions) {
+      partition.getData().forEach(element -> elements.add((Integer) element));
+    }
+    return elements;
+  }
+
+  private static List<Integer> getRangedList(final int start, final int end) {
+    final List<Integer> list = new ArrayList<>(end - start);
+    for (int i = start; i < end; i++) {
+      list.add(i);
+    }
+    return list;
+  }
+}
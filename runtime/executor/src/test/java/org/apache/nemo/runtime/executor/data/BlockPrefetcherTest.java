@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data;
+
+import com.google.common.io.CountingInputStream;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.coder.IntDecoderFactory;
+import org.apache.nemo.common.coder.IntEncoderFactory;
+import org.apache.nemo.runtime.executor.data.streamchainer.Serializer;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link BlockPrefetcher}.
+ */
+public final class BlockPrefetcherTest {
+  private static final Serializer<Integer, Integer> SERIALIZER = new Serializer<>(
+    IntEncoderFactory.of(), IntDecoderFactory.of(), Collections.emptyList(), Collections.emptyList());
+
+  /**
+   * The first batches of the blocks are decoded within the budget, as the later batches.
+   */
+  @Test(timeout = 10000)
+  public void testBudgetBoundsFirstBatches() throws Exception {
+    final int numBlocks = 8;
+    final int numElementsPerBlock = 4096;
+    final long budgetBytes = 2048;
+    final BlockPrefetcher blockPrefetcher = BlockPrefetcher.withBudgetBytes(budgetBytes, numBlocks);
+    final BlockPrefetcher.Budget budget = blockPrefetcher.newBudget();
+    final List<CountingInputStream> streams = new ArrayList<>(numBlocks);
+    final List<DataUtil.IteratorWithNumBytes<Integer>> blocks = new ArrayList<>(numBlocks);
+    for (int i = 0; i < numBlocks; i++) {
+      final CountingInputStream stream = new CountingInputStream(
+        encode(i * numElementsPerBlock, (i + 1) * numElementsPerBlock));
+      streams.add(stream);
+      blocks.add(blockPrefetcher.prefetch(
+        new DataUtil.InputStreamIterator<>(Collections.<InputStream>singletonList(stream).iterator(), SERIALIZER),
+        budget, () -> { }));
+    }
+
+    // No block is consumed yet, so the blocks decode only what the budget holds,
+    // besides the first element that each block reads to check whether it is empty.
+    Thread.sleep(500);
+    long bytesDecoded = 0;
+    for (final CountingInputStream stream : streams) {
+      bytesDecoded += stream.getCount();
+    }
+    assertTrue(bytesDecoded <= budgetBytes + numBlocks * Integer.BYTES);
+
+    // The parked blocks are resumed as they are consumed
+    for (int i = 0; i < numBlocks; i++) {
+      for (int j = 0; j < numElementsPerBlock; j++) {
+        assertEquals(i * numElementsPerBlock + j, (int) blocks.get(i).next());
+      }
+      assertFalse(blocks.get(i).hasNext());
+    }
+    budget.close();
+    blockPrefetcher.shutdown();
+  }
+
+  private static ByteArrayInputStream encode(final int start, final int end) throws IOException {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    final EncoderFactory.Encoder<Integer> encoder = IntEncoderFactory.of().create(outputStream);
+    for (int i = start; i < end; i++) {
+      encoder.encode(i);
+    }
+    return new ByteArrayInputStream(outputStream.toByteArray());
+  }
+}
@@ -131,6 +131,24 @@ public final class BlockTest {
       compare(expectedData, readData);
     }
     Assert.assertEquals(count, testData.size() * 2);
+
+    // Read a sub-range of the partitions, both deserialized and serialized.
+    final HashRange subRange = HashRange.of(2, 4);
+    count = 0;
+    for (final NonSerializedPartition<Integer> readPartition : block.readPartitions(subRange)) {
+      count++;
+      Assert.assertTrue(subRange.includes(readPartition.getKey()));
+      compare(testData.get(readPartition.getKey()), readPartition.getData());
+    }
+    Assert.assertEquals(count, 4);
+    count = 0;
+    for (final NonSerializedPartition<Integer> readPartition
+      : DataUtil.convertToNonSerPartitions(serializer, block.readSerializedPartitions(subRange))) {
+      count++;
+      Assert.assertTrue(subRange.includes(readPartition.getKey()));
+      compare(testData.get(readPartition.getKey()), readPartition.getData());
+    }
+    Assert.assertEquals(count, 4);
   }
 
   /**
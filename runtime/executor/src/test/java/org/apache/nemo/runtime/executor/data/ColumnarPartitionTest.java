@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data;
+
+import org.apache.nemo.common.Pair;
+import org.apache.nemo.common.coder.DecoderFactory;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.coder.FramedDecoderFactory;
+import org.apache.nemo.common.coder.FramedEncoderFactory;
+import org.apache.nemo.common.coder.IntDecoderFactory;
+import org.apache.nemo.common.coder.IntEncoderFactory;
+import org.apache.nemo.common.coder.LongDecoderFactory;
+import org.apache.nemo.common.coder.LongEncoderFactory;
+import org.apache.nemo.common.coder.PairDecoderFactory;
+import org.apache.nemo.common.coder.PairEncoderFactory;
+import org.apache.nemo.common.punctuation.Watermark;
+import org.apache.nemo.runtime.executor.data.partition.ColumnarFormat;
+import org.apache.nemo.runtime.executor.data.partition.NonSerializedPartition;
+import org.apache.nemo.runtime.executor.data.partition.SerializedPartition;
+import org.apache.nemo.runtime.executor.data.streamchainer.Serializer;
+import org.apache.nemo.runtime.executor.datatransfer.NemoEventDecoderFactory;
+import org.apache.nemo.runtime.executor.datatransfer.NemoEventEncoderFactory;
+import org.apache.nemo.runtime.executor.datatransfer.WatermarkWithIndex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link NonSerializedPartition}s of a {@link ColumnarFormat}.
+ */
+public final class ColumnarPartitionTest {
+  private static final int NUM_ELEMENTS = 10000;
+
+  private final EncoderFactory encoderFactory = PairEncoderFactory.of(IntEncoderFactory.of(), LongEncoderFactory.of());
+  private final DecoderFactory decoderFactory = PairDecoderFactory.of(IntDecoderFactory.of(), LongDecoderFactory.of());
+  private ColumnarFormat columnarFormat;
+  private Serializer columnarSerializer;
+  private Serializer objectSerializer;
+  private MemoryPoolAssigner memoryPoolAssigner;
+
+  @Before
+  public void setUp() {
+    columnarFormat = ColumnarFormat.of(encoderFactory, decoderFactory);
+    columnarSerializer = new Serializer<>(new NemoEventEncoderFactory(encoderFactory),
+      new NemoEventDecoderFactory(decoderFactory), new ArrayList<>(), new ArrayList<>(), columnarFormat);
+    objectSerializer = new Serializer<>(new NemoEventEncoderFactory(encoderFactory),
+      new NemoEventDecoderFactory(decoderFactory), new ArrayList<>(), new ArrayList<>());
+    memoryPoolAssigner = new MemoryPoolAssigner(5, 0.2, 32);
+  }
+
+  @Test
+  public void testColumnarFormat() {
+    assertNotNull(columnarFormat);
+    assertTrue(columnarFormat.isPair());
+    assertEquals(ColumnarFormat.ColumnType.INT, columnarFormat.getLeftType());
+    assertEquals(ColumnarFormat.ColumnType.LONG, columnarFormat.getRightType());
+    // The coders disagree on the type of the right elements.
+    assertNull(ColumnarFormat.of(PairEncoderFactory.of(IntEncoderFactory.of(), IntEncoderFactory.of()),
+      PairDecoderFactory.of(IntDecoderFactory.of(), LongDecoderFactory.of())));
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    final List<Object> elements = new ArrayList<>();
+    final NonSerializedPartition<Integer> partition = new NonSerializedPartition<>(0, columnarFormat);
+    for (int i = 0; i < NUM_ELEMENTS; i++) {
+      final Pair<Integer, Long> element = Pair.of(i % 7, (long) i * i);
+      elements.add(element);
+      partition.write(element);
+    }
+    partition.commit();
+    assertNotNull(partition.getColumns());
+
+    final SerializedPartition<Integer> columnarSerialized = serialize(columnarSerializer, partition);
+    final SerializedPartition<Integer> objectSerialized = serialize(objectSerializer,
+      new NonSerializedPartition<>(0, elements, -1, -1));
+    // The columns are encoded the same as the elements are.
+    assertEquals(readAll(objectSerialized), readAll(columnarSerialized));
+
+    final NonSerializedPartition<Integer> deserialized = deserialize(columnarSerialized);
+    assertNotNull(deserialized.getColumns());
+    assertEquals(elements, toList(deserialized.getData()));
+    assertEquals(columnarSerialized.getLength(), deserialized.getNumSerializedBytes());
+  }
+
+  @Test
+  public void testFramedRoundTrip() throws Exception {
+    final Serializer framedColumnarSerializer = new Serializer<>(
+      FramedEncoderFactory.of(new NemoEventEncoderFactory(encoderFactory)),
+      FramedDecoderFactory.of(new NemoEventDecoderFactory(decoderFactory)),
+      new ArrayList<>(), new ArrayList<>(), columnarFormat);
+    final Serializer framedObjectSerializer = new Serializer<>(
+      FramedEncoderFactory.of(new NemoEventEncoderFactory(encoderFactory)),
+      FramedDecoderFactory.of(new NemoEventDecoderFactory(decoderFactory)),
+      new ArrayList<>(), new ArrayList<>());
+    final List<Object> elements = new ArrayList<>();
+    final NonSerializedPartition<Integer> partition = new NonSerializedPartition<>(0, columnarFormat);
+    for (int i = 0; i < NUM_ELEMENTS; i++) {
+      final Pair<Integer, Long> element = Pair.of(i, (long) -i);
+      elements.add(element);
+      partition.write(element);
+    }
+    partition.commit();
+
+    final SerializedPartition<Integer> serialized = serialize(framedColumnarSerializer, partition);
+    final NonSerializedPartition<Integer> columnar = DataUtil.convertToNonSerPartitions(framedColumnarSerializer,
+      Collections.singletonList(serialized)).iterator().next();
+    assertNotNull(columnar.getColumns());
+    assertEquals(elements, toList(columnar.getData()));
+    // The frames of the columns are readable by the framed decoders.
+    final NonSerializedPartition<Integer> objects = DataUtil.convertToNonSerPartitions(framedObjectSerializer,
+      Collections.singletonList(serialized)).iterator().next();
+    assertEquals(elements, toList(objects.getData()));
+  }
+
+  @Test
+  public void testFallbackOnWatermark() throws Exception {
+    final NonSerializedPartition<Integer> partition = new NonSerializedPartition<>(0, columnarFormat);
+    partition.write(Pair.of(1, 1L));
+    partition.write(Pair.of(2, 2L));
+    partition.write(new WatermarkWithIndex(new Watermark(100L), 3));
+    partition.commit();
+    assertNull(partition.getColumns());
+
+    final List<Object> deserialized = toList(deserialize(serialize(columnarSerializer, partition)).getData());
+    assertEquals(3, deserialized.size());
+    assertEquals(Pair.of(1, 1L), deserialized.get(0));
+    assertEquals(Pair.of(2, 2L), deserialized.get(1));
+    assertEquals(100L, ((WatermarkWithIndex) deserialized.get(2)).getWatermark().getTimestamp());
+  }
+
+  private SerializedPartition<Integer> serialize(final Serializer serializer,
+                                                 final NonSerializedPartition<Integer> partition) throws Exception {
+    return DataUtil.convertToSerPartitions(serializer, Collections.singletonList(partition), memoryPoolAssigner)
+      .iterator().next();
+  }
+
+  private NonSerializedPartition<Integer> deserialize(final SerializedPartition<Integer> partition)
+    throws Exception {
+    return DataUtil.convertToNonSerPartitions(columnarSerializer, Collections.singletonList(partition))
+      .iterator().next();
+  }
+
+  private static List<Object> readAll(final SerializedPartition<Integer> partition) throws Exception {
+    final List<Object> bytes = new ArrayList<>();
+    partition.getDirectBufferList().forEach(buffer -> {
+      while (buffer.hasRemaining()) {
+        bytes.add(buffer.get());
+      }
+    });
+    return bytes;
+  }
+
+  private static List<Object> toList(final Iterable data) {
+    final List<Object> list = new ArrayList<>();
+    data.forEach(list::add);
+    return list;
+  }
+}
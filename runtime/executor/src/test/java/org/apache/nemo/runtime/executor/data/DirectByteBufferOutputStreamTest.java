@@ -115,4 +115,17 @@ public class DirectByteBufferOutputStreamTest {
       offset += byteToRead;
     }
   }
+
+  @Test
+  public void testShrinkLastChunk() throws IOException, MemoryAllocationException {
+    // 4KB + 8KB + 16KB chunks are filled, and the rest goes to a 32KB chunk.
+    String value = RandomStringUtils.randomAlphanumeric(4096 + 8192 + 16384 + 1000);
+    outputStream.write(value.getBytes());
+    outputStream.shrinkLastChunk();
+    assertEquals(value, new String(outputStream.toByteArray()));
+    assertEquals(value.length(), outputStream.size());
+    final List<MemoryChunk> chunkList = outputStream.getMemoryChunkList();
+    assertEquals(4, chunkList.size());
+    assertEquals(4096, chunkList.get(3).getBuffer().capacity());
+  }
 }
@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.concurrent.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class MemoryPoolAssignerTest {
   private MemoryPoolAssigner memoryPoolAssigner;
@@ -97,4 +98,69 @@ public class MemoryPoolAssignerTest {
     // All chunks should be unique
     assertEquals(allocatedChunks.size(), new HashSet<>(allocatedChunks).size());
   }
+
+  @Test
+  public void testSizeClasses() throws MemoryAllocationException {
+    assertEquals(4 * 1024, memoryPoolAssigner.allocateChunk(100).getBuffer().capacity());
+    assertEquals(8 * 1024, memoryPoolAssigner.allocateChunk(5 * 1024).getBuffer().capacity());
+    assertEquals(CHUNK_SIZE_KB * 1024, memoryPoolAssigner.allocateChunk(CHUNK_SIZE_KB * 1024).getBuffer().capacity());
+    assertEquals(CHUNK_SIZE_KB * 1024, memoryPoolAssigner.allocateChunk(1024 * 1024).getBuffer().capacity());
+    assertEquals(Long.valueOf(4 * 1024), memoryPoolAssigner.getUsedBytesPerChunkSize().get(4 * 1024));
+    assertEquals(Long.valueOf(2 * CHUNK_SIZE_KB * 1024),
+      memoryPoolAssigner.getUsedBytesPerChunkSize().get(CHUNK_SIZE_KB * 1024));
+  }
+
+  @Test
+  public void testIdleChunksOfOtherSizeClassesAreFreed() throws MemoryAllocationException {
+    // Fill up the memory with small chunks, and return them all.
+    final List<MemoryChunk> smallChunks = new LinkedList<>();
+    for (int i = 0; i < MAX_MEM_MB * 1024 / 4; i++) {
+      smallChunks.add(memoryPoolAssigner.allocateChunk(100));
+    }
+    assertNull(memoryPoolAssigner.tryAllocateChunk(100));
+    memoryPoolAssigner.returnChunksToPool(smallChunks);
+    assertEquals(smallChunks.size(), memoryPoolAssigner.poolSize());
+
+    // The large chunks can still take up the whole memory.
+    for (int i = 0; i < MAX_NUM_CHUNKS; i++) {
+      memoryPoolAssigner.allocateChunk();
+    }
+    assertEquals(0, memoryPoolAssigner.poolSize());
+  }
+
+  @Test
+  public void testOnlyTheIdleChunksNeededAreDropped() throws MemoryAllocationException {
+    // Fill up the memory with small chunks, and return them all.
+    final List<MemoryChunk> smallChunks = new LinkedList<>();
+    for (int i = 0; i < MAX_MEM_MB * 1024 / 4; i++) {
+      smallChunks.add(memoryPoolAssigner.allocateChunk(100));
+    }
+    memoryPoolAssigner.returnChunksToPool(smallChunks);
+
+    // A large chunk takes the place of just as many small chunks, and the rest are kept for reuse.
+    memoryPoolAssigner.allocateChunk();
+    assertEquals(smallChunks.size() - CHUNK_SIZE_KB / 4, memoryPoolAssigner.poolSize());
+    assertEquals(Long.valueOf((MAX_MEM_MB * 1024 - CHUNK_SIZE_KB) * 1024),
+      memoryPoolAssigner.getIdleBytesPerChunkSize().get(4 * 1024));
+  }
+
+  @Test
+  public void testChunksCachedByTerminatedThreadsAreReused() throws Exception {
+    // Each thread caches the chunk it returns, and terminates.
+    for (int i = 0; i < 2 * MAX_NUM_CHUNKS; i++) {
+      final Thread thread = new Thread(() -> {
+        try {
+          memoryPoolAssigner.returnChunksToPool(Arrays.asList(memoryPoolAssigner.allocateChunk()));
+        } catch (final MemoryAllocationException e) {
+          throw new RuntimeException(e);
+        }
+      });
+      thread.start();
+      thread.join();
+    }
+    // The next threads take over the chunk of the terminated ones, instead of allocating new ones.
+    assertEquals(1, memoryPoolAssigner.poolSize());
+    assertEquals(Long.valueOf(CHUNK_SIZE_KB * 1024),
+      memoryPoolAssigner.getIdleBytesPerChunkSize().get(CHUNK_SIZE_KB * 1024));
+  }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.data.streamchainer;
+
+import com.google.common.io.ByteStreams;
+import org.apache.nemo.common.ir.edge.executionproperty.CompressionProperty;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests {@link AdaptiveCompressionSelector} and the adaptive {@link CompressionStreamChainer}.
+ */
+public class AdaptiveCompressionSelectorTest {
+  private static final int NUM_BYTES = 64 * 1024;
+
+  @Test
+  public void testCompressibleData() throws IOException {
+    final AdaptiveCompressionSelector selector = new AdaptiveCompressionSelector("edge", 3, 1);
+    final byte[] data = getText();
+    for (int i = 0; i < 4; i++) {
+      assertArrayEquals(data, roundTrip(selector, data));
+    }
+    assertNotEquals(CompressionProperty.Value.NONE, selector.getSelectedCompression());
+    assertArrayEquals(data, roundTrip(selector, data));
+  }
+
+  @Test
+  public void testIncompressibleData() throws IOException {
+    final AdaptiveCompressionSelector selector = new AdaptiveCompressionSelector("edge", 3, 10000);
+    final byte[] data = new byte[NUM_BYTES];
+    new Random(0).nextBytes(data);
+    for (int i = 0; i < 4; i++) {
+      assertArrayEquals(data, roundTrip(selector, data));
+    }
+    assertEquals(CompressionProperty.Value.NONE, selector.getSelectedCompression());
+    assertArrayEquals(data, roundTrip(selector, data));
+  }
+
+  @Test
+  public void testTinyStreamsDoNotDecideAlone() throws IOException {
+    final AdaptiveCompressionSelector selector = new AdaptiveCompressionSelector("edge", 3, 1);
+    final byte[] element = "key0,value0\n".getBytes();
+    for (int i = 0; i < 16; i++) {
+      assertArrayEquals(element, roundTrip(selector, element));
+    }
+    assertNull(selector.getSelectedCompression());
+
+    final byte[] data = getText();
+    for (int i = 0; i < 4; i++) {
+      assertArrayEquals(data, roundTrip(selector, data));
+    }
+    assertNotEquals(CompressionProperty.Value.NONE, selector.getSelectedCompression());
+  }
+
+  @Test
+  public void testHeaders() {
+    // The headers are written on the wire, and must not change.
+    assertEquals(0, CompressionStreamChainer.toHeader(CompressionProperty.Value.NONE));
+    assertEquals(1, CompressionStreamChainer.toHeader(CompressionProperty.Value.GZIP));
+    assertEquals(2, CompressionStreamChainer.toHeader(CompressionProperty.Value.LZ4));
+    assertEquals(3, CompressionStreamChainer.toHeader(CompressionProperty.Value.ZSTD));
+    for (final CompressionProperty.Value compression : new CompressionProperty.Value[]{
+      CompressionProperty.Value.NONE, CompressionProperty.Value.GZIP,
+      CompressionProperty.Value.LZ4, CompressionProperty.Value.ZSTD}) {
+      assertEquals(compression, CompressionStreamChainer.fromHeader(CompressionStreamChainer.toHeader(compression)));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidZstdLevel() {
+    new CompressionStreamChainer(CompressionProperty.Value.ZSTD, 23);
+  }
+
+  private static byte[] getText() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; builder.length() < NUM_BYTES; i++) {
+      builder.append("key").append(i % 100).append(",value").append(i % 7).append('\n');
+    }
+    return builder.toString().getBytes();
+  }
+
+  private static byte[] roundTrip(final AdaptiveCompressionSelector selector, final byte[] data) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out = new CompressionStreamChainer(selector, 3).chainOutput(bytes)) {
+      out.write(data);
+    }
+    try (InputStream in = new DecompressionStreamChainer(CompressionProperty.Value.ADAPTIVE)
+      .chainInput(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+}
@@ -49,9 +49,11 @@ import org.apache.nemo.runtime.executor.Executor;
 import org.apache.nemo.runtime.executor.MetricManagerWorker;
 import org.apache.nemo.runtime.executor.TestUtil;
 import org.apache.nemo.runtime.executor.data.BlockManagerWorker;
+import org.apache.nemo.runtime.executor.data.BroadcastManagerWorker;
 import org.apache.nemo.runtime.executor.data.DataUtil;
 import org.apache.nemo.runtime.executor.data.SerializerManager;
 import org.apache.nemo.runtime.master.BlockManagerMaster;
+import org.apache.nemo.runtime.master.BroadcastManagerMaster;
 import org.apache.nemo.runtime.master.RuntimeMaster;
 import org.apache.nemo.runtime.master.metric.MetricManagerMaster;
 import org.apache.nemo.runtime.master.metric.MetricMessageHandler;
@@ -89,6 +91,8 @@ import static org.apache.nemo.common.dag.DAG.EMPTY_DAG_DIRECTORY;
 import static org.apache.nemo.runtime.common.RuntimeTestUtil.flatten;
 import static org.apache.nemo.runtime.common.RuntimeTestUtil.getRangedNumList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -114,6 +118,7 @@ public final class DataTransferTest {
   private static final String TMP_LOCAL_FILE_DIRECTORY = "./tmpLocalFiles";
   private static final String TMP_REMOTE_FILE_DIRECTORY = "./tmpRemoteFiles";
   private static final int PARALLELISM_TEN = 10;
+  private static final int BROADCAST_CHUNK_SIZE_KB = 16;
   private static final String EDGE_PREFIX_TEMPLATE = "Dummy(%d)";
   private static final AtomicInteger TEST_INDEX = new AtomicInteger(0);
   private static final EncoderFactory ENCODER_FACTORY =
@@ -127,6 +132,7 @@ public final class DataTransferTest {
   private IntermediateDataIOFactory transferFactory;
   private BlockManagerWorker worker2;
   private HashMap<BlockManagerWorker, SerializerManager> serializerManagers = new HashMap<>();
+  private HashMap<BlockManagerWorker, BroadcastManagerWorker> broadcastManagerWorkers = new HashMap<>();
   private MetricManagerWorker metricMessageSender;
 
   @Before
@@ -150,6 +156,7 @@ public final class DataTransferTest {
     injector.bindVolatileInstance(MetricMessageHandler.class, mock(MetricMessageHandler.class));
     injector.bindVolatileParameter(JobConf.DAGDirectory.class, EMPTY_DAG_DIRECTORY);
     injector.bindVolatileParameter(JobConf.JobId.class, "jobId");
+    injector.bindVolatileParameter(JobConf.BroadcastChunkSizeKb.class, BROADCAST_CHUNK_SIZE_KB);
 
     // Necessary for wiring up the message environments
     injector.bindVolatileInstance(Scheduler.class, injector.getInstance(BatchScheduler.class));
@@ -190,6 +197,7 @@ public final class DataTransferTest {
       .bindNamedParameter(MessageParameters.SenderId.class, executorId)
       .bindNamedParameter(JobConf.ExecutorMemoryMb.class, "640")
       .bindNamedParameter(JobConf.MaxOffheapRatio.class, "0.2")
+      .bindNamedParameter(JobConf.BroadcastChunkSizeKb.class, Integer.toString(BROADCAST_CHUNK_SIZE_KB))
       .build();
     final Injector injector = nameClientInjector.forkInjector(executorConfiguration);
     injector.bindVolatileInstance(MessageEnvironment.class, messageEnvironment);
@@ -203,6 +211,7 @@ public final class DataTransferTest {
       blockManagerWorker = injector.getInstance(BlockManagerWorker.class);
       serializerManager = injector.getInstance(SerializerManager.class);
       serializerManagers.put(blockManagerWorker, serializerManager);
+      broadcastManagerWorkers.put(blockManagerWorker, injector.getInstance(BroadcastManagerWorker.class));
       intermediateDataIOFactory = injector.getInstance(IntermediateDataIOFactory.class);
     } catch (final InjectionException e) {
       throw new RuntimeException(e);
@@ -233,7 +242,7 @@ public final class DataTransferTest {
   }
 
   @Test
-  public void testWriteAndRead() {
+  public void testWriteAndRead() throws InterruptedException {
     // test OneToOne same worker
     writeAndRead(worker1, worker1, CommunicationPatternProperty.Value.ONE_TO_ONE, MEMORY_STORE);
 
@@ -305,6 +314,56 @@ public final class DataTransferTest {
 
     // test ManyToMany different worker (remote file) with duplicate data
     writeAndReadWithDuplicateData(worker1, worker2, CommunicationPatternProperty.Value.SHUFFLE, REMOTE_FILE_STORE);
+
+    // test broadcast variable chunks fetched from a different worker
+    broadcastBetweenExecutors();
+  }
+
+  private void broadcastBetweenExecutors() throws InterruptedException {
+    final String broadcastId = "broadcast" + TEST_INDEX.getAndIncrement();
+    final ArrayList<Integer> variable =
+      IntStream.range(0, 100000).boxed().collect(Collectors.toCollection(ArrayList::new));
+    BroadcastManagerMaster.registerBroadcastVariablesFromClient(Collections.singletonMap(broadcastId, variable));
+
+    // The first executor fetches all chunks from the master
+    assertEquals(variable, broadcastManagerWorkers.get(worker1).get(broadcastId));
+    final Pair<Integer, Integer> versionAndNumChunks = BroadcastManagerMaster
+      .getVersionAndNumChunks(broadcastId, BROADCAST_CHUNK_SIZE_KB * 1024).get();
+    final int version = versionAndNumChunks.left();
+    final int numChunks = versionAndNumChunks.right();
+    assertTrue(numChunks > 1);
+    final String firstExecutorId = EXECUTOR_ID_PREFIX + 0;
+    final String secondExecutorId = EXECUTOR_ID_PREFIX + 1;
+    while (!IntStream.range(0, numChunks).allMatch(chunkIndex -> BroadcastManagerMaster
+      .selectChunkHolder(broadcastId, version, chunkIndex, secondExecutorId).isPresent())) {
+      Thread.sleep(10);
+    }
+
+    // The second executor fetches all chunks from the first executor
+    assertEquals(variable, broadcastManagerWorkers.get(worker2).get(broadcastId));
+    while (!IntStream.range(0, numChunks).allMatch(chunkIndex -> BroadcastManagerMaster
+      .selectChunkHolder(broadcastId, version, chunkIndex, firstExecutorId).isPresent())) {
+      Thread.sleep(10);
+    }
+    IntStream.range(0, numChunks).forEach(chunkIndex -> assertEquals(Optional.of(secondExecutorId),
+      BroadcastManagerMaster.selectChunkHolder(broadcastId, version, chunkIndex, firstExecutorId)));
+
+    // The variable registered again has a new version, with which the chunks of the old version are not mixed up
+    BroadcastManagerMaster.registerBroadcastVariablesFromClient(
+      Collections.singletonMap(broadcastId, new ArrayList<>(variable.subList(0, 10))));
+    final Pair<Integer, Integer> newVersionAndNumChunks = BroadcastManagerMaster
+      .getVersionAndNumChunks(broadcastId, BROADCAST_CHUNK_SIZE_KB * 1024).get();
+    assertNotEquals(version, (int) newVersionAndNumChunks.left());
+    assertEquals(1, (int) newVersionAndNumChunks.right());
+    BroadcastManagerMaster.onChunkHeld(broadcastId, version, numChunks - 1, secondExecutorId);
+    BroadcastManagerMaster.onChunkHeld(broadcastId, version, 0, secondExecutorId);
+    assertFalse(BroadcastManagerMaster.selectChunkHolder(broadcastId, version, 0, firstExecutorId).isPresent());
+    assertFalse(BroadcastManagerMaster.getChunk(broadcastId, version, 0).isPresent());
+    assertFalse(BroadcastManagerMaster
+      .selectChunkHolder(broadcastId, newVersionAndNumChunks.left(), 0, firstExecutorId).isPresent());
+    assertTrue(BroadcastManagerMaster.getChunk(broadcastId, newVersionAndNumChunks.left(), 0).isPresent());
+    assertFalse(BroadcastManagerMaster
+      .getVersionAndNumChunks("unknown" + broadcastId, BROADCAST_CHUNK_SIZE_KB * 1024).isPresent());
   }
 
   private void writeAndRead(final BlockManagerWorker sender,
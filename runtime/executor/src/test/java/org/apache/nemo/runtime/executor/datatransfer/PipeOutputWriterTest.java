@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.datatransfer;
+
+import org.apache.nemo.common.ir.edge.IREdge;
+import org.apache.nemo.common.ir.edge.executionproperty.CommunicationPatternProperty;
+import org.apache.nemo.common.ir.executionproperty.ExecutionPropertyMap;
+import org.apache.nemo.common.ir.vertex.OperatorVertex;
+import org.apache.nemo.common.test.EmptyComponents;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.apache.nemo.runtime.common.plan.Stage;
+import org.apache.nemo.runtime.common.plan.StageEdge;
+import org.apache.nemo.runtime.executor.bytetransfer.ByteOutputContext;
+import org.apache.nemo.runtime.executor.data.PipeManagerWorker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the batching of {@link PipeOutputWriter}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({PipeManagerWorker.class, ByteOutputContext.class, ByteOutputContext.ByteOutputStream.class,
+  IREdge.class, Stage.class})
+public final class PipeOutputWriterTest {
+  private static final int BATCH_SIZE_BYTES = 100;
+  private static final long LINGER_MS = 100;
+
+  private final ScheduledExecutorService lingerFlusher = Executors.newSingleThreadScheduledExecutor();
+  private ByteOutputContext pipe;
+  private ByteOutputContext.ByteOutputStream firstBatch;
+  private ByteOutputContext.ByteOutputStream secondBatch;
+  private PipeOutputWriter pipeOutputWriter;
+
+  @Before
+  public void setUp() throws Exception {
+    firstBatch = mock(ByteOutputContext.ByteOutputStream.class);
+    secondBatch = mock(ByteOutputContext.ByteOutputStream.class);
+    pipe = mock(ByteOutputContext.class);
+    when(pipe.newOutputStream()).thenReturn(firstBatch, secondBatch);
+    when(pipe.hasCredits()).thenReturn(true);
+
+    final PipeManagerWorker pipeManagerWorker = mock(PipeManagerWorker.class);
+    when(pipeManagerWorker.getBatchSizeBytes()).thenReturn(BATCH_SIZE_BYTES);
+    when(pipeManagerWorker.getOutputContexts(any(), any(Long.class))).thenReturn(Collections.singletonList(pipe));
+    when(pipeManagerWorker.scheduleBatchFlush(any())).thenAnswer(invocation ->
+      lingerFlusher.schedule((Runnable) invocation.getArgument(0), LINGER_MS, TimeUnit.MILLISECONDS));
+
+    final StageEdge stageEdge = new StageEdge("edge",
+      ExecutionPropertyMap.of(mock(IREdge.class), CommunicationPatternProperty.Value.ONE_TO_ONE),
+      new OperatorVertex(new EmptyComponents.EmptyTransform<>("src")),
+      new OperatorVertex(new EmptyComponents.EmptyTransform<>("dst")),
+      mock(Stage.class),
+      mock(Stage.class));
+    pipeOutputWriter = new PipeOutputWriter(RuntimeIdManager.generateTaskId("Stage0", 0, 0), stageEdge,
+      pipeManagerWorker);
+  }
+
+  @After
+  public void tearDown() {
+    lingerFlusher.shutdownNow();
+  }
+
+  /**
+   * A batch is written once it reaches the size, and the next elements go to a new batch.
+   */
+  @Test
+  public void testSizeTriggeredFlush() throws Exception {
+    final AtomicInteger numBytes = new AtomicInteger(0);
+    when(firstBatch.writeElementToBatch(any(), any())).thenAnswer(invocation -> numBytes.addAndGet(60));
+
+    pipeOutputWriter.write(1);
+    verify(firstBatch, never()).close();
+    pipeOutputWriter.write(2);
+    verify(firstBatch, times(1)).close();
+    pipeOutputWriter.write(3);
+    verify(secondBatch, times(1)).writeElementToBatch(any(), any());
+
+    // The linger flush of the first batch does not flush the second batch.
+    Thread.sleep(LINGER_MS / 2 + 10);
+    verify(secondBatch, never()).close();
+  }
+
+  /**
+   * A batch is written once it lingers for the configured time, without more elements.
+   */
+  @Test
+  public void testLingerFlush() throws Exception {
+    when(firstBatch.writeElementToBatch(any(), any())).thenReturn(10);
+
+    pipeOutputWriter.write(1);
+    verify(firstBatch, never()).close();
+    verify(firstBatch, timeout(10 * LINGER_MS).times(1)).close();
+
+    pipeOutputWriter.write(2);
+    verify(secondBatch, times(1)).writeElementToBatch(any(), any());
+    pipeOutputWriter.close();
+    verify(secondBatch, times(1)).close();
+    verify(pipe, times(1)).close();
+  }
+
+  /**
+   * A lingering batch is not flushed while the pipe has no credits, so that the flush thread does not wait for them.
+   */
+  @Test
+  public void testLingerFlushWaitsForCredits() throws Exception {
+    when(firstBatch.writeElementToBatch(any(), any())).thenReturn(10);
+    when(pipe.hasCredits()).thenReturn(false);
+
+    pipeOutputWriter.write(1);
+    Thread.sleep(3 * LINGER_MS);
+    verify(firstBatch, never()).close();
+
+    when(pipe.hasCredits()).thenReturn(true);
+    verify(firstBatch, timeout(10 * LINGER_MS).times(1)).close();
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.executor.task;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link DataFetcherSelector}.
+ */
+public final class DataFetcherSelectorTest {
+
+  /**
+   * A waiter parks until signaled, and the signal is kept until consumed.
+   */
+  @Test(timeout = 10000)
+  public void testAwaitUntilSignaled() throws Exception {
+    final DataFetcherSelector selector = new DataFetcherSelector();
+    final CountDownLatch awoken = new CountDownLatch(1);
+    final Thread waiter = new Thread(() -> {
+      selector.await(Long.MAX_VALUE);
+      awoken.countDown();
+    });
+    waiter.start();
+    while (!(LockSupport.getBlocker(waiter) == selector && waiter.getState() == Thread.State.WAITING)) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, awoken.getCount());
+
+    selector.signal();
+    assertTrue(awoken.await(5, TimeUnit.SECONDS));
+    assertTrue(selector.consumeSignal());
+    assertFalse(selector.consumeSignal());
+  }
+
+  /**
+   * A signal given before waiting is not lost, and a wait without a signal returns after the timeout.
+   */
+  @Test(timeout = 10000)
+  public void testSignalBeforeAwait() {
+    final DataFetcherSelector selector = new DataFetcherSelector();
+    selector.signal();
+    selector.await(Long.MAX_VALUE);
+    assertTrue(selector.consumeSignal());
+
+    selector.await(10);
+    assertFalse(selector.consumeSignal());
+  }
+}
@@ -18,13 +18,19 @@
  */
 package org.apache.nemo.runtime.executor.task;
 
+import com.google.common.io.CountingInputStream;
+import org.apache.nemo.common.coder.EncoderFactory;
+import org.apache.nemo.common.coder.IntDecoderFactory;
+import org.apache.nemo.common.coder.IntEncoderFactory;
 import org.apache.nemo.common.ir.OutputCollector;
 import org.apache.nemo.common.ir.edge.executionproperty.BlockFetchFailureProperty;
 import org.apache.nemo.common.ir.executionproperty.EdgeExecutionProperty;
 import org.apache.nemo.common.ir.executionproperty.ExecutionPropertyMap;
 import org.apache.nemo.common.ir.vertex.IRVertex;
 import org.apache.nemo.common.punctuation.Finishmark;
+import org.apache.nemo.runtime.executor.data.BlockPrefetcher;
 import org.apache.nemo.runtime.executor.data.DataUtil;
+import org.apache.nemo.runtime.executor.data.streamchainer.Serializer;
 import org.apache.nemo.runtime.executor.datatransfer.BlockInputReader;
 import org.apache.nemo.runtime.executor.datatransfer.InputReader;
 import org.junit.Test;
@@ -33,9 +39,13 @@ import org.mockito.Mockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -54,6 +64,8 @@ import static org.mockito.Mockito.when;
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({InputReader.class, VertexHarness.class, BlockInputReader.class})
 public final class ParentTaskDataFetcherTest {
+  private static final Serializer<Integer, Integer> SERIALIZER = new Serializer<>(
+    IntEncoderFactory.of(), IntDecoderFactory.of(), Collections.emptyList(), Collections.emptyList());
 
   @Test(timeout = 5000)
   public void testEmpty() throws Exception {
@@ -137,6 +149,85 @@ public final class ParentTaskDataFetcherTest {
     fetcher.fetchDataElement(); // checked by 'expected = IOException.class'
   }
 
+  @Test(timeout = 5000)
+  public void testPrefetchMultipleBlocks() throws Exception {
+    final int numBlocks = 3;
+    final int numElementsPerBlock = 1000;
+    final List<CompletableFuture<DataUtil.IteratorWithNumBytes>> futures = new ArrayList<>(numBlocks);
+    for (int i = 0; i < numBlocks; i++) {
+      futures.add(generateStreamFuture(encode(i * numElementsPerBlock, (i + 1) * numElementsPerBlock)));
+    }
+    final InputReader inputReader = generateInputReader(futures.get(0));
+    when(inputReader.read()).thenReturn(futures);
+
+    // Fetcher, which decodes the blocks on the prefetch threads
+    final BlockPrefetcher blockPrefetcher = new BlockPrefetcher(1, 2);
+    final ParentTaskDataFetcher fetcher = new ParentTaskDataFetcher(
+      mock(IRVertex.class), inputReader, mock(OutputCollector.class), blockPrefetcher);
+
+    // Should return the elements of the blocks in order
+    for (int i = 0; i < numBlocks * numElementsPerBlock; i++) {
+      assertEquals(i, fetcher.fetchDataElement());
+    }
+    assertEquals(Finishmark.getInstance(), fetcher.fetchDataElement());
+    fetcher.close();
+    blockPrefetcher.shutdown();
+  }
+
+  @Test(timeout = 10000)
+  public void testPrefetchWithTinyBudget() throws Exception {
+    final int numBlocks = 3;
+    final int numElementsPerBlock = 4096;
+    final List<CountingInputStream> streams = new ArrayList<>(numBlocks);
+    final List<CompletableFuture<DataUtil.IteratorWithNumBytes>> futures = new ArrayList<>(numBlocks);
+    for (int i = 0; i < numBlocks; i++) {
+      final CountingInputStream stream = new CountingInputStream(
+        encode(i * numElementsPerBlock, (i + 1) * numElementsPerBlock));
+      streams.add(stream);
+      futures.add(generateStreamFuture(stream));
+    }
+    final InputReader inputReader = generateInputReader(futures.get(0));
+    when(inputReader.read()).thenReturn(futures);
+
+    // Fetcher, whose budget is smaller than a batch, so that the blocks ahead are parked
+    final BlockPrefetcher blockPrefetcher = BlockPrefetcher.withBudgetBytes(16, 2);
+    final ParentTaskDataFetcher fetcher = new ParentTaskDataFetcher(
+      mock(IRVertex.class), inputReader, mock(OutputCollector.class), blockPrefetcher);
+
+    assertEquals(0, fetcher.fetchDataElement());
+    Thread.sleep(500);
+    // The blocks ahead of the consumer are not decoded beyond the budget
+    final long blockBytes = (long) numElementsPerBlock * Integer.BYTES;
+    for (int i = 1; i < numBlocks; i++) {
+      assertTrue(streams.get(i).getCount() < blockBytes / 2);
+    }
+
+    // The parked blocks are resumed as the consumer reaches them
+    for (int i = 1; i < numBlocks * numElementsPerBlock; i++) {
+      assertEquals(i, fetcher.fetchDataElement());
+    }
+    assertEquals(Finishmark.getInstance(), fetcher.fetchDataElement());
+    for (final CountingInputStream stream : streams) {
+      assertEquals(blockBytes, stream.getCount());
+    }
+    fetcher.close();
+    blockPrefetcher.shutdown();
+  }
+
+  @Test(timeout = 5000, expected = IOException.class)
+  public void testErrorWhenPrefetchingData() throws Exception {
+    // Failed stream iterator
+    final InputReader inputReader = generateInputReader(CompletableFuture.completedFuture(
+      new DataUtil.InputStreamIterator<Integer>(new FailedIterator(), SERIALIZER)));
+
+    // Fetcher, which decodes the block on the prefetch threads
+    final ParentTaskDataFetcher fetcher = new ParentTaskDataFetcher(
+      mock(IRVertex.class), inputReader, mock(OutputCollector.class), new BlockPrefetcher(1, 1));
+
+    // Should throw an IOException
+    fetcher.fetchDataElement(); // checked by 'expected = IOException.class'
+  }
+
   private ParentTaskDataFetcher createFetcher(final InputReader readerForParentTask) {
     return new ParentTaskDataFetcher(
       mock(IRVertex.class),
@@ -167,6 +258,20 @@ public final class ParentTaskDataFetcherTest {
     return CompletableFuture.completedFuture(DataUtil.IteratorWithNumBytes.of(iterator));
   }
 
+  private CompletableFuture<DataUtil.IteratorWithNumBytes> generateStreamFuture(final InputStream stream) {
+    return CompletableFuture.completedFuture(
+      new DataUtil.InputStreamIterator<>(Collections.singletonList(stream).iterator(), SERIALIZER));
+  }
+
+  private InputStream encode(final int start, final int end) throws IOException {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    final EncoderFactory.Encoder<Integer> encoder = IntEncoderFactory.of().create(outputStream);
+    for (int i = start; i < end; i++) {
+      encoder.encode(i);
+    }
+    return new ByteArrayInputStream(outputStream.toByteArray());
+  }
+
   private class FailedIterator implements Iterator {
     @Override
     public boolean hasNext() {
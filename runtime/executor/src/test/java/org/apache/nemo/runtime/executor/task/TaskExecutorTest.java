@@ -46,11 +46,14 @@ import org.apache.nemo.runtime.common.plan.StageEdge;
 import org.apache.nemo.runtime.common.plan.Task;
 import org.apache.nemo.runtime.executor.MetricMessageSender;
 import org.apache.nemo.runtime.executor.TaskStateManager;
+import org.apache.nemo.runtime.executor.data.BlockPrefetcher;
 import org.apache.nemo.runtime.executor.data.BroadcastManagerWorker;
 import org.apache.nemo.runtime.executor.data.DataUtil;
+import org.apache.nemo.runtime.executor.data.SpillStoreFactory;
 import org.apache.nemo.runtime.executor.datatransfer.InputReader;
 import org.apache.nemo.runtime.executor.datatransfer.IntermediateDataIOFactory;
 import org.apache.nemo.runtime.executor.datatransfer.OutputWriter;
+import org.apache.nemo.runtime.executor.datatransfer.PipeInputReader;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -67,6 +70,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -81,12 +85,14 @@ import static org.mockito.Mockito.*;
  */
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({InputReader.class, OutputWriter.class, IntermediateDataIOFactory.class, BroadcastManagerWorker.class,
-  TaskStateManager.class, StageEdge.class, PersistentConnectionToMasterMap.class, Stage.class, IREdge.class})
+  SpillStoreFactory.class, TaskStateManager.class, StageEdge.class,
+  PersistentConnectionToMasterMap.class, Stage.class, IREdge.class, PipeInputReader.class})
 public final class TaskExecutorTest {
   private static final AtomicInteger RUNTIME_EDGE_ID = new AtomicInteger(0);
   private static final int DATA_SIZE = 100;
   private static final ExecutionPropertyMap<VertexExecutionProperty> TASK_EXECUTION_PROPERTY_MAP
     = new ExecutionPropertyMap<>("TASK_EXECUTION_PROPERTY_MAP");
+  private static final String IR_DAG_DIGEST = "IR_DAG_DIGEST";
   private static final int SOURCE_PARALLELISM = 5;
   private static final int FIRST_ATTEMPT = 0;
 
@@ -94,6 +100,7 @@ public final class TaskExecutorTest {
   private Map<String, List> runtimeEdgeToOutputData;
   private IntermediateDataIOFactory intermediateDataIOFactory;
   private BroadcastManagerWorker broadcastManagerWorker;
+  private SpillStoreFactory spillStoreFactory;
   private TaskStateManager taskStateManager;
   private MetricMessageSender metricMessageSender;
   private PersistentConnectionToMasterMap persistentConnectionToMasterMap;
@@ -125,6 +132,7 @@ public final class TaskExecutorTest {
 
     persistentConnectionToMasterMap = mock(PersistentConnectionToMasterMap.class);
     broadcastManagerWorker = mock(BroadcastManagerWorker.class);
+    spillStoreFactory = mock(SpillStoreFactory.class);
   }
 
   private boolean checkEqualElements(final List<Integer> left, final List<Integer> right) {
@@ -178,7 +186,7 @@ public final class TaskExecutorTest {
         "testSourceVertexDataFetching",
         generateTaskId(),
         TASK_EXECUTION_PROPERTY_MAP,
-        new byte[0],
+        IR_DAG_DIGEST,
         Collections.emptyList(),
         Collections.singletonList(taskOutEdge),
         vertexIdToReadable);
@@ -243,7 +251,7 @@ public final class TaskExecutorTest {
         "testSourceVertexDataFetching",
         generateTaskId(),
         TASK_EXECUTION_PROPERTY_MAP,
-        new byte[0],
+        IR_DAG_DIGEST,
         Collections.emptyList(),
         Collections.singletonList(taskOutEdge),
         vertexIdToReadable);
@@ -277,7 +285,7 @@ public final class TaskExecutorTest {
       "testSourceVertexDataFetching",
       generateTaskId(),
       TASK_EXECUTION_PROPERTY_MAP,
-      new byte[0],
+      IR_DAG_DIGEST,
       Collections.singletonList(mockStageEdgeTo(vertex)),
       Collections.singletonList(taskOutEdge),
       Collections.emptyMap());
@@ -290,6 +298,52 @@ public final class TaskExecutorTest {
     assertTrue(checkEqualElements(elements, runtimeEdgeToOutputData.get(taskOutEdge.getId())));
   }
 
+  /**
+   * The task thread parks on its selector until woken up, rather than polls, while its pipes have no data,
+   * and then processes the data once it arrives.
+   *
+   * @throws Exception exception on the way.
+   */
+  @Test(timeout = 10000)
+  public void testWaitForPipeDataWithoutSpinning() throws Exception {
+    final IRVertex vertex = new OperatorVertex(new StreamTransform());
+    final DAG<IRVertex, RuntimeEdge<IRVertex>> taskDag = new DAGBuilder<IRVertex, RuntimeEdge<IRVertex>>()
+      .addVertex(vertex)
+      .buildWithoutSourceSinkCheck();
+
+    final StageEdge taskInEdge = mockStageEdgeTo(vertex);
+    final StageEdge taskOutEdge = mockStageEdgeFrom(vertex);
+    final CompletableFuture<DataUtil.IteratorWithNumBytes> pipeData = new CompletableFuture<>();
+    final PipeInputReader pipeInputReader = mock(PipeInputReader.class);
+    when(pipeInputReader.getSrcIrVertex()).thenReturn(taskInEdge.getSrcIRVertex());
+    when(pipeInputReader.getElementQueueCapacity()).thenReturn(DATA_SIZE);
+    when(pipeInputReader.read()).thenReturn(Collections.singletonList(pipeData));
+    doReturn(pipeInputReader).when(intermediateDataIOFactory).createReader(any(), any(), any());
+
+    final Task task = new Task(
+      "testWaitForPipeDataWithoutSpinning",
+      generateTaskId(),
+      TASK_EXECUTION_PROPERTY_MAP,
+      IR_DAG_DIGEST,
+      Collections.singletonList(taskInEdge),
+      Collections.singletonList(taskOutEdge),
+      Collections.emptyMap());
+    final TaskExecutor taskExecutor = getTaskExecutor(task, taskDag);
+    final Thread taskThread = new Thread(taskExecutor::execute);
+    taskThread.start();
+
+    // The task thread runs out of data, and parks without a timeout, which it never does if it polls.
+    while (!(LockSupport.getBlocker(taskThread) instanceof DataFetcherSelector
+      && taskThread.getState() == Thread.State.WAITING)) {
+      Thread.sleep(10);
+    }
+
+    // The data wakes up the task thread.
+    pipeData.complete(DataUtil.IteratorWithNumBytes.of(elements.iterator()));
+    taskThread.join();
+    assertTrue(checkEqualElements(elements, runtimeEdgeToOutputData.get(taskOutEdge.getId())));
+  }
+
   private void waitUntilWatermarkEmitted(final Queue<Long> watermarkQueue) {
     while (!watermarkQueue.isEmpty()) {
       try {
@@ -355,7 +409,7 @@ public final class TaskExecutorTest {
         "testSourceVertexDataFetching",
         generateTaskId(),
         TASK_EXECUTION_PROPERTY_MAP,
-        new byte[0],
+        IR_DAG_DIGEST,
         Collections.emptyList(),
         Collections.singletonList(taskOutEdge),
         vertexIdToReadable);
@@ -421,7 +475,7 @@ public final class TaskExecutorTest {
       "testSourceVertexDataFetching",
       generateTaskId(),
       TASK_EXECUTION_PROPERTY_MAP,
-      new byte[0],
+      IR_DAG_DIGEST,
       Collections.singletonList(mockStageEdgeTo(operatorIRVertex1)),
       Collections.singletonList(taskOutEdge),
       Collections.emptyMap());
@@ -458,7 +512,7 @@ public final class TaskExecutorTest {
       "testSourceVertexDataFetching",
       generateTaskId(),
       TASK_EXECUTION_PROPERTY_MAP,
-      new byte[0],
+      IR_DAG_DIGEST,
       Collections.singletonList(taskInEdge),
       Collections.singletonList(taskOutEdge),
       Collections.emptyMap());
@@ -521,7 +575,7 @@ public final class TaskExecutorTest {
       "testAdditionalOutputs",
       generateTaskId(),
       TASK_EXECUTION_PROPERTY_MAP,
-      new byte[0],
+      IR_DAG_DIGEST,
       Collections.singletonList(mockStageEdgeTo(routerVertex)),
       Arrays.asList(outEdge1, outEdge2, outEdge3),
       Collections.emptyMap());
@@ -615,6 +669,7 @@ public final class TaskExecutorTest {
           return null;
         }
       }).when(outputWriter).write(any());
+      doCallRealMethod().when(outputWriter).writeBatch(any());
       return outputWriter;
     }
   }
@@ -898,6 +953,6 @@ public final class TaskExecutorTest {
 
   private TaskExecutor getTaskExecutor(final Task task, final DAG<IRVertex, RuntimeEdge<IRVertex>> taskDag) {
     return new TaskExecutor(task, taskDag, taskStateManager, intermediateDataIOFactory, broadcastManagerWorker,
-      metricMessageSender, persistentConnectionToMasterMap);
+      spillStoreFactory, new BlockPrefetcher(0, 1), metricMessageSender, persistentConnectionToMasterMap);
   }
 }
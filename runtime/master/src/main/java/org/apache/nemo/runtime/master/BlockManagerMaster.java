@@ -160,6 +160,31 @@ public final class BlockManagerMaster {
     }
   }
 
+  /**
+   * Gets how many bytes of the available blocks for a block id wildcard reside in each location.
+   * Blocks of unknown sizes are not counted.
+   *
+   * @param blockIdWildcard to query.
+   * @return the number of bytes per location (e.g., executor id), empty if none is available.
+   */
+  public Map<String, Long> getAvailableBlockBytesByLocation(final String blockIdWildcard) {
+    final Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      final Map<String, Long> bytesByLocation = new HashMap<>();
+      for (final BlockMetadata metadata : getBlockWildcardStateSet(blockIdWildcard)) {
+        final String location = metadata.getAvailableLocation();
+        final long size = metadata.getSize();
+        if (location != null && size >= 0) {
+          bytesByLocation.merge(location, size, Long::sum);
+        }
+      }
+      return bytesByLocation;
+    } finally {
+      readLock.unlock();
+    }
+  }
+
   /**
    * Gets the ids of the tasks which already produced or will produce data for a specific block.
    *
@@ -278,10 +303,26 @@ public final class BlockManagerMaster {
   public void onBlockStateChanged(final String blockId,
                                   final BlockState.State newState,
                                   @Nullable final String location) {
+    onBlockStateChanged(blockId, newState, location, -1);
+  }
+
+  /**
+   * Deals with state change of a block.
+   *
+   * @param blockId  the id of the block.
+   * @param newState the new state of the block.
+   * @param location the location of the block (e.g., worker id, remote store).
+   *                 {@code null} if not committed or lost.
+   * @param size     the size of the block in bytes, or a negative value if unknown.
+   */
+  public void onBlockStateChanged(final String blockId,
+                                  final BlockState.State newState,
+                                  @Nullable final String location,
+                                  final long size) {
     final Lock readLock = lock.readLock();
     readLock.lock();
     try {
-      getBlockMetaData(blockId).onStateChanged(newState, location);
+      getBlockMetaData(blockId).onStateChanged(newState, location, size);
     } finally {
       readLock.unlock();
     }
@@ -350,7 +391,8 @@ public final class BlockManagerMaster {
               message.getBlockStateChangedMsg();
             final String blockId = blockStateChangedMsg.getBlockId();
             onBlockStateChanged(blockId, convertBlockState(blockStateChangedMsg.getState()),
-              blockStateChangedMsg.getLocation());
+              blockStateChangedMsg.getLocation(),
+              blockStateChangedMsg.hasSize() ? blockStateChangedMsg.getSize() : -1);
             break;
           default:
             throw new IllegalMessageException(
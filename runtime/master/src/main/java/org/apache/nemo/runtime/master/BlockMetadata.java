@@ -37,6 +37,8 @@ final class BlockMetadata {
   private final String blockId;
   private final BlockState blockState;
   private final BlockManagerMaster.BlockRequestHandler locationHandler;
+  private String availableLocation;
+  private long size;
 
   /**
    * Constructs the metadata for a block.
@@ -48,17 +50,21 @@ final class BlockMetadata {
     this.blockId = blockId;
     this.blockState = new BlockState();
     this.locationHandler = new BlockManagerMaster.BlockRequestHandler(blockId);
+    this.availableLocation = null;
+    this.size = -1;
   }
 
   /**
    * Deals with state change of the corresponding block.
    *
-   * @param newState the new state of the block.
-   * @param location the location of the block (e.g., worker id, remote store).
-   *                 {@code null} if not committed or lost.
+   * @param newState  the new state of the block.
+   * @param location  the location of the block (e.g., worker id, remote store).
+   *                  {@code null} if not committed or lost.
+   * @param blockSize the size of the block in bytes, or a negative value if unknown.
    */
   synchronized void onStateChanged(final BlockState.State newState,
-                                   @Nullable final String location) {
+                                   @Nullable final String location,
+                                   final long blockSize) {
     final StateMachine stateMachine = blockState.getStateMachine();
     final Enum oldState = stateMachine.getCurrentState();
     LOG.debug("Block State Transition: id {} from {} to {}", new Object[]{blockId, oldState, newState});
@@ -68,12 +74,15 @@ final class BlockMetadata {
         break;
       case NOT_AVAILABLE:
         locationHandler.completeExceptionally(new AbsentBlockException(blockId, newState));
+        availableLocation = null;
         break;
       case AVAILABLE:
         if (location == null) {
           throw new RuntimeException("Null location");
         }
         locationHandler.complete(location);
+        availableLocation = location;
+        size = blockSize;
         break;
       default:
         throw new UnsupportedOperationException(newState.toString());
@@ -100,6 +109,21 @@ final class BlockMetadata {
     return (BlockState.State) blockState.getStateMachine().getCurrentState();
   }
 
+  /**
+   * @return the location of this block if it is available, or {@code null} otherwise.
+   */
+  @Nullable
+  synchronized String getAvailableLocation() {
+    return availableLocation;
+  }
+
+  /**
+   * @return the size of this block in bytes, or a negative value if unknown.
+   */
+  synchronized long getSize() {
+    return size;
+  }
+
   /**
    * @return the handler of block location requests.
    */
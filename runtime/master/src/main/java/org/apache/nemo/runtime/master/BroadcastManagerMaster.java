@@ -18,19 +18,29 @@
  */
 package org.apache.nemo.runtime.master;
 
+import com.google.protobuf.ByteString;
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.nemo.common.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Broadcast variables saved in the master.
+ * A variable is serialized once and split into chunks, which executors fetch from each other whenever possible.
+ * The master keeps track of the executors holding each chunk, and serves a chunk itself only if no other
+ * executor holds it.
  */
 public final class BroadcastManagerMaster {
   private static final Logger LOG = LoggerFactory.getLogger(BroadcastManagerMaster.class.getName());
-  private static final Map<Serializable, Object> ID_TO_VARIABLE = new HashMap<>();
+  private static final Map<Serializable, Object> ID_TO_VARIABLE = new ConcurrentHashMap<>();
+  private static final Map<Serializable, ChunkedVariable> ID_TO_CHUNKED_VARIABLE = new ConcurrentHashMap<>();
+  private static final AtomicInteger VERSION_COUNTER = new AtomicInteger(0);
 
   private BroadcastManagerMaster() {
   }
@@ -41,6 +51,7 @@ public final class BroadcastManagerMaster {
   public static void registerBroadcastVariablesFromClient(final Map<Serializable, Object> variables) {
     LOG.info("Registered broadcast variable ids {} sent from the client", variables.keySet());
     ID_TO_VARIABLE.putAll(variables);
+    variables.keySet().forEach(ID_TO_CHUNKED_VARIABLE::remove);
   }
 
   /**
@@ -50,4 +61,150 @@ public final class BroadcastManagerMaster {
   public static Object getBroadcastVariable(final Serializable id) {
     return ID_TO_VARIABLE.get(id);
   }
+
+  /**
+   * Gets the version and the number of chunks of a broadcast variable, splitting the variable on the first request.
+   * A variable registered again gets a new version, for chunks of different registrations not to be mixed up.
+   *
+   * @param id             of the broadcast variable.
+   * @param chunkSizeBytes the size of a chunk, used when the variable is split.
+   * @return the version and the number of chunks, or empty if the variable is unknown.
+   */
+  public static Optional<Pair<Integer, Integer>> getVersionAndNumChunks(final Serializable id,
+                                                                        final int chunkSizeBytes) {
+    return Optional.ofNullable(ID_TO_CHUNKED_VARIABLE.computeIfAbsent(id, key -> {
+      final Object variable = ID_TO_VARIABLE.get(key);
+      return variable == null ? null : new ChunkedVariable(VERSION_COUNTER.incrementAndGet(),
+        SerializationUtils.serialize((Serializable) variable), chunkSizeBytes);
+    })).map(chunkedVariable -> Pair.of(chunkedVariable.getVersion(), chunkedVariable.getNumChunks()));
+  }
+
+  /**
+   * Selects a random executor that holds a chunk of a broadcast variable.
+   *
+   * @param id                  of the broadcast variable.
+   * @param version             of the broadcast variable.
+   * @param chunkIndex          of the chunk.
+   * @param requestorExecutorId the executor that requests the chunk.
+   * @return the id of the executor, or empty if no other executor holds the chunk or the version is stale.
+   */
+  public static Optional<String> selectChunkHolder(final Serializable id,
+                                                   final int version,
+                                                   final int chunkIndex,
+                                                   final String requestorExecutorId) {
+    final List<String> holders = getChunkedVariable(id, version, chunkIndex)
+      .map(chunkedVariable -> new ArrayList<>(chunkedVariable.getHolders(chunkIndex)))
+      .orElseGet(ArrayList::new);
+    holders.remove(requestorExecutorId);
+    return holders.isEmpty()
+      ? Optional.empty()
+      : Optional.of(holders.get(ThreadLocalRandom.current().nextInt(holders.size())));
+  }
+
+  /**
+   * @param id         of the broadcast variable.
+   * @param version    of the broadcast variable.
+   * @param chunkIndex of the chunk.
+   * @return the bytes of the chunk, or empty if the version is stale.
+   */
+  public static Optional<ByteString> getChunk(final Serializable id, final int version, final int chunkIndex) {
+    return getChunkedVariable(id, version, chunkIndex).map(chunkedVariable -> chunkedVariable.getChunk(chunkIndex));
+  }
+
+  /**
+   * Adds an executor as a holder of a chunk. A notice for a stale version is dropped.
+   *
+   * @param id         of the broadcast variable.
+   * @param version    of the broadcast variable.
+   * @param chunkIndex of the chunk.
+   * @param executorId the executor that now holds the chunk.
+   */
+  public static void onChunkHeld(final Serializable id,
+                                 final int version,
+                                 final int chunkIndex,
+                                 final String executorId) {
+    final Optional<ChunkedVariable> chunkedVariable = getChunkedVariable(id, version, chunkIndex);
+    if (chunkedVariable.isPresent()) {
+      chunkedVariable.get().getHolders(chunkIndex).add(executorId);
+    } else {
+      LOG.info("Dropped chunk {} of broadcast variable {} version {} held by {}", chunkIndex, id, version, executorId);
+    }
+  }
+
+  /**
+   * Stops serving chunks of a broadcast variable from an executor, for example because the executor
+   * failed to serve a chunk or has been removed.
+   *
+   * @param id         of the broadcast variable.
+   * @param version    of the broadcast variable.
+   * @param executorId of the executor.
+   */
+  public static void onChunkHolderUnavailable(final Serializable id, final int version, final String executorId) {
+    LOG.info("Executor {} no longer serves the chunks of broadcast variable {}", executorId, id);
+    getChunkedVariable(id, version, 0).ifPresent(chunkedVariable -> chunkedVariable.removeHolder(executorId));
+  }
+
+  /**
+   * @param executorId of the removed executor.
+   */
+  public static void onExecutorRemoved(final String executorId) {
+    ID_TO_CHUNKED_VARIABLE.values().forEach(chunkedVariable -> chunkedVariable.removeHolder(executorId));
+  }
+
+  /**
+   * @param id         of the broadcast variable.
+   * @param version    of the broadcast variable.
+   * @param chunkIndex of a chunk in the variable.
+   * @return the chunked variable, or empty if the variable is unknown, of another version, or has no such chunk.
+   */
+  private static Optional<ChunkedVariable> getChunkedVariable(final Serializable id,
+                                                              final int version,
+                                                              final int chunkIndex) {
+    return Optional.ofNullable(ID_TO_CHUNKED_VARIABLE.get(id))
+      .filter(chunkedVariable -> chunkedVariable.getVersion() == version
+        && chunkIndex >= 0 && chunkIndex < chunkedVariable.getNumChunks());
+  }
+
+  /**
+   * A serialized broadcast variable split into chunks, with the executors holding each chunk.
+   */
+  private static final class ChunkedVariable {
+    private final int version;
+    private final byte[] serializedVariable;
+    private final int chunkSizeBytes;
+    private final List<Set<String>> chunkIndexToHolders;
+
+    ChunkedVariable(final int version, final byte[] serializedVariable, final int chunkSizeBytes) {
+      this.version = version;
+      this.serializedVariable = serializedVariable;
+      this.chunkSizeBytes = chunkSizeBytes;
+      final int numChunks = Math.max(1, (serializedVariable.length + chunkSizeBytes - 1) / chunkSizeBytes);
+      this.chunkIndexToHolders = new ArrayList<>(numChunks);
+      for (int i = 0; i < numChunks; i++) {
+        chunkIndexToHolders.add(ConcurrentHashMap.newKeySet());
+      }
+    }
+
+    int getVersion() {
+      return version;
+    }
+
+    int getNumChunks() {
+      return chunkIndexToHolders.size();
+    }
+
+    ByteString getChunk(final int chunkIndex) {
+      final int offset = chunkIndex * chunkSizeBytes;
+      return ByteString.copyFrom(serializedVariable, offset,
+        Math.min(chunkSizeBytes, serializedVariable.length - offset));
+    }
+
+    Set<String> getHolders(final int chunkIndex) {
+      return chunkIndexToHolders.get(chunkIndex);
+    }
+
+    void removeHolder(final String executorId) {
+      chunkIndexToHolders.forEach(holders -> holders.remove(executorId));
+    }
+  }
 }
@@ -45,7 +45,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -58,37 +63,42 @@ import static org.apache.nemo.common.dag.DAG.EMPTY_DAG_DIRECTORY;
  * The main API this class provides is onTaskStateReportFromExecutor(), which directly changes a TaskState.
  * PlanState and StageState are updated internally in the class, and can only be read from the outside.
  * <p>
- * (CONCURRENCY) The public methods of this class are synchronized.
+ * (CONCURRENCY) Task states are kept per stage, in arrays indexed by task index and attempt,
+ * and can be read without a global lock. The transitions of the tasks in a stage are serialized on the task states
+ * of the stage, as is the creation of new attempts, and the transitions in different stages run concurrently.
+ * The completion of stages and the plan is detected with counters of done task indices and complete stages.
+ * Only plan updates and plan state transitions are synchronized on this object.
  */
 @DriverSide
 @ThreadSafe
 public final class PlanStateManager {
   private static final Logger LOG = LoggerFactory.getLogger(PlanStateManager.class.getName());
-  private String planId;
-  private int maxScheduleAttempt;
-  private boolean initialized;
+  private volatile String planId;
+  private volatile int maxScheduleAttempt;
+  private volatile boolean initialized;
   private int dagLogFileIndex = 0;
 
   /**
    * The data structures below track the execution states of this plan.
    */
-  private PlanState planState;
+  private volatile PlanState planState;
   private final Map<String, StageState> stageIdToState;
+  private final AtomicInteger numOfCompleteStages;
 
-  // list of attempt states sorted by attempt idx
-  private final Map<String, Map<Integer, List<TaskState>>> stageIdToTaskIdxToAttemptStates;
+  // task attempt states of each stage, indexed by task index and attempt idx
+  private final Map<String, StageTaskStates> stageIdToTaskStates;
 
   /**
    * Used for speculative cloning. (in the unit of milliseconds - ms)
    */
-  private final Map<String, Long> taskIdToStartTimeMs = new HashMap<>();
-  private final Map<String, List<Long>> stageIdToCompletedTaskTimeMsList = new HashMap<>();
-  private final Map<String, Map<Integer, Integer>> stageIdToTaskIndexToNumOfClones = new HashMap<>();
+  private final Map<String, Long> taskIdToStartTimeMs = new ConcurrentHashMap<>();
+  private final Map<String, Queue<Long>> stageIdToCompletedTaskTimeMsList = new ConcurrentHashMap<>();
+  private final Map<String, Map<Integer, Integer>> stageIdToTaskIndexToNumOfClones = new ConcurrentHashMap<>();
 
   /**
    * Represents the plan to manage.
    */
-  private PhysicalPlan physicalPlan;
+  private volatile PhysicalPlan physicalPlan;
 
   /**
    * A lock and condition to check whether the plan is finished or not.
@@ -100,7 +110,7 @@ public final class PlanStateManager {
    * For metrics.
    */
   private final String dagDirectory;
-  private MetricStore metricStore;
+  private volatile MetricStore metricStore;
 
   /**
    * Constructor.
@@ -108,8 +118,9 @@ public final class PlanStateManager {
   @Inject
   private PlanStateManager(@Parameter(JobConf.DAGDirectory.class) final String dagDirectory) {
     this.planState = new PlanState();
-    this.stageIdToState = new HashMap<>();
-    this.stageIdToTaskIdxToAttemptStates = new HashMap<>();
+    this.stageIdToState = new ConcurrentHashMap<>();
+    this.numOfCompleteStages = new AtomicInteger(0);
+    this.stageIdToTaskStates = new ConcurrentHashMap<>();
     this.finishLock = new ReentrantLock();
     this.planFinishedCondition = finishLock.newCondition();
     this.dagDirectory = dagDirectory;
@@ -164,12 +175,8 @@ public final class PlanStateManager {
     onPlanStateChanged(PlanState.State.EXECUTING);
     physicalPlan.getStageDAG().topologicalDo(stage -> {
       stageIdToState.putIfAbsent(stage.getId(), new StageState());
-      stageIdToTaskIdxToAttemptStates.putIfAbsent(stage.getId(), new HashMap<>());
-
-      // for each task idx of this stage
-      stage.getTaskIndices().forEach(taskIndex ->
-        stageIdToTaskIdxToAttemptStates.get(stage.getId()).putIfAbsent(taskIndex, new ArrayList<>()));
-        // task states will be initialized lazily in getTaskAttemptsToSchedule()
+      // task states will be initialized lazily in getTaskAttemptsToSchedule()
+      stageIdToTaskStates.putIfAbsent(stage.getId(), new StageTaskStates(stage.getTaskIndices()));
     });
   }
 
@@ -182,7 +189,7 @@ public final class PlanStateManager {
    * @param stageId to run
    * @return executable task attempts
    */
-  public synchronized List<String> getTaskAttemptsToSchedule(final String stageId) {
+  public List<String> getTaskAttemptsToSchedule(final String stageId) {
     if (getStageState(stageId).equals(StageState.State.COMPLETE)) {
       // This stage is done
       return new ArrayList<>(0);
@@ -191,18 +198,19 @@ public final class PlanStateManager {
     // For each task index....
     final List<String> taskAttemptsToSchedule = new ArrayList<>();
     final Stage stage = physicalPlan.getStageDAG().getVertexById(stageId);
-    for (final int taskIndex : stage.getTaskIndices()) {
-      final List<TaskState> attemptStatesForThisTaskIndex =
-        stageIdToTaskIdxToAttemptStates.get(stageId).get(taskIndex);
-
-      // If one of the attempts is COMPLETE, do not schedule
-      if (attemptStatesForThisTaskIndex
-        .stream()
-        .noneMatch(state -> state.getStateMachine().getCurrentState().equals(TaskState.State.COMPLETE))) {
+    final StageTaskStates stageTaskStates = stageIdToTaskStates.get(stageId);
+    // Serialized with the transitions of the tasks in the stage, not to add an attempt to a completing task index.
+    synchronized (stageTaskStates) {
+      for (final int taskIndex : stage.getTaskIndices()) {
+        // If one of the attempts is COMPLETE, do not schedule
+        if (stageTaskStates.isTaskIndexComplete(taskIndex)) {
+          continue;
+        }
 
+        final List<TaskState> attemptStatesForThisTaskIndex = stageTaskStates.getAttemptStates(taskIndex);
         // (Step 1) Create new READY attempts, as many as
         // # of numOfConcurrentAttempts(including clones) - # of 'not-done' attempts
-        stageIdToTaskIndexToNumOfClones.putIfAbsent(stageId, new HashMap<>());
+        stageIdToTaskIndexToNumOfClones.putIfAbsent(stageId, new ConcurrentHashMap<>());
         final Optional<ClonedSchedulingProperty.CloneConf> cloneConf =
           stage.getPropertyValue(ClonedSchedulingProperty.class);
         final int numOfConcurrentAttempts = cloneConf.isPresent() && cloneConf.get().isUpFrontCloning()
@@ -228,7 +236,6 @@ public final class PlanStateManager {
             taskAttemptsToSchedule.add(RuntimeIdManager.generateTaskId(stageId, taskIndex, attempt));
           }
         }
-
       }
     }
 
@@ -239,7 +246,7 @@ public final class PlanStateManager {
    * @param stageId to query.
    * @return all task attempt ids of the stage.
    */
-  public synchronized Set<String> getAllTaskAttemptsOfStage(final String stageId) {
+  public Set<String> getAllTaskAttemptsOfStage(final String stageId) {
     return getTaskAttemptIdsToItsState(stageId).keySet();
   }
 
@@ -250,17 +257,20 @@ public final class PlanStateManager {
    * @param stageId to query.
    * @return a map from an EXECUTING task to its running time so far.
    */
-  public synchronized Map<String, Long> getExecutingTaskToRunningTimeMs(final String stageId) {
+  public Map<String, Long> getExecutingTaskToRunningTimeMs(final String stageId) {
     final long curTime = System.currentTimeMillis();
     final Map<String, Long> result = new HashMap<>();
 
-    final Map<Integer, List<TaskState>> taskIdToState = stageIdToTaskIdxToAttemptStates.get(stageId);
-    for (final int taskIndex : taskIdToState.keySet()) {
-      final List<TaskState> attemptStates = taskIdToState.get(taskIndex);
+    final StageTaskStates stageTaskStates = stageIdToTaskStates.get(stageId);
+    for (final int taskIndex : stageTaskStates.getTaskIndices()) {
+      final List<TaskState> attemptStates = stageTaskStates.getAttemptStates(taskIndex);
       for (int attempt = 0; attempt < attemptStates.size(); attempt++) {
         if (TaskState.State.EXECUTING.equals(attemptStates.get(attempt).getStateMachine().getCurrentState())) {
           final String taskId = RuntimeIdManager.generateTaskId(stageId, taskIndex, attempt);
-          result.put(taskId, curTime - taskIdToStartTimeMs.get(taskId));
+          final Long startTimeMs = taskIdToStartTimeMs.get(taskId);
+          if (startTimeMs != null) { // null if the start time is yet to be recorded
+            result.put(taskId, curTime - startTimeMs);
+          }
         }
       }
     }
@@ -274,9 +284,9 @@ public final class PlanStateManager {
    * @param stageId of the stage.
    * @return a copy of the list, empty if none completed.
    */
-  public synchronized List<Long> getCompletedTaskTimeListMs(final String stageId) {
+  public List<Long> getCompletedTaskTimeListMs(final String stageId) {
     // Return a copy
-    return new ArrayList<>(stageIdToCompletedTaskTimeMsList.getOrDefault(stageId, new ArrayList<>(0)));
+    return new ArrayList<>(stageIdToCompletedTaskTimeMsList.getOrDefault(stageId, new ArrayDeque<>(0)));
   }
 
   /**
@@ -285,10 +295,11 @@ public final class PlanStateManager {
    * @param numOfClones of the clone.
    * @return true if the numOfClones has been modified, false otherwise
    */
-  public synchronized boolean setNumOfClones(final String stageId, final int taskIndex, final int numOfClones) {
-    stageIdToTaskIndexToNumOfClones.putIfAbsent(stageId, new HashMap<>());
+  public boolean setNumOfClones(final String stageId, final int taskIndex, final int numOfClones) {
     // overwrite the previous value.
-    final Integer previousNumOfClones = stageIdToTaskIndexToNumOfClones.get(stageId).put(taskIndex, numOfClones);
+    final Integer previousNumOfClones = stageIdToTaskIndexToNumOfClones
+      .computeIfAbsent(stageId, id -> new ConcurrentHashMap<>())
+      .put(taskIndex, numOfClones);
     return (previousNumOfClones == null) || (previousNumOfClones != numOfClones);
   }
 
@@ -308,75 +319,73 @@ public final class PlanStateManager {
    * @param taskId       the ID of the task.
    * @param newTaskState the new state of the task.
    */
-  public synchronized void onTaskStateChanged(final String taskId, final TaskState.State newTaskState) {
-    // Change task state
-    final StateMachine taskState = getTaskStateHelper(taskId).getStateMachine();
-    LOG.debug("Task State Transition: id {}, from {} to {}",
-      new Object[]{taskId, taskState.getCurrentState(), newTaskState});
-    metricStore.getOrCreateMetric(TaskMetric.class, taskId)
-      .addEvent((TaskState.State) taskState.getCurrentState(), newTaskState);
-    metricStore.triggerBroadcast(TaskMetric.class, taskId);
+  public void onTaskStateChanged(final String taskId, final TaskState.State newTaskState) {
+    final String stageId = RuntimeIdManager.getStageIdFromTaskId(taskId);
+    final int taskIndex = RuntimeIdManager.getIndexFromTaskId(taskId);
+    final StageTaskStates stageTaskStates = stageIdToTaskStates.get(stageId);
+
+    // The transitions of the tasks in a stage are serialized, so that the task state, its metric,
+    // the counters of the stage and the decision on the stage state change together.
+    synchronized (stageTaskStates) {
+      // Change task state
+      final StateMachine taskState = stageTaskStates.getAttemptStates(taskIndex)
+        .get(RuntimeIdManager.getAttemptFromTaskId(taskId)).getStateMachine();
+      final TaskState.State oldTaskState = (TaskState.State) taskState.getCurrentState();
+      LOG.debug("Task State Transition: id {}, from {} to {}", new Object[]{taskId, oldTaskState, newTaskState});
+      try {
+        taskState.setState(newTaskState);
+      } catch (IllegalStateTransitionException e) {
+        throw new RuntimeException(taskId + " - Illegal task state transition ", e);
+      }
+      metricStore.getOrCreateMetric(TaskMetric.class, taskId).addEvent(oldTaskState, newTaskState);
+      metricStore.triggerBroadcast(TaskMetric.class, taskId, MetricStore.STATE_TRANSITION_EVENTS);
 
-    try {
-      taskState.setState(newTaskState);
-    } catch (IllegalStateTransitionException e) {
-      throw new RuntimeException(taskId + " - Illegal task state transition ", e);
-    }
+      final int numOfCompletedTaskIndicesInThisStage =
+        stageTaskStates.onAttemptStateChanged(taskIndex, oldTaskState, newTaskState);
+      final int numOfTaskIndicesInThisStage = stageTaskStates.getTaskIndices().size();
 
-    // Log not-yet-completed tasks for us humans to track progress
-    final String stageId = RuntimeIdManager.getStageIdFromTaskId(taskId);
-    final Map<Integer, List<TaskState>> taskStatesOfThisStage = stageIdToTaskIdxToAttemptStates.get(stageId);
-    final long numOfCompletedTaskIndicesInThisStage = taskStatesOfThisStage.values().stream()
-      .filter(attempts -> {
-        final List<TaskState.State> states = attempts
-          .stream()
-          .map(state -> (TaskState.State) state.getStateMachine().getCurrentState())
-          .collect(Collectors.toList());
-        return states.stream().anyMatch(curState -> curState.equals(TaskState.State.ON_HOLD)) // one of them is ON_HOLD
-          || states.stream().anyMatch(curState -> curState.equals(TaskState.State.COMPLETE)); // one of them is COMPLETE
-      })
-      .count();
-    if (newTaskState.equals(TaskState.State.COMPLETE)) {
-      LOG.info("{} completed: {} Task(s) out of {} are remaining in this stage",
-        taskId, taskStatesOfThisStage.size() - numOfCompletedTaskIndicesInThisStage, taskStatesOfThisStage.size());
-    }
+      // Log not-yet-completed tasks for us humans to track progress
+      if (newTaskState.equals(TaskState.State.COMPLETE)) {
+        LOG.info("{} completed: {} Task(s) out of {} are remaining in this stage",
+          taskId, numOfTaskIndicesInThisStage - numOfCompletedTaskIndicesInThisStage, numOfTaskIndicesInThisStage);
+      }
 
-    // Maintain info for speculative execution
-    if (newTaskState.equals(TaskState.State.EXECUTING)) {
-      taskIdToStartTimeMs.put(taskId, System.currentTimeMillis());
-    } else if (newTaskState.equals(TaskState.State.COMPLETE)) {
-      stageIdToCompletedTaskTimeMsList.putIfAbsent(stageId, new ArrayList<>());
-      stageIdToCompletedTaskTimeMsList.get(stageId).add(System.currentTimeMillis() - taskIdToStartTimeMs.get(taskId));
-    }
+      // Maintain info for speculative execution
+      if (newTaskState.equals(TaskState.State.EXECUTING)) {
+        taskIdToStartTimeMs.put(taskId, System.currentTimeMillis());
+      } else if (newTaskState.equals(TaskState.State.COMPLETE)) {
+        stageIdToCompletedTaskTimeMsList.computeIfAbsent(stageId, id -> new ConcurrentLinkedQueue<>())
+          .add(System.currentTimeMillis() - taskIdToStartTimeMs.get(taskId));
+      }
 
-    // Change stage state, if needed
-    switch (newTaskState) {
-      // INCOMPLETE stage
-      case SHOULD_RETRY:
-        final boolean isAPeerAttemptCompleted = getPeerAttemptsForTheSameTaskIndex(taskId).stream()
-          .anyMatch(state -> state.equals(TaskState.State.COMPLETE));
-        if (!isAPeerAttemptCompleted) {
-          // None of the peers has completed, hence this stage is incomplete
-          onStageStateChanged(stageId, StageState.State.INCOMPLETE);
-        }
-        break;
-
-      // COMPLETE stage
-      case COMPLETE:
-      case ON_HOLD:
-        if (numOfCompletedTaskIndicesInThisStage
-          == physicalPlan.getStageDAG().getVertexById(stageId).getTaskIndices().size()) {
-          onStageStateChanged(stageId, StageState.State.COMPLETE);
-        }
-        break;
-
-      // Doesn't affect StageState
-      case READY:
-      case EXECUTING:
-      case FAILED:
-        break;
-      default:
-        throw new UnknownExecutionStateException(new Throwable("This task state is unknown"));
+      // Change stage state, if needed
+      switch (newTaskState) {
+        // INCOMPLETE stage
+        case SHOULD_RETRY:
+          final boolean isAPeerAttemptCompleted = getPeerAttemptsForTheSameTaskIndex(taskId).stream()
+            .anyMatch(state -> state.equals(TaskState.State.COMPLETE));
+          if (!isAPeerAttemptCompleted) {
+            // None of the peers has completed, hence this stage is incomplete
+            onStageStateChanged(stageId, StageState.State.INCOMPLETE);
+          }
+          break;
+
+        // COMPLETE stage
+        case COMPLETE:
+        case ON_HOLD:
+          if (numOfCompletedTaskIndicesInThisStage == numOfTaskIndicesInThisStage) {
+            onStageStateChanged(stageId, StageState.State.COMPLETE);
+          }
+          break;
+
+        // Doesn't affect StageState
+        case READY:
+        case EXECUTING:
+        case FAILED:
+          break;
+        default:
+          throw new UnknownExecutionStateException(new Throwable("This task state is unknown"));
+      }
     }
   }
 
@@ -390,22 +399,38 @@ public final class PlanStateManager {
   private void onStageStateChanged(final String stageId, final StageState.State newStageState) {
     // Change stage state
     final StateMachine stageStateMachine = stageIdToState.get(stageId).getStateMachine();
+    final StageState.State oldStageState;
+    synchronized (stageStateMachine) {
+      oldStageState = (StageState.State) stageStateMachine.getCurrentState();
+      LOG.debug("Stage State Transition: id {} from {} to {}", new Object[]{stageId, oldStageState, newStageState});
+      try {
+        stageStateMachine.setState(newStageState);
+      } catch (IllegalStateTransitionException e) {
+        throw new RuntimeException(stageId + " - Illegal stage state transition ", e);
+      }
+      if (!oldStageState.equals(StageState.State.COMPLETE) && newStageState.equals(StageState.State.COMPLETE)) {
+        numOfCompleteStages.incrementAndGet();
+      } else if (oldStageState.equals(StageState.State.COMPLETE)
+        && !newStageState.equals(StageState.State.COMPLETE)) {
+        numOfCompleteStages.decrementAndGet();
+      }
+    }
 
-    metricStore.getOrCreateMetric(StageMetric.class, stageId)
-      .addEvent(getStageState(stageId), newStageState);
-    metricStore.triggerBroadcast(StageMetric.class, stageId);
+    metricStore.getOrCreateMetric(StageMetric.class, stageId).addEvent(oldStageState, newStageState);
+    metricStore.triggerBroadcast(StageMetric.class, stageId, MetricStore.STATE_TRANSITION_EVENTS);
 
-    LOG.debug("Stage State Transition: id {} from {} to {}",
-      new Object[]{stageId, stageStateMachine.getCurrentState(), newStageState});
-    try {
-      stageStateMachine.setState(newStageState);
-    } catch (IllegalStateTransitionException e) {
-      throw new RuntimeException(stageId + " - Illegal stage state transition ", e);
+    // Change plan state if needed
+    if (newStageState.equals(StageState.State.COMPLETE)) {
+      completePlanIfAllStagesComplete();
     }
+  }
 
-    // Change plan state if needed
-    final boolean allStagesCompleted = stageIdToState.values().stream().allMatch(state ->
-      state.getStateMachine().getCurrentState().equals(StageState.State.COMPLETE));
+  /**
+   * (PRIVATE METHOD)
+   * Completes the plan if all of its stages are complete.
+   */
+  private synchronized void completePlanIfAllStagesComplete() {
+    final boolean allStagesCompleted = numOfCompleteStages.get() == stageIdToState.size();
 
     // avoid duplicate plan COMPLETE caused by cloning
     if (allStagesCompleted && !PlanState.State.COMPLETE.equals(getPlanState())) {
@@ -419,10 +444,10 @@ public final class PlanStateManager {
    *
    * @param newState of the plan.
    */
-  private void onPlanStateChanged(final PlanState.State newState) {
+  private synchronized void onPlanStateChanged(final PlanState.State newState) {
     metricStore.getOrCreateMetric(JobMetric.class, planId)
       .addEvent((PlanState.State) planState.getStateMachine().getCurrentState(), newState);
-    metricStore.triggerBroadcast(JobMetric.class, planId);
+    metricStore.triggerBroadcast(JobMetric.class, planId, MetricStore.STATE_TRANSITION_EVENTS);
 
 
     try {
@@ -435,6 +460,9 @@ public final class PlanStateManager {
       LOG.debug("Executing Plan ID {}...", this.planId);
     } else if (newState == PlanState.State.COMPLETE || newState == PlanState.State.FAILED) {
       LOG.debug("Plan ID {} {}!", planId, newState);
+      metricStore.removeTimeSeries("stage", physicalPlan.getStageDAG().getVertices().stream()
+        .map(Stage::getId)
+        .collect(Collectors.toList()));
 
       // Awake all threads waiting the finish of this plan.
       finishLock.lock();
@@ -491,7 +519,7 @@ public final class PlanStateManager {
    * @return a map from task attempt id to its current state.
    */
   @VisibleForTesting
-  public synchronized Map<String, TaskState.State> getAllTaskAttemptIdsToItsState() {
+  public Map<String, TaskState.State> getAllTaskAttemptIdsToItsState() {
     return physicalPlan.getStageDAG().getVertices()
       .stream()
       .map(Stage::getId)
@@ -502,21 +530,22 @@ public final class PlanStateManager {
   /**
    * @return whether the execution for the plan is done or not.
    */
-  public synchronized boolean isPlanDone() {
-    return (getPlanState() == PlanState.State.COMPLETE || getPlanState() == PlanState.State.FAILED);
+  public boolean isPlanDone() {
+    final PlanState.State currentPlanState = getPlanState();
+    return (currentPlanState == PlanState.State.COMPLETE || currentPlanState == PlanState.State.FAILED);
   }
 
   /**
    * @return the ID of the plan.
    */
-  public synchronized String getPlanId() {
+  public String getPlanId() {
     return planId;
   }
 
   /**
    * @return the state of the plan.
    */
-  public synchronized PlanState.State getPlanState() {
+  public PlanState.State getPlanState() {
     return (PlanState.State) planState.getStateMachine().getCurrentState();
   }
 
@@ -524,7 +553,7 @@ public final class PlanStateManager {
    * @param stageId the stage ID to query.
    * @return the state of the stage.
    */
-  public synchronized StageState.State getStageState(final String stageId) {
+  public StageState.State getStageState(final String stageId) {
     return (StageState.State) stageIdToState.get(stageId).getStateMachine().getCurrentState();
   }
 
@@ -532,15 +561,15 @@ public final class PlanStateManager {
    * @param taskId the ID of the task to query.
    * @return the state of the task.
    */
-  public synchronized TaskState.State getTaskState(final String taskId) {
+  public TaskState.State getTaskState(final String taskId) {
     return (TaskState.State) getTaskStateHelper(taskId).getStateMachine().getCurrentState();
   }
 
   private Map<String, TaskState.State> getTaskAttemptIdsToItsState(final String stageId) {
     final Map<String, TaskState.State> result = new HashMap<>();
-    final Map<Integer, List<TaskState>> taskIdToState = stageIdToTaskIdxToAttemptStates.get(stageId);
-    for (final int taskIndex : taskIdToState.keySet()) {
-      final List<TaskState> attemptStates = taskIdToState.get(taskIndex);
+    final StageTaskStates stageTaskStates = stageIdToTaskStates.get(stageId);
+    for (final int taskIndex : stageTaskStates.getTaskIndices()) {
+      final List<TaskState> attemptStates = stageTaskStates.getAttemptStates(taskIndex);
       for (int attempt = 0; attempt < attemptStates.size(); attempt++) {
         result.put(RuntimeIdManager.generateTaskId(stageId, taskIndex, attempt),
           (TaskState.State) attemptStates.get(attempt).getStateMachine().getCurrentState());
@@ -550,9 +579,9 @@ public final class PlanStateManager {
   }
 
   private TaskState getTaskStateHelper(final String taskId) {
-    return stageIdToTaskIdxToAttemptStates
+    return stageIdToTaskStates
       .get(RuntimeIdManager.getStageIdFromTaskId(taskId))
-      .get(RuntimeIdManager.getIndexFromTaskId(taskId))
+      .getAttemptStates(RuntimeIdManager.getIndexFromTaskId(taskId))
       .get(RuntimeIdManager.getAttemptFromTaskId(taskId));
   }
 
@@ -569,7 +598,7 @@ public final class PlanStateManager {
     final int attempt = RuntimeIdManager.getAttemptFromTaskId(taskId);
 
     final List<TaskState> otherAttemptsforTheSameTaskIndex =
-      new ArrayList<>(stageIdToTaskIdxToAttemptStates.get(stageId).get(taskIndex));
+      new ArrayList<>(stageIdToTaskStates.get(stageId).getAttemptStates(taskIndex));
     otherAttemptsforTheSameTaskIndex.remove(attempt);
 
     return otherAttemptsforTheSameTaskIndex.stream()
@@ -580,10 +609,21 @@ public final class PlanStateManager {
   /**
    * @return the physical plan.
    */
-  public synchronized PhysicalPlan getPhysicalPlan() {
+  public PhysicalPlan getPhysicalPlan() {
     return physicalPlan;
   }
 
+  /**
+   * @param stageId     the ID of the stage.
+   * @param irDagDigest the digest of the serialized DAG of the stage.
+   * @return the stage of the ID and the DAG, or empty if the plan does not have the stage.
+   */
+  public Optional<Stage> getStage(final String stageId, final String irDagDigest) {
+    return physicalPlan.getStageDAG().getVertices().stream()
+      .filter(stage -> stage.getId().equals(stageId) && stage.getIRDAGDigest().equals(irDagDigest))
+      .findFirst();
+  }
+
   /**
    * @return the maximum number of task scheduling.
    */
@@ -594,7 +634,7 @@ public final class PlanStateManager {
   /**
    * @return whether any plan has been submitted and initialized.
    */
-  public synchronized boolean isInitialized() {
+  public boolean isInitialized() {
     return initialized;
   }
 
@@ -630,7 +670,7 @@ public final class PlanStateManager {
   }
 
   @Override
-  public synchronized String toString() {
+  public String toString() {
     final StringBuilder sb = new StringBuilder("{");
     sb.append("\"planId\": \"").append(planId).append("\", ");
     sb.append("\"stages\": [");
@@ -659,4 +699,85 @@ public final class PlanStateManager {
     sb.append("]}");
     return sb.toString();
   }
+
+  /**
+   * The task attempt states of a stage, indexed by task index and attempt idx.
+   * The attempts of a task index are only appended, so that they can be read without locking.
+   * The number of task indices with a COMPLETE or ON_HOLD attempt is counted as the attempts change their states.
+   */
+  private static final class StageTaskStates {
+    private final List<Integer> taskIndices;
+    private final List<List<TaskState>> taskIndexToAttemptStates;
+    private final AtomicIntegerArray taskIndexToNumOfDoneAttempts;
+    private final AtomicInteger numOfDoneTaskIndices;
+
+    /**
+     * @param taskIndices the indices of the tasks of the stage.
+     */
+    private StageTaskStates(final List<Integer> taskIndices) {
+      final int maxTaskIndex = taskIndices.stream().mapToInt(Integer::intValue).max().orElse(-1);
+      this.taskIndices = new ArrayList<>(taskIndices);
+      this.taskIndexToAttemptStates = new ArrayList<>(Collections.nCopies(maxTaskIndex + 1, null));
+      for (final int taskIndex : taskIndices) {
+        taskIndexToAttemptStates.set(taskIndex, new CopyOnWriteArrayList<>());
+      }
+      this.taskIndexToNumOfDoneAttempts = new AtomicIntegerArray(maxTaskIndex + 1);
+      this.numOfDoneTaskIndices = new AtomicInteger(0);
+    }
+
+    /**
+     * @return the indices of the tasks of the stage.
+     */
+    private List<Integer> getTaskIndices() {
+      return taskIndices;
+    }
+
+    /**
+     * @param taskIndex of the task.
+     * @return the states of the attempts of the task, sorted by attempt idx.
+     */
+    private List<TaskState> getAttemptStates(final int taskIndex) {
+      return taskIndexToAttemptStates.get(taskIndex);
+    }
+
+    /**
+     * @param taskIndex of the task.
+     * @return whether one of the attempts of the task is COMPLETE.
+     */
+    private boolean isTaskIndexComplete(final int taskIndex) {
+      return getAttemptStates(taskIndex).stream()
+        .anyMatch(state -> state.getStateMachine().getCurrentState().equals(TaskState.State.COMPLETE));
+    }
+
+    /**
+     * Updates the counters of done attempts with a state transition of an attempt.
+     *
+     * @param taskIndex of the task.
+     * @param oldState  of the attempt.
+     * @param newState  of the attempt.
+     * @return the number of task indices with a done (COMPLETE or ON_HOLD) attempt, after the transition.
+     */
+    private int onAttemptStateChanged(final int taskIndex,
+                                      final TaskState.State oldState,
+                                      final TaskState.State newState) {
+      final int delta = (isDone(newState) ? 1 : 0) - (isDone(oldState) ? 1 : 0);
+      if (delta != 0) {
+        final int numOfDoneAttempts = taskIndexToNumOfDoneAttempts.addAndGet(taskIndex, delta);
+        if (delta > 0 && numOfDoneAttempts == 1) {
+          return numOfDoneTaskIndices.incrementAndGet();
+        } else if (delta < 0 && numOfDoneAttempts == 0) {
+          return numOfDoneTaskIndices.decrementAndGet();
+        }
+      }
+      return numOfDoneTaskIndices.get();
+    }
+
+    /**
+     * @param state of an attempt.
+     * @return whether the attempt makes its task index done.
+     */
+    private static boolean isDone(final TaskState.State state) {
+      return state.equals(TaskState.State.COMPLETE) || state.equals(TaskState.State.ON_HOLD);
+    }
+  }
 }
@@ -35,6 +35,8 @@ import org.apache.nemo.runtime.common.comm.ControlMessage;
 import org.apache.nemo.runtime.common.message.*;
 import org.apache.nemo.runtime.common.metric.JobMetric;
 import org.apache.nemo.runtime.common.plan.PhysicalPlan;
+import org.apache.nemo.runtime.common.plan.Stage;
+import org.apache.nemo.runtime.common.state.TaskState;
 import org.apache.nemo.runtime.master.metric.MetricManagerMaster;
 import org.apache.nemo.runtime.master.metric.MetricMessageHandler;
 import org.apache.nemo.runtime.master.metric.MetricStore;
@@ -98,11 +100,14 @@ public final class RuntimeMaster {
   // For converting json data. This is a thread safe.
   private final ObjectMapper objectMapper;
   private final String jobId;
+  // The task attempts which sent collected data and are not completed yet. Accessed by the runtimeMasterThread.
+  private final Set<String> taskIdsWithCollectedData = new HashSet<>();
   private final String dagDirectory;
   private final Boolean dbEnabled;
   private final String dbAddress;
   private final String dbId;
   private final String dbPassword;
+  private final int broadcastChunkSizeBytes;
   private final Set<IRVertex> irVertices;
   private final AtomicInteger resourceRequestCount;
   private CountDownLatch metricCountDownLatch;
@@ -140,7 +145,8 @@ public final class RuntimeMaster {
                         @Parameter(JobConf.DBAddress.class) final String dbAddress,
                         @Parameter(JobConf.DBId.class) final String dbId,
                         @Parameter(JobConf.DBPasswd.class) final String dbPassword,
-                        @Parameter(JobConf.DAGDirectory.class) final String dagDirectory) {
+                        @Parameter(JobConf.DAGDirectory.class) final String dagDirectory,
+                        @Parameter(JobConf.BroadcastChunkSizeKb.class) final int broadcastChunkSizeKb) {
     // We would like to use a single thread for runtime master operations
     // since the processing logic in master takes a very short amount of time
     // compared to the job completion times of executed jobs
@@ -171,6 +177,7 @@ public final class RuntimeMaster {
     this.dbAddress = dbAddress;
     this.dbId = dbId;
     this.dbPassword = dbPassword;
+    this.broadcastChunkSizeBytes = broadcastChunkSizeKb * 1024;
     this.irVertices = new HashSet<>();
     this.resourceRequestCount = new AtomicInteger(0);
     this.objectMapper = new ObjectMapper();
@@ -195,6 +202,7 @@ public final class RuntimeMaster {
     servletHandler.addServletWithMapping(StageMetricServlet.class, "/api/stage");
     servletHandler.addServletWithMapping(AllMetricServlet.class, "/api");
     servletHandler.addServletWithMapping(WebSocketMetricServlet.class, "/api/websocket");
+    servletHandler.addServletWithMapping(TimeSeriesMetricServlet.class, "/metrics");
 
     try {
       server.start();
@@ -378,6 +386,7 @@ public final class RuntimeMaster {
       failedEvaluator.getFailedContextList().forEach(failedContext -> {
         final String failedExecutorId = failedContext.getId();
         scheduler.onExecutorRemoved(failedExecutorId);
+        BroadcastManagerMaster.onExecutorRemoved(failedExecutorId);
       });
 
       containerManager.onContainerFailed(failedEvaluator.getId());
@@ -400,20 +409,72 @@ public final class RuntimeMaster {
         case RequestBroadcastVariable:
           final Serializable broadcastId =
             SerializationUtils.deserialize(message.getRequestbroadcastVariableMsg().getBroadcastId().toByteArray());
-          final Object broadcastVariable = BroadcastManagerMaster.getBroadcastVariable(broadcastId);
-          if (broadcastVariable == null) {
-            throw new IllegalStateException(broadcastId.toString());
+          final ControlMessage.InMasterBroadcastVariableMessage.Builder variableInfo =
+            ControlMessage.InMasterBroadcastVariableMessage.newBuilder().setRequestId(message.getId());
+          final Optional<Pair<Integer, Integer>> versionAndNumChunks =
+            BroadcastManagerMaster.getVersionAndNumChunks(broadcastId, broadcastChunkSizeBytes);
+          if (versionAndNumChunks.isPresent()) {
+            variableInfo.setVersion(versionAndNumChunks.get().left()).setNumChunks(versionAndNumChunks.get().right());
+          } else {
+            LOG.warn("No broadcast variable {}", broadcastId);
           }
           messageContext.reply(
             ControlMessage.Message.newBuilder()
               .setId(RuntimeIdManager.generateMessageId())
               .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
               .setType(ControlMessage.MessageType.InMasterBroadcastVariable)
-              .setBroadcastVariableMsg(ControlMessage.InMasterBroadcastVariableMessage.newBuilder()
-                .setRequestId(message.getId())
-                // TODO #206: Efficient Broadcast Variable Serialization
-                .setVariable(ByteString.copyFrom(SerializationUtils.serialize((Serializable) broadcastVariable)))
-                .build())
+              .setBroadcastVariableMsg(variableInfo.build())
+              .build());
+          break;
+        case RequestBroadcastChunk:
+          final ControlMessage.RequestBroadcastChunkMessage chunkRequest = message.getRequestBroadcastChunkMsg();
+          final Serializable chunkBroadcastId =
+            SerializationUtils.deserialize(chunkRequest.getBroadcastId().toByteArray());
+          if (chunkRequest.hasUnavailableHolderId()) {
+            BroadcastManagerMaster.onChunkHolderUnavailable(chunkBroadcastId, chunkRequest.getVersion(),
+              chunkRequest.getUnavailableHolderId());
+          }
+          final ControlMessage.BroadcastChunkInfoMessage.Builder chunkInfo =
+            ControlMessage.BroadcastChunkInfoMessage.newBuilder().setRequestId(message.getId());
+          final Optional<String> holder = BroadcastManagerMaster.selectChunkHolder(
+            chunkBroadcastId, chunkRequest.getVersion(), chunkRequest.getChunkIndex(), chunkRequest.getExecutorId());
+          if (holder.isPresent()) {
+            chunkInfo.setHolderExecutorId(holder.get());
+          } else {
+            final Optional<ByteString> chunk = BroadcastManagerMaster.getChunk(
+              chunkBroadcastId, chunkRequest.getVersion(), chunkRequest.getChunkIndex());
+            if (chunk.isPresent()) {
+              chunkInfo.setChunk(chunk.get());
+            } else {
+              LOG.warn("No chunk {} of broadcast variable {} version {}",
+                chunkRequest.getChunkIndex(), chunkBroadcastId, chunkRequest.getVersion());
+            }
+          }
+          messageContext.reply(
+            ControlMessage.Message.newBuilder()
+              .setId(RuntimeIdManager.generateMessageId())
+              .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+              .setType(ControlMessage.MessageType.BroadcastChunkInfo)
+              .setBroadcastChunkInfoMsg(chunkInfo.build())
+              .build());
+          break;
+        case RequestStageIRDAG:
+          final ControlMessage.RequestStageIRDAGMessage stageRequest = message.getRequestStageIRDAGMsg();
+          final Optional<Stage> stage =
+            planStateManager.getStage(stageRequest.getStageId(), stageRequest.getIrDagDigest());
+          final ControlMessage.StageIRDAGMessage.Builder stageIRDag =
+            ControlMessage.StageIRDAGMessage.newBuilder().setRequestId(message.getId());
+          if (stage.isPresent()) {
+            stageIRDag.setSerializedIRDag(ByteString.copyFrom(stage.get().getSerializedIRDAG()));
+          } else {
+            LOG.warn("No stage {} with the requested DAG in the plan", stageRequest.getStageId());
+          }
+          messageContext.reply(
+            ControlMessage.Message.newBuilder()
+              .setId(RuntimeIdManager.generateMessageId())
+              .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+              .setType(ControlMessage.MessageType.StageIRDAG)
+              .setStageIRDAGMsg(stageIRDag.build())
               .build());
           break;
         default:
@@ -423,6 +484,40 @@ public final class RuntimeMaster {
     }
   }
 
+  /**
+   * Tells the client that a task attempt which collected data has completed, so that the client keeps its data.
+   * The chunks of the other attempts, e.g., failed ones or speculative clones, are discarded by the client.
+   * The chunks of a task are relayed before its state change, as they are sent over the same connection.
+   *
+   * @param taskId the ID of the task attempt.
+   * @param state  the state reported by the executor.
+   */
+  private void onCollectingTaskStateChanged(final String taskId, final ControlMessage.TaskStateFromExecutor state) {
+    if (!taskIdsWithCollectedData.contains(taskId)) {
+      return;
+    }
+    switch (state) {
+      case COMPLETE:
+        taskIdsWithCollectedData.remove(taskId);
+        if (planStateManager.getTaskState(taskId) == TaskState.State.COMPLETE) {
+          clientRPC.send(ControlMessage.DriverToClientMessage.newBuilder()
+            .setType(ControlMessage.DriverToClientMessageType.DataCollected)
+            .setDataCollected(ControlMessage.DataCollectMessage.newBuilder()
+              .setTaskId(taskId)
+              .setTaskCompleted(true)
+              .build())
+            .build());
+        }
+        break;
+      case FAILED_RECOVERABLE:
+      case FAILED_UNRECOVERABLE:
+        taskIdsWithCollectedData.remove(taskId);
+        break;
+      default:
+        break;
+    }
+  }
+
   private void handleControlMessage(final ControlMessage.Message message) {
     switch (message.getType()) {
       case TaskStateChanged:
@@ -435,6 +530,7 @@ public final class RuntimeMaster {
           MessageUtils.convertTaskState(taskStateChangedMsg.getState()),
           taskStateChangedMsg.getVertexPutOnHoldId(),
           MessageUtils.convertFailureCause(taskStateChangedMsg.getFailureCause()));
+        onCollectingTaskStateChanged(taskStateChangedMsg.getTaskId(), taskStateChangedMsg.getState());
         break;
       case ExecutorFailed:
         // Executor failed due to user code.
@@ -456,15 +552,21 @@ public final class RuntimeMaster {
             metric.getMetricField(), metric.getMetricValue().toByteArray()));
         break;
       case ExecutorDataCollected:
-        final String serializedData = message.getDataCollected().getData();
+        // Relay the chunk as it is, so that the client can spool it without decoding
+        taskIdsWithCollectedData.add(message.getDataCollected().getTaskId());
         clientRPC.send(ControlMessage.DriverToClientMessage.newBuilder()
           .setType(ControlMessage.DriverToClientMessageType.DataCollected)
-          .setDataCollected(ControlMessage.DataCollectMessage.newBuilder().setData(serializedData).build())
+          .setDataCollected(message.getDataCollected())
           .build());
         break;
       case MetricFlushed:
         metricCountDownLatch.countDown();
         break;
+      case BroadcastChunkHeld:
+        final ControlMessage.BroadcastChunkHeldMessage chunkHeldMsg = message.getBroadcastChunkHeldMsg();
+        BroadcastManagerMaster.onChunkHeld(SerializationUtils.deserialize(chunkHeldMsg.getBroadcastId().toByteArray()),
+          chunkHeldMsg.getVersion(), chunkHeldMsg.getChunkIndex(), chunkHeldMsg.getExecutorId());
+        break;
       default:
         throw new IllegalMessageException(
           new Exception("This message should not be received by Master :" + message.getType()));
@@ -18,26 +18,43 @@
  */
 package org.apache.nemo.runtime.master.metric;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.eclipse.jetty.websocket.api.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * MetricBroadcaster broadcast metric changes to the currently active WebSocket sessions.
+ * The metrics changed within a broadcast interval are sent together, as the deltas from their last broadcast.
  */
 public final class MetricBroadcaster {
   private static final Logger LOG = LoggerFactory.getLogger(MetricBroadcaster.class.getName());
+  private static final long BROADCAST_INTERVAL_MS = 500;
   private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService broadcastScheduler;
+  // Reused by the broadcasts, which are serialized by the lock of this object.
+  private final ByteArrayOutputStream broadcastBuffer = new ByteArrayOutputStream();
 
   /**
    * Private constructor.
    */
   private MetricBroadcaster() {
+    this.broadcastScheduler = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+      .namingPattern("MetricBroadcaster thread-%d")
+      .daemon(true)
+      .build());
+    this.broadcastScheduler.scheduleWithFixedDelay(this::broadcastChangedMetrics,
+      BROADCAST_INTERVAL_MS, BROADCAST_INTERVAL_MS, TimeUnit.MILLISECONDS);
   }
 
   /**
@@ -62,6 +79,9 @@ public final class MetricBroadcaster {
    * @param session a WebSocket session.
    */
   public synchronized void addSession(final Session session) {
+    // Flush the pending changes to the other sessions, and send the metrics as a whole from now on.
+    broadcastChangedMetrics();
+    MetricStore.getStore().resetBroadcast();
     try {
       session.getRemote().sendString(MetricStore.getStore().dumpAllMetricToJson());
     } catch (final IOException e) {
@@ -79,6 +99,30 @@ public final class MetricBroadcaster {
     sessions.remove(session);
   }
 
+  /**
+   * @return whether there is any session to broadcast to.
+   */
+  public boolean hasSessions() {
+    return !sessions.isEmpty();
+  }
+
+  /**
+   * Broadcast the metrics changed since the last broadcast, if any.
+   */
+  private synchronized void broadcastChangedMetrics() {
+    if (sessions.isEmpty()) {
+      return;
+    }
+    try {
+      broadcastBuffer.reset();
+      if (MetricStore.getStore().dumpChangedMetricsToJson(broadcastBuffer)) {
+        broadcast(new String(broadcastBuffer.toByteArray(), StandardCharsets.UTF_8));
+      }
+    } catch (final IOException | RuntimeException e) {
+      LOG.warn("Failed to broadcast the changed metrics.", e);
+    }
+  }
+
   /**
    * Send text frame to each WebSocket session.
    *
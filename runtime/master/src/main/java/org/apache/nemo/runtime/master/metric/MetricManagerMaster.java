@@ -21,7 +21,9 @@ package org.apache.nemo.runtime.master.metric;
 import org.apache.nemo.runtime.common.RuntimeIdManager;
 import org.apache.nemo.runtime.common.comm.ControlMessage;
 import org.apache.nemo.runtime.common.message.MessageEnvironment;
+import org.apache.nemo.runtime.common.metric.ExecutorMetric;
 import org.apache.nemo.runtime.common.metric.Metric;
+import org.apache.nemo.runtime.common.metric.TaskMetric;
 import org.apache.nemo.runtime.master.scheduler.ExecutorRegistry;
 import org.apache.reef.annotations.audience.DriverSide;
 import org.slf4j.Logger;
@@ -66,8 +68,10 @@ public final class MetricManagerMaster implements MetricMessageHandler {
       final Class<Metric> metricClass = metricStore.getMetricClassByName(metricType);
       // process metric message
       try {
-        if (metricStore.getOrCreateMetric(metricClass, metricId).processMetricMessage(metricField, metricValue)) {
-          metricStore.triggerBroadcast(metricClass, metricId);
+        final Metric metric = metricStore.getOrCreateMetric(metricClass, metricId);
+        if (metric.processMetricMessage(metricField, metricValue)) {
+          recordTimeSeries(metric, metricField);
+          metricStore.triggerBroadcast(metricClass, metricId, metricField);
         }
       } catch (final Exception e) {
         LOG.warn("Error when processing metric message for {}, {}, {}.", metricType, metricId, metricField);
@@ -75,6 +79,77 @@ public final class MetricManagerMaster implements MetricMessageHandler {
     }
   }
 
+  /**
+   * Records the changed field of a metric to the time series of the stage and the executor it belongs to.
+   *
+   * @param metric      the changed metric.
+   * @param metricField the changed field.
+   */
+  private void recordTimeSeries(final Metric metric, final String metricField) {
+    if (metric instanceof TaskMetric) {
+      final TaskMetric taskMetric = (TaskMetric) metric;
+      switch (metricField) {
+        case "taskDuration":
+          addToTaskCounters("completed_tasks_total", taskMetric, 1);
+          break;
+        case "serializedReadBytes":
+          addToTaskCounters("read_bytes_total", taskMetric, taskMetric.getSerializedReadBytes());
+          break;
+        case "taskOutputBytes":
+          addToTaskCounters("written_bytes_total", taskMetric, taskMetric.getTaskOutputBytes());
+          break;
+        default:
+          break;
+      }
+    } else if (metric instanceof ExecutorMetric) {
+      final ExecutorMetric executorMetric = (ExecutorMetric) metric;
+      switch (metricField) {
+        case "gcTime":
+          metricStore.recordCounter("nemo_executor_gc_time_ms_total", "executor", metric.getId(),
+            executorMetric.getGcTime());
+          break;
+        case "heapUsedBytes":
+          metricStore.recordGauge("nemo_executor_heap_used_bytes", "executor", metric.getId(),
+            executorMetric.getHeapUsedBytes());
+          break;
+        case "numRunningTasks":
+          metricStore.recordGauge("nemo_executor_running_tasks", "executor", metric.getId(),
+            executorMetric.getNumRunningTasks());
+          break;
+        case "offheapUsedBytesPerChunkSize":
+          executorMetric.getOffheapUsedBytesPerChunkSize().forEach((chunkSize, bytes) ->
+            metricStore.recordGauge("nemo_executor_offheap_used_bytes_" + chunkSize / 1024 + "kb",
+              "executor", metric.getId(), bytes));
+          break;
+        case "offheapIdleBytesPerChunkSize":
+          executorMetric.getOffheapIdleBytesPerChunkSize().forEach((chunkSize, bytes) ->
+            metricStore.recordGauge("nemo_executor_offheap_idle_bytes_" + chunkSize / 1024 + "kb",
+              "executor", metric.getId(), bytes));
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  /**
+   * Adds a delta to the counters of the stage and the executor of a task.
+   *
+   * @param name       the name of the counter, without the prefix.
+   * @param taskMetric the metric of the task.
+   * @param delta      the delta to add.
+   */
+  private void addToTaskCounters(final String name, final TaskMetric taskMetric, final long delta) {
+    if (delta < 0) {
+      return;
+    }
+    metricStore.addToCounter("nemo_stage_" + name, "stage",
+      RuntimeIdManager.getStageIdFromTaskId(taskMetric.getId()), delta);
+    if (!taskMetric.getContainerId().isEmpty()) {
+      metricStore.addToCounter("nemo_executor_" + name, "executor", taskMetric.getContainerId(), delta);
+    }
+  }
+
   @Override
   public synchronized void terminate() {
     isTerminated = true;
@@ -19,10 +19,11 @@
 package org.apache.nemo.runtime.master.metric;
 
 import com.fasterxml.jackson.core.JsonEncoding;
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
 import org.apache.nemo.common.exception.MetricException;
 import org.apache.nemo.common.exception.UnsupportedMetricException;
 import org.apache.nemo.runtime.common.metric.*;
@@ -34,24 +35,56 @@ import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * MetricStore stores metric data which will be used by web visualize interface, logging, and so on.
  * All metric classes should be JSON-serializable by {@link ObjectMapper}.
+ * It also keeps bounded time series of the runtime metrics, which can be scraped in the Prometheus text format.
  */
 public final class MetricStore {
   private static final Logger LOG = LoggerFactory.getLogger(MetricStore.class.getName());
-  private final Map<Class<? extends Metric>, Map<String, Object>> metricMap = new HashMap<>();
+  private final Map<Class<? extends Metric>, Map<String, Object>> metricMap = new ConcurrentHashMap<>();
   // You can add more metrics by adding item to this metricList list.
   private final Map<String, Class<? extends Metric>> metricList = new HashMap<>();
+  // Time series name -> labels -> time series.
+  private final Map<String, Map<String, MetricTimeSeries>> timeSeriesMap = new ConcurrentHashMap<>();
+
+  private static final int TIME_SERIES_CAPACITY = 600;
+  private static final long TIME_SERIES_RESOLUTION_MS = 1000;
+  private static final long RATE_WINDOW_MS = 10000;
+  private static final String COUNTER_SUFFIX = "_total";
+  private static final String RATE_SUFFIX = "_per_second";
+
+  /**
+   * The JSON property of the state transition events of a {@link StateMetric}, which are only ever appended to.
+   */
+  public static final String STATE_TRANSITION_EVENTS = "stateTransitionEvents";
+  // Marks a metric to be broadcast as a whole.
+  private static final String ALL_FIELDS = "*";
+
+  // The serializer shared by all dumps, which recycles its buffers internally.
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  // The ids of the metrics changed since the last broadcast, with the JSON properties changed.
+  private final Map<Class<? extends Metric>, Map<String, Set<String>>> changedMetricFields = new ConcurrentHashMap<>();
+  // The number of state transition events broadcast so far, of each metric broadcast so far.
+  private final Map<Class<? extends Metric>, Map<String, Integer>> broadcastEventCounts = new HashMap<>();
+  // The JSON properties of each metric class, to write the changed ones with.
+  private final Map<Class<?>, Map<String, AnnotatedMember>> metricProperties = new ConcurrentHashMap<>();
 
   /**
    * Private constructor.
@@ -60,6 +93,7 @@ public final class MetricStore {
     metricList.put("JobMetric", JobMetric.class);
     metricList.put("StageMetric", StageMetric.class);
     metricList.put("TaskMetric", TaskMetric.class);
+    metricList.put("ExecutorMetric", ExecutorMetric.class);
   }
 
   /**
@@ -114,7 +148,7 @@ public final class MetricStore {
       throw new UnsupportedMetricException(new Throwable("Unsupported metric"));
     }
 
-    metricMap.computeIfAbsent(metricClass, k -> new HashMap<>()).putIfAbsent(metric.getId(), metric);
+    metricMap.computeIfAbsent(metricClass, k -> new ConcurrentHashMap<>()).putIfAbsent(metric.getId(), metric);
   }
 
   /**
@@ -126,7 +160,7 @@ public final class MetricStore {
    * @return a metric object.
    */
   public <T extends Metric> T getMetricWithId(final Class<T> metricClass, final String id) {
-    final T metric = (T) metricMap.computeIfAbsent(metricClass, k -> new HashMap<>()).get(id);
+    final T metric = (T) metricMap.computeIfAbsent(metricClass, k -> new ConcurrentHashMap<>()).get(id);
     if (metric == null) {
       throw new NoSuchElementException("No metric found");
     }
@@ -141,7 +175,7 @@ public final class MetricStore {
    * @return a metric object.
    */
   public <T extends Metric> Map<String, Object> getMetricMap(final Class<T> metricClass) {
-    return metricMap.computeIfAbsent(metricClass, k -> new HashMap<>());
+    return metricMap.computeIfAbsent(metricClass, k -> new ConcurrentHashMap<>());
   }
 
   /**
@@ -154,21 +188,21 @@ public final class MetricStore {
    * @return a metric object. If there was no such metric, newly create one.
    */
   public <T extends Metric> T getOrCreateMetric(final Class<T> metricClass, final String id) {
-    T metric = (T) metricMap.computeIfAbsent(metricClass, k -> new HashMap<>()).get(id);
-    if (metric == null) {
+    if (!metricList.values().contains(metricClass)) {
+      throw new UnsupportedMetricException(new Throwable("Unsupported metric"));
+    }
+    // Created atomically, so that concurrent callers share the same metric object.
+    return (T) metricMap.computeIfAbsent(metricClass, k -> new ConcurrentHashMap<>()).computeIfAbsent(id, k -> {
       try {
-        metric = metricClass.getConstructor(String.class).newInstance(id);
-        putMetric(metric);
+        return metricClass.getConstructor(String.class).newInstance(id);
       } catch (final Exception e) {
         throw new MetricException(e);
       }
-    }
-    return metric;
+    });
   }
 
   private void generatePreprocessedJsonFromMetricEntry(final Map.Entry<String, Object> idToMetricEntry,
-                                                       final JsonGenerator jsonGenerator,
-                                                       final ObjectMapper objectMapper) throws IOException {
+                                                       final JsonGenerator jsonGenerator) throws IOException {
     final JsonNode jsonNode = objectMapper.valueToTree(idToMetricEntry.getValue());
     jsonGenerator.writeFieldName(idToMetricEntry.getKey());
     jsonGenerator.writeStartObject();
@@ -188,18 +222,15 @@ public final class MetricStore {
    * @throws IOException when failed to write json.
    */
   public <T extends Metric> String dumpMetricToJson(final Class<T> metricClass) throws IOException {
-    final ObjectMapper objectMapper = new ObjectMapper();
-    final JsonFactory jsonFactory = new JsonFactory();
     final ByteArrayOutputStream stream = new ByteArrayOutputStream();
 
-    try (JsonGenerator jsonGenerator = jsonFactory.createGenerator(stream, JsonEncoding.UTF8)) {
-      jsonGenerator.setCodec(objectMapper);
+    try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(stream, JsonEncoding.UTF8)) {
 
       jsonGenerator.writeStartObject();
       jsonGenerator.writeFieldName(metricClass.getSimpleName());
       jsonGenerator.writeStartObject();
       for (final Map.Entry<String, Object> idToMetricEntry : getMetricMap(metricClass).entrySet()) {
-        generatePreprocessedJsonFromMetricEntry(idToMetricEntry, jsonGenerator, objectMapper);
+        generatePreprocessedJsonFromMetricEntry(idToMetricEntry, jsonGenerator);
       }
       jsonGenerator.writeEndObject();
       jsonGenerator.writeEndObject();
@@ -214,19 +245,16 @@ public final class MetricStore {
    * @throws IOException when failed to write file.
    */
   public synchronized String dumpAllMetricToJson() throws IOException {
-    final ObjectMapper objectMapper = new ObjectMapper();
-    final JsonFactory jsonFactory = new JsonFactory();
     final ByteArrayOutputStream stream = new ByteArrayOutputStream();
 
-    try (JsonGenerator jsonGenerator = jsonFactory.createGenerator(stream, JsonEncoding.UTF8)) {
-      jsonGenerator.setCodec(objectMapper);
+    try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(stream, JsonEncoding.UTF8)) {
 
       jsonGenerator.writeStartObject();
       for (final Map.Entry<Class<? extends Metric>, Map<String, Object>> metricMapEntry : metricMap.entrySet()) {
         jsonGenerator.writeFieldName(metricMapEntry.getKey().getSimpleName());
         jsonGenerator.writeStartObject();
         for (final Map.Entry<String, Object> idToMetricEntry : metricMapEntry.getValue().entrySet()) {
-          generatePreprocessedJsonFromMetricEntry(idToMetricEntry, jsonGenerator, objectMapper);
+          generatePreprocessedJsonFromMetricEntry(idToMetricEntry, jsonGenerator);
         }
         jsonGenerator.writeEndObject();
       }
@@ -357,34 +385,279 @@ public final class MetricStore {
   }
 
   /**
-   * Send changed metric data to {@link MetricBroadcaster}, which will broadcast it to
-   * all active WebSocket sessions. This method should be called manually if you want to
-   * send changed metric data to the frontend client. Also this method is synchronized.
+   * Adds a delta to a counter time series.
+   *
+   * @param name       the name of the counter, which should end with "_total".
+   * @param labelName  the name of the label, e.g., "stage".
+   * @param labelValue the value of the label.
+   * @param delta      the delta to add.
+   */
+  public void addToCounter(final String name, final String labelName, final String labelValue, final long delta) {
+    getOrCreateTimeSeries(name, MetricTimeSeries.Type.COUNTER, labelName, labelValue)
+      .add(System.currentTimeMillis(), delta);
+  }
+
+  /**
+   * Records the accumulated value of a counter time series, for counters accumulated by the evaluators.
+   *
+   * @param name       the name of the counter, which should end with "_total".
+   * @param labelName  the name of the label, e.g., "executor".
+   * @param labelValue the value of the label.
+   * @param value      the accumulated value.
+   */
+  public void recordCounter(final String name, final String labelName, final String labelValue, final long value) {
+    getOrCreateTimeSeries(name, MetricTimeSeries.Type.COUNTER, labelName, labelValue)
+      .record(System.currentTimeMillis(), value);
+  }
+
+  /**
+   * Records the value of a gauge time series.
+   *
+   * @param name       the name of the gauge.
+   * @param labelName  the name of the label, e.g., "executor".
+   * @param labelValue the value of the label.
+   * @param value      the current value.
+   */
+  public void recordGauge(final String name, final String labelName, final String labelValue, final long value) {
+    getOrCreateTimeSeries(name, MetricTimeSeries.Type.GAUGE, labelName, labelValue)
+      .record(System.currentTimeMillis(), value);
+  }
+
+  /**
+   * @param name       the name of the time series.
+   * @param type       the type of the time series.
+   * @param labelName  the name of the label.
+   * @param labelValue the value of the label.
+   * @return the time series, newly created if absent.
+   */
+  private MetricTimeSeries getOrCreateTimeSeries(final String name,
+                                                 final MetricTimeSeries.Type type,
+                                                 final String labelName,
+                                                 final String labelValue) {
+    return timeSeriesMap.computeIfAbsent(name, k -> new ConcurrentHashMap<>())
+      .computeIfAbsent(toLabels(labelName, labelValue),
+        k -> new MetricTimeSeries(type, TIME_SERIES_CAPACITY, TIME_SERIES_RESOLUTION_MS));
+  }
+
+  /**
+   * Removes the time series of the given values of a label, e.g., of the stages of a finished plan,
+   * whose IDs are reused by the next plans.
+   *
+   * @param labelName   the name of the label.
+   * @param labelValues the values of the label.
+   */
+  public void removeTimeSeries(final String labelName, final Collection<String> labelValues) {
+    final Set<String> labelsToRemove = new HashSet<>();
+    labelValues.forEach(labelValue -> labelsToRemove.add(toLabels(labelName, labelValue)));
+    timeSeriesMap.values().forEach(labelsToSeries -> labelsToSeries.keySet().removeAll(labelsToRemove));
+  }
+
+  /**
+   * @param labelName  the name of a label.
+   * @param labelValue the value of the label.
+   * @return the label in the Prometheus text format.
+   */
+  private static String toLabels(final String labelName, final String labelValue) {
+    return labelName + "=\"" + escapeLabelValue(labelValue) + "\"";
+  }
+
+  /**
+   * @param labelValue the value of a label.
+   * @return the value escaped for the Prometheus text format.
+   */
+  private static String escapeLabelValue(final String labelValue) {
+    return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  /**
+   * Dumps the latest values of the time series in the Prometheus text exposition format.
+   * For each counter, its rate per second over the recent window is exposed as a gauge,
+   * e.g., "nemo_stage_read_bytes_per_second" for "nemo_stage_read_bytes_total".
+   *
+   * @return the dumped text.
+   */
+  public String dumpTimeSeriesToText() {
+    final long currentTimeMs = System.currentTimeMillis();
+    final StringBuilder latestValues = new StringBuilder();
+    final StringBuilder rates = new StringBuilder();
+    for (final Map.Entry<String, Map<String, MetricTimeSeries>> entry : new TreeMap<>(timeSeriesMap).entrySet()) {
+      final String name = entry.getKey();
+      final Map<String, MetricTimeSeries> labelsToSeries = new TreeMap<>(entry.getValue());
+      if (labelsToSeries.isEmpty()) {
+        continue;
+      }
+      final MetricTimeSeries.Type type = labelsToSeries.values().iterator().next().getType();
+      latestValues.append("# TYPE ").append(name).append(' ')
+        .append(type == MetricTimeSeries.Type.COUNTER ? "counter" : "gauge").append('\n');
+      labelsToSeries.forEach((labels, series) -> latestValues.append(name).append('{').append(labels).append("} ")
+        .append(series.getLatestValue()).append('\n'));
+
+      if (type == MetricTimeSeries.Type.COUNTER) {
+        final String rateName = (name.endsWith(COUNTER_SUFFIX)
+          ? name.substring(0, name.length() - COUNTER_SUFFIX.length()) : name) + RATE_SUFFIX;
+        rates.append("# TYPE ").append(rateName).append(" gauge\n");
+        labelsToSeries.forEach((labels, series) -> rates.append(rateName).append('{').append(labels).append("} ")
+          .append(series.getRatePerSecond(currentTimeMs, RATE_WINDOW_MS)).append('\n'));
+      }
+    }
+    return latestValues.append(rates).toString();
+  }
+
+  /**
+   * Marks a metric as changed, to be sent to the frontend clients by {@link MetricBroadcaster}
+   * at its next broadcast as a whole. The changes of a metric within a broadcast interval are coalesced.
+   * This method should be called manually if you want to send changed metric data to the frontend client.
    *
    * @param metricClass class of the metric.
    * @param id          id of the metric.
    * @param <T>         type of the metric to broadcast
    */
-  public synchronized <T extends Metric> void triggerBroadcast(final Class<T> metricClass, final String id) {
-    final MetricBroadcaster metricBroadcaster = MetricBroadcaster.getInstance();
-    final ObjectMapper objectMapper = new ObjectMapper();
-    final T metric = getMetricWithId(metricClass, id);
-    final JsonFactory jsonFactory = new JsonFactory();
-    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-    try (JsonGenerator jsonGenerator = jsonFactory.createGenerator(stream, JsonEncoding.UTF8)) {
-      jsonGenerator.setCodec(objectMapper);
+  public <T extends Metric> void triggerBroadcast(final Class<T> metricClass, final String id) {
+    triggerBroadcast(metricClass, id, ALL_FIELDS);
+  }
 
-      jsonGenerator.writeStartObject();
-      jsonGenerator.writeFieldName("metricType");
-      jsonGenerator.writeString(metricClass.getSimpleName());
+  /**
+   * Same as {@link #triggerBroadcast(Class, String)}, but only the changed field is sent if the metric is sent
+   * already.
+   *
+   * @param metricClass class of the metric.
+   * @param id          id of the metric.
+   * @param field       the changed JSON property, or the field of {@link Metric#processMetricMessage}.
+   * @param <T>         type of the metric to broadcast
+   */
+  public <T extends Metric> void triggerBroadcast(final Class<T> metricClass, final String id, final String field) {
+    if (MetricBroadcaster.getInstance().hasSessions()) {
+      // The executors send the state transition events one by one.
+      final String property = "stateTransitionEvent".equals(field) ? STATE_TRANSITION_EVENTS : field;
+      // Updated atomically with the removal in dumpChangedMetricsToJson(), not to lose the field.
+      changedMetricFields.computeIfAbsent(metricClass, k -> new ConcurrentHashMap<>()).compute(id, (k, fields) -> {
+        final Set<String> changedFields = fields == null ? new HashSet<>() : fields;
+        changedFields.add(property);
+        return changedFields;
+      });
+    }
+  }
 
-      jsonGenerator.writeFieldName("data");
-      jsonGenerator.writeObject(metric);
+  /**
+   * Writes the metrics changed since the last call, in the same layout as {@link #dumpAllMetricToJson()}.
+   * A metric sent before is written as a delta, which only has its id and changed fields,
+   * where the state transition events have only the events appended since.
+   * Such a metric is marked with "delta": true, and the others are written as a whole.
+   * This method is called by {@link MetricBroadcaster} only.
+   *
+   * @param outputStream the stream to write to.
+   * @return whether any metric is written.
+   * @throws IOException when failed to write json.
+   */
+  synchronized boolean dumpChangedMetricsToJson(final OutputStream outputStream) throws IOException {
+    boolean written = false;
+    try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+      jsonGenerator.writeStartObject();
+      for (final Map.Entry<Class<? extends Metric>, Map<String, Set<String>>> classToIds
+        : changedMetricFields.entrySet()) {
+        final Class<? extends Metric> metricClass = classToIds.getKey();
+        final Map<String, Integer> eventCounts = broadcastEventCounts.computeIfAbsent(metricClass,
+          k -> new HashMap<>());
+        boolean classWritten = false;
+        for (final String id : classToIds.getValue().keySet()) {
+          final Set<String> changedFields = classToIds.getValue().remove(id);
+          final Object metric = getMetricMap(metricClass).get(id);
+          if (changedFields == null || metric == null) {
+            continue;
+          }
+
+          if (!classWritten) {
+            jsonGenerator.writeFieldName(metricClass.getSimpleName());
+            jsonGenerator.writeStartObject();
+            classWritten = true;
+          }
+          jsonGenerator.writeFieldName(id);
+          jsonGenerator.writeStartObject();
+          jsonGenerator.writeStringField("id", id);
+          // The events appended from now on are marked as changed again.
+          final int numEvents = metric instanceof StateMetric
+            ? ((StateMetric<?>) metric).getStateTransitionEvents().size() : 0;
+          final Integer numSentEvents = eventCounts.get(id);
+          final boolean delta = numSentEvents != null
+            && writeDelta(metric, changedFields, numSentEvents, numEvents, jsonGenerator);
+          if (!delta) {
+            jsonGenerator.writeBooleanField("delta", false);
+            jsonGenerator.writeFieldName("data");
+            jsonGenerator.writeObject(metric);
+          }
+          jsonGenerator.writeEndObject();
+          eventCounts.put(id, numEvents);
+        }
+        if (classWritten) {
+          jsonGenerator.writeEndObject();
+          written = true;
+        }
+      }
       jsonGenerator.writeEndObject();
+    }
+    return written;
+  }
 
-      metricBroadcaster.broadcast(stream.toString());
-    } catch (final IOException e) {
-      throw new MetricException(e);
+  /**
+   * Writes the changed fields of a metric sent before, if they are known properties of the metric.
+   *
+   * @param metric        the metric.
+   * @param changedFields the JSON properties changed.
+   * @param numSentEvents the number of state transition events sent before.
+   * @param numEvents     the number of state transition events to send up to.
+   * @param jsonGenerator the generator to write with.
+   * @return whether the delta is written, or the metric has to be written as a whole.
+   * @throws IOException when failed to write json.
+   */
+  private boolean writeDelta(final Object metric,
+                             final Set<String> changedFields,
+                             final int numSentEvents,
+                             final int numEvents,
+                             final JsonGenerator jsonGenerator) throws IOException {
+    final Map<String, AnnotatedMember> properties = metricProperties.computeIfAbsent(metric.getClass(), k -> {
+      final Map<String, AnnotatedMember> accessors = new HashMap<>();
+      for (final BeanPropertyDefinition property : objectMapper.getSerializationConfig()
+        .introspect(objectMapper.constructType(k)).findProperties()) {
+        if (property.getAccessor() != null) {
+          accessors.put(property.getName(), property.getAccessor());
+        }
+      }
+      return accessors;
+    });
+    if (!properties.keySet().containsAll(changedFields)) {
+      return false;
+    }
+    final List<?> events = metric instanceof StateMetric
+      ? ((StateMetric<?>) metric).getStateTransitionEvents() : null;
+    if (changedFields.contains(STATE_TRANSITION_EVENTS) && (events == null || numEvents < numSentEvents)) {
+      return false;
     }
+
+    jsonGenerator.writeBooleanField("delta", true);
+    jsonGenerator.writeFieldName("data");
+    jsonGenerator.writeStartObject();
+    jsonGenerator.writeObjectField("id", ((Metric) metric).getId());
+    for (final String field : changedFields) {
+      if (field.equals(STATE_TRANSITION_EVENTS)) {
+        // Only the appended events, without copying the rest of them.
+        jsonGenerator.writeArrayFieldStart(field);
+        for (int i = numSentEvents; i < numEvents; i++) {
+          jsonGenerator.writeObject(events.get(i));
+        }
+        jsonGenerator.writeEndArray();
+      } else {
+        jsonGenerator.writeObjectField(field, properties.get(field).getValue(metric));
+      }
+    }
+    jsonGenerator.writeEndObject();
+    return true;
+  }
+
+  /**
+   * Forgets the metrics sent so far, so that the metrics changed afterwards are broadcast as a whole.
+   * This method is called by {@link MetricBroadcaster} only, when the set of sessions changes.
+   */
+  synchronized void resetBroadcast() {
+    broadcastEventCounts.clear();
   }
 }
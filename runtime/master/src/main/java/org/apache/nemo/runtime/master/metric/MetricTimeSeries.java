@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.master.metric;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A time series of a metric, kept in a ring buffer of a bounded number of samples.
+ * The samples recorded within the resolution since the last sample was started are merged into it,
+ * taking its time and value, so that the buffer covers at least (capacity * resolution) milliseconds of history.
+ */
+@ThreadSafe
+public final class MetricTimeSeries {
+  /**
+   * The type of a time series.
+   */
+  public enum Type {
+    // A value that only grows, e.g., the number of bytes read. Its rate is derived from the samples.
+    COUNTER,
+    // A value that goes up and down, e.g., the number of running tasks.
+    GAUGE
+  }
+
+  private final Type type;
+  private final long resolutionMs;
+  private final long[] timestamps;
+  private final long[] values;
+  private int nextIndex;
+  private long numRecorded;
+  // The time of the first sample merged into the latest one.
+  private long lastStartMs;
+
+  /**
+   * Constructor.
+   *
+   * @param type         the type of the time series.
+   * @param capacity     the maximum number of samples to keep.
+   * @param resolutionMs the minimum interval between two samples.
+   */
+  public MetricTimeSeries(final Type type, final int capacity, final long resolutionMs) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity of a time series should be positive: " + capacity);
+    }
+    this.type = type;
+    this.resolutionMs = resolutionMs;
+    this.timestamps = new long[capacity];
+    this.values = new long[capacity];
+    this.nextIndex = 0;
+    this.numRecorded = 0;
+    this.lastStartMs = 0;
+  }
+
+  /**
+   * @return the type of the time series.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Records a sample.
+   *
+   * @param timestampMs the time of the sample.
+   * @param value       the value of the sample.
+   */
+  public synchronized void record(final long timestampMs, final long value) {
+    if (numRecorded > 0 && timestampMs - lastStartMs < resolutionMs) {
+      timestamps[lastIndex()] = timestampMs;
+      values[lastIndex()] = value;
+      return;
+    }
+    lastStartMs = timestampMs;
+    timestamps[nextIndex] = timestampMs;
+    values[nextIndex] = value;
+    nextIndex = (nextIndex + 1) % timestamps.length;
+    numRecorded++;
+  }
+
+  /**
+   * Adds a delta to the latest value, and records the result as a sample.
+   *
+   * @param timestampMs the time of the sample.
+   * @param delta       the delta to add.
+   */
+  public synchronized void add(final long timestampMs, final long delta) {
+    record(timestampMs, getLatestValue() + delta);
+  }
+
+  /**
+   * @return the latest value, or 0 if nothing is recorded.
+   */
+  public synchronized long getLatestValue() {
+    return numRecorded > 0 ? values[lastIndex()] : 0;
+  }
+
+  /**
+   * @return the number of samples kept.
+   */
+  public synchronized int size() {
+    return (int) Math.min(numRecorded, timestamps.length);
+  }
+
+  /**
+   * Computes the rate of a counter per second over a recent time window.
+   * The value before the first sample is taken as 0, unless the older samples are evicted from the buffer.
+   *
+   * @param currentTimeMs the current time.
+   * @param windowMs      the length of the window.
+   * @return the increase of the value per second in the window.
+   */
+  public synchronized double getRatePerSecond(final long currentTimeMs, final long windowMs) {
+    if (numRecorded == 0 || windowMs <= 0) {
+      return 0;
+    }
+    final long windowStartMs = currentTimeMs - windowMs;
+    long baseTimestampMs = windowStartMs;
+    long baseValue = 0;
+    int index = lastIndex();
+    boolean found = false;
+    for (int i = 0; i < size(); i++) {
+      if (timestamps[index] <= windowStartMs) {
+        baseValue = values[index];
+        found = true;
+        break;
+      }
+      index = (index - 1 + timestamps.length) % timestamps.length;
+    }
+    if (!found && numRecorded > timestamps.length) {
+      // The samples at the start of the window are evicted: measure from the oldest one kept.
+      baseTimestampMs = timestamps[nextIndex];
+      baseValue = values[nextIndex];
+    }
+
+    final long elapsedMs = currentTimeMs - baseTimestampMs;
+    return elapsedMs > 0 ? (getLatestValue() - baseValue) * 1000.0 / elapsedMs : 0;
+  }
+
+  /**
+   * @return the index of the latest sample.
+   */
+  private int lastIndex() {
+    return (nextIndex - 1 + timestamps.length) % timestamps.length;
+  }
+}
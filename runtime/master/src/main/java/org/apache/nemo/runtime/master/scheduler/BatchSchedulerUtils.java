@@ -99,7 +99,7 @@ public final class BatchSchedulerUtils {
         planStateManager.getPhysicalPlan().getPlanId(),
         taskId,
         stageToSchedule.getExecutionProperties(),
-        stageToSchedule.getSerializedIRDAG(),
+        stageToSchedule.getIRDAGDigest(),
         stageIncomingEdges,
         stageOutgoingEdges,
         vertexIdToReadables.get(taskIdx)));
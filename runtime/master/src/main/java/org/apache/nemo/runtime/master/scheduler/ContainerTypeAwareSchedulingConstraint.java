@@ -42,4 +42,9 @@ public final class ContainerTypeAwareSchedulingConstraint implements SchedulingC
     return executorPlacementPropertyValue.equals(ResourcePriorityProperty.NONE) ? true
       : executor.getContainerType().equals(executorPlacementPropertyValue);
   }
+
+  @Override
+  public boolean isTaskIndependent() {
+    return true;
+  }
 }
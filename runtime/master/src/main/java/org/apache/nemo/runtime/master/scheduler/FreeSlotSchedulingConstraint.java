@@ -43,4 +43,9 @@ public final class FreeSlotSchedulingConstraint implements SchedulingConstraint
 
     return executor.getNumOfComplyingRunningTasks() < executor.getExecutorCapacity();
   }
+
+  @Override
+  public boolean isTaskIndependent() {
+    return true;
+  }
 }
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.master.scheduler;
+
+import org.apache.nemo.common.HashRange;
+import org.apache.nemo.common.KeyRange;
+import org.apache.nemo.common.ir.edge.executionproperty.CommunicationPatternProperty;
+import org.apache.nemo.common.ir.edge.executionproperty.DuplicateEdgeGroupProperty;
+import org.apache.nemo.common.ir.edge.executionproperty.DuplicateEdgeGroupPropertyValue;
+import org.apache.nemo.common.ir.vertex.executionproperty.ParallelismProperty;
+import org.apache.nemo.conf.JobConf;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.apache.nemo.runtime.common.plan.StageEdge;
+import org.apache.nemo.runtime.common.plan.Task;
+import org.apache.nemo.runtime.master.BlockManagerMaster;
+import org.apache.nemo.runtime.master.resource.ExecutorRepresenter;
+import org.apache.reef.annotations.audience.DriverSide;
+import org.apache.reef.tang.annotations.Parameter;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This policy prefers the executors that hold more bytes of the input blocks of a task, i.e., delay scheduling.
+ * When another running executor holds more input bytes than any of the available executors,
+ * the task waits for a bounded time ({@link JobConf.LocalityWaitMs}) for it, before falling back to the best of them.
+ * Among the executors holding the same number of input bytes, the one with the least running tasks is selected.
+ */
+@ThreadSafe
+@DriverSide
+public final class LocalityDelaySchedulingPolicy implements SchedulingPolicy {
+  private final BlockManagerMaster blockManagerMaster;
+  private final ExecutorRegistry executorRegistry;
+  private final long localityWaitMs;
+  private final Map<String, Long> taskIdToWaitStartTimeMs;
+
+  @Inject
+  private LocalityDelaySchedulingPolicy(final BlockManagerMaster blockManagerMaster,
+                                        final ExecutorRegistry executorRegistry,
+                                        @Parameter(JobConf.LocalityWaitMs.class) final int localityWaitMs) {
+    this.blockManagerMaster = blockManagerMaster;
+    this.executorRegistry = executorRegistry;
+    this.localityWaitMs = localityWaitMs;
+    this.taskIdToWaitStartTimeMs = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public ExecutorRepresenter selectExecutor(final Collection<ExecutorRepresenter> executors, final Task task) {
+    taskIdToWaitStartTimeMs.remove(task.getTaskId());
+    final Map<String, Long> inputBytes = getInputBytesByLocation(task);
+    return executors.stream()
+      .min(Comparator.<ExecutorRepresenter>comparingLong(e -> -inputBytes.getOrDefault(e.getExecutorId(), 0L))
+        .thenComparingInt(ExecutorRepresenter::getNumOfRunningTasks))
+      .orElseThrow(() -> new RuntimeException("No executor to select"));
+  }
+
+  @Override
+  public long getSchedulingDelayMs(final Collection<ExecutorRepresenter> executors, final Task task) {
+    if (localityWaitMs <= 0 || task.getTaskIncomingEdges().isEmpty()) {
+      return 0;
+    }
+    final Map<String, Long> inputBytes = getInputBytesByLocation(task);
+    final long availableBytes = getMaxInputBytes(executors, inputBytes);
+    final long[] runningBytes = {0};
+    executorRegistry.viewExecutors(runningExecutors ->
+      runningBytes[0] = getMaxInputBytes(runningExecutors, inputBytes));
+    if (runningBytes[0] <= availableBytes) {
+      return 0;
+    }
+
+    // A busy executor holds more of the input: wait for it, but not longer than the locality wait.
+    final long currentTimeMs = System.currentTimeMillis();
+    final long waitedMs = currentTimeMs
+      - taskIdToWaitStartTimeMs.computeIfAbsent(task.getTaskId(), taskId -> currentTimeMs);
+    return Math.max(localityWaitMs - waitedMs, 0);
+  }
+
+  /**
+   * @param executors  the executors to look at.
+   * @param inputBytes the number of input bytes per location.
+   * @return the maximum number of input bytes an executor holds.
+   */
+  private static long getMaxInputBytes(final Collection<ExecutorRepresenter> executors,
+                                       final Map<String, Long> inputBytes) {
+    long maxBytes = 0;
+    for (final ExecutorRepresenter executor : executors) {
+      maxBytes = Math.max(maxBytes, inputBytes.getOrDefault(executor.getExecutorId(), 0L));
+    }
+    return maxBytes;
+  }
+
+  /**
+   * Estimates how many bytes the task reads from each location, in the way the task reads its input blocks:
+   * the block of the same index for one-to-one edges, the whole blocks for broadcast edges,
+   * and the share of the key range of the task in the blocks for shuffle edges.
+   *
+   * @param task the task to schedule.
+   * @return the estimated number of input bytes per location, of the blocks with known sizes.
+   */
+  private Map<String, Long> getInputBytesByLocation(final Task task) {
+    final Map<String, Long> inputBytes = new HashMap<>();
+    final int taskIndex = RuntimeIdManager.getIndexFromTaskId(task.getTaskId());
+    for (final StageEdge edge : task.getTaskIncomingEdges()) {
+      final Optional<DuplicateEdgeGroupPropertyValue> duplicateDataProperty =
+        edge.getPropertyValue(DuplicateEdgeGroupProperty.class);
+      final String edgeId = !duplicateDataProperty.isPresent() || duplicateDataProperty.get().getGroupSize() <= 1
+        ? edge.getId() : duplicateDataProperty.get().getRepresentativeEdgeId();
+
+      final CommunicationPatternProperty.Value pattern = edge.getDataCommunicationPattern();
+      if (CommunicationPatternProperty.Value.ONE_TO_ONE.equals(pattern)) {
+        addInputBytes(inputBytes, RuntimeIdManager.generateBlockIdWildcard(edgeId, taskIndex), 1.0);
+      } else {
+        final double share = CommunicationPatternProperty.Value.SHUFFLE.equals(pattern)
+          ? getKeyRangeShare(edge, taskIndex) : 1.0;
+        final int numSrcTasks = edge.getSrcIRVertex().getPropertyValue(ParallelismProperty.class)
+          .orElseThrow(() -> new IllegalStateException(edge.getSrcIRVertex().getId()));
+        for (int srcTaskIdx = 0; srcTaskIdx < numSrcTasks; srcTaskIdx++) {
+          addInputBytes(inputBytes, RuntimeIdManager.generateBlockIdWildcard(edgeId, srcTaskIdx), share);
+        }
+      }
+    }
+    return inputBytes;
+  }
+
+  /**
+   * @param inputBytes      the number of input bytes per location to add to.
+   * @param blockIdWildcard of the input block.
+   * @param share           the share of the block to read.
+   */
+  private void addInputBytes(final Map<String, Long> inputBytes,
+                             final String blockIdWildcard,
+                             final double share) {
+    blockManagerMaster.getAvailableBlockBytesByLocation(blockIdWildcard).forEach((location, bytes) ->
+      inputBytes.merge(location, (long) (bytes * share), Long::sum));
+  }
+
+  /**
+   * @param edge      the shuffle edge.
+   * @param taskIndex the index of the task.
+   * @return the share of the key range of the task among all the key ranges of the edge.
+   */
+  private static double getKeyRangeShare(final StageEdge edge, final int taskIndex) {
+    final List<KeyRange> keyRanges = edge.getKeyRanges();
+    long totalLength = 0;
+    for (final KeyRange keyRange : keyRanges) {
+      if (!(keyRange instanceof HashRange)) {
+        return 1.0;
+      }
+      totalLength += getLength((HashRange) keyRange);
+    }
+    return totalLength > 0 && taskIndex < keyRanges.size()
+      ? (double) getLength((HashRange) keyRanges.get(taskIndex)) / totalLength : 1.0;
+  }
+
+  /**
+   * @param hashRange the hash range.
+   * @return the number of hash values in the range.
+   */
+  private static int getLength(final HashRange hashRange) {
+    return hashRange.rangeEndExclusive() - hashRange.rangeBeginInclusive();
+  }
+}
@@ -25,7 +25,8 @@ import org.apache.reef.annotations.audience.DriverSide;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import java.util.Collection;
-import java.util.OptionalInt;
+import java.util.Comparator;
+import java.util.Optional;
 
 /**
  * This policy chooses a set of Executors, on which have minimum running Tasks.
@@ -33,6 +34,8 @@ import java.util.OptionalInt;
 @ThreadSafe
 @DriverSide
 public final class MinOccupancyFirstSchedulingPolicy implements SchedulingPolicy {
+  private static final Comparator<ExecutorRepresenter> OCCUPANCY_ORDER =
+    Comparator.comparingInt(ExecutorRepresenter::getNumOfRunningTasks);
 
   @Inject
   private MinOccupancyFirstSchedulingPolicy() {
@@ -40,18 +43,13 @@ public final class MinOccupancyFirstSchedulingPolicy implements SchedulingPolicy
 
   @Override
   public ExecutorRepresenter selectExecutor(final Collection<ExecutorRepresenter> executors, final Task task) {
-    final OptionalInt minOccupancy =
-      executors.stream()
-        .map(ExecutorRepresenter::getNumOfRunningTasks)
-        .mapToInt(i -> i).min();
-
-    if (!minOccupancy.isPresent()) {
-      throw new RuntimeException("Cannot find min occupancy");
-    }
-
     return executors.stream()
-      .filter(executor -> executor.getNumOfRunningTasks() == minOccupancy.getAsInt())
-      .findFirst()
-      .orElseThrow(() -> new RuntimeException("No such executor"));
+      .min(OCCUPANCY_ORDER)
+      .orElseThrow(() -> new RuntimeException("Cannot find min occupancy"));
+  }
+
+  @Override
+  public Optional<Comparator<ExecutorRepresenter>> getPreferenceOrder() {
+    return Optional.of(OCCUPANCY_ORDER);
   }
 }
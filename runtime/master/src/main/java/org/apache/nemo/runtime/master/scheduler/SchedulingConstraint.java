@@ -32,4 +32,16 @@ import javax.annotation.concurrent.ThreadSafe;
 @FunctionalInterface
 public interface SchedulingConstraint {
   boolean testSchedulability(ExecutorRepresenter executor, Task task);
+
+  /**
+   * Whether the schedulability depends only on the executor and the execution properties of the task,
+   * and not on the task itself (e.g. its index or its input data).
+   * The tasks of a stage share their execution properties, so the dispatcher can rule out an executor
+   * for all of them at once if such a constraint does not hold.
+   *
+   * @return whether the constraint is independent of the task.
+   */
+  default boolean isTaskIndependent() {
+    return false;
+  }
 }
@@ -25,6 +25,8 @@ import org.apache.reef.annotations.audience.DriverSide;
 import org.apache.reef.tang.annotations.DefaultImplementation;
 
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Optional;
 
 /**
  * A function to select an executor from collection of available executors.
@@ -43,4 +45,31 @@ public interface SchedulingPolicy {
    * @return The selected executor. It must be a member of {@code executors}.
    */
   ExecutorRepresenter selectExecutor(Collection<ExecutorRepresenter> executors, Task task);
+
+  /**
+   * Returns the order of preference among executors, if this policy always selects the most preferred one
+   * among the available executors (i.e., the minimum under the order).
+   * With the order, the dispatcher can try the executors one by one from the most preferred,
+   * instead of evaluating the scheduling constraints of a task on every executor.
+   * The order may change as tasks get scheduled, but must not depend on the task to schedule.
+   *
+   * @return the order of preference, or empty if the policy does not select executors in a fixed order.
+   */
+  default Optional<Comparator<ExecutorRepresenter>> getPreferenceOrder() {
+    return Optional.empty();
+  }
+
+  /**
+   * Returns how long a task should wait before being scheduled to one of the specified executors,
+   * e.g., for an executor that is preferred over all of them to become available.
+   * The dispatcher tries the task again at the latest after the delay, or earlier on a new dispatch iteration.
+   * Policies with a preference order are not asked for delays.
+   *
+   * @param executors The collection of available executors that meet the scheduling constraints of the task.
+   * @param task      The task to schedule.
+   * @return the delay in milliseconds, or 0 to schedule the task right away.
+   */
+  default long getSchedulingDelayMs(final Collection<ExecutorRepresenter> executors, final Task task) {
+    return 0;
+  }
 }
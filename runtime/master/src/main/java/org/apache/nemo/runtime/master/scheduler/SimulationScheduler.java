@@ -23,11 +23,13 @@ import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.SerializationUtils;
 import org.apache.nemo.common.Pair;
 import org.apache.nemo.common.Util;
+import org.apache.nemo.common.dag.DAG;
 import org.apache.nemo.common.exception.IllegalMessageException;
 import org.apache.nemo.common.exception.SimulationException;
 import org.apache.nemo.common.exception.UnknownExecutionStateException;
 import org.apache.nemo.common.exception.UnrecoverableFailureException;
 import org.apache.nemo.common.ir.executionproperty.ResourceSpecification;
+import org.apache.nemo.common.ir.vertex.IRVertex;
 import org.apache.nemo.conf.JobConf;
 import org.apache.nemo.runtime.common.RuntimeIdManager;
 import org.apache.nemo.runtime.common.comm.ControlMessage;
@@ -37,6 +39,7 @@ import org.apache.nemo.runtime.common.metric.JobMetric;
 import org.apache.nemo.runtime.common.metric.Metric;
 import org.apache.nemo.runtime.common.plan.PhysicalPlan;
 import org.apache.nemo.runtime.common.plan.PlanRewriter;
+import org.apache.nemo.runtime.common.plan.RuntimeEdge;
 import org.apache.nemo.runtime.common.plan.Stage;
 import org.apache.nemo.runtime.common.plan.Task;
 import org.apache.nemo.runtime.common.state.StageState;
@@ -52,7 +55,6 @@ import org.apache.reef.driver.context.ActiveContext;
 import org.apache.reef.driver.evaluator.EvaluatorDescriptor;
 import org.apache.reef.tang.Configuration;
 import org.apache.reef.tang.annotations.Parameter;
-import org.apache.reef.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -199,6 +201,14 @@ public final class SimulationScheduler implements Scheduler {
     return planStateManager;
   }
 
+  /**
+   * @param stageId the id of the stage.
+   * @return the IR DAG of the stage in the plan being simulated.
+   */
+  DAG<IRVertex, RuntimeEdge<IRVertex>> getStageIRDAG(final String stageId) {
+    return planStateManager.getPhysicalPlan().getStageDAG().getVertexById(stageId).getIRDAG();
+  }
+
   /**
    * The entrance point of the simulator. Simulate a plan by submitting a plan through this method.
    * @param submittedPhysicalPlan the plan to simulate.
@@ -247,7 +257,7 @@ public final class SimulationScheduler implements Scheduler {
    * - We make {@link TaskDispatcher} dispatch only the tasks that are READY.
    */
   private void doSchedule() {
-    final java.util.Optional<List<Stage>> earliest =
+    final Optional<List<Stage>> earliest =
       BatchSchedulerUtils.selectEarliestSchedulableGroup(sortedScheduleGroups, planStateManager);
 
     if (earliest.isPresent()) {
@@ -357,7 +367,7 @@ public final class SimulationScheduler implements Scheduler {
           executorId, taskId, failureCause);
         break;
       case ON_HOLD:
-        final java.util.Optional<PhysicalPlan> optionalPhysicalPlan =
+        final Optional<PhysicalPlan> optionalPhysicalPlan =
           BatchSchedulerUtils
             .onTaskExecutionOnHold(planStateManager, executorRegistry, planRewriter, executorId, taskId);
         optionalPhysicalPlan.ifPresent(this::updatePlan);
@@ -417,7 +427,7 @@ public final class SimulationScheduler implements Scheduler {
     // process metric message
     try {
       if (metricStore.getOrCreateMetric(metricClass, metricId).processMetricMessage(metricField, metricValue)) {
-        metricStore.triggerBroadcast(metricClass, metricId);
+        metricStore.triggerBroadcast(metricClass, metricId, metricField);
       }
     } catch (final Exception e) {
       LOG.warn("Error when processing metric message for {}, {}, {}.", metricType, metricId, metricField);
@@ -503,7 +513,7 @@ public final class SimulationScheduler implements Scheduler {
     }
 
     @Override
-    public Optional<String> getParentId() {
+    public org.apache.reef.util.Optional<String> getParentId() {
       return null;
     }
 
@@ -602,10 +612,17 @@ public final class SimulationScheduler implements Scheduler {
    * Scheduling policy for simulations.
    */
   private final class SimulationSchedulingPolicy implements SchedulingPolicy {
+    private final Comparator<ExecutorRepresenter> elapsedTimeOrder =
+      Comparator.comparing(e -> simulatedTaskExecutorMap.get(e.getExecutorId()).getElapsedTime().intValue());
+
     @Override
     public ExecutorRepresenter selectExecutor(final Collection<ExecutorRepresenter> executors, final Task task) {
-      return Collections.min(executors,
-        Comparator.comparing(e -> simulatedTaskExecutorMap.get(e.getExecutorId()).getElapsedTime().intValue()));
+      return Collections.min(executors, elapsedTimeOrder);
+    }
+
+    @Override
+    public Optional<Comparator<ExecutorRepresenter>> getPreferenceOrder() {
+      return Optional.of(elapsedTimeOrder);
     }
   }
 }
@@ -18,7 +18,8 @@
  */
 package org.apache.nemo.runtime.master.scheduler;
 
-import org.apache.commons.lang3.mutable.MutableObject;
+import org.apache.nemo.common.Pair;
+import org.apache.nemo.common.ir.executionproperty.ExecutionPropertyMap;
 import org.apache.nemo.runtime.common.plan.Task;
 import org.apache.nemo.runtime.common.state.TaskState;
 import org.apache.nemo.runtime.master.PlanStateManager;
@@ -32,6 +33,7 @@ import javax.inject.Inject;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -101,8 +103,12 @@ final class TaskDispatcher {
     @Override
     public void run() {
       while (!isTerminated) {
-        doScheduleTaskList();
-        schedulingIteration.await();
+        final long retryDelayMs = doScheduleTaskList();
+        if (retryDelayMs > 0) {
+          schedulingIteration.await(retryDelayMs);
+        } else {
+          schedulingIteration.await();
+        }
       }
 
       if (planStateManager.isPlanDone()) {
@@ -114,55 +120,154 @@ final class TaskDispatcher {
     }
   }
 
-  private void doScheduleTaskList() {
+  /**
+   * Runs a dispatch iteration.
+   *
+   * @return the time in milliseconds after which the tasks delayed by the scheduling policy should be tried again,
+   *         or 0 if no task has been delayed.
+   */
+  private long doScheduleTaskList() {
     final Optional<Collection<Task>> taskListOptional = pendingTaskCollectionPointer.getAndSetNull();
     if (!taskListOptional.isPresent()) {
       // Task list is empty
       LOG.debug("PendingTaskCollectionPointer is empty. Awaiting for more Tasks...");
-      return;
+      return 0;
     }
 
     final Collection<Task> taskList = taskListOptional.get();
     final List<Task> couldNotSchedule = new ArrayList<>();
+    final long[] retryDelayMs = {0};
+
+    // Group the tasks of a stage, which share their execution properties and thus their scheduling constraints.
+    final Map<Pair<String, ExecutionPropertyMap>, List<Task>> taskGroups = new LinkedHashMap<>();
     for (final Task task : taskList) {
       if (!planStateManager.getTaskState(task.getTaskId()).equals(TaskState.State.READY)) {
         // Guard against race conditions causing duplicate task launches
         LOG.debug("Skipping {} as it is not READY", task.getTaskId());
         continue;
       }
+      taskGroups.computeIfAbsent(Pair.of(task.getStageId(), task.getExecutionProperties()), key -> new ArrayList<>())
+        .add(task);
+    }
 
-      executorRegistry.viewExecutors(executors -> {
-        final MutableObject<Set<ExecutorRepresenter>> candidateExecutors = new MutableObject<>(executors);
-        // Filter out the candidate executors that do not meet scheduling constraints.
-        task.getExecutionProperties().forEachProperties(property -> {
-          final Optional<SchedulingConstraint> constraint = schedulingConstraintRegistry.get(property.getClass());
-          if (constraint.isPresent() && !candidateExecutors.getValue().isEmpty()) {
-            candidateExecutors.setValue(candidateExecutors.getValue().stream()
-              .filter(e -> constraint.get().testSchedulability(e, task))
-              .collect(Collectors.toSet()));
-          }
-        });
-        if (!candidateExecutors.getValue().isEmpty()) {
-          // Select executor
-          final ExecutorRepresenter selectedExecutor
-            = schedulingPolicy.selectExecutor(candidateExecutors.getValue(), task);
-          // update metadata first
-          planStateManager.onTaskStateChanged(task.getTaskId(), TaskState.State.EXECUTING);
-
-          LOG.info("{} scheduled to {}", task.getTaskId(), selectedExecutor.getExecutorId());
-          // send the task
-          selectedExecutor.onTaskScheduled(task);
+    executorRegistry.viewExecutors(executors -> {
+      for (final List<Task> taskGroup : taskGroups.values()) {
+        final List<SchedulingConstraint> taskIndependentConstraints = new ArrayList<>();
+        final List<SchedulingConstraint> taskDependentConstraints = new ArrayList<>();
+        taskGroup.get(0).getExecutionProperties().forEachProperties(property ->
+          schedulingConstraintRegistry.get(property.getClass()).ifPresent(constraint ->
+            (constraint.isTaskIndependent() ? taskIndependentConstraints : taskDependentConstraints).add(constraint)));
+
+        final Optional<Comparator<ExecutorRepresenter>> preferenceOrder = schedulingPolicy.getPreferenceOrder();
+        if (preferenceOrder.isPresent()) {
+          scheduleInPreferenceOrder(taskGroup, executors, preferenceOrder.get(),
+            taskIndependentConstraints, taskDependentConstraints, couldNotSchedule);
         } else {
-          couldNotSchedule.add(task);
+          for (final Task task : taskGroup) {
+            // Filter out the candidate executors that do not meet scheduling constraints.
+            final List<ExecutorRepresenter> candidateExecutors = executors.stream()
+              .filter(e -> isSchedulable(e, task, taskIndependentConstraints)
+                && isSchedulable(e, task, taskDependentConstraints))
+              .collect(Collectors.toList());
+            if (candidateExecutors.isEmpty()) {
+              couldNotSchedule.add(task);
+              continue;
+            }
+            final long delayMs = schedulingPolicy.getSchedulingDelayMs(candidateExecutors, task);
+            if (delayMs > 0) {
+              couldNotSchedule.add(task);
+              retryDelayMs[0] = retryDelayMs[0] > 0 ? Math.min(retryDelayMs[0], delayMs) : delayMs;
+            } else {
+              // Select executor
+              scheduleTask(task, schedulingPolicy.selectExecutor(candidateExecutors, task));
+            }
+          }
         }
-      });
-    }
+      }
+    });
 
     LOG.debug("All except {} were scheduled among {}", new Object[]{couldNotSchedule, taskList});
     if (couldNotSchedule.size() > 0) {
       // Try these again, if no new task list has been set
       pendingTaskCollectionPointer.setIfNull(couldNotSchedule);
     }
+    return retryDelayMs[0];
+  }
+
+  /**
+   * Schedules a group of tasks that share their scheduling constraints, trying the executors from the most preferred.
+   * The executors are kept in a heap in the order of preference, from which an executor is removed for good
+   * once a task-independent constraint does not hold on it. Thus, each task usually checks only a few executors.
+   *
+   * @param taskGroup                  the tasks to schedule.
+   * @param executors                  the running executors.
+   * @param preferenceOrder            the order of preference of the scheduling policy.
+   * @param taskIndependentConstraints the constraints that hold on an executor for either all or none of the tasks.
+   * @param taskDependentConstraints   the other constraints.
+   * @param couldNotSchedule           to add the tasks that could not be scheduled to.
+   */
+  private void scheduleInPreferenceOrder(final List<Task> taskGroup,
+                                         final Set<ExecutorRepresenter> executors,
+                                         final Comparator<ExecutorRepresenter> preferenceOrder,
+                                         final List<SchedulingConstraint> taskIndependentConstraints,
+                                         final List<SchedulingConstraint> taskDependentConstraints,
+                                         final List<Task> couldNotSchedule) {
+    final PriorityQueue<ExecutorRepresenter> candidateExecutors = new PriorityQueue<>(preferenceOrder);
+    candidateExecutors.addAll(executors);
+    final List<ExecutorRepresenter> skippedExecutors = new ArrayList<>();
+    for (final Task task : taskGroup) {
+      ExecutorRepresenter selectedExecutor = null;
+      while (selectedExecutor == null && !candidateExecutors.isEmpty()) {
+        final ExecutorRepresenter executor = candidateExecutors.poll();
+        if (!isSchedulable(executor, task, taskIndependentConstraints)) {
+          continue; // Not for the rest of the tasks either.
+        }
+        if (isSchedulable(executor, task, taskDependentConstraints)) {
+          selectedExecutor = executor;
+        } else {
+          skippedExecutors.add(executor);
+        }
+      }
+      if (selectedExecutor != null) {
+        scheduleTask(task, selectedExecutor);
+        // The preference of the executor has changed, so it goes back to the heap afterwards.
+        skippedExecutors.add(selectedExecutor);
+      } else {
+        couldNotSchedule.add(task);
+      }
+      candidateExecutors.addAll(skippedExecutors);
+      skippedExecutors.clear();
+    }
+  }
+
+  /**
+   * @param executor    the executor to check.
+   * @param task        the task to schedule.
+   * @param constraints the scheduling constraints to check.
+   * @return whether all the given constraints hold.
+   */
+  private static boolean isSchedulable(final ExecutorRepresenter executor,
+                                       final Task task,
+                                       final List<SchedulingConstraint> constraints) {
+    for (final SchedulingConstraint constraint : constraints) {
+      if (!constraint.testSchedulability(executor, task)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param task     the task to schedule.
+   * @param executor the executor to schedule the task to.
+   */
+  private void scheduleTask(final Task task, final ExecutorRepresenter executor) {
+    // update metadata first
+    planStateManager.onTaskStateChanged(task.getTaskId(), TaskState.State.EXECUTING);
+
+    LOG.info("{} scheduled to {}", task.getTaskId(), executor.getExecutorId());
+    // send the task
+    executor.onTaskScheduled(task);
   }
 
   /**
@@ -235,5 +340,26 @@ final class TaskDispatcher {
         lock.unlock();
       }
     }
+
+    /**
+     * Awaits to this condition, for the specified time at most.
+     *
+     * @param timeoutMs the maximum time to wait in milliseconds.
+     */
+    void await(final long timeoutMs) {
+      lock.lock();
+      try {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (!hasDelayedSignal && remainingNanos > 0) { // to handle spurious wakeups
+          remainingNanos = condition.awaitNanos(remainingNanos);
+        }
+        hasDelayedSignal = false;
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } finally {
+        lock.unlock();
+      }
+    }
   }
 }
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.master.servlet;
+
+import org.apache.nemo.runtime.master.metric.MetricStore;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Servlet which exposes the metric time series in the Prometheus text format, to be scraped.
+ */
+public final class TimeSeriesMetricServlet extends HttpServlet {
+
+  @Override
+  protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+    throws IOException {
+    final MetricStore metricStore = MetricStore.getStore();
+    response.setContentType("text/plain; version=0.0.4; charset=utf-8");
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.getWriter().print(metricStore.dumpTimeSeriesToText());
+  }
+}
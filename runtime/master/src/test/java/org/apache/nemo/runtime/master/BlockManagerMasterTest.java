@@ -159,6 +159,28 @@ public final class BlockManagerMasterTest {
     }
   }
 
+  /**
+   * Test the sizes of available blocks per location.
+   */
+  @Test
+  public void testAvailableBlockBytesByLocation() {
+    final String edgeId = IdManager.newEdgeId();
+    final String taskId = RuntimeIdManager.generateTaskId("Stage0", 0, FIRST_ATTEMPT);
+    final String blockId = RuntimeIdManager.generateBlockId(edgeId, taskId);
+    final String blockIdWildcard = RuntimeIdManager.getWildCardFromBlockId(blockId);
+    final String executorId = RuntimeIdManager.generateExecutorId();
+
+    blockManagerMaster.onProducerTaskScheduled(taskId, Collections.singleton(blockId));
+    assertTrue(blockManagerMaster.getAvailableBlockBytesByLocation(blockIdWildcard).isEmpty());
+
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.AVAILABLE, executorId, 100);
+    assertEquals(Collections.singletonMap(executorId, 100L),
+      blockManagerMaster.getAvailableBlockBytesByLocation(blockIdWildcard));
+
+    blockManagerMaster.removeWorker(executorId);
+    assertTrue(blockManagerMaster.getAvailableBlockBytesByLocation(blockIdWildcard).isEmpty());
+  }
+
   private Future<String> getSingleLocationFuture(final String blockId, final BlockState.State state) {
     final List<BlockManagerMaster.BlockRequestHandler> handlerList = blockManagerMaster.getBlockHandlers(blockId, state);
     assertEquals(1, handlerList.size());
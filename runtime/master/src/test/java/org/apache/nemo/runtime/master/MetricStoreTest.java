@@ -19,15 +19,34 @@
 package org.apache.nemo.runtime.master;
 
 import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.SerializationUtils;
 import org.apache.nemo.runtime.common.metric.JobMetric;
+import org.apache.nemo.runtime.common.metric.StageMetric;
+import org.apache.nemo.runtime.common.metric.TaskMetric;
+import org.apache.nemo.runtime.common.state.StageState;
+import org.apache.nemo.runtime.master.metric.MetricBroadcaster;
 import org.apache.nemo.runtime.master.metric.MetricStore;
+import org.apache.nemo.runtime.master.metric.MetricTimeSeries;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Test for {@link MetricStore}
@@ -53,4 +72,134 @@ public final class MetricStoreTest {
     final TreeNode fieldNode = metricNode.get("id");
     assertTrue(fieldNode.isValueNode());
   }
+
+  /**
+   * Concurrent callers get the same metric, and none of their events is lost.
+   */
+  @Test(timeout = 10000)
+  public void testConcurrentGetOrCreateMetric() {
+    final MetricStore metricStore = MetricStore.getStore();
+    final String stageId = "testConcurrentStage";
+    IntStream.range(0, 1000).parallel().forEach(i -> metricStore.getOrCreateMetric(StageMetric.class, stageId)
+      .addEvent(StageState.State.INCOMPLETE, StageState.State.COMPLETE));
+    assertEquals(1000, metricStore.getMetricWithId(StageMetric.class, stageId).getStateTransitionEvents().size());
+  }
+
+  @Test
+  public void testTimeSeriesMerge() {
+    final MetricTimeSeries timeSeries = new MetricTimeSeries(MetricTimeSeries.Type.GAUGE, 10, 1000);
+    for (int i = 0; i <= 10; i++) {
+      timeSeries.record(i * 400, i);
+    }
+    // The samples started at 0, 1200, 2400 and 3600.
+    assertEquals(4, timeSeries.size());
+    assertEquals(10, timeSeries.getLatestValue());
+  }
+
+  @Test
+  public void testTimeSeriesRate() {
+    final MetricTimeSeries timeSeries = new MetricTimeSeries(MetricTimeSeries.Type.COUNTER, 4, 1000);
+    timeSeries.add(0, 100);
+    timeSeries.add(500, 100);  // merged into the first sample, which is now at 500
+    assertEquals(1, timeSeries.size());
+    assertEquals(200, timeSeries.getLatestValue());
+    // 200 (value at 500) - 0 (value before 500) over 0.25 seconds.
+    assertEquals(800.0, timeSeries.getRatePerSecond(500, 250), 0.001);
+
+    timeSeries.add(1000, 100);
+    timeSeries.add(2000, 100);
+    // 400 (value at 2000) - 200 (value at 500) over 1.5 seconds.
+    assertEquals(133.333, timeSeries.getRatePerSecond(2000, 1500), 0.001);
+
+    timeSeries.add(3000, 100);
+    timeSeries.add(4000, 100);
+    assertEquals(4, timeSeries.size());
+    // The sample at 500 is evicted: 600 - 300 (value at 1000) over 3 seconds.
+    assertEquals(100.0, timeSeries.getRatePerSecond(4000, 10000), 0.001);
+  }
+
+  @Test
+  public void testTimeSeriesText() {
+    final MetricStore metricStore = MetricStore.newInstance();
+    metricStore.addToCounter("nemo_stage_read_bytes_total", "stage", "Stage0", 1024);
+    metricStore.addToCounter("nemo_stage_read_bytes_total", "stage", "Stage0", 1024);
+    metricStore.recordGauge("nemo_executor_running_tasks", "executor", "executor-\"1\"", 3);
+
+    final String text = metricStore.dumpTimeSeriesToText();
+    assertTrue(text.contains("# TYPE nemo_stage_read_bytes_total counter\n"));
+    assertTrue(text.contains("nemo_stage_read_bytes_total{stage=\"Stage0\"} 2048\n"));
+    assertTrue(text.contains("# TYPE nemo_stage_read_bytes_per_second gauge\n"));
+    assertTrue(text.contains("nemo_stage_read_bytes_per_second{stage=\"Stage0\"} "));
+    assertTrue(text.contains("# TYPE nemo_executor_running_tasks gauge\n"));
+    assertTrue(text.contains("nemo_executor_running_tasks{executor=\"executor-\\\"1\\\"\"} 3\n"));
+  }
+
+  @Test
+  public void testRemoveTimeSeries() {
+    final MetricStore metricStore = MetricStore.newInstance();
+    metricStore.addToCounter("nemo_stage_read_bytes_total", "stage", "Stage0", 1024);
+    metricStore.addToCounter("nemo_stage_read_bytes_total", "stage", "Stage1", 1024);
+    metricStore.addToCounter("nemo_executor_read_bytes_total", "executor", "Stage0", 1024);
+
+    metricStore.removeTimeSeries("stage", Collections.singletonList("Stage0"));
+    final String text = metricStore.dumpTimeSeriesToText();
+    assertFalse(text.contains("{stage=\"Stage0\"}"));
+    assertTrue(text.contains("nemo_stage_read_bytes_total{stage=\"Stage1\"} 1024\n"));
+    assertTrue(text.contains("nemo_executor_read_bytes_total{executor=\"Stage0\"} 1024\n"));
+  }
+
+  @Test
+  public void testDeltaBroadcast() throws Exception {
+    final List<String> sentTexts = new CopyOnWriteArrayList<>();
+    final RemoteEndpoint remote = mock(RemoteEndpoint.class);
+    doAnswer(invocationOnMock -> sentTexts.add(invocationOnMock.getArgument(0))).when(remote).sendString(anyString());
+    final Session session = mock(Session.class);
+    when(session.getRemote()).thenReturn(remote);
+
+    final MetricStore metricStore = MetricStore.getStore();
+    final MetricBroadcaster metricBroadcaster = MetricBroadcaster.getInstance();
+    metricBroadcaster.addSession(session);
+    try {
+      assertEquals(1, sentTexts.size());  // the initial dump
+
+      final StageMetric stageMetric = metricStore.getOrCreateMetric(StageMetric.class, "deltaStage");
+      stageMetric.addEvent(null, StageState.State.INCOMPLETE);
+      metricStore.triggerBroadcast(StageMetric.class, "deltaStage");
+      final JsonNode whole = awaitBroadcast(sentTexts, 2).get("StageMetric").get("deltaStage");
+      assertFalse(whole.get("delta").asBoolean());
+      assertEquals(1, whole.get("data").get("stateTransitionEvents").size());
+
+      // Two changes within a broadcast interval are sent together, with only the appended events.
+      stageMetric.addEvent(StageState.State.INCOMPLETE, StageState.State.COMPLETE);
+      metricStore.triggerBroadcast(StageMetric.class, "deltaStage", MetricStore.STATE_TRANSITION_EVENTS);
+      metricStore.triggerBroadcast(StageMetric.class, "deltaStage", MetricStore.STATE_TRANSITION_EVENTS);
+      final JsonNode delta = awaitBroadcast(sentTexts, 3).get("StageMetric").get("deltaStage");
+      assertTrue(delta.get("delta").asBoolean());
+      assertEquals(2, delta.get("data").size());
+      assertEquals("deltaStage", delta.get("data").get("id").asText());
+      assertEquals(1, delta.get("data").get("stateTransitionEvents").size());
+      assertEquals("COMPLETE", delta.get("data").get("stateTransitionEvents").get(0).get("newState").asText());
+
+      // Only the changed field of a metric from the executors.
+      final TaskMetric taskMetric = metricStore.getOrCreateMetric(TaskMetric.class, "deltaTask");
+      metricStore.triggerBroadcast(TaskMetric.class, "deltaTask");
+      awaitBroadcast(sentTexts, 4);
+      taskMetric.processMetricMessage("taskDuration", SerializationUtils.serialize(42L));
+      metricStore.triggerBroadcast(TaskMetric.class, "deltaTask", "taskDuration");
+      final JsonNode fieldDelta = awaitBroadcast(sentTexts, 5).get("TaskMetric").get("deltaTask");
+      assertTrue(fieldDelta.get("delta").asBoolean());
+      assertEquals(2, fieldDelta.get("data").size());
+      assertEquals(42L, fieldDelta.get("data").get("taskDuration").asLong());
+    } finally {
+      metricBroadcaster.removeSession(session);
+    }
+  }
+
+  private static JsonNode awaitBroadcast(final List<String> sentTexts, final int numTexts) throws Exception {
+    for (int i = 0; i < 100 && sentTexts.size() < numTexts; i++) {
+      Thread.sleep(50);
+    }
+    assertEquals(numTexts, sentTexts.size());
+    return new ObjectMapper().readTree(sentTexts.get(numTexts - 1));
+  }
 }
@@ -97,6 +97,48 @@ public final class PlanStateManagerTest {
     }
   }
 
+  /**
+   * Tests that the stages and the plan complete when tasks change their states concurrently,
+   * including a completed task to retry.
+   *
+   * @throws Exception exception on the way.
+   */
+  @Test(timeout = 10000)
+  public void testConcurrentTaskStateChanges() throws Exception {
+    final PhysicalPlan physicalPlan =
+      TestPlanGenerator.generatePhysicalPlan(TestPlanGenerator.PlanType.TwoVerticesJoined, false);
+    planStateManager.updatePlan(physicalPlan, MAX_SCHEDULE_ATTEMPT);
+    final List<Stage> stageList = physicalPlan.getStageDAG().getTopologicalSort();
+
+    final Stage firstStage = stageList.get(0);
+    final List<String> firstAttempts = planStateManager.getTaskAttemptsToSchedule(firstStage.getId());
+    firstAttempts.parallelStream().forEach(taskId -> {
+      planStateManager.onTaskStateChanged(taskId, TaskState.State.EXECUTING);
+      planStateManager.onTaskStateChanged(taskId, TaskState.State.COMPLETE);
+    });
+    assertEquals(StageState.State.COMPLETE, planStateManager.getStageState(firstStage.getId()));
+
+    // The output of a completed task is lost, so it has to be retried.
+    planStateManager.onTaskStateChanged(firstAttempts.get(0), TaskState.State.SHOULD_RETRY);
+    assertEquals(StageState.State.INCOMPLETE, planStateManager.getStageState(firstStage.getId()));
+    final List<String> retries = planStateManager.getTaskAttemptsToSchedule(firstStage.getId());
+    assertEquals(1, retries.size());
+    planStateManager.onTaskStateChanged(retries.get(0), TaskState.State.EXECUTING);
+    planStateManager.onTaskStateChanged(retries.get(0), TaskState.State.COMPLETE);
+    assertEquals(StageState.State.COMPLETE, planStateManager.getStageState(firstStage.getId()));
+    assertFalse(planStateManager.isPlanDone());
+
+    stageList.stream().skip(1)
+      .flatMap(stage -> planStateManager.getTaskAttemptsToSchedule(stage.getId()).stream())
+      .collect(Collectors.toList())
+      .parallelStream()
+      .forEach(taskId -> {
+        planStateManager.onTaskStateChanged(taskId, TaskState.State.EXECUTING);
+        planStateManager.onTaskStateChanged(taskId, TaskState.State.COMPLETE);
+      });
+    assertEquals(PlanState.State.COMPLETE, planStateManager.waitUntilFinish());
+  }
+
   /**
    * Test whether the methods waiting for the finish of the plan works properly.
    *
@@ -125,4 +167,21 @@ public final class PlanStateManagerTest {
     final PlanState.State completedState = planStateManager.waitUntilFinish();
     assertEquals(PlanState.State.COMPLETE, completedState);
   }
+
+  /**
+   * Tests that a stage is found by its ID and the digest of its DAG, which the executors request.
+   *
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testGetStageByDigest() throws Exception {
+    final PhysicalPlan physicalPlan =
+      TestPlanGenerator.generatePhysicalPlan(TestPlanGenerator.PlanType.TwoVerticesJoined, false);
+    planStateManager.updatePlan(physicalPlan, MAX_SCHEDULE_ATTEMPT);
+    final Stage stage = physicalPlan.getStageDAG().getTopologicalSort().get(0);
+
+    assertEquals(stage, planStateManager.getStage(stage.getId(), stage.getIRDAGDigest()).get());
+    assertFalse(planStateManager.getStage(stage.getId(), "anotherDigest").isPresent());
+    assertFalse(planStateManager.getStage("NoSuchStage", stage.getIRDAGDigest()).isPresent());
+  }
 }
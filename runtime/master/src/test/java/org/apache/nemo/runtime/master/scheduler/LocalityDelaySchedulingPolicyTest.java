@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.master.scheduler;
+
+import org.apache.nemo.common.ir.edge.executionproperty.CommunicationPatternProperty;
+import org.apache.nemo.common.ir.edge.IREdge;
+import org.apache.nemo.common.ir.executionproperty.ExecutionPropertyMap;
+import org.apache.nemo.common.ir.vertex.IRVertex;
+import org.apache.nemo.conf.JobConf;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.apache.nemo.runtime.common.plan.Stage;
+import org.apache.nemo.runtime.common.plan.StageEdge;
+import org.apache.nemo.runtime.common.plan.Task;
+import org.apache.nemo.runtime.master.BlockManagerMaster;
+import org.apache.nemo.runtime.master.resource.ExecutorRepresenter;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.apache.reef.tang.exceptions.InjectionException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link LocalityDelaySchedulingPolicy}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ExecutorRepresenter.class, Task.class, IREdge.class, IRVertex.class, Stage.class,
+  BlockManagerMaster.class})
+public final class LocalityDelaySchedulingPolicyTest {
+  private static final String EDGE_ID = "edge0";
+  private static final long LOCALITY_WAIT_MS = 300;
+
+  private BlockManagerMaster blockManagerMaster;
+  private ExecutorRegistry executorRegistry;
+  private ExecutorRepresenter e0;
+  private ExecutorRepresenter e1;
+  private ExecutorRepresenter e2;
+  private Task task;
+
+  private static ExecutorRepresenter mockExecutorRepresenter(final String executorId, final int numRunningTasks) {
+    final ExecutorRepresenter executorRepresenter = mock(ExecutorRepresenter.class);
+    when(executorRepresenter.getExecutorId()).thenReturn(executorId);
+    when(executorRepresenter.getNumOfRunningTasks()).thenReturn(numRunningTasks);
+    return executorRepresenter;
+  }
+
+  @Before
+  public void setUp() {
+    e0 = mockExecutorRepresenter("e0", 0);
+    e1 = mockExecutorRepresenter("e1", 2);
+    e2 = mockExecutorRepresenter("e2", 0);
+    executorRegistry = ExecutorRegistry.newInstance();
+    executorRegistry.registerExecutor(e0);
+    executorRegistry.registerExecutor(e1);
+    executorRegistry.registerExecutor(e2);
+
+    // A one-to-one input block, of which e0 holds 100 bytes and e1 holds 10 bytes.
+    final StageEdge edge = new StageEdge(EDGE_ID,
+      ExecutionPropertyMap.of(mock(IREdge.class), CommunicationPatternProperty.Value.ONE_TO_ONE),
+      mock(IRVertex.class), mock(IRVertex.class), mock(Stage.class), mock(Stage.class));
+    task = mock(Task.class);
+    when(task.getTaskId()).thenReturn(RuntimeIdManager.generateTaskId("Stage0", 0, 0));
+    when(task.getTaskIncomingEdges()).thenReturn(Collections.singletonList(edge));
+
+    final Map<String, Long> bytesByLocation = new HashMap<>();
+    bytesByLocation.put("e0", 100L);
+    bytesByLocation.put("e1", 10L);
+    blockManagerMaster = mock(BlockManagerMaster.class);
+    when(blockManagerMaster.getAvailableBlockBytesByLocation(RuntimeIdManager.generateBlockIdWildcard(EDGE_ID, 0)))
+      .thenReturn(bytesByLocation);
+  }
+
+  private SchedulingPolicy getPolicy(final long localityWaitMs) throws InjectionException {
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileInstance(BlockManagerMaster.class, blockManagerMaster);
+    injector.bindVolatileInstance(ExecutorRegistry.class, executorRegistry);
+    injector.bindVolatileParameter(JobConf.LocalityWaitMs.class, (int) localityWaitMs);
+    return injector.getInstance(LocalityDelaySchedulingPolicy.class);
+  }
+
+  @Test
+  public void testSelectExecutorWithMostInputBytes() throws InjectionException {
+    final SchedulingPolicy schedulingPolicy = getPolicy(LOCALITY_WAIT_MS);
+    assertEquals(e0, schedulingPolicy.selectExecutor(Arrays.asList(e0, e1, e2), task));
+    assertEquals(e1, schedulingPolicy.selectExecutor(Arrays.asList(e1, e2), task));
+    assertEquals(0, schedulingPolicy.getSchedulingDelayMs(Arrays.asList(e0, e1, e2), task));
+  }
+
+  @Test
+  public void testWaitForLocalExecutorBounded() throws InjectionException, InterruptedException {
+    final SchedulingPolicy schedulingPolicy = getPolicy(LOCALITY_WAIT_MS);
+    final long delayMs = schedulingPolicy.getSchedulingDelayMs(Arrays.asList(e1, e2), task);
+    assertTrue(delayMs > 0 && delayMs <= LOCALITY_WAIT_MS);
+
+    Thread.sleep(LOCALITY_WAIT_MS);
+    assertEquals(0, schedulingPolicy.getSchedulingDelayMs(Arrays.asList(e1, e2), task));
+    assertEquals(e1, schedulingPolicy.selectExecutor(Arrays.asList(e1, e2), task));
+  }
+
+  @Test
+  public void testNoWait() throws InjectionException {
+    assertEquals(0, getPolicy(0).getSchedulingDelayMs(Arrays.asList(e1, e2), task));
+  }
+}
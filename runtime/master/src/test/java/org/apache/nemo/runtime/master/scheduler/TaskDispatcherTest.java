@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.nemo.runtime.master.scheduler;
+
+import org.apache.nemo.common.ir.Readable;
+import org.apache.nemo.common.ir.executionproperty.ExecutionPropertyMap;
+import org.apache.nemo.common.ir.executionproperty.VertexExecutionProperty;
+import org.apache.nemo.common.ir.vertex.executionproperty.ResourceLocalityProperty;
+import org.apache.nemo.common.ir.vertex.executionproperty.ResourceSlotProperty;
+import org.apache.nemo.runtime.common.RuntimeIdManager;
+import org.apache.nemo.runtime.common.plan.Task;
+import org.apache.nemo.runtime.common.state.TaskState;
+import org.apache.nemo.runtime.master.BlockManagerMaster;
+import org.apache.nemo.runtime.master.PlanStateManager;
+import org.apache.nemo.runtime.master.resource.ExecutorRepresenter;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the dispatch of the tasks of a stage in the preference order of the {@link SchedulingPolicy}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({PlanStateManager.class, BlockManagerMaster.class})
+public final class TaskDispatcherTest {
+  private static final String STAGE_ID = "Stage0";
+  private static final long TIMEOUT_MS = 10000;
+  private static final long DISPATCH_WAIT_MS = 5000;
+
+  private PlanStateManager planStateManager;
+  private PendingTaskCollectionPointer pendingTaskCollectionPointer;
+  private ExecutorRegistry executorRegistry;
+  private TaskDispatcher taskDispatcher;
+  // The task IDs scheduled to each executor, and the number of running tasks of the executors when scheduled.
+  private Map<ExecutorRepresenter, List<String>> scheduledTaskIds;
+  private List<Integer> occupanciesOnScheduling;
+
+  @Before
+  public void setUp() throws Exception {
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileInstance(BlockManagerMaster.class, mock(BlockManagerMaster.class));
+    planStateManager = mock(PlanStateManager.class);
+    when(planStateManager.getTaskState(anyString())).thenReturn(TaskState.State.READY);
+    pendingTaskCollectionPointer = PendingTaskCollectionPointer.newInstance();
+    executorRegistry = ExecutorRegistry.newInstance();
+    taskDispatcher = TaskDispatcher.newInstance(injector.getInstance(SchedulingConstraintRegistry.class),
+      injector.getInstance(MinOccupancyFirstSchedulingPolicy.class), pendingTaskCollectionPointer,
+      executorRegistry, planStateManager);
+    scheduledTaskIds = new HashMap<>();
+    occupanciesOnScheduling = new ArrayList<>();
+  }
+
+  @After
+  public void tearDown() {
+    taskDispatcher.terminate();
+  }
+
+  /**
+   * Each task goes to the least occupied executor, and the tasks left once every executor is full wait.
+   */
+  @Test(timeout = TIMEOUT_MS)
+  public void testPreferenceOrder() {
+    final ExecutorRepresenter e0 = registerExecutor("e0", "node0", 2, 1);
+    final ExecutorRepresenter e1 = registerExecutor("e1", "node1", 2, 0);
+    final ExecutorRepresenter e2 = registerExecutor("e2", "node2", 2, 0);
+    final ExecutionPropertyMap<VertexExecutionProperty> properties = new ExecutionPropertyMap<>(STAGE_ID);
+    properties.put(ResourceSlotProperty.of(true));
+    final List<Task> tasks = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      tasks.add(newTask(i, properties, Collections.emptyList()));
+    }
+
+    final Collection<Task> leftTasks = dispatch(tasks, 5);
+    assertEquals(Arrays.asList(0, 0, 1, 1, 1), occupanciesOnScheduling);
+    assertEquals(1, scheduledTaskIds.get(e0).size());
+    assertEquals(2, scheduledTaskIds.get(e1).size());
+    assertEquals(2, scheduledTaskIds.get(e2).size());
+    assertEquals(Collections.singletonList(tasks.get(5)), new ArrayList<>(leftTasks));
+  }
+
+  /**
+   * A task skips the preferred executors which do not hold its data, but the next task may still use them,
+   * while a full executor is not used by any task.
+   */
+  @Test(timeout = TIMEOUT_MS)
+  public void testLocality() {
+    final ExecutorRepresenter e0 = registerExecutor("e0", "node0", 2, 0);
+    final ExecutorRepresenter e1 = registerExecutor("e1", "node1", 2, 1);
+    final ExecutorRepresenter e2 = registerExecutor("e2", "node2", 1, 1);
+    final ExecutionPropertyMap<VertexExecutionProperty> properties = new ExecutionPropertyMap<>(STAGE_ID);
+    properties.put(ResourceSlotProperty.of(true));
+    properties.put(ResourceLocalityProperty.of(true));
+    final Task taskOnNode1 = newTask(0, properties, Collections.singletonList("node1"));
+    final Task taskAnywhere = newTask(1, properties, Collections.emptyList());
+    final Task taskOnNode2 = newTask(2, properties, Collections.singletonList("node2"));
+
+    final Collection<Task> leftTasks = dispatch(Arrays.asList(taskOnNode1, taskAnywhere, taskOnNode2), 2);
+    assertEquals(Collections.singletonList(taskAnywhere.getTaskId()), scheduledTaskIds.get(e0));
+    assertEquals(Collections.singletonList(taskOnNode1.getTaskId()), scheduledTaskIds.get(e1));
+    assertTrue(scheduledTaskIds.get(e2).isEmpty());
+    assertEquals(Collections.singletonList(taskOnNode2), new ArrayList<>(leftTasks));
+  }
+
+  /**
+   * Runs a dispatch iteration.
+   *
+   * @param tasks             the tasks to dispatch.
+   * @param numTasksScheduled the number of tasks expected to be scheduled.
+   * @return the tasks that could not be scheduled.
+   */
+  private Collection<Task> dispatch(final List<Task> tasks, final int numTasksScheduled) {
+    // The dispatcher thread runs an iteration on start, and then waits for a signal, which never comes here.
+    pendingTaskCollectionPointer.setToOverwrite(tasks);
+    taskDispatcher.run();
+    verify(planStateManager, timeout(DISPATCH_WAIT_MS).times(numTasksScheduled))
+      .onTaskStateChanged(anyString(), eq(TaskState.State.EXECUTING));
+    // The dispatcher has taken the tasks, and puts back the rest after scheduling.
+    while (true) {
+      final Optional<Collection<Task>> leftTasks = pendingTaskCollectionPointer.getAndSetNull();
+      if (leftTasks.isPresent()) {
+        return leftTasks.get();
+      }
+      Thread.yield();
+    }
+  }
+
+  private ExecutorRepresenter registerExecutor(final String executorId,
+                                               final String nodeName,
+                                               final int capacity,
+                                               final int numRunningTasks) {
+    final ExecutorRepresenter executor = mock(ExecutorRepresenter.class);
+    final List<String> taskIds = new ArrayList<>();
+    final int[] numTasks = {numRunningTasks};
+    when(executor.getExecutorId()).thenReturn(executorId);
+    when(executor.getNodeName()).thenReturn(nodeName);
+    when(executor.getExecutorCapacity()).thenReturn(capacity);
+    when(executor.getNumOfRunningTasks()).thenAnswer(invocation -> numTasks[0]);
+    when(executor.getNumOfComplyingRunningTasks()).thenAnswer(invocation -> numTasks[0]);
+    doAnswer(invocation -> {
+      occupanciesOnScheduling.add(numTasks[0]++);
+      taskIds.add(((Task) invocation.getArgument(0)).getTaskId());
+      return null;
+    }).when(executor).onTaskScheduled(any());
+    scheduledTaskIds.put(executor, taskIds);
+    executorRegistry.registerExecutor(executor);
+    return executor;
+  }
+
+  private static Task newTask(final int index,
+                              final ExecutionPropertyMap<VertexExecutionProperty> properties,
+                              final List<String> sourceLocations) {
+    final Map<String, Readable> irVertexIdToReadable = new HashMap<>();
+    if (!sourceLocations.isEmpty()) {
+      final Readable readable = mock(Readable.class);
+      try {
+        when(readable.getLocations()).thenReturn(sourceLocations);
+      } catch (final Exception e) {
+        throw new RuntimeException(e);
+      }
+      irVertexIdToReadable.put("source", readable);
+    }
+    return new Task("plan", RuntimeIdManager.generateTaskId(STAGE_ID, index, 0), properties, "digest",
+      Collections.emptyList(), Collections.emptyList(), irVertexIdToReadable);
+  }
+}